@@ -46,6 +46,7 @@ import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.reflection.Reflectional;
 import com.avairebot.contracts.scheduler.Job;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.migrate.migrations.*;
 import com.avairebot.database.serializer.PlaylistSongSerializer;
 import com.avairebot.database.transformers.PlaylistTransformer;
@@ -102,6 +103,7 @@ import java.net.URISyntaxException;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class AvaIre {
@@ -222,7 +224,9 @@ public class AvaIre {
             new AddPardonToLogTableMigration(),
             new CreateReactionRoleTableMigration(),
             new AddLevelExemptChannelsToGuildsTableMigration(),
-            new AddGlobalExperienceToExperienceTableMigration()
+            new AddGlobalExperienceToExperienceTableMigration(),
+            new AddUniqueKeysForUpsertsMigration(),
+            new CreateGlobalExperiencesTableMigration()
         );
 
         log.info("Registering default middlewares");
@@ -543,6 +547,14 @@ public class AvaIre {
             e.printStackTrace();
         }
 
+        // The buffered guild updates are built from the guild entities when they're
+        // written, so they have to be flushed before the shards are shut down.
+        try {
+            GuildController.getGuildUpdates().flush(getDatabase(), true);
+        } catch (SQLException ex) {
+            getLogger().error("Failed to write buffered guild updates during shutdown: ", ex);
+        }
+
         if (getShardManager() != null) {
             for (JDA shard : getShardManager().getShards()) {
                 shard.shutdown();
@@ -553,6 +565,8 @@ public class AvaIre {
             job.cancel(true);
         }
 
+        getDatabase().shutdownExecutor(10, TimeUnit.SECONDS);
+
         try {
             getDatabase().getConnection().close();
         } catch (SQLException ex) {
@@ -24,8 +24,10 @@ package com.avairebot.blacklist;
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.database.collection.Collection;
+import com.avairebot.database.connections.SQLite;
 import com.avairebot.database.query.ChangeableStatement;
 import com.avairebot.time.Carbon;
+import com.avairebot.time.TimingWheel;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.entities.User;
@@ -34,16 +36,34 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-@SuppressWarnings("SuspiciousMethodCalls")
 public class Blacklist {
 
     private final AvaIre avaire;
-    private final List<BlacklistEntity> blacklist;
     private final Ratelimit ratelimit;
 
+    /**
+     * The blacklist indexes, one for each {@link Scope scope}, indexed by the scope ordinal,
+     * the indexes are immutable and are replaced whenever the blacklist is changed,
+     * so checking the blacklist never has to lock or copy anything.
+     */
+    private final AtomicReferenceArray<BlacklistIndex> indexes;
+
+    /**
+     * The timing wheel used to remove blacklist entities once they expire.
+     */
+    private final TimingWheel<BlacklistEntity> expiries;
+
+    /**
+     * Determines if the blacklist table has the type and expires in columns,
+     * the value is loaded lazily the first time it is needed.
+     */
+    private volatile Boolean reformattedBlacklistTable = null;
+
     /**
      * Creates a new blacklist instance.
      *
@@ -52,8 +72,14 @@ public class Blacklist {
     public Blacklist(AvaIre avaire) {
         this.avaire = avaire;
 
-        this.blacklist = new BlacklistList();
         this.ratelimit = new Ratelimit(this);
+
+        this.indexes = new AtomicReferenceArray<>(Scope.values().length);
+        for (Scope scope : Scope.values()) {
+            indexes.set(scope.ordinal(), BlacklistIndex.EMPTY);
+        }
+
+        this.expiries = new TimingWheel<>(64, TimeUnit.MINUTES.toMillis(1), System.currentTimeMillis());
     }
 
     /**
@@ -72,7 +98,7 @@ public class Blacklist {
      * @return <code>True</code> if the ID is on the blacklist, <code>False</code> otherwise.
      */
     public boolean isBlacklisted(long id) {
-        return blacklist.contains(id);
+        return getEntity(id) != null;
     }
 
     /**
@@ -96,12 +122,12 @@ public class Blacklist {
      * @return <code>True</code> if the user is on the blacklist, <code>False</code> otherwise.
      */
     public boolean isBlacklisted(@Nonnull User user) {
-        if (avaire.getBotAdmins().isAdmin(user.getId()).isAdmin()) {
+        BlacklistEntity entity = getEntity(user.getIdLong(), Scope.USER);
+        if (entity == null || !entity.isBlacklisted(System.currentTimeMillis())) {
             return false;
         }
 
-        BlacklistEntity entity = getEntity(user.getIdLong(), Scope.USER);
-        return entity != null && entity.isBlacklisted();
+        return !avaire.getBotAdmins().isAdmin(user.getId()).isAdmin();
     }
 
     /**
@@ -112,7 +138,7 @@ public class Blacklist {
      */
     public boolean isBlacklisted(@Nonnull Guild guild) {
         BlacklistEntity entity = getEntity(guild.getIdLong(), Scope.GUILD);
-        return entity != null && entity.isBlacklisted();
+        return entity != null && entity.isBlacklisted(System.currentTimeMillis());
     }
 
     /**
@@ -143,17 +169,13 @@ public class Blacklist {
      * @param id The ID to remove from teh blacklist.
      */
     public void remove(long id) {
-        if (!blacklist.contains(id)) {
+        if (!isBlacklisted(id)) {
             return;
         }
 
-        Iterator<BlacklistEntity> iterator = blacklist.iterator();
-        while (iterator.hasNext()) {
-            BlacklistEntity next = iterator.next();
-
-            if (next.getId() == id) {
-                iterator.remove();
-                break;
+        synchronized (indexes) {
+            for (Scope scope : Scope.values()) {
+                indexes.set(scope.ordinal(), indexes.get(scope.ordinal()).without(id));
             }
         }
 
@@ -186,11 +208,13 @@ public class Blacklist {
      */
     @Nullable
     public BlacklistEntity getEntity(long id, @Nullable Scope scope) {
-        for (BlacklistEntity entity : blacklist) {
-            if (entity.getId() == id) {
-                if (scope != null && scope != entity.getScope()) {
-                    continue;
-                }
+        if (scope != null) {
+            return indexes.get(scope.ordinal()).get(id);
+        }
+
+        for (int i = 0; i < indexes.length(); i++) {
+            BlacklistEntity entity = indexes.get(i).get(id);
+            if (entity != null) {
                 return entity;
             }
         }
@@ -217,59 +241,113 @@ public class Blacklist {
      * @param expiresIn The carbon time instance for when the entity should expire.
      */
     public void addIdToBlacklist(Scope scope, final long id, final @Nullable String reason, @Nullable Carbon expiresIn) {
-        BlacklistEntity entity = getEntity(id, scope);
-        if (entity != null) {
-            blacklist.remove(entity);
+        BlacklistEntity entity = new BlacklistEntity(scope, id, reason, expiresIn);
+
+        synchronized (indexes) {
+            indexes.set(scope.ordinal(), indexes.get(scope.ordinal()).with(entity));
+            scheduleExpiry(entity);
         }
 
-        blacklist.add(new BlacklistEntity(scope, id, reason, expiresIn));
+        if (!hasReformattedBlacklistTable()) {
+            return;
+        }
 
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.BLACKLIST_TABLE_NAME)
-                .where("id", id).andWhere("type", scope.getId())
-                .delete();
+        Carbon expiresAt = expiresIn == null ? Carbon.now().addYears(10) : expiresIn;
 
-            avaire.getDatabase().newQueryBuilder(Constants.BLACKLIST_TABLE_NAME)
-                .useAsync(true)
-                .insert((ChangeableStatement statement) -> {
-                    statement.set("id", id);
-                    statement.set("type", scope.getId());
-                    statement.set("expires_in", expiresIn);
-
-                    if (expiresIn == null) {
-                        statement.set("expires_in", Carbon.now().addYears(10));
-                    }
+        avaire.getDatabase().newQueryBuilder(Constants.BLACKLIST_TABLE_NAME)
+            .upsertAsync(Arrays.asList("id", "type"), (ChangeableStatement statement) -> {
+                statement.set("id", id);
+                statement.set("type", scope.getId());
+                statement.set("expires_in", expiresAt);
 
-                    if (reason != null) {
-                        statement.set("reason", reason);
-                    }
-                });
-        } catch (SQLException e) {
-            AvaIre.getLogger().error("Failed to sync blacklist with the database: " + e.getMessage(), e);
+                if (reason != null) {
+                    statement.set("reason", reason);
+                }
+            }, (ChangeableStatement statement) -> {
+                statement.set("expires_in", expiresAt);
+                statement.set("reason", reason);
+            }).exceptionally(throwable -> {
+                AvaIre.getLogger().error("Failed to sync blacklist with the database: " + throwable.getMessage(), throwable);
+                return null;
+            });
+    }
+
+    /**
+     * Checks if the blacklist table has been reformatted with the type and expires in columns,
+     * SQLite installs never got the reformatted blacklist table, so the blacklist is only
+     * kept in memory for them, the check is only made once, and then remembered.
+     *
+     * @return <code>True</code> if the blacklist can be stored in the database, <code>False</code> otherwise.
+     */
+    private boolean hasReformattedBlacklistTable() {
+        Boolean reformatted = reformattedBlacklistTable;
+        if (reformatted == null) {
+            try {
+                reformatted = !(avaire.getDatabase().getConnection() instanceof SQLite)
+                    || avaire.getDatabase().getSchema().hasColumn(Constants.BLACKLIST_TABLE_NAME, "type");
+            } catch (SQLException e) {
+                return false;
+            }
+            reformattedBlacklistTable = reformatted;
         }
+        return reformatted;
     }
 
     /**
      * Get the all the entities currently on the blacklist, this
      * includes both users and guilds, the type can be checked
-     * through the {@link BlacklistEntity#getScope() scope}.
+     * through the {@link BlacklistEntity#getScope() scope}, the returned
+     * list is a copy, so changes to it won't affect the blacklist.
      *
      * @return The entities currently on the blacklist.
      */
     public List<BlacklistEntity> getBlacklistEntities() {
-        return blacklist;
+        List<BlacklistEntity> entities = new ArrayList<>();
+        for (int i = 0; i < indexes.length(); i++) {
+            entities.addAll(indexes.get(i).getEntities());
+        }
+        return entities;
+    }
+
+    /**
+     * Removes all the blacklist entities that has expired, the entities are
+     * found through the expiry timing wheel, so only entities that are
+     * due to expire will be checked.
+     */
+    public void removeExpiredEntities() {
+        long now = System.currentTimeMillis();
+
+        synchronized (indexes) {
+            expiries.advance(now, entity -> {
+                if (entity.isBlacklisted(now)) {
+                    expiries.schedule(entity, entity.getExpiresAt());
+                    return;
+                }
+
+                int scope = entity.getScope().ordinal();
+                indexes.set(scope, indexes.get(scope).without(entity));
+            });
+        }
     }
 
     /**
      * Syncs the blacklist with the database.
      */
     public synchronized void syncBlacklistWithDatabase() {
-        blacklist.clear();
+        if (!hasReformattedBlacklistTable()) {
+            return;
+        }
+
         try {
             Collection collection = avaire.getDatabase().newQueryBuilder(Constants.BLACKLIST_TABLE_NAME)
                 .where("expires_in", ">", Carbon.now())
                 .get();
 
+            List<List<BlacklistEntity>> entities = new ArrayList<>();
+            for (Scope ignored : Scope.values()) {
+                entities.add(new ArrayList<>());
+            }
+
             collection.forEach(row -> {
                 String id = row.getString("id", null);
                 if (id == null) {
@@ -279,8 +357,11 @@ public class Blacklist {
                 try {
                     long longId = Long.parseLong(id);
                     Scope scope = Scope.fromId(row.getInt("type", 0));
+                    if (scope == null) {
+                        return;
+                    }
 
-                    blacklist.add(new BlacklistEntity(
+                    entities.get(scope.ordinal()).add(new BlacklistEntity(
                         scope, longId,
                         row.getString("reason"),
                         row.getTimestamp("expires_in")
@@ -289,26 +370,24 @@ public class Blacklist {
                     // This is ignored
                 }
             });
-        } catch (SQLException e) {
-            AvaIre.getLogger().error("Failed to sync blacklist with the database: " + e.getMessage(), e);
-        }
-    }
 
-    private class BlacklistList extends ArrayList<BlacklistEntity> {
+            synchronized (indexes) {
+                for (Scope scope : Scope.values()) {
+                    indexes.set(scope.ordinal(), new BlacklistIndex(entities.get(scope.ordinal())));
 
-        @Override
-        public boolean contains(Object o) {
-            if (o instanceof Long) {
-                long id = (long) o;
-                for (BlacklistEntity entity : this) {
-                    if (entity.getId() == id) {
-                        return true;
+                    for (BlacklistEntity entity : entities.get(scope.ordinal())) {
+                        scheduleExpiry(entity);
                     }
                 }
-                return false;
             }
+        } catch (SQLException e) {
+            AvaIre.getLogger().error("Failed to sync blacklist with the database: " + e.getMessage(), e);
+        }
+    }
 
-            return super.contains(o);
+    private void scheduleExpiry(BlacklistEntity entity) {
+        if (entity.getExpiresAt() != Long.MAX_VALUE) {
+            expiries.schedule(entity, entity.getExpiresAt());
         }
     }
 }
@@ -31,7 +31,7 @@ public class BlacklistEntity extends Evalable {
 
     private final Scope scope;
     private final long id;
-    private final Carbon expiresIn;
+    private final long expiresAt;
     private final String reason;
 
     /**
@@ -46,7 +46,7 @@ public class BlacklistEntity extends Evalable {
         this.scope = scope;
         this.id = id;
         this.reason = reason;
-        this.expiresIn = expiresIn;
+        this.expiresAt = expiresIn == null ? Long.MAX_VALUE : expiresIn.getTime().getTimeInMillis();
     }
 
     /**
@@ -86,7 +86,27 @@ public class BlacklistEntity extends Evalable {
      * @return <code>True</code> if the user is still blacklisted, <code>False</code> otherwise.
      */
     public boolean isBlacklisted() {
-        return expiresIn == null || expiresIn.isFuture();
+        return isBlacklisted(System.currentTimeMillis());
+    }
+
+    /**
+     * Checks if the blacklist entity is still blacklisted at the given time.
+     *
+     * @param now The current time in milliseconds since epoch.
+     * @return <code>True</code> if the user is still blacklisted, <code>False</code> otherwise.
+     */
+    public boolean isBlacklisted(long now) {
+        return expiresAt > now;
+    }
+
+    /**
+     * Gets the time the blacklist entity expires at in milliseconds since epoch,
+     * entities that never expires will return {@link Long#MAX_VALUE}.
+     *
+     * @return The time the blacklist entity expires at in milliseconds since epoch.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
     }
 
     /**
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.blacklist;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+final class BlacklistIndex {
+
+    /**
+     * An empty blacklist index.
+     */
+    static final BlacklistIndex EMPTY = new BlacklistIndex(Collections.emptyList());
+
+    /**
+     * The entities in the index, in the order they were added.
+     */
+    private final BlacklistEntity[] entities;
+
+    /**
+     * The open-addressed hash table of entity IDs, the entity for a given
+     * slot is stored in the same slot in the {@link #table} array.
+     */
+    private final long[] keys;
+    private final BlacklistEntity[] table;
+    private final int mask;
+
+    /**
+     * Creates a new immutable blacklist index for the given entities, if
+     * multiple entities share the same ID, the last one will be used.
+     *
+     * @param entities The entities that should be added to the index.
+     */
+    BlacklistIndex(Collection<BlacklistEntity> entities) {
+        int capacity = Integer.highestOneBit(Math.max(2, entities.size() * 2 - 1)) << 1;
+
+        this.keys = new long[capacity];
+        this.table = new BlacklistEntity[capacity];
+        this.mask = capacity - 1;
+
+        List<BlacklistEntity> ordered = new ArrayList<>(entities.size());
+        for (BlacklistEntity entity : entities) {
+            int index = indexOf(entity.getId());
+            if (table[index] != null) {
+                ordered.remove(table[index]);
+            }
+
+            keys[index] = entity.getId();
+            table[index] = entity;
+            ordered.add(entity);
+        }
+
+        this.entities = ordered.toArray(new BlacklistEntity[0]);
+    }
+
+    /**
+     * Gets the entity with the given ID, the lookup doesn't lock or allocate.
+     *
+     * @param id The ID of the entity.
+     * @return Possibly-null, the entity with the given ID.
+     */
+    @Nullable
+    BlacklistEntity get(long id) {
+        return table[indexOf(id)];
+    }
+
+    /**
+     * Creates a copy of the index with the given entity added, replacing
+     * any existing entity with the same ID.
+     *
+     * @param entity The entity that should be added.
+     * @return The new index with the entity added.
+     */
+    BlacklistIndex with(BlacklistEntity entity) {
+        List<BlacklistEntity> entities = new ArrayList<>(Arrays.asList(this.entities));
+        entities.add(entity);
+
+        return new BlacklistIndex(entities);
+    }
+
+    /**
+     * Creates a copy of the index with the entity with the given ID removed.
+     *
+     * @param id The ID of the entity that should be removed.
+     * @return The new index with the entity removed, or the same index if no entity has the given ID.
+     */
+    BlacklistIndex without(long id) {
+        BlacklistEntity entity = get(id);
+        if (entity == null) {
+            return this;
+        }
+        return without(entity);
+    }
+
+    /**
+     * Creates a copy of the index with the given entity removed, entities
+     * are compared by identity, so if the entity has since been replaced
+     * by another entity with the same ID, nothing will be removed.
+     *
+     * @param entity The entity that should be removed.
+     * @return The new index with the entity removed, or the same index if the entity isn't in the index.
+     */
+    BlacklistIndex without(BlacklistEntity entity) {
+        if (get(entity.getId()) != entity) {
+            return this;
+        }
+
+        List<BlacklistEntity> entities = new ArrayList<>(this.entities.length);
+        for (BlacklistEntity next : this.entities) {
+            if (next != entity) {
+                entities.add(next);
+            }
+        }
+        return new BlacklistIndex(entities);
+    }
+
+    /**
+     * Gets all the entities in the index.
+     *
+     * @return An immutable list of all the entities in the index.
+     */
+    List<BlacklistEntity> getEntities() {
+        return Collections.unmodifiableList(Arrays.asList(entities));
+    }
+
+    /**
+     * Gets the amount of entities in the index.
+     *
+     * @return The amount of entities in the index.
+     */
+    int size() {
+        return entities.length;
+    }
+
+    private int indexOf(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (table[index] != null && keys[index] != id) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+}
@@ -21,7 +21,9 @@
 
 package com.avairebot.blacklist;
 
-import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class Rate {
 
@@ -31,16 +33,27 @@ public class Rate {
     private final long userId;
 
     /**
-     * The current rate index for the {@link #timestamps}.
+     * The amount of milliseconds each hit is valid for.
      */
-    private int index;
+    private final long hitTime;
 
     /**
-     * The array that holds the last timestamps for when the rate
+     * The next rate index for the {@link #timestamps}, the index only ever increases,
+     * and is wrapped around the length of the timestamps array when it's used.
+     */
+    private final AtomicInteger index = new AtomicInteger(0);
+
+    /**
+     * The ring buffer that holds the last timestamps for when the rate
      * was hit, the array should always be the same length as
      * the {@link Ratelimit#hitLimit hit limit}.
      */
-    private Long[] timestamps;
+    private final AtomicLongArray timestamps;
+
+    /**
+     * The last time the rate caused a punishment, or 0 if it never has.
+     */
+    private final AtomicLong lastPunishment = new AtomicLong(0L);
 
     /**
      * Creates a new rate instance for the given user ID.
@@ -48,31 +61,48 @@ public class Rate {
      * @param userId The ID of the user to create the rate instance for.
      */
     public Rate(long userId) {
+        this(userId, Ratelimit.hitLimit, Ratelimit.hitTime);
+    }
+
+    /**
+     * Creates a new rate instance for the given user ID.
+     *
+     * @param userId   The ID of the user to create the rate instance for.
+     * @param hitLimit The amount of hits the rate should keep track of.
+     * @param hitTime  The amount of milliseconds each hit is valid for.
+     */
+    Rate(long userId, int hitLimit, long hitTime) {
         this.userId = userId;
-        this.index = 0;
-        this.timestamps = new Long[Ratelimit.hitLimit];
+        this.hitTime = hitTime;
+        this.timestamps = new AtomicLongArray(hitLimit);
     }
 
     /**
-     * Hits the rate, creating a timestamp for the current {@link #index}.
+     * Hits the rate, storing the given time in the next slot of the
+     * {@link #timestamps} ring buffer, and returns the amount of
+     * hits that are still valid, including the new hit.
+     *
+     * @param now The current time in milliseconds.
+     * @return The amount of valid hits currently in the rate instance.
      */
-    void hit() {
-        timestamps[index++] = System.currentTimeMillis();
-        if (index >= Ratelimit.hitLimit) {
-            index = 0;
-        }
+    int hit(long now) {
+        timestamps.set(Math.floorMod(index.getAndIncrement(), timestamps.length()), now);
+
+        return getHits(now);
     }
 
     /**
      * Gets the amount of valid hits by comparing the time from the {@link #timestamps}
      * and the {@link Ratelimit#hitTime rate limit time}.
      *
+     * @param now The current time in milliseconds.
      * @return The amount of valid hits currently in the rate instance.
      */
-    int getHits() {
+    int getHits(long now) {
         int hits = 0;
-        for (Long time : timestamps) {
-            if (time != null && (time + Ratelimit.hitTime) > System.currentTimeMillis()) {
+        for (int i = 0; i < timestamps.length(); i++) {
+            long time = timestamps.get(i);
+            if (time != 0L && time + hitTime > now) {
                 hits++;
             }
         }
@@ -80,17 +110,20 @@ public class Rate {
     }
 
     /**
-     * Gets the last timestamp for the current rate instance.
+     * Marks the rate as having caused a punishment at the given time, unless the rate has
+     * already caused a punishment within the given cooldown, this prevents commands that
+     * are handled in parallel from punishing the same user multiple times at once.
      *
-     * @return Possibly-null, the last timestamp for the current rate.
+     * @param now      The current time in milliseconds.
+     * @param cooldown The amount of milliseconds that must pass between punishments.
+     * @return <code>True</code> if the punishment should go through, <code>False</code> otherwise.
      */
-    @Nullable
-    Long getLast() {
-        int i = index - 1;
-        if (i < 0) {
-            i = Ratelimit.hitLimit - 1;
+    boolean tryPunish(long now, long cooldown) {
+        long last = lastPunishment.get();
+        if (last != 0L && last + cooldown > now) {
+            return false;
         }
-        return timestamps[i];
+        return lastPunishment.compareAndSet(last, now);
     }
 
     @Override
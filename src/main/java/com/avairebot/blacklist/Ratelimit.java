@@ -38,9 +38,9 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.awt.*;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class Ratelimit {
@@ -61,12 +61,26 @@ public class Ratelimit {
      */
     static final long hitTime = 30 * 1000;
 
+    /**
+     * This represents the amount of time in milliseconds that must pass
+     * after an entity has been punished, before the same rate can
+     * cause another punishment for the entity.
+     */
+    static final long punishmentCooldown = 2500;
+
+    /**
+     * This represents the amount of time in milliseconds it takes for a punishment
+     * level to decay by one, so entities that stops repeating the behaviour
+     * will slowly go back to the lighter punishments.
+     */
+    static final long punishmentDecay = TimeUnit.DAYS.toMillis(1);
+
     /**
      * The cache loader for holding all the ratelimiter rates.
      */
     public static final LoadingCache<Long, Rate> cache = CacheBuilder.newBuilder()
         .recordStats()
-        .expireAfterWrite(hitTime, TimeUnit.MILLISECONDS)
+        .expireAfterAccess(hitTime, TimeUnit.MILLISECONDS)
         .build(CacheLoader.from(Rate::new));
 
     /**
@@ -77,9 +91,10 @@ public class Ratelimit {
     /**
      * The punishment level holder, this map holds all the users and their current
      * punishment level, with each offence, the punishment level(value) will go
-     * up, increasing the time the user get auto-blacklisted for.
+     * up, increasing the time the user get auto-blacklisted for, the level
+     * decays by one for every {@link #punishmentDecay} without offences.
      */
-    private static final Map<Long, Integer> punishments = new HashMap<>();
+    private static final Map<Long, Offence> punishments = new ConcurrentHashMap<>();
 
     /**
      * The punishment levels, each index of the levels list should be an
@@ -203,23 +218,17 @@ public class Ratelimit {
             return null;
         }
 
-        //noinspection SynchronizationOnLocalVariableOrMethodParameter
-        synchronized (rate) {
-            rate.hit();
-
-            if (rate.getHits() < hitLimit) {
-                return null;
-            }
+        long now = System.currentTimeMillis();
+        if (rate.hit(now) < hitLimit) {
+            return null;
         }
 
-        Long last = rate.getLast();
-
         // Checks if the user was blacklisted within the last two and half seconds,
         // the command handling process uses its own thread pool, because of that
         // it's possible to have two commands come in from the same user in a
         // very quick succession, instead of punishing the user twice, we
         // just cancel the blacklist hit here instead.
-        if (last != null && last < System.currentTimeMillis() - 2500) {
+        if (!rate.tryPunish(now, punishmentCooldown)) {
             return null;
         }
 
@@ -246,11 +255,24 @@ public class Ratelimit {
      * @return The Carbon instance with the punishment expire time.
      */
     private Carbon getPunishment(long userId) {
-        int level = punishments.getOrDefault(userId, -1) + 1;
+        long now = System.currentTimeMillis();
 
-        punishments.put(userId, level);
+        Offence offence = punishments.compute(userId, (id, previous) -> new Offence(
+            previous == null ? 0 : previous.getLevel(now) + 1, now
+        ));
 
-        return getPunishment(level);
+        return getPunishment(offence.level);
+    }
+
+    /**
+     * Removes all the punishment levels that has fully decayed,
+     * so users who haven't offended in a while will be
+     * removed from the punishment level holder.
+     */
+    public static void removeDecayedPunishments() {
+        long now = System.currentTimeMillis();
+
+        punishments.values().removeIf(offence -> offence.getLevel(now) < 0);
     }
 
     /**
@@ -266,4 +288,25 @@ public class Ratelimit {
         }
         return levels.get(level >= levels.size() ? levels.size() - 1 : level).generateTime();
     }
+
+    private static class Offence {
+
+        private final int level;
+        private final long time;
+
+        Offence(int level, long time) {
+            this.level = level;
+            this.time = time;
+        }
+
+        /**
+         * Gets the punishment level after it has decayed up to the given time.
+         *
+         * @param now The current time in milliseconds.
+         * @return The decayed punishment level, or -1 if the level has fully decayed.
+         */
+        int getLevel(long now) {
+            return (int) Math.max(-1, level - ((now - time) / punishmentDecay));
+        }
+    }
 }
@@ -23,6 +23,7 @@ package com.avairebot.commands;
 
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.middleware.Middleware;
+import com.avairebot.middleware.MiddlewareChain;
 import com.avairebot.middleware.MiddlewareHandler;
 import com.avairebot.middleware.ThrottleMiddleware;
 
@@ -43,6 +44,7 @@ public class CommandContainer {
     private final String sourceUri;
     private final Set<String> triggers;
     private final List<String> middlewares;
+    private final MiddlewareChain middlewareChain;
 
     /**
      * Creates a new {@link Command command} container instance.
@@ -50,6 +52,8 @@ public class CommandContainer {
      * @param command   The command that should be assigned the container.
      * @param category  The category for the command.
      * @param sourceUri The source URI for finding source code of the command.
+     * @throws IllegalArgumentException This is thrown if the command uses a middleware that
+     *                                  doesn't exists, or gives a middleware malformed arguments.
      */
     public CommandContainer(@Nonnull Command command, @Nonnull Category category, @Nullable String sourceUri) {
         this.command = command;
@@ -60,6 +64,8 @@ public class CommandContainer {
         this.middlewares = new ArrayList<>(command.getMiddleware());
 
         this.registerThrottleMiddlewares();
+
+        this.middlewareChain = MiddlewareChain.compile(middlewares);
     }
 
     /**
@@ -110,6 +116,17 @@ public class CommandContainer {
         return middlewares;
     }
 
+    /**
+     * Gets the compiled middleware chain for the command, the chain is compiled
+     * once when the container is created, and is shared by every middleware
+     * stack that is created for the command.
+     *
+     * @return The compiled middleware chain for the command.
+     */
+    public MiddlewareChain getMiddlewareChain() {
+        return middlewareChain;
+    }
+
     /**
      * Gets the command triggers used to run the command.
      *
@@ -147,7 +164,7 @@ public class CommandContainer {
             String[] parts = middlewareName.split(":");
 
             Middleware middleware = MiddlewareHandler.getMiddleware(parts[0]);
-            if (middleware == null || !(middleware instanceof ThrottleMiddleware)) {
+            if (parts.length < 2 || !(middleware instanceof ThrottleMiddleware)) {
                 continue;
             }
 
@@ -29,11 +29,11 @@ import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.exceptions.InvalidCommandPrefixException;
 import com.avairebot.metrics.Metrics;
-import com.avairebot.middleware.MiddlewareHandler;
 import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.utils.Checks;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.*;
 
 @SuppressWarnings("WeakerAccess")
@@ -41,6 +41,8 @@ public class CommandHandler {
 
     private static final Set<CommandContainer> COMMANDS = new HashSet<>();
 
+    private static volatile CommandIndex index = CommandIndex.EMPTY;
+
     /**
      * Get command container from the given command instance.
      *
@@ -64,12 +66,7 @@ public class CommandHandler {
      * @return Possibly-null, The registered command container instance.
      */
     public static CommandContainer getCommand(@Nonnull Class<? extends Command> command) {
-        for (CommandContainer container : COMMANDS) {
-            if (container.getCommand().getClass().getTypeName().equals(command.getTypeName())) {
-                return container;
-            }
-        }
-        return null;
+        return index.getCommandByType(command.getTypeName());
     }
 
     /**
@@ -105,11 +102,47 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command with the highest priority, or the alias command matching the given command.
      */
     public static CommandContainer getCommand(AvaIre avaire, Message message, @Nonnull String command) {
-        CommandContainer commandContainer = getCommand(message);
+        GuildTransformer transformer = GuildController.fetchGuild(avaire, message);
+        if (transformer == null) {
+            return getCommand(message);
+        }
+
+        GuildDispatchView view = transformer.getDispatchView();
+        String commandString = getFirstWord(message.getContentRaw());
+
+        CommandContainer commandContainer = view.getCommand(commandString);
         if (commandContainer != null) {
             return commandContainer;
         }
-        return getCommandByAlias(avaire, message, command);
+        return view.getAlias(getFirstWord(command));
+    }
+
+    /**
+     * Gets the command matching the command of the given parsed message, both the command
+     * prefix and the command trigger must match for the command to be returned, if the
+     * guild/server that the command was executed in has a custom prefix set, the
+     * custom prefix will be used to match the command instead.
+     * <p>
+     * If no commands was found matching the command, the guilds
+     * aliases will be checked instead if the current guild has any.
+     *
+     * @param avaire  The AvaIre application class instance.
+     * @param message The parsed message for the current message.
+     * @return Possibly-null, The command matching the given command with the highest priority, or the alias command matching the given command.
+     */
+    public static CommandContainer getCommand(AvaIre avaire, @Nonnull ParsedMessage message) {
+        GuildTransformer transformer = GuildController.fetchGuild(avaire, message.getMessage());
+        if (transformer == null) {
+            return getCommand(message.getMessage(), message.getCommand().toLowerCase());
+        }
+
+        GuildDispatchView view = transformer.getDispatchView();
+
+        CommandContainer commandContainer = view.getCommand(message.getCommand());
+        if (commandContainer != null) {
+            return commandContainer;
+        }
+        return view.getAlias(message.getCommand());
     }
 
     /**
@@ -127,17 +160,24 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command with the highest priority.
      */
     public static CommandContainer getCommand(Message message, @Nonnull String command) {
-        List<CommandContainer> commands = new ArrayList<>();
-        for (CommandContainer container : COMMANDS) {
-            String commandPrefix = container.getCommand().generateCommandPrefix(message);
-            for (String trigger : container.getTriggers()) {
-                if (command.equalsIgnoreCase(commandPrefix + trigger)) {
-                    commands.add(container);
-                }
-            }
-        }
+        return index.getCommand(message, command);
+    }
 
-        return getHighPriorityCommandFromCommands(commands);
+    /**
+     * Checks if the given message content could possibly be a command, using
+     * the custom prefixes and aliases for the given guild if one is given,
+     * or the default category prefixes otherwise, messages that can't
+     * possibly be commands can skip the command lookup entirely.
+     *
+     * @param transformer The guild transformer for the guild the message was sent in, or null.
+     * @param content     The raw message content that should be checked.
+     * @return <code>True</code> if the message could be a command, <code>False</code> otherwise.
+     */
+    public static boolean isPossibleCommand(@Nullable GuildTransformer transformer, @Nonnull String content) {
+        if (transformer == null) {
+            return index.getDefaultCommandTrie().matches(content);
+        }
+        return transformer.getDispatchView().isPossibleCommand(content);
     }
 
     /**
@@ -153,17 +193,7 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command with the highest priority.
      */
     public static CommandContainer getRawCommand(@Nonnull String command) {
-        List<CommandContainer> commands = new ArrayList<>();
-        for (CommandContainer container : COMMANDS) {
-            String commandPrefix = container.getDefaultPrefix();
-            for (String trigger : container.getTriggers()) {
-                if (command.equalsIgnoreCase(commandPrefix + trigger)) {
-                    commands.add(container);
-                }
-            }
-        }
-
-        return getHighPriorityCommandFromCommands(commands);
+        return index.getDefaultCommand(command);
     }
 
     /**
@@ -180,30 +210,7 @@ public class CommandHandler {
         if (transformer == null || transformer.getAliases().isEmpty()) {
             return null;
         }
-
-        String[] aliasArguments = null;
-        String commandString = command.split(" ")[0].toLowerCase();
-        List<CommandContainer> commands = new ArrayList<>();
-        for (Map.Entry<String, String> entry : transformer.getAliases().entrySet()) {
-            if (commandString.equalsIgnoreCase(entry.getKey())) {
-                CommandContainer commandContainer = getRawCommand(entry.getValue().split(" ")[0]);
-                if (commandContainer != null) {
-                    commands.add(commandContainer);
-                    aliasArguments = entry.getValue().split(" ");
-                }
-            }
-        }
-
-        CommandContainer commandContainer = getHighPriorityCommandFromCommands(commands);
-
-        if (commandContainer == null) {
-            return null;
-        }
-
-        if (aliasArguments == null || aliasArguments.length == 1) {
-            return commandContainer;
-        }
-        return new AliasCommandContainer(commandContainer, Arrays.copyOfRange(aliasArguments, 1, aliasArguments.length));
+        return transformer.getDispatchView().getAlias(getFirstWord(command));
     }
 
     /**
@@ -217,55 +224,32 @@ public class CommandHandler {
      * @return Possibly-null, The command matching the given command trigger with the highest priority.
      */
     public static CommandContainer getLazyCommand(@Nonnull String commandTrigger) {
-        List<CommandContainer> commands = new ArrayList<>();
-        for (CommandContainer container : COMMANDS) {
-            if (container.getPriority().equals(CommandPriority.IGNORED)) {
-                continue;
-            }
-
-            for (String trigger : container.getTriggers()) {
-                if (commandTrigger.equalsIgnoreCase(trigger)) {
-                    commands.add(container);
-                }
-            }
-        }
-
-        return getHighPriorityCommandFromCommands(commands);
+        return index.getLazyCommand(commandTrigger);
     }
 
     /**
-     * Gets the highest priority command from the given command
-     * list, if the list is empty null is returned instead.
+     * Gets the first word of the given string, words are separated by a single space.
      *
-     * @param commands The list of commands matching some query.
-     * @return Possibly-null, The command container with the highest priority.
+     * @param string The string the first word should be returned from.
+     * @return The first word of the given string.
      */
-    private static CommandContainer getHighPriorityCommandFromCommands(List<CommandContainer> commands) {
-        if (commands.isEmpty()) {
-            return null;
-        }
-
-        if (commands.size() == 1) {
-            return commands.get(0);
-        }
-
-        //noinspection ConstantConditions
-        return commands.stream().sorted((first, second) -> {
-            if (first.getPriority().equals(second.getPriority())) {
-                return 0;
-            }
-            return first.getPriority().isGreaterThan(second.getPriority()) ? -1 : 1;
-        }).findFirst().get();
+    private static String getFirstWord(String string) {
+        int index = string.indexOf(' ');
+        return index == -1 ? string : string.substring(0, index);
     }
 
     /**
      * Register the given command into the command handler, creating the
-     * command container and saving it into the commands collection.
+     * command container and saving it into the commands collection, the
+     * middlewares used by the command is compiled into a middleware
+     * chain when the command container is created.
      *
      * @param command The command that should be registered into the command handler.
+     * @throws IllegalArgumentException This is thrown if the command uses a middleware that
+     *                                  doesn't exists, or gives a middleware malformed arguments.
      */
     @SuppressWarnings("ConstantConditions")
-    public static void register(@Nonnull Command command) {
+    public static synchronized void register(@Nonnull Command command) {
         Category category = CategoryHandler.fromCommand(command);
         Checks.notNull(category, String.format("%s :: %s", command.getName(), "Invalid command category, command category"));
         Checks.notNull(command.getDescription(new FakeCommandMessage()), String.format("%s :: %s", command.getName(), "Command description"));
@@ -280,14 +264,6 @@ public class CommandHandler {
             }
         }
 
-        for (String middleware : command.getMiddleware()) {
-            String[] parts = middleware.split(":");
-
-            if (MiddlewareHandler.getMiddleware(parts[0]) == null) {
-                throw new IllegalArgumentException("Middleware reference may not be null, " + parts[0] + " is not a valid middleware!");
-            }
-        }
-
         String commandUri = null;
 
         CommandSource annotation = command.getClass().getAnnotation(CommandSource.class);
@@ -302,6 +278,8 @@ public class CommandHandler {
         Metrics.commandsExecuted.labels(command.getClass().getSimpleName()).inc(0D);
 
         COMMANDS.add(new CommandContainer(command, category, commandUri));
+
+        index = new CommandIndex(COMMANDS);
     }
 
     /**
@@ -313,4 +291,14 @@ public class CommandHandler {
     public static Collection<CommandContainer> getCommands() {
         return COMMANDS;
     }
+
+    /**
+     * Gets the current command dispatch index, the index is
+     * replaced every time a new command is registered.
+     *
+     * @return The current command dispatch index.
+     */
+    static CommandIndex getIndex() {
+        return index;
+    }
 }
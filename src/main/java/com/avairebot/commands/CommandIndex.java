@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands;
+
+import net.dv8tion.jda.core.entities.Message;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * An immutable dispatch index over all the registered commands, the index
+ * is built once every time a command is registered so looking up a
+ * command from a message is a prefix check and a hash lookup
+ * rather than a scan through every registered command.
+ * <p>
+ * All the keys in the index are case-folded, and every value has
+ * already been resolved to the command with the highest priority
+ * in the event multiple commands shares the same trigger.
+ */
+final class CommandIndex {
+
+    static final CommandIndex EMPTY = new CommandIndex(Collections.emptyList());
+
+    private final Map<String, CommandContainer> defaultCommands = new HashMap<>();
+    private final Map<String, CommandContainer> lazyCommands = new HashMap<>();
+    private final Map<String, CommandContainer> commandTypes = new HashMap<>();
+    private final Map<Category, Map<String, CommandContainer>> categoryTriggers = new LinkedHashMap<>();
+    private final CommandTrie defaultCommandTrie;
+
+    /**
+     * Builds the index from the given collection of command containers.
+     *
+     * @param containers The command containers that should be indexed.
+     */
+    CommandIndex(@Nonnull Collection<CommandContainer> containers) {
+        for (CommandContainer container : containers) {
+            commandTypes.putIfAbsent(container.getCommand().getClass().getTypeName(), container);
+
+            Map<String, CommandContainer> triggers = categoryTriggers.computeIfAbsent(
+                container.getCategory(), category -> new HashMap<>()
+            );
+
+            for (String trigger : container.getTriggers()) {
+                String foldedTrigger = trigger.toLowerCase();
+
+                putWithPriority(triggers, foldedTrigger, container);
+                putWithPriority(defaultCommands, (container.getDefaultPrefix() + trigger).toLowerCase(), container);
+
+                if (!container.getPriority().equals(CommandPriority.IGNORED)) {
+                    putWithPriority(lazyCommands, foldedTrigger, container);
+                }
+            }
+        }
+
+        defaultCommandTrie = new CommandTrie(defaultCommands.keySet());
+    }
+
+    /**
+     * Gets the command matching the given command string, using the
+     * prefixes the guild the message was sent in has set for each
+     * category, or the default category prefixes if none is set.
+     *
+     * @param message The JDA message object for the current message.
+     * @param command The command string, including the prefix, that should be looked up.
+     * @return Possibly-null, the command matching the given command with the highest priority.
+     */
+    @Nullable
+    CommandContainer getCommand(@Nonnull Message message, @Nonnull String command) {
+        if (!message.getChannelType().isGuild()) {
+            return getDefaultCommand(command);
+        }
+
+        CommandContainer result = null;
+        boolean usesDefaultPrefixes = true;
+
+        for (Category category : categoryTriggers.keySet()) {
+            if (!category.getPrefix(message).equals(category.getPrefix())) {
+                usesDefaultPrefixes = false;
+                break;
+            }
+        }
+
+        if (usesDefaultPrefixes) {
+            return getDefaultCommand(command);
+        }
+
+        for (Map.Entry<Category, Map<String, CommandContainer>> entry : categoryTriggers.entrySet()) {
+            String prefix = entry.getKey().getPrefix(message);
+            if (command.length() <= prefix.length() || !command.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                continue;
+            }
+
+            CommandContainer container = entry.getValue().get(
+                command.substring(prefix.length()).toLowerCase()
+            );
+
+            if (container != null && (result == null || container.getPriority().isGreaterThan(result.getPriority()))) {
+                result = container;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the command matching the given command string using
+     * the default prefix for the category of each command.
+     *
+     * @param command The command string, including the prefix, that should be looked up.
+     * @return Possibly-null, the command matching the given command with the highest priority.
+     */
+    @Nullable
+    CommandContainer getDefaultCommand(@Nonnull String command) {
+        return defaultCommands.get(command.toLowerCase());
+    }
+
+    /**
+     * Gets the command matching the given trigger, ignoring the command prefix
+     * entirely, commands with an {@link CommandPriority#IGNORED ignored}
+     * priority are never included in the lazy lookup.
+     *
+     * @param trigger The command trigger that should be looked up.
+     * @return Possibly-null, the command matching the given trigger with the highest priority.
+     */
+    @Nullable
+    CommandContainer getLazyCommand(@Nonnull String trigger) {
+        return lazyCommands.get(trigger.toLowerCase());
+    }
+
+    /**
+     * Gets the command container for the command with the given class type name.
+     *
+     * @param typeName The type name of the command class.
+     * @return Possibly-null, the command container for the given command class.
+     */
+    @Nullable
+    CommandContainer getCommandByType(@Nonnull String typeName) {
+        return commandTypes.get(typeName);
+    }
+
+    /**
+     * Gets the command trie built from every registered command
+     * using the default prefix for the category of each command.
+     *
+     * @return The command trie using the default category prefixes.
+     */
+    CommandTrie getDefaultCommandTrie() {
+        return defaultCommandTrie;
+    }
+
+    /**
+     * Gets the command triggers for each category, each trigger map is keyed by
+     * the case-folded command triggers and maps to the command container
+     * with the highest priority for the trigger in the category.
+     *
+     * @return The command triggers for each category.
+     */
+    Map<Category, Map<String, CommandContainer>> getCategoryTriggers() {
+        return Collections.unmodifiableMap(categoryTriggers);
+    }
+
+    /**
+     * Gets the command map keyed by the case-folded default category
+     * prefix and command trigger for every registered command.
+     *
+     * @return The command map using the default category prefixes.
+     */
+    Map<String, CommandContainer> getDefaultCommands() {
+        return Collections.unmodifiableMap(defaultCommands);
+    }
+
+    /**
+     * Puts the given container into the map for the given key, unless the map
+     * already has a command container with a higher priority for the key.
+     *
+     * @param map       The map the container should be put into.
+     * @param key       The key the container should be put under.
+     * @param container The command container that should be put into the map.
+     */
+    static void putWithPriority(Map<String, CommandContainer> map, String key, CommandContainer container) {
+        CommandContainer existing = map.get(key);
+        if (existing == null || container.getPriority().isGreaterThan(existing.getPriority())) {
+            map.put(key, container);
+        }
+    }
+}
@@ -54,6 +54,7 @@ public class CommandMessage implements CommandContext {
     public final TextChannel channel;
     public final Message message;
 
+    private final ParsedMessage parsedMessage;
     private final boolean mentionableCommand;
     private final String aliasArguments;
     private final DatabaseEventHolder databaseEventHolder;
@@ -74,11 +75,18 @@ public class CommandMessage implements CommandContext {
     }
 
     public CommandMessage(CommandContainer container, DatabaseEventHolder databaseEventHolder, Message message, boolean mentionableCommand, String[] aliasArguments) {
+        this(container, databaseEventHolder, new ParsedMessage(message), mentionableCommand, aliasArguments);
+    }
+
+    public CommandMessage(CommandContainer container, DatabaseEventHolder databaseEventHolder, ParsedMessage parsedMessage, boolean mentionableCommand, String[] aliasArguments) {
         if (container != null) {
             setI18nCommandPrefix(container);
         }
 
+        Message message = parsedMessage.getMessage();
+
         this.message = message;
+        this.parsedMessage = parsedMessage;
 
         this.guild = message.getGuild();
         this.member = message.getMember();
@@ -107,11 +115,13 @@ public class CommandMessage implements CommandContext {
     }
 
     public String getContentRaw() {
-        String[] parts = message.getContentRaw().split(" ");
+        String content = parsedMessage.getContentWithoutCommand(isMentionableCommand());
 
-        return (aliasArguments == null ? "" : aliasArguments) + String.join(" ",
-            Arrays.copyOfRange(parts, isMentionableCommand() ? 2 : 1, parts.length)
-        );
+        return aliasArguments == null ? content : aliasArguments + content;
+    }
+
+    public ParsedMessage getParsedMessage() {
+        return parsedMessage;
     }
 
     private String parseContent(String content) {
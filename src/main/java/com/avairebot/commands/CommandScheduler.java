@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands;
+
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded command execution scheduler, commands are queued up in a queue per guild
+ * and the guild queues are serviced round-robin by a fixed amount of worker
+ * threads, so a single busy guild can't starve every other guild.
+ * <p>
+ * Each guild is limited to a set amount of commands running at the same time, and
+ * when either the total amount of queued commands, or the amount of queued commands
+ * for a single guild reaches its limit, new commands will be rejected so the
+ * caller can let the user know the bot is busy instead.
+ */
+public class CommandScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandScheduler.class);
+
+    private final ConcurrentHashMap<Long, GuildQueue> guildQueues = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<GuildQueue> readyQueues = new LinkedBlockingQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger(0);
+
+    private final int maxQueueSize;
+    private final int maxGuildQueueSize;
+    private final int maxGuildConcurrency;
+
+    /**
+     * Creates a new command scheduler and starts the worker threads.
+     *
+     * @param workers             The amount of worker threads that should execute commands.
+     * @param maxQueueSize        The max amount of commands that can be queued in total.
+     * @param maxGuildQueueSize   The max amount of commands that can be queued for a single guild.
+     * @param maxGuildConcurrency The max amount of commands that can run at the same time for a single guild.
+     */
+    public CommandScheduler(int workers, int maxQueueSize, int maxGuildQueueSize, int maxGuildConcurrency) {
+        this.maxQueueSize = Math.max(1, maxQueueSize);
+        this.maxGuildQueueSize = Math.max(1, maxGuildQueueSize);
+        this.maxGuildConcurrency = Math.max(1, maxGuildConcurrency);
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+            .setNameFormat("avaire-command-thread-%d")
+            .build();
+
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            threadFactory.newThread(this::runWorker).start();
+        }
+    }
+
+    /**
+     * Submits the given command task to the scheduler, the task will be queued
+     * in the queue for the given guild, and executed once a worker
+     * thread is free and it's the guilds turn to run a command.
+     *
+     * @param guildId The ID of the guild the command was invoked in, or the user ID for direct messages.
+     * @param task    The command task that should be executed.
+     * @return <code>True</code> if the task was queued, <code>False</code> if it was rejected due to overload.
+     */
+    public boolean submit(long guildId, @Nonnull Runnable task) {
+        if (queueSize.incrementAndGet() > maxQueueSize) {
+            queueSize.decrementAndGet();
+            Metrics.commandsRejected.labels("global").inc();
+            return false;
+        }
+
+        while (true) {
+            GuildQueue queue = guildQueues.computeIfAbsent(guildId, GuildQueue::new);
+
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+
+                if (queue.tasks.size() >= maxGuildQueueSize) {
+                    queueSize.decrementAndGet();
+                    Metrics.commandsRejected.labels("guild").inc();
+                    return false;
+                }
+
+                queue.tasks.add(new QueuedTask(task));
+                Metrics.commandQueueSize.inc();
+
+                scheduleIfRunnable(queue);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Gets the total amount of commands currently waiting to be executed.
+     *
+     * @return The total amount of queued commands.
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    private void runWorker() {
+        while (true) {
+            GuildQueue queue;
+            try {
+                queue = readyQueues.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            QueuedTask task;
+            synchronized (queue) {
+                queue.scheduled = false;
+
+                task = queue.tasks.poll();
+                if (task == null) {
+                    retireIfIdle(queue);
+                    continue;
+                }
+
+                queue.running++;
+                queueSize.decrementAndGet();
+                Metrics.commandQueueSize.dec();
+
+                // Puts the guild at the back of the ready queue if it has more work
+                // to do, this makes sure guilds takes turns running commands.
+                scheduleIfRunnable(queue);
+            }
+
+            Metrics.commandQueueWaitTime.observe((System.nanoTime() - task.queuedAt) / 1E9D);
+
+            try {
+                task.runnable.run();
+            } catch (Throwable e) {
+                log.error("An uncaught exception was thrown while running a command for {}: {}",
+                    queue.guildId, e.getMessage(), e
+                );
+            } finally {
+                synchronized (queue) {
+                    queue.running--;
+                    scheduleIfRunnable(queue);
+                    retireIfIdle(queue);
+                }
+            }
+        }
+    }
+
+    private void scheduleIfRunnable(GuildQueue queue) {
+        if (!queue.scheduled && !queue.tasks.isEmpty() && queue.running < maxGuildConcurrency) {
+            queue.scheduled = true;
+            readyQueues.add(queue);
+        }
+    }
+
+    private void retireIfIdle(GuildQueue queue) {
+        if (!queue.scheduled && queue.running == 0 && queue.tasks.isEmpty()) {
+            queue.retired = true;
+            guildQueues.remove(queue.guildId, queue);
+        }
+    }
+
+    private static class GuildQueue {
+
+        private final long guildId;
+        private final Queue<QueuedTask> tasks = new ArrayDeque<>();
+
+        private int running = 0;
+        private boolean scheduled = false;
+        private boolean retired = false;
+
+        GuildQueue(long guildId) {
+            this.guildId = guildId;
+        }
+    }
+
+    private static class QueuedTask {
+
+        private final Runnable runnable;
+        private final long queuedAt;
+
+        QueuedTask(Runnable runnable) {
+            this.runnable = runnable;
+            this.queuedAt = System.nanoTime();
+        }
+    }
+}
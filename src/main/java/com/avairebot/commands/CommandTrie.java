@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A case-insensitive character trie over a set of command strings, the trie is used as
+ * a cheap pre-filter to determine if a message could possibly be a command before
+ * doing any command or alias lookups, matching a message walks the trie one
+ * character at a time without any allocations or regular expressions.
+ */
+final class CommandTrie {
+
+    static final CommandTrie EMPTY = new CommandTrie(Collections.emptyList());
+
+    private final Node root;
+
+    /**
+     * Builds the trie from the given command strings.
+     *
+     * @param commands The command strings, including their prefix, that should be added to the trie.
+     */
+    CommandTrie(@Nonnull Collection<String> commands) {
+        BuilderNode builder = new BuilderNode();
+        for (String command : commands) {
+            BuilderNode node = builder;
+            for (int i = 0; i < command.length(); i++) {
+                node = node.children.computeIfAbsent(
+                    Character.toLowerCase(command.charAt(i)), character -> new BuilderNode()
+                );
+            }
+            node.terminal = true;
+        }
+        root = builder.freeze();
+    }
+
+    /**
+     * Checks if the first word of the given message content matches
+     * any of the command strings the trie was built from.
+     *
+     * @param content The raw message content that should be checked.
+     * @return <code>True</code> if the message content starts with a known command, <code>False</code> otherwise.
+     */
+    boolean matches(@Nonnull String content) {
+        Node node = root;
+        for (int i = 0; i < content.length(); i++) {
+            char character = content.charAt(i);
+            if (character == ' ') {
+                return node.terminal;
+            }
+
+            node = node.get(Character.toLowerCase(character));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    private static class Node {
+
+        private final char[] keys;
+        private final Node[] children;
+        private final boolean terminal;
+
+        Node(char[] keys, Node[] children, boolean terminal) {
+            this.keys = keys;
+            this.children = children;
+            this.terminal = terminal;
+        }
+
+        Node get(char character) {
+            int index = Arrays.binarySearch(keys, character);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static class BuilderNode {
+
+        private final TreeMap<Character, BuilderNode> children = new TreeMap<>();
+        private boolean terminal = false;
+
+        Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+
+            int index = 0;
+            for (Map.Entry<Character, BuilderNode> entry : children.entrySet()) {
+                keys[index] = entry.getKey();
+                nodes[index++] = entry.getValue().freeze();
+            }
+            return new Node(keys, nodes, terminal);
+        }
+    }
+}
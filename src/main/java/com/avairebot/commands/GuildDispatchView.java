@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands;
+
+import com.avairebot.database.transformers.GuildTransformer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A compiled view of the commands and aliases available in a single guild,
+ * the view resolves the guilds custom category prefixes and aliases
+ * against the command index once, so matching a message to
+ * a command or an alias is just a single hash lookup.
+ * <p>
+ * Views are cached on the {@link GuildTransformer guild transformer} and must be
+ * {@link GuildTransformer#invalidateDispatchView() invalidated} whenever
+ * the prefixes or aliases for the guild are changed.
+ */
+public class GuildDispatchView {
+
+    private final CommandIndex index;
+    private final Map<Category, String> prefixes = new HashMap<>();
+    private final Map<String, CommandContainer> commands;
+    private final Map<String, CommandContainer> aliases = new HashMap<>();
+    private final CommandTrie commandTrie;
+
+    /**
+     * Compiles the dispatch view for the given guild transformer.
+     *
+     * @param transformer The guild transformer the view should be compiled for.
+     */
+    public GuildDispatchView(@Nonnull GuildTransformer transformer) {
+        this.index = CommandHandler.getIndex();
+
+        boolean hasCustomPrefixes = false;
+        for (Category category : index.getCategoryTriggers().keySet()) {
+            String prefix = category.isGlobal() ? category.getPrefix()
+                : transformer.getPrefixes().getOrDefault(category.getName().toLowerCase(), category.getPrefix());
+
+            if (!prefix.equals(category.getPrefix())) {
+                hasCustomPrefixes = true;
+            }
+            prefixes.put(category, prefix);
+        }
+
+        commands = hasCustomPrefixes ? compileCommands() : index.getDefaultCommands();
+
+        for (Map.Entry<String, String> alias : transformer.getAliases().entrySet()) {
+            String[] aliasArguments = alias.getValue().split(" ");
+
+            CommandContainer container = index.getDefaultCommand(aliasArguments[0]);
+            if (container == null) {
+                continue;
+            }
+
+            aliases.put(alias.getKey().toLowerCase(), aliasArguments.length == 1 ? container
+                : new AliasCommandContainer(container, Arrays.copyOfRange(aliasArguments, 1, aliasArguments.length))
+            );
+        }
+
+        if (!hasCustomPrefixes && aliases.isEmpty()) {
+            commandTrie = index.getDefaultCommandTrie();
+        } else {
+            Set<String> commandStrings = new HashSet<>(commands.keySet());
+            commandStrings.addAll(aliases.keySet());
+
+            commandTrie = new CommandTrie(commandStrings);
+        }
+    }
+
+    /**
+     * Gets the command matching the given command string, using
+     * the custom category prefixes set by the guild.
+     *
+     * @param command The command string, including the prefix, that should be looked up.
+     * @return Possibly-null, the command matching the given command with the highest priority.
+     */
+    @Nullable
+    public CommandContainer getCommand(@Nonnull String command) {
+        return commands.get(command.toLowerCase());
+    }
+
+    /**
+     * Gets the command matching the given alias, if the alias was created with
+     * arguments an {@link AliasCommandContainer alias command container}
+     * holding the alias arguments will be returned instead.
+     *
+     * @param alias The alias that should be looked up.
+     * @return Possibly-null, the command matching the given alias.
+     */
+    @Nullable
+    public CommandContainer getAlias(@Nonnull String alias) {
+        if (aliases.isEmpty()) {
+            return null;
+        }
+        return aliases.get(alias.toLowerCase());
+    }
+
+    /**
+     * Checks if the given message content could possibly be a command or an alias
+     * in the guild, messages that can't be a command can skip the command
+     * and alias lookups entirely.
+     *
+     * @param content The raw message content that should be checked.
+     * @return <code>True</code> if the message starts with a command or alias, <code>False</code> otherwise.
+     */
+    public boolean isPossibleCommand(@Nonnull String content) {
+        return commandTrie.matches(content);
+    }
+
+    /**
+     * Gets the effective prefix for the given category in the guild.
+     *
+     * @param category The category the prefix should be returned for.
+     * @return The custom prefix set by the guild, or the default prefix for the category.
+     */
+    @Nonnull
+    public String getPrefix(@Nonnull Category category) {
+        return prefixes.getOrDefault(category, category.getPrefix());
+    }
+
+    /**
+     * Checks if the view was compiled against the current command index, views
+     * becomes stale when new commands are registered, for example by plugins.
+     *
+     * @return <code>True</code> if the view is up to date with the registered commands.
+     */
+    public boolean isCurrent() {
+        return index == CommandHandler.getIndex();
+    }
+
+    private Map<String, CommandContainer> compileCommands() {
+        Map<String, CommandContainer> compiled = new HashMap<>();
+        for (Map.Entry<Category, Map<String, CommandContainer>> entry : index.getCategoryTriggers().entrySet()) {
+            String prefix = prefixes.get(entry.getKey()).toLowerCase();
+
+            for (Map.Entry<String, CommandContainer> trigger : entry.getValue().entrySet()) {
+                CommandIndex.putWithPriority(compiled, prefix + trigger.getKey(), trigger.getValue());
+            }
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands;
+
+import com.avairebot.utilities.ArrayUtil;
+import net.dv8tion.jda.core.entities.Message;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Holds the parsed pieces of a message, the message is parsed once when it is
+ * received, and the parsed message is then carried through the command
+ * handler, the middleware stack, and into the command message, so
+ * the message content only has to be tokenized once.
+ * <p>
+ * Every piece of the message is computed lazily the first time it's used.
+ */
+public final class ParsedMessage {
+
+    private final Message message;
+    private final String contentRaw;
+
+    private String command;
+    private String[] arguments;
+    private String contentWithoutCommand;
+    private String contentWithoutMention;
+    private long leadingMentionId = 0L;
+
+    /**
+     * Creates a new parsed message for the given message.
+     *
+     * @param message The JDA message that should be parsed.
+     */
+    public ParsedMessage(@Nonnull Message message) {
+        this.message = message;
+        this.contentRaw = message.getContentRaw();
+    }
+
+    /**
+     * Gets the JDA message the parsed message was created for.
+     *
+     * @return The JDA message the parsed message was created for.
+     */
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the raw content of the message.
+     *
+     * @return The raw content of the message.
+     */
+    public String getContentRaw() {
+        return contentRaw;
+    }
+
+    /**
+     * Gets the first word of the message, this is the prefix and
+     * trigger of the command if the message is a command.
+     *
+     * @return The first word of the message.
+     */
+    public String getCommand() {
+        if (command == null) {
+            int index = contentRaw.indexOf(' ');
+            command = index == -1 ? contentRaw : contentRaw.substring(0, index);
+        }
+        return command;
+    }
+
+    /**
+     * Gets the ID of the user mentioned by the first word of the message, the first word
+     * must be a user mention and nothing else, like <code>&lt;@1234&gt;</code>
+     * or <code>&lt;@!1234&gt;</code>, for the ID to be returned.
+     *
+     * @return The ID of the user mentioned by the first word, or <code>-1</code> if the first word isn't a user mention.
+     */
+    public long getLeadingMentionId() {
+        if (leadingMentionId == 0L) {
+            leadingMentionId = parseUserMention(getCommand());
+        }
+        return leadingMentionId;
+    }
+
+    /**
+     * Gets the message parsed into arguments using the same "smart" separation as
+     * {@link ArrayUtil#toArguments(String)}, the first argument will be the
+     * command, or the bot mention if the command was invoked through
+     * mentioning the bot.
+     *
+     * @return The message parsed into arguments.
+     */
+    public String[] getArguments() {
+        if (arguments == null) {
+            arguments = ArrayUtil.toArguments(contentRaw);
+        }
+        return arguments;
+    }
+
+    /**
+     * Gets the raw content of the message without the command, or without the bot mention
+     * and the command if the command was invoked through mentioning the bot, words
+     * are separated by a single space, and trailing spaces are removed.
+     *
+     * @param mentionableCommand <code>True</code> if the command was invoked through mentioning the bot.
+     * @return The raw content of the message without the command.
+     */
+    public String getContentWithoutCommand(boolean mentionableCommand) {
+        if (mentionableCommand) {
+            if (contentWithoutMention == null) {
+                contentWithoutMention = getContentAfterWords(2);
+            }
+            return contentWithoutMention;
+        }
+
+        if (contentWithoutCommand == null) {
+            contentWithoutCommand = getContentAfterWords(1);
+        }
+        return contentWithoutCommand;
+    }
+
+    private static long parseUserMention(String word) {
+        int length = word.length();
+        if (length < 4 || !word.startsWith("<@") || word.charAt(length - 1) != '>') {
+            return -1L;
+        }
+
+        int index = 2;
+        while (index < length - 1 && word.charAt(index) == '!') {
+            index++;
+        }
+
+        // Discord IDs are snowflakes, which are always at least 16 digits long.
+        if (length - 1 - index < 16) {
+            return -1L;
+        }
+
+        long id = 0L;
+        for (int i = index; i < length - 1; i++) {
+            char c = word.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1L;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private String getContentAfterWords(int words) {
+        int index = -1;
+        for (int i = 0; i < words; i++) {
+            index = contentRaw.indexOf(' ', index + 1);
+            if (index == -1) {
+                return "";
+            }
+        }
+
+        int end = contentRaw.length();
+        while (end > index + 1 && contentRaw.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return contentRaw.substring(index + 1, end);
+    }
+}
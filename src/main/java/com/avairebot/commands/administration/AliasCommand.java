@@ -163,6 +163,8 @@ public class AliasCommand extends Command {
     }
 
     private void updateGuildAliases(CommandMessage message, GuildTransformer transformer) throws SQLException {
+        transformer.invalidateDispatchView();
+
         avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
             .where("id", message.getGuild().getId())
             .update(statement -> statement.set("aliases", AvaIre.gson.toJson(transformer.getAliases()), true));
@@ -195,6 +195,8 @@ public class ChangePrefixCommand extends Command {
     }
 
     private void updateGuildPrefixes(CommandMessage context, GuildTransformer transformer) throws SQLException {
+        transformer.invalidateDispatchView();
+
         avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
             .where("id", context.getGuild().getId())
             .update(statement -> {
@@ -45,10 +45,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 @CacheFingerprint(name = "leaderboard-command")
@@ -56,7 +53,7 @@ public class GlobalLeaderboardCommand extends Command {
 
     public static final Cache<String, Collection> cache = CacheBuilder.newBuilder()
         .recordStats()
-        .expireAfterWrite(300, TimeUnit.SECONDS)
+        .expireAfterWrite(60, TimeUnit.SECONDS)
         .build();
 
     private static final Logger log = LoggerFactory.getLogger(GlobalLeaderboardCommand.class);
@@ -162,23 +159,19 @@ public class GlobalLeaderboardCommand extends Command {
             .setTitle("\uD83C\uDFC6 " + context.i18n("title"))
             .requestedBy(context.getMember());
 
-        Collection userRank = loadUserRank(context);
-        if (userRank != null && !userRank.isEmpty()) {
-            int rank = userRank.first().getInt("rank", -1);
-            if (++rank > 0) {
-                Collection userXp = loadUserXp(context);
-                if (userXp != null && !userXp.isEmpty()) {
-                    long experience = userXp.first().getLong("total");
-                    message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
-                            .replace(":num", NumberUtil.formatNicely(rank))
-                            .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
-                            .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(experience)))
-                            .replace(":experience", NumberUtil.formatNicely(experience - 100))
-                            + "\n\n" + paginator.generateFooter(generateCommandTrigger(context.getMessage())),
-                        false
-                    );
-                }
-            }
+        DataRow userRank = loadUserRank(context);
+        if (userRank != null) {
+            int rank = userRank.getInt("user_rank") + 1;
+            long experience = userRank.getLong("experience") + 100;
+
+            message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
+                    .replace(":num", NumberUtil.formatNicely(rank))
+                    .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
+                    .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(experience)))
+                    .replace(":experience", NumberUtil.formatNicely(experience - 100))
+                    + "\n\n" + paginator.generateFooter(generateCommandTrigger(context.getMessage())),
+                false
+            );
         }
 
         if (message.build().getFields().isEmpty()) {
@@ -198,13 +191,28 @@ public class GlobalLeaderboardCommand extends Command {
     private Collection loadTop100From() {
         return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "leaderboard", () -> {
             try {
-                return avaire.getDatabase().query("SELECT " +
-                    "`user_id`, `username`, `discriminator`, (sum(`global_experience`) - (count(`user_id`) * 100)) + 100 as `total` " +
-                    "FROM `experiences` " +
-                    "GROUP BY `user_id` " +
-                    "ORDER BY `total` DESC " +
-                    "LIMIT 100;"
-                );
+                Collection players = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME)
+                    .select("user_id", "experience")
+                    .orderBy("experience", "desc")
+                    .take(100)
+                    .get();
+
+                Map<String, DataRow> names = loadPlayerNames(players);
+
+                List<Map<String, Object>> items = new ArrayList<>();
+                for (DataRow player : players) {
+                    DataRow name = names.get(player.getString("user_id"));
+
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("user_id", player.getString("user_id"));
+                    item.put("username", name == null ? null : name.get("username"));
+                    item.put("discriminator", name == null ? null : name.get("discriminator"));
+                    item.put("total", player.getLong("experience") + 100);
+
+                    items.add(item);
+                }
+
+                return new Collection(items);
             } catch (SQLException e) {
                 log.error("Failed to fetch global leaderboard data", e);
                 return null;
@@ -212,35 +220,41 @@ public class GlobalLeaderboardCommand extends Command {
         });
     }
 
-    private Collection loadUserRank(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "user.rank." + context.getAuthor().getId(), () -> {
-            try {
-                return avaire.getDatabase().query(String.format(
-                    "SELECT COUNT(*) AS rank FROM (" +
-                        "    SELECT `user_id` FROM `experiences` GROUP BY `user_id` HAVING SUM(`global_experience`) > (" +
-                        "        SELECT SUM(`global_experience`) FROM `experiences` WHERE `user_id` = '%s'" +
-                        "    )" +
-                        ") t;",
-                    context.getAuthor().getId()
-                ));
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-                return null;
-            }
-        });
+    private Map<String, DataRow> loadPlayerNames(Collection players) throws SQLException {
+        Map<String, DataRow> names = new HashMap<>();
+        if (players.isEmpty()) {
+            return names;
+        }
+
+        List<String> userIds = new ArrayList<>();
+        for (DataRow player : players) {
+            userIds.add(String.valueOf(player.getLong("user_id")));
+        }
+
+        // Players has a row for every guild they have experience in, so the rows are grouped
+        // by the user ID to only get a single name per player, any of them will do.
+        for (DataRow row : avaire.getDatabase().query(String.format(
+            "SELECT `user_id`, MAX(`username`) AS `username`, MAX(`discriminator`) AS `discriminator` " +
+                "FROM `%s` WHERE `user_id` IN (%s) GROUP BY `user_id`;",
+            Constants.PLAYER_EXPERIENCE_TABLE_NAME, String.join(", ", userIds)
+        ))) {
+            names.put(row.getString("user_id"), row);
+        }
+
+        return names;
     }
 
-    private Collection loadUserXp(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, "user.xp." + context.getAuthor().getId(), () -> {
-            try {
-                return avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .selectRaw("(sum(`global_experience`) - (count(`user_id`) * 100)) + 100 as `total`")
-                    .where("user_id", context.getAuthor().getIdLong())
-                    .get();
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-                return null;
-            }
-        });
+    private DataRow loadUserRank(CommandMessage context) {
+        try {
+            return avaire.getDatabase().query(String.format(
+                "SELECT `experience`, (" +
+                    "    SELECT COUNT(*) FROM `%1$s` WHERE `experience` > `g`.`experience`" +
+                    ") AS `user_rank` FROM `%1$s` AS `g` WHERE `user_id` = '%2$s';",
+                Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME, context.getAuthor().getId()
+            )).first();
+        } catch (SQLException e) {
+            log.error("Failed to fetch leaderboard data for user: " + context.getAuthor().getId(), e);
+            return null;
+        }
     }
 }
@@ -22,7 +22,6 @@
 package com.avairebot.commands.utility;
 
 import com.avairebot.AvaIre;
-import com.avairebot.Constants;
 import com.avairebot.chat.PlaceholderMessage;
 import com.avairebot.chat.SimplePaginator;
 import com.avairebot.commands.CommandHandler;
@@ -32,33 +31,23 @@ import com.avairebot.contracts.commands.CacheFingerprint;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
-import com.avairebot.database.collection.Collection;
-import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.transformers.GuildTransformer;
-import com.avairebot.utilities.CacheUtil;
+import com.avairebot.database.transformers.PlayerTransformer;
+import com.avairebot.level.RankIndex;
 import com.avairebot.utilities.NumberUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.entities.Member;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @CacheFingerprint(name = "leaderboard-command")
 public class LeaderboardCommand extends Command {
 
-    public static final Cache<String, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
-
     private static final Logger log = LoggerFactory.getLogger(GlobalLeaderboardCommand.class);
 
     public LeaderboardCommand(AvaIre avaire) {
@@ -122,28 +111,28 @@ public class LeaderboardCommand extends Command {
             );
         }
 
-        Collection collection = loadTop100From(context);
-        if (collection == null) {
+        RankIndex rankIndex = loadRankIndex(context);
+        if (rankIndex == null) {
             context.makeWarning(context.i18n("noData")).queue();
             return false;
         }
 
         List<String> messages = new ArrayList<>();
-        SimplePaginator paginator = new SimplePaginator(collection.getItems(), 10);
+        SimplePaginator paginator = new SimplePaginator(rankIndex.getTop(0, 100), 10);
         if (args.length > 0) {
             paginator.setCurrentPage(NumberUtil.parseInt(args[0], 1));
         }
 
         paginator.forEach((index, key, val) -> {
-            DataRow row = (DataRow) val;
+            RankIndex.RankedPlayer player = (RankIndex.RankedPlayer) val;
 
-            Member member = context.getGuild().getMemberById(row.getLong("user_id"));
-            String username = row.getString("username") + "#" + row.getString("discriminator");
+            Member member = context.getGuild().getMemberById(player.getUserId());
+            String username = player.getUsername() + "#" + player.getDiscriminator();
             if (member != null) {
                 username = member.getUser().getName() + "#" + member.getUser().getDiscriminator();
             }
 
-            long experience = row.getLong("experience", 100);
+            long experience = player.getExperience();
 
             messages.add(context.i18n("line")
                 .replace(":num", "" + (index + 1))
@@ -160,22 +149,18 @@ public class LeaderboardCommand extends Command {
             )
             .requestedBy(context.getMember());
 
-        Collection userRank = loadUserRank(context);
-        if (userRank != null && !userRank.isEmpty()) {
-            int rank = userRank.first().getInt("rank", -1);
-            if (++rank > 0) {
-                message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
-                        .replace(":num", NumberUtil.formatNicely(rank))
-                        .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
-                        .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(
-                            context.getGuildTransformer(), context.getPlayerTransformer().getExperience()
-                        )))
-                        .replace(":experience", NumberUtil.formatNicely(context.getPlayerTransformer().getExperience() - 100))
-                        + "\n\n" + paginator.generateFooter(generateCommandTrigger(context.getMessage())),
-                    false
-                );
-            }
-
+        int rank = loadUserRank(context, rankIndex);
+        if (rank > 0) {
+            message.addField("➡ " + context.i18n("yourRank"), context.i18n("line")
+                    .replace(":num", NumberUtil.formatNicely(rank))
+                    .replace(":username", context.getAuthor().getName() + "#" + context.getAuthor().getDiscriminator())
+                    .replace(":level", NumberUtil.formatNicely(avaire.getLevelManager().getLevelFromExperience(
+                        context.getGuildTransformer(), context.getPlayerTransformer().getExperience()
+                    )))
+                    .replace(":experience", NumberUtil.formatNicely(context.getPlayerTransformer().getExperience() - 100))
+                    + "\n\n" + paginator.generateFooter(generateCommandTrigger(context.getMessage())),
+                false
+            );
         }
 
         if (message.build().getFields().isEmpty()) {
@@ -188,40 +173,26 @@ public class LeaderboardCommand extends Command {
         return true;
     }
 
-    private Collection loadTop100From(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, asKey(context, false), () -> {
-            try {
-                return avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .where("guild_id", context.getGuild().getId())
-                    .orderBy("experience", "desc")
-                    .take(100)
-                    .get();
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for server: " + context.getGuild().getId(), e);
-                return null;
-            }
-        });
+    private RankIndex loadRankIndex(CommandMessage context) {
+        try {
+            return avaire.getLevelManager().getRankIndex(avaire, context.getGuild().getIdLong());
+        } catch (RuntimeException e) {
+            log.error("Failed to fetch leaderboard data for server: " + context.getGuild().getId(), e);
+            return null;
+        }
     }
 
-    private Collection loadUserRank(CommandMessage context) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(cache, asKey(context, true), () -> {
-            try {
-                return avaire.getDatabase().query(String.format(
-                    "SELECT COUNT(*) AS rank FROM (" +
-                        "    SELECT `user_id` FROM `experiences` WHERE `guild_id` = '%s' GROUP BY `user_id` HAVING SUM(`experience`) > (" +
-                        "        SELECT SUM(`experience`) FROM `experiences` WHERE `user_id` = '%s' AND `guild_id` = '%s'" +
-                        "    )" +
-                        ") t;",
-                    context.getGuild().getId(), context.getAuthor().getId(), context.getGuild().getId()
-                ));
-            } catch (SQLException e) {
-                log.error("Failed to fetch leaderboard data for user: " + context.getGuild().getId(), e);
-                return null;
-            }
-        });
-    }
+    private int loadUserRank(CommandMessage context, RankIndex index) {
+        PlayerTransformer player = context.getPlayerTransformer();
+        if (player == null) {
+            return -1;
+        }
+
+        // Players who were just created won't be in the index until they're rewarded experience.
+        if (index.getPlayer(player.getUserId()) == null) {
+            avaire.getLevelManager().updateRankIndex(player);
+        }
 
-    private String asKey(CommandMessage context, boolean isUser) {
-        return context.getGuild().getId() + (isUser ? "." + context.getAuthor().getId() : "");
+        return index.getRank(player.getUserId());
     }
 }
@@ -30,17 +30,14 @@ import com.avairebot.commands.administration.LevelCommand;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.commands.CommandGroup;
 import com.avairebot.contracts.commands.CommandGroups;
-import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.factories.MessageFactory;
-import com.avairebot.utilities.CacheUtil;
+import com.avairebot.level.RankIndex;
 import com.avairebot.utilities.MentionableUtil;
 import com.avairebot.utilities.NumberUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.User;
 
@@ -50,17 +47,10 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 public class RankCommand extends Command {
 
-    public static final Cache<Long, Collection> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(120, TimeUnit.SECONDS)
-        .build();
-
     public RankCommand(AvaIre avaire) {
         super(avaire, false);
     }
@@ -187,14 +177,14 @@ public class RankCommand extends Command {
                 PlayerTransformer player = context.getAuthor().getIdLong() == author.getIdLong()
                     ? context.getPlayerTransformer() : PlayerController.fetchPlayer(avaire, context.getMessage(), author);
 
-                DataRow data = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .selectRaw("sum(`experience`) - (count(`user_id`) * 100) as `total`")
+                DataRow data = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME)
+                    .select("experience")
                     .where("user_id", author.getId())
                     .get().first();
 
-                long total = data == null ? (player == null ? 0 : player.getExperience()) : data.getLong("total");
+                long total = data == null ? (player == null ? 0 : player.getExperience()) : data.getLong("experience");
 
-                return new DatabaseProperties(player, total, getScore(context, author.getId()));
+                return new DatabaseProperties(player, total, getScore(context, player));
             } catch (SQLException e) {
                 e.printStackTrace();
                 return null;
@@ -202,22 +192,23 @@ public class RankCommand extends Command {
         });
     }
 
-    private String getScore(CommandMessage context, String userId) throws SQLException {
-        Collection users = (Collection) CacheUtil.getUncheckedUnwrapped(cache, context.getGuild().getIdLong(), () ->
-            avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                .select("user_id as id")
-                .orderBy("experience", "desc")
-                .where("guild_id", context.getGuild().getId())
-                .get()
-        );
+    private String getScore(CommandMessage context, PlayerTransformer player) {
+        if (player == null) {
+            return context.i18n("unranked");
+        }
 
-        for (int i = 0; i < users.size(); i++) {
-            if (Objects.equals(users.get(i).getString("id"), userId)) {
-                return "" + (i + 1);
-            }
+        RankIndex index = avaire.getLevelManager().getRankIndex(avaire, context.getGuild().getIdLong());
+
+        // Players who were just created won't be in the index until they're rewarded experience.
+        if (index.getPlayer(player.getUserId()) == null) {
+            avaire.getLevelManager().updateRankIndex(player);
         }
 
-        return context.i18n("unranked");
+        int rank = index.getRank(player.getUserId());
+        if (rank < 1) {
+            return context.i18n("unranked");
+        }
+        return "" + rank;
     }
 
     private long getUsersInGuild(Guild guild) {
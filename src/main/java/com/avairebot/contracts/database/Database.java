@@ -26,6 +26,7 @@ import com.avairebot.contracts.database.grammar.AlterGrammar;
 import com.avairebot.contracts.database.grammar.Grammarable;
 import com.avairebot.contracts.database.grammar.TableGrammar;
 import com.avairebot.database.DatabaseManager;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.metrics.Metrics;
@@ -33,11 +34,15 @@ import com.avairebot.metrics.Metrics;
 import javax.annotation.WillClose;
 import javax.annotation.WillCloseWhenClosed;
 import javax.annotation.WillNotClose;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Database implements DatabaseConnection, Grammarable {
 
@@ -47,7 +52,7 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      * Represents our prepared query statements and their statement
      * type, allowing us to quickly render and compile statements.
      */
-    protected Map<PreparedStatement, StatementInterface> preparedStatements = new HashMap<>();
+    protected Map<PreparedStatement, StatementInterface> preparedStatements = new ConcurrentHashMap<>();
 
     /**
      * Represents our current database connection, this is
@@ -115,7 +120,7 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      *                      <code>ResultSet</code> object, the method is called on a
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
-    public final boolean close() throws SQLException {
+    public boolean close() throws SQLException {
         if (connection == null) {
             AvaIre.getLogger().warn("Database - Could not close connection, it is null.");
             return false;
@@ -133,8 +138,10 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     }
 
     /**
-     * Returns the current database connection, if the connection is not open/active, it
-     * will attempt to open the connection for you.
+     * Returns a database connection, if the connection is not open/active, it will attempt
+     * to open the connection for you, the returned connection should be closed once
+     * it is no longer needed, connection pooling implementations uses this to
+     * return the connection to the pool so it can be used by other threads.
      *
      * @return the database connection
      * @throws SQLException if a database access error occurs,
@@ -152,6 +159,20 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         return connection;
     }
 
+    /**
+     * Returns a database connection that should only be used for reading data, queries that
+     * returns a result set are run using this connection, by default this is the same
+     * as {@link #getConnection()}, databases that serves reads from a separate set
+     * of connections can override this, the connection should be closed once
+     * it is no longer needed, just like the normal connection.
+     *
+     * @return the database connection used for reading data
+     * @throws SQLException if a database access error occurs
+     */
+    public Connection getReadConnection() throws SQLException {
+        return getConnection();
+    }
+
     /**
      * Checks to see if the database connection is still valid.
      *
@@ -169,7 +190,7 @@ public abstract class Database implements DatabaseConnection, Grammarable {
      * @return either (1) <code>TRUE</code> if the database connection is open and valid
      * or (2) <code>FALSE</code> if the database connection is closed
      */
-    public final synchronized boolean isOpen(int seconds) {
+    public synchronized boolean isOpen(int seconds) {
         if (connection != null) {
             // Returns the last state if the connection was checked less than three seconds ago.
             if (System.currentTimeMillis() - 3000 < lastChecked) {
@@ -202,12 +223,21 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     public final ResultSet query(String query) throws SQLException {
         queryValidation(getStatement(query));
 
-        Statement statement = createPreparedStatement(query);
-        statement.closeOnCompletion();
+        Connection connection = getReadConnection();
+        try {
+            Statement statement = createPreparedStatement(connection, query);
+
+            if (statement.execute(query)) {
+                return closeWith(ResultSet.class, statement.getResultSet(), statement, connection);
+            }
 
-        if (statement.execute(query)) {
-            return statement.getResultSet();
+            statement.close();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
         }
+
+        connection.close();
         throw new SQLException("The query failed to execute successfully: " + query);
     }
 
@@ -226,6 +256,111 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         return query(query.toSQL());
     }
 
+    /**
+     * Queries the database with the given prepared query, the query
+     * should be a <code>SELECT</code> query, the parameters of the
+     * query will be bound to the statement before it is executed.
+     *
+     * @param query The prepared query to run.
+     * @return the current result as a <code>ResultSet</code> object or
+     * <code>null</code> if the result is an update count or there are no more results
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    @WillCloseWhenClosed
+    public final ResultSet query(PreparedQuery query) throws SQLException {
+        queryValidation(getStatement(query.getQuery()));
+
+        Connection connection = getReadConnection();
+        try {
+            PreparedStatement statement = createPreparedStatement(connection, query);
+
+            if (statement.execute()) {
+                return closeWith(ResultSet.class, statement.getResultSet(), statement, connection);
+            }
+
+            statement.close();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        connection.close();
+        throw new SQLException("The query failed to execute successfully: " + query);
+    }
+
+    /**
+     * Queries the database with the given prepared query using a forward-only, read-only
+     * cursor, the rows of the result will be fetched from the database in batches of
+     * the given fetch size while the result is being read, rather than all at once.
+     * <p>
+     * For MySQL a fetch size of {@link Integer#MIN_VALUE} can be used to stream
+     * the result one row at a time, any other positive fetch size will
+     * make the server use a cursor to send the rows in batches.
+     *
+     * @param query     The prepared query to run.
+     * @param fetchSize The amount of rows that should be fetched from the database at a time.
+     * @return the current result as a <code>ResultSet</code> object
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    @WillCloseWhenClosed
+    public final ResultSet query(PreparedQuery query, int fetchSize) throws SQLException {
+        queryValidation(getStatement(query.getQuery()));
+
+        Connection connection = getReadConnection();
+        try {
+            Metrics.databaseQueries.labels(query.getQuery().split(" ")[0].toUpperCase()).inc();
+
+            PreparedStatement statement = connection.prepareStatement(
+                query.getQuery(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+            );
+
+            try {
+                query.bind(statement);
+                statement.setFetchSize(fetchSize);
+
+                if (statement.execute()) {
+                    return closeWith(ResultSet.class, statement.getResultSet(), statement, connection);
+                }
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+
+            statement.close();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        connection.close();
+        throw new SQLException("The query failed to execute successfully: " + query);
+    }
+
+    /**
+     * Executes the given prepared query, which must be an SQL Data Manipulation Language (DML)
+     * statement, such as <code>INSERT</code>, <code>UPDATE</code> or <code>DELETE</code>;
+     * or an SQL statement that returns nothing, such as a DDL statement, the parameters
+     * of the query will be bound to the statement before it is executed.
+     *
+     * @param query The prepared query to run.
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     * or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs or this method is called on a
+     *                      closed <code>Statement</code>
+     */
+    @WillClose
+    public final int queryUpdate(PreparedQuery query) throws SQLException {
+        queryValidation(getStatement(query.getQuery()));
+
+        return write(connection -> {
+            try (PreparedStatement statement = createPreparedStatement(connection, query)) {
+                return statement.executeUpdate();
+            }
+        });
+    }
+
     /**
      * Queries the database with the given prepared statement.
      *
@@ -276,13 +411,23 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     @WillNotClose
     public final Statement prepare(String query) throws SQLException {
         StatementInterface statement = getStatement(query);
-        Statement ps = createPreparedStatement(query);
 
-        if (ps instanceof PreparedStatement) {
-            preparedStatements.put((PreparedStatement) ps, statement);
-        }
+        Connection connection = getConnection();
+        try {
+            Statement ps = createPreparedStatement(connection, query);
 
-        return ps;
+            if (ps instanceof PreparedStatement) {
+                PreparedStatement preparedStatement = closeWith(PreparedStatement.class, (PreparedStatement) ps, connection);
+                preparedStatements.put(preparedStatement, statement);
+
+                return preparedStatement;
+            }
+
+            return closeWith(Statement.class, ps, connection);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
     }
 
     /**
@@ -309,7 +454,8 @@ public abstract class Database implements DatabaseConnection, Grammarable {
     public final List<Long> insert(String query) throws SQLException {
         List<Long> keys = new ArrayList<>();
 
-        try (PreparedStatement pstmt = createPreparedStatement(query, 1)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = createPreparedStatement(connection, query, 1)) {
             ResultSet key = pstmt.getGeneratedKeys();
             if (key.next()) {
                 keys.add(key.getLong(1));
@@ -352,16 +498,63 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         return keys;
     }
 
-    protected Statement createPreparedStatement(String query) throws SQLException {
+    /**
+     * Runs the given write operation using a database connection, the connection
+     * is closed once the operation has finished, databases that serializes
+     * writes can override this to run the operation on their writer.
+     *
+     * @param operation The write operation that should be run.
+     * @param <T>       The type of the result returned by the operation.
+     * @return The result returned by the write operation.
+     * @throws SQLException if a database access error occurs.
+     */
+    protected <T> T write(ConnectionOperation<T> operation) throws SQLException {
+        try (Connection connection = getConnection()) {
+            return operation.run(connection);
+        }
+    }
+
+    protected Statement createPreparedStatement(Connection connection, String query) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        return getConnection().prepareStatement(query);
+        return connection.prepareStatement(query);
+    }
+
+    protected PreparedStatement createPreparedStatement(Connection connection, PreparedQuery query) throws SQLException {
+        Metrics.databaseQueries.labels(query.getQuery().split(" ")[0].toUpperCase()).inc();
+
+        PreparedStatement statement = connection.prepareStatement(query.getQuery());
+        try {
+            query.bind(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+
+        return statement;
     }
 
-    private PreparedStatement createPreparedStatement(String query, int autoGeneratedKeys) throws SQLException {
+    private PreparedStatement createPreparedStatement(Connection connection, String query, int autoGeneratedKeys) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        return getConnection().prepareStatement(query, autoGeneratedKeys);
+        return connection.prepareStatement(query, autoGeneratedKeys);
+    }
+
+    /**
+     * Wraps the given JDBC resource so the given resources are closed alongside it, this is
+     * used to tie the lifetime of borrowed connections to the statements and result sets
+     * that are handed out, so closing the result also releases the connection.
+     *
+     * @param type      The JDBC interface the returned resource should implement.
+     * @param delegate  The resource that should be wrapped.
+     * @param resources The resources that should be closed when the wrapped resource is closed.
+     * @param <T>       The type of the JDBC resource.
+     * @return The wrapped JDBC resource.
+     */
+    private <T extends AutoCloseable> T closeWith(Class<T> type, T delegate, AutoCloseable... resources) {
+        return type.cast(Proxy.newProxyInstance(
+            type.getClassLoader(), new Class[]{type}, new CloseWithHandler(delegate, resources)
+        ));
     }
 
     protected String setupAndRun(TableGrammar grammar, QueryBuilder builder, DatabaseManager manager, Map<String, Boolean> options) {
@@ -378,6 +571,70 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         return grammar.format(blueprint);
     }
 
+    private class CloseWithHandler implements InvocationHandler {
+
+        private final AutoCloseable delegate;
+        private final AutoCloseable[] resources;
+        private boolean closed = false;
+
+        CloseWithHandler(AutoCloseable delegate, AutoCloseable[] resources) {
+            this.delegate = delegate;
+            this.resources = resources;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close(proxy);
+                    return null;
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+            }
+
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private synchronized void close(Object proxy) throws Exception {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            //noinspection SuspiciousMethodCalls
+            preparedStatements.remove(proxy);
+
+            Exception exception = closeQuietly(delegate, null);
+            for (AutoCloseable resource : resources) {
+                exception = closeQuietly(resource, exception);
+            }
+
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        private Exception closeQuietly(AutoCloseable resource, Exception exception) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (exception == null) {
+                    return e;
+                }
+                exception.addSuppressed(e);
+            }
+            return exception;
+        }
+    }
+
     public enum QueryType {
         SELECT,
         INSERT,
@@ -385,4 +642,19 @@ public abstract class Database implements DatabaseConnection, Grammarable {
         DELETE,
         CREATE
     }
+
+    @FunctionalInterface
+    public interface ConnectionOperation<T> {
+
+        /**
+         * Runs the operation using the given database connection, the
+         * connection is managed by the caller and should not be
+         * closed by the operation itself.
+         *
+         * @param connection The database connection the operation should use.
+         * @return The result of the operation.
+         * @throws SQLException if a database access error occurs.
+         */
+        T run(Connection connection) throws SQLException;
+    }
 }
@@ -21,8 +21,11 @@
 
 package com.avairebot.contracts.database.grammar;
 
+import com.avairebot.database.query.QueryBuilder;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public abstract class InsertGrammar extends TableGrammar {
 
@@ -31,4 +34,95 @@ public abstract class InsertGrammar extends TableGrammar {
     public InsertGrammar() {
         query = "INSERT INTO ";
     }
+
+    /**
+     * Builds the start of the upsert clause, the clause is added after the
+     * values of the insert query, and is followed by the list of
+     * assignments that should be run when a conflict occurs.
+     *
+     * @param builder The query builder that is being formatted.
+     * @return the start of the upsert clause.
+     */
+    protected abstract String formatUpsertClause(QueryBuilder builder);
+
+    /**
+     * Formats a reference to the value that was attempted to be
+     * inserted for the given field, used for updating the
+     * conflicting row with the inserted values.
+     *
+     * @param field The formatted field name.
+     * @return the reference to the inserted value for the field.
+     */
+    protected abstract String formatInsertedValue(String field);
+
+    /**
+     * Builds the upsert clause for the query builder if the query builder
+     * has upsert keys, if no upsert items was given, every inserted
+     * column that isn't one of the keys will be updated with the
+     * value that was attempted to be inserted.
+     *
+     * @param builder The query builder that is being formatted.
+     */
+    protected void buildUpsert(QueryBuilder builder) {
+        if (builder.getUpsertKeys() == null) {
+            return;
+        }
+
+        addPart(formatUpsertClause(builder));
+
+        Map<String, Object> items = builder.getUpsertItems();
+        if (items == null || items.isEmpty()) {
+            boolean updated = false;
+            for (String key : keyset) {
+                if (builder.getUpsertKeys().contains(key)) {
+                    continue;
+                }
+
+                String field = formatField(key);
+                addPart(String.format(" %s = %s,", field, formatInsertedValue(field)));
+                updated = true;
+            }
+
+            if (!updated) {
+                // Every inserted column is part of the keys, so there is nothing to update,
+                // the first key is assigned to itself so the conflict is ignored.
+                String field = formatField(builder.getUpsertKeys().get(0));
+                addPart(String.format(" %s = %s,", field, field));
+            }
+
+            removeLast(1);
+            return;
+        }
+
+        for (Map.Entry<String, Object> item : items.entrySet()) {
+            String field = formatField(item.getKey());
+
+            if (item.getValue() == null) {
+                addPart(String.format(" %s = NULL,", field));
+
+                continue;
+            }
+
+            String value = item.getValue().toString();
+
+            if (value.startsWith("RAW:")) {
+                addPart(String.format(" %s = %s,", field, value.substring(4)));
+
+                continue;
+            }
+
+            if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+                int bool = value.equalsIgnoreCase("true") ? 1 : 0;
+                addPart(String.format(" %s = %s,", field, bindValue(builder, bool, String.valueOf(bool))));
+
+                continue;
+            }
+
+            addPart(String.format(" %s = %s,", field,
+                bindValue(builder, item.getValue(), isNumeric(value) ? value : String.format("'%s'", value.replaceAll("'", "\'")))
+            ));
+        }
+
+        removeLast(1);
+    }
 }
@@ -67,7 +67,7 @@ public abstract class TableGrammar extends Grammar {
             if (obj instanceof Clause) {
                 Clause clause = (Clause) obj;
 
-                addClause(clause, first);
+                addClause(builder, clause, first);
                 first = false;
 
                 continue;
@@ -91,7 +91,7 @@ public abstract class TableGrammar extends Grammar {
 
                     Clause clause = (Clause) temp;
 
-                    addClause(clause, first);
+                    addClause(builder, clause, first);
                     first = false;
                 }
 
@@ -102,7 +102,22 @@ public abstract class TableGrammar extends Grammar {
         }
     }
 
-    private void addClause(Clause clause, boolean exemptOperator) {
+    /**
+     * Binds the given value as a parameter to the query builder if a prepared query is
+     * being built, returning the placeholder that should be used in the query,
+     * otherwise the given inlined representation of the value is returned.
+     *
+     * @param builder The query builder that is being formatted.
+     * @param value   The value that should be bound to the query.
+     * @param inlined The representation of the value used when values are inlined into the query.
+     * @return either (1) the <code>?</code> placeholder if the value was bound
+     * or (2) the inlined representation of the value
+     */
+    protected String bindValue(QueryBuilder builder, Object value, String inlined) {
+        return builder.bindParameter(value) ? "?" : inlined;
+    }
+
+    private void addClause(QueryBuilder builder, Clause clause, boolean exemptOperator) {
         if (clause.getOrder() == null) {
             clause.setOrder(OperatorType.AND);
         }
@@ -117,6 +132,7 @@ public abstract class TableGrammar extends Grammar {
         if (!isNumeric(field)) {
             field = String.format("'%s'", field);
         }
+        field = bindValue(builder, clause.getTwo(), field);
 
         String stringClause = String.format("%s %s %s", formatField(clause.getOne()), clause.getIdentifier(), field);
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.contracts.level;
+
+/**
+ * A level curve describes how much experience is needed to reach each level, the level
+ * manager only uses the curve to build its lookup tables, so the curve can use as
+ * much floating point math as it needs without slowing down the message path.
+ * <p>
+ * The level returned by {@link #getLevelFromExperience(long, double)} must never
+ * decrease as the amount of experience increases, since the level lookups
+ * are done using binary searches over the experience thresholds.
+ */
+public interface LevelCurve {
+
+    /**
+     * Get the amount of experience needed to reach the given level.
+     *
+     * @param level    The level the experience should be fetched from.
+     * @param modifier The modifier that should be added to the XP calculation, the modifier
+     *                 should be a percentage represented as a decimal, so 0.5 = 50%
+     * @return The minimum amount of experience needed to reach the given level.
+     */
+    long getExperienceFromLevel(long level, double modifier);
+
+    /**
+     * Gets the max level that can be reached with the given amount experience.
+     *
+     * @param xp       The experience that should be resolved into the level.
+     * @param modifier The modifier that should be subtracted from the XP calculation, the modifier
+     *                 should be a percentage represented as a decimal, so 0.5 = 50%
+     * @return The max level that can be reached with the given amount of experience.
+     */
+    long getLevelFromExperience(long xp, double modifier);
+}
@@ -78,6 +78,22 @@ public abstract class Middleware {
         return null;
     }
 
+    /**
+     * Compiles the arguments given to the middleware into a pre-parsed object, this is
+     * invoked once for every command using the middleware when the command is being
+     * registered, the compiled arguments can then be fetched while handling the
+     * middleware request through {@link #handle(Message, MiddlewareStack, Object, String[]) handle()},
+     * so the arguments doesn't have to be parsed again for every message.
+     *
+     * @param arguments The arguments that was given to the middleware for the command.
+     * @return Possibly-null, the compiled arguments, or null if the middleware doesn't compile its arguments.
+     * @throws IllegalArgumentException This should be thrown if the given arguments are malformed.
+     */
+    @Nullable
+    public Object compileArguments(@Nonnull String[] arguments) {
+        return null;
+    }
+
     /**
      * Invoked by the middleware stack, handles the middleware request message
      * event, on success the {@link MiddlewareStack#next()} method should be
@@ -91,6 +107,22 @@ public abstract class Middleware {
      */
     public abstract boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args);
 
+    /**
+     * Invoked by the middleware stack with the arguments that was compiled for the
+     * middleware when the command was registered, middlewares that compiles their
+     * arguments should override this method to use the compiled arguments, by
+     * default the request is just passed on to the regular handle method.
+     *
+     * @param message           The JDA message object.
+     * @param stack             The middleware stack for the current command.
+     * @param compiledArguments Possibly-null, the compiled arguments for the current middleware.
+     * @param args              The arguments given the current middleware.
+     * @return Invoke {@link MiddlewareStack#next()} on success, false on failure.
+     */
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, @Nullable Object compiledArguments, String[] args) {
+        return handle(message, stack, args);
+    }
+
     /**
      * Checks the message cache to see if the user has received an error message in
      * the last 2½ seconds, if they did the callback will be ignored and the
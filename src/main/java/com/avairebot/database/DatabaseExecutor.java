@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+
+/**
+ * A bounded executor used for running database queries off the calling thread, the
+ * executor has its own set of worker threads so slow queries doesn't delay the
+ * scheduled jobs, or the command threads waiting on a query result.
+ * <p>
+ * When the amount of queued queries reaches its limit, new queries will be rejected,
+ * and the future returned for the query will be completed exceptionally with a
+ * {@link RejectedExecutionException}, so the caller can decide what to do.
+ */
+public class DatabaseExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new database executor and starts the worker threads.
+     *
+     * @param workers      The amount of worker threads that should run queries.
+     * @param maxQueueSize The max amount of queries that can be waiting to run at the same time.
+     */
+    public DatabaseExecutor(int workers, int maxQueueSize) {
+        int threads = Math.max(1, workers);
+
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(Math.max(1, maxQueueSize)),
+            new ThreadFactoryBuilder()
+                .setNameFormat("avaire-database-thread-%d")
+                .setDaemon(true)
+                .build(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Submits the given query task to the executor, the returned future will be completed with
+     * the result of the task once it has been run, or completed exceptionally with the
+     * exception thrown by the task, or the {@link RejectedExecutionException} if
+     * the task was rejected because the queue is full.
+     *
+     * @param task The task that should be run.
+     * @param <T>  The type of the result returned by the task.
+     * @return The future that is completed once the task has been run.
+     */
+    public <T> CompletableFuture<T> submit(@Nonnull Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        Metrics.databaseQueueSize.inc();
+
+        try {
+            executor.execute(() -> {
+                Metrics.databaseQueueSize.dec();
+
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Metrics.databaseQueueSize.dec();
+            Metrics.databaseQueriesRejected.inc();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Gets the amount of queries currently waiting to be run.
+     *
+     * @return The amount of queued queries.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting new queries, and waits for the queries that have
+     * already been submitted to finish running, or for the given
+     * timeout to run out, whichever happens first.
+     *
+     * @param timeout The max amount of time to wait for the queued queries to finish.
+     * @param unit    The time unit of the timeout.
+     * @return <code>True</code> if all the queued queries finished running, <code>False</code> otherwise.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.avairebot.database.connections.MySQL;
 import com.avairebot.database.connections.SQLite;
 import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.migrate.Migrations;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Schema;
 import com.avairebot.metrics.Metrics;
@@ -37,9 +38,8 @@ import org.slf4j.MDC;
 
 import javax.annotation.WillClose;
 import java.sql.*;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseManager {
 
@@ -49,7 +49,9 @@ public class DatabaseManager {
     private final Schema schema;
     private final Migrations migrations;
 
-    private Database connection = null;
+    private volatile Database connection = null;
+    private volatile DatabaseExecutor executor = null;
+    private volatile QueryProfiler profiler = null;
 
     public DatabaseManager(AvaIre avaire) {
         this.avaire = avaire;
@@ -70,7 +72,25 @@ public class DatabaseManager {
     }
 
     public Database getConnection() throws SQLException, DatabaseException {
+        Database connection = this.connection;
         if (connection == null) {
+            connection = createConnection();
+        }
+
+        if (connection.isOpen()) {
+            return connection;
+        }
+
+        if (!connection.open()) {
+            throw new DatabaseException("Failed to connect to the database.");
+        }
+
+        return connection;
+    }
+
+    private synchronized Database createConnection() throws DatabaseException {
+        if (connection == null) {
+            Database connection;
             switch (avaire.getConfig().getString("database.type", "invalid").toLowerCase()) {
                 case "mysql":
                     connection = new MySQL(this);
@@ -85,17 +105,76 @@ public class DatabaseManager {
             }
 
             connection.setDatabaseManager(this);
+
+            this.connection = connection;
         }
 
-        if (connection.isOpen()) {
-            return connection;
+        return connection;
+    }
+
+    /**
+     * Gets the database executor used for running async queries, the executor
+     * is created the first time it is requested, using the thread and
+     * queue size settings from the config.
+     *
+     * @return The database executor used for running async queries.
+     */
+    public DatabaseExecutor getExecutor() {
+        DatabaseExecutor executor = this.executor;
+        if (executor == null) {
+            executor = createExecutor();
         }
+        return executor;
+    }
 
-        if (!connection.open()) {
-            throw new DatabaseException("Failed to connect to the database.");
+    /**
+     * Shuts down the database executor if it has been created, waiting
+     * for the queued async queries to finish running first.
+     *
+     * @param timeout The max amount of time to wait for the queued queries to finish.
+     * @param unit    The time unit of the timeout.
+     */
+    public void shutdownExecutor(long timeout, TimeUnit unit) {
+        DatabaseExecutor executor = this.executor;
+        if (executor != null && !executor.shutdown(timeout, unit)) {
+            log.warn("Timed out waiting for {} queued async database queries to finish", executor.getQueueSize());
         }
+    }
 
-        return connection;
+    private synchronized DatabaseExecutor createExecutor() {
+        if (executor == null) {
+            executor = new DatabaseExecutor(
+                avaire.getConfig().getInt("database.async.threads", 4),
+                avaire.getConfig().getInt("database.async.queue-size", 2500)
+            );
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the query profiler used for recording metrics for every query,
+     * and logging slow queries, the profiler is created the first time
+     * it is requested, using the slow query log settings from the config.
+     *
+     * @return The query profiler used for recording query metrics.
+     */
+    public QueryProfiler getProfiler() {
+        QueryProfiler profiler = this.profiler;
+        if (profiler == null) {
+            profiler = createProfiler();
+        }
+        return profiler;
+    }
+
+    private synchronized QueryProfiler createProfiler() {
+        if (profiler == null) {
+            profiler = new QueryProfiler(
+                avaire.getConfig().getBoolean("database.slow-query-log.enabled", true),
+                avaire.getConfig().getLong("database.slow-query-log.threshold", 250L),
+                avaire.getConfig().getDouble("database.slow-query-log.parameter-sample-rate", 0.1D)
+            );
+        }
+        return profiler;
     }
 
     public QueryBuilder newQueryBuilder() {
@@ -125,9 +204,11 @@ public class DatabaseManager {
         log.debug("query(String query) was called with the following SQL query.\nSQL: " + query);
         MDC.put("query", query);
 
-        try (ResultSet resultSet = getConnection().query(query)) {
-            return new Collection(resultSet);
-        }
+        return getProfiler().profile(QueryProfiler.shapeOf(query), query, null, () -> {
+            try (ResultSet resultSet = getConnection().query(query)) {
+                return new Collection(resultSet);
+            }
+        }, Collection::size);
     }
 
     /**
@@ -150,7 +231,16 @@ public class DatabaseManager {
      */
     @WillClose
     public Collection query(QueryBuilder query) throws SQLException {
-        return query(query.toSQL());
+        PreparedQuery preparedQuery = prepareQuery(query);
+
+        log.debug("query(QueryBuilder query) was called with the following SQL query.\nSQL: " + preparedQuery.getQuery());
+        MDC.put("query", preparedQuery.getQuery());
+
+        return getProfiler().profile(query.getShape(), preparedQuery.getQuery(), preparedQuery.getParameters(), () -> {
+            try (ResultSet resultSet = getConnection().query(preparedQuery)) {
+                return new Collection(resultSet);
+            }
+        }, Collection::size);
     }
 
     /**
@@ -174,13 +264,15 @@ public class DatabaseManager {
         log.debug("queryUpdate(String query) was called with the following SQL query.\nSQL: " + query);
         MDC.put("query", query);
 
-        try (Statement stmt = getConnection().prepare(query)) {
-            if (stmt instanceof PreparedStatement) {
-                return ((PreparedStatement) stmt).executeUpdate();
-            }
+        return getProfiler().profile(QueryProfiler.shapeOf(query), query, null, () -> {
+            try (Statement stmt = getConnection().prepare(query)) {
+                if (stmt instanceof PreparedStatement) {
+                    return ((PreparedStatement) stmt).executeUpdate();
+                }
 
-            return stmt.executeUpdate(query);
-        }
+                return stmt.executeUpdate(query);
+            }
+        }, Integer::longValue);
     }
 
     /**
@@ -202,7 +294,14 @@ public class DatabaseManager {
      */
     @WillClose
     public int queryUpdate(QueryBuilder query) throws SQLException {
-        return queryUpdate(query.toSQL());
+        PreparedQuery preparedQuery = prepareQuery(query);
+
+        log.debug("queryUpdate(QueryBuilder query) was called with the following SQL query.\nSQL: " + preparedQuery.getQuery());
+        MDC.put("query", preparedQuery.getQuery());
+
+        return getProfiler().profile(query.getShape(), preparedQuery.getQuery(), preparedQuery.getParameters(),
+            () -> getConnection().queryUpdate(preparedQuery), Integer::longValue
+        );
     }
 
     /**
@@ -230,18 +329,21 @@ public class DatabaseManager {
             throw new DatabaseException("queryInsert was called with a query without an INSERT statement!");
         }
 
-        try (PreparedStatement stmt = getConnection().getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.executeUpdate();
+        return getProfiler().profile(QueryProfiler.shapeOf(query), query, null, () -> {
+            try (Connection connection = getConnection().getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.executeUpdate();
 
-            Set<Integer> ids = new HashSet<>();
+                Set<Integer> ids = new HashSet<>();
 
-            ResultSet keys = stmt.getGeneratedKeys();
-            while (keys.next()) {
-                ids.add(keys.getInt(1));
-            }
+                ResultSet keys = stmt.getGeneratedKeys();
+                while (keys.next()) {
+                    ids.add(keys.getInt(1));
+                }
 
-            return ids;
-        }
+                return ids;
+            }
+        }, Set::size);
     }
 
     /**
@@ -262,50 +364,116 @@ public class DatabaseManager {
      */
     @WillClose
     public Set<Integer> queryInsert(QueryBuilder queryBuilder) throws SQLException {
-        String query = queryBuilder.toSQL();
-        log.debug("queryInsert(QueryBuilder queryBuilder) was called with the following SQL query.\nSQL: " + query);
+        PreparedQuery query = prepareQuery(queryBuilder);
+        log.debug("queryInsert(QueryBuilder queryBuilder) was called with the following SQL query.\nSQL: " + query.getQuery());
         Metrics.databaseQueries.labels("INSERT").inc();
-        MDC.put("query", query);
-
-        if (query == null) {
-            throw new SQLException("null query was generated, null can not be used as a valid query");
-        }
+        MDC.put("query", query.getQuery());
 
-        if (!query.startsWith("INSERT INTO")) {
+        if (!query.getQuery().startsWith("INSERT INTO")) {
             throw new DatabaseException("queryInsert was called with a query without an INSERT statement!");
         }
 
-        try (PreparedStatement stmt = getConnection().getConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            int preparedIndex = 1;
-            for (Map<String, Object> row : queryBuilder.getItems()) {
-                for (Map.Entry<String, Object> item : row.entrySet()) {
-                    if (item.getValue() == null) {
-                        continue;
-                    }
+        return getProfiler().profile(queryBuilder.getShape(), query.getQuery(), query.getParameters(), () -> {
+            try (Connection connection = getConnection().getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(query.getQuery(), Statement.RETURN_GENERATED_KEYS)) {
+                query.bind(stmt);
+                stmt.executeUpdate();
 
-                    String value = item.getValue().toString();
+                Set<Integer> ids = new HashSet<>();
 
-                    if (value.startsWith("RAW:") ||
-                        value.equalsIgnoreCase("true") ||
-                        value.equalsIgnoreCase("false") ||
-                        value.matches("[-+]?\\d*\\.?\\d+")) {
-                        continue;
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getInt(1));
                     }
+                }
+
+                return ids;
+            }
+        }, Set::size);
+    }
 
-                    stmt.setString(preparedIndex++, value);
+    /**
+     * Executes the given prepared queries as JDBC batches in a single transaction, queries that share
+     * the same SQL statement are added to the same batch, so rows inserted with the same set of
+     * columns are sent to the database together, if any of the queries fails, the entire
+     * transaction is rolled back and none of the queries will have been applied.
+     *
+     * @param queries The list of prepared queries that should be executed.
+     * @return the update counts for each of the queries, in the same order as the queries was given, the
+     * count may be {@link Statement#SUCCESS_NO_INFO} if the driver rewrote the batch into a single query.
+     * @throws SQLException if a database access error occurs, or any of the queries fails.
+     */
+    @WillClose
+    public int[] queryBatch(List<PreparedQuery> queries) throws SQLException {
+        if (queries.isEmpty()) {
+            return new int[0];
+        }
+
+        String query = queries.get(0).getQuery();
+
+        return getProfiler().profile(QueryProfiler.shapeOf(query, "batch"), query, queries.get(0).getParameters(),
+            () -> executeBatch(queries), results -> {
+                // Drivers that rewrites the batch into a single query doesn't report
+                // the amount of affected rows, so they're counted as one row each.
+                long rows = 0;
+                for (int result : results) {
+                    rows += result >= 0 ? result : 1;
                 }
+                return rows;
             }
+        );
+    }
+
+    private int[] executeBatch(List<PreparedQuery> queries) throws SQLException {
+        int[] results = new int[queries.size()];
+
+        Map<String, List<Integer>> batches = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            batches.computeIfAbsent(queries.get(i).getQuery(), query -> new ArrayList<>()).add(i);
+        }
 
-            stmt.executeUpdate();
+        log.debug("queryBatch(List<PreparedQuery> queries) was called with {} queries in {} batches", queries.size(), batches.size());
 
-            Set<Integer> ids = new HashSet<>();
+        try (Connection connection = getConnection().getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
 
-            ResultSet keys = stmt.getGeneratedKeys();
-            while (keys.next()) {
-                ids.add(keys.getInt(1));
+            try {
+                for (Map.Entry<String, List<Integer>> batch : batches.entrySet()) {
+                    MDC.put("query", batch.getKey());
+                    Metrics.databaseQueries.labels(batch.getKey().split(" ")[0].toUpperCase()).inc(batch.getValue().size());
+
+                    try (PreparedStatement stmt = connection.prepareStatement(batch.getKey())) {
+                        for (int index : batch.getValue()) {
+                            queries.get(index).bind(stmt);
+                            stmt.addBatch();
+                        }
+
+                        int[] counts = stmt.executeBatch();
+                        for (int i = 0; i < counts.length && i < batch.getValue().size(); i++) {
+                            results[batch.getValue().get(i)] = counts[i];
+                        }
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
             }
+        }
 
-            return ids;
+        return results;
+    }
+
+    private PreparedQuery prepareQuery(QueryBuilder queryBuilder) throws SQLException {
+        PreparedQuery query = queryBuilder.toPreparedQuery();
+        if (query == null) {
+            throw new SQLException("null query was generated, null can not be used as a valid query");
         }
+
+        return query;
     }
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class QueryProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    /**
+     * The amount of nanoseconds the current thread has spent waiting for database
+     * connections since the last query was started, connection pools adds to
+     * this when a connection is borrowed so it can be tied to the query.
+     */
+    private static final ThreadLocal<long[]> connectionWait = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final Pattern tablePattern = Pattern.compile(
+        "\\b(?:FROM|INTO|UPDATE|TABLE)\\s+`?([\\w.]+)`?", Pattern.CASE_INSENSITIVE
+    );
+
+    /**
+     * The max length of each of the parameters included in the slow query log,
+     * parameters longer than this is cut off, so large encoded JSON
+     * values doesn't end up filling up the log files.
+     */
+    private static final int maxParameterLength = 64;
+
+    private final boolean slowQueryLogEnabled;
+    private final long slowQueryThreshold;
+    private final double parameterSampleRate;
+
+    /**
+     * Creates a new query profiler.
+     *
+     * @param slowQueryLogEnabled Determines if queries slower than the threshold should be logged.
+     * @param slowQueryThreshold  The amount of milliseconds a query can take before it is logged as a slow query.
+     * @param parameterSampleRate The chance between 0 and 1 that the parameters are included for a slow query.
+     */
+    public QueryProfiler(boolean slowQueryLogEnabled, long slowQueryThreshold, double parameterSampleRate) {
+        this.slowQueryLogEnabled = slowQueryLogEnabled;
+        this.slowQueryThreshold = TimeUnit.MILLISECONDS.toNanos(Math.max(0, slowQueryThreshold));
+        this.parameterSampleRate = Math.max(0D, Math.min(1D, parameterSampleRate));
+    }
+
+    /**
+     * Records the given amount of time spent waiting for a
+     * database connection for the current thread.
+     *
+     * @param nanos The amount of nanoseconds spent waiting for a connection.
+     */
+    public static void recordConnectionWait(long nanos) {
+        connectionWait.get()[0] += nanos;
+    }
+
+    /**
+     * Creates the shape of a raw SQL query, since the where columns can't be
+     * reliably read from raw queries, the shape only contains the table
+     * and the query type, and is marked as a raw query.
+     *
+     * @param query The raw SQL query.
+     * @return The shape of the query.
+     */
+    public static String shapeOf(String query) {
+        return shapeOf(query, "raw");
+    }
+
+    /**
+     * Creates the shape of an SQL query using the table and the query
+     * type from the query, followed by the given kind of query.
+     *
+     * @param query The SQL query.
+     * @param kind  The kind of query, like "raw" or "batch".
+     * @return The shape of the query.
+     */
+    public static String shapeOf(String query, String kind) {
+        String trimmed = query.trim();
+        int space = trimmed.indexOf(' ');
+        String type = (space < 0 ? trimmed : trimmed.substring(0, space)).toUpperCase();
+
+        Matcher matcher = tablePattern.matcher(trimmed);
+
+        return String.format("%s:%s(%s)", matcher.find() ? matcher.group(1) : "unknown", type, kind);
+    }
+
+    /**
+     * Runs the given query and records how long the query took, how many rows were returned
+     * or affected by the query, and how long was spent waiting for a connection, grouped
+     * by the shape of the query, queries that are slower than the slow query
+     * threshold are logged alongside the code that ran the query.
+     *
+     * @param shape      The normalized shape of the query.
+     * @param query      The SQL query that is being run.
+     * @param parameters Possibly-null, the parameters bound to the query.
+     * @param callback   The callback that runs the query.
+     * @param rows       The function used to get the amount of rows from the query result, negative values are ignored.
+     * @param <T>        The type of the query result.
+     * @return The result of the query.
+     * @throws SQLException if the query fails to run.
+     */
+    public <T> T profile(
+        String shape,
+        String query,
+        @Nullable List<Object> parameters,
+        ProfiledQuery<T> callback,
+        ToLongFunction<T> rows
+    ) throws SQLException {
+        connectionWait.get()[0] = 0L;
+        long start = System.nanoTime();
+
+        try {
+            T result = callback.run();
+
+            finish(shape, query, parameters, start, result == null ? -1 : rows.applyAsLong(result));
+
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            Metrics.databaseQueryErrors.labels(shape).inc();
+            finish(shape, query, parameters, start, -1);
+
+            throw e;
+        }
+    }
+
+    private void finish(String shape, String query, @Nullable List<Object> parameters, long start, long rows) {
+        long duration = System.nanoTime() - start;
+        long wait = connectionWait.get()[0];
+
+        Metrics.databaseQueryTime.labels(shape).observe(duration / 1E9D);
+        Metrics.databaseQueryConnectionWaitTime.labels(shape).observe(wait / 1E9D);
+        if (rows >= 0) {
+            Metrics.databaseQueryRows.labels(shape).observe(rows);
+        }
+
+        if (!slowQueryLogEnabled || duration < slowQueryThreshold) {
+            return;
+        }
+
+        log.warn("Slow query {} took {}ms ({}ms waiting for a connection, {} rows) from {}\nSQL: {}{}",
+            shape,
+            TimeUnit.NANOSECONDS.toMillis(duration),
+            TimeUnit.NANOSECONDS.toMillis(wait),
+            rows < 0 ? "unknown" : rows,
+            findCaller(),
+            query,
+            formatParameters(parameters)
+        );
+    }
+
+    private String formatParameters(@Nullable List<Object> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return "";
+        }
+
+        // Only some of the slow queries includes their parameters, since they can contain
+        // user data, the sample still gives enough examples to reproduce slow queries.
+        if (ThreadLocalRandom.current().nextDouble() >= parameterSampleRate) {
+            return "";
+        }
+
+        return "\nParameters: " + parameters.stream().map(parameter -> {
+            String value = String.valueOf(parameter);
+            if (value.length() > maxParameterLength) {
+                return value.substring(0, maxParameterLength) + "...";
+            }
+            return value;
+        }).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private String findCaller() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+
+            if (!className.startsWith("com.avairebot.")) {
+                continue;
+            }
+
+            // Skips the database internals, but not the database controllers, since
+            // they're usually the ones running the queries for everything else.
+            if (className.startsWith("com.avairebot.database.") && !className.startsWith("com.avairebot.database.controllers.")) {
+                continue;
+            }
+
+            return element.getClassName() + "#" + element.getMethodName() + ":" + element.getLineNumber();
+        }
+
+        return "unknown";
+    }
+
+    @FunctionalInterface
+    public interface ProfiledQuery<T> {
+
+        /**
+         * Runs the query that is being profiled.
+         *
+         * @return The result of the query.
+         * @throws SQLException if the query fails to run.
+         */
+        T run() throws SQLException;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A write-behind buffer for column updates to a single table, updates are queued up
+ * per row and column, and written to the database in a single batched transaction
+ * once the first queued update for the row has waited for the write delay.
+ * <p>
+ * Queuing an update for a row and column that already has a pending update replaces
+ * the pending value, so a burst of events updating the same column only results
+ * in one write, the values are suppliers that are invoked when the buffer is
+ * flushed, so expensive values are only built once per write as well.
+ */
+public class WriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    /**
+     * The maximum amount of time rows that has failed to be written
+     * will be held back before they're attempted to be written again.
+     */
+    private static final long MAX_RETRY_BACKOFF = TimeUnit.MINUTES.toMillis(5);
+
+    private final String table;
+    private final String keyColumn;
+    private final long delay;
+
+    private final Map<Long, PendingRow> pending = new HashMap<>();
+
+    /**
+     * Creates a new write-behind buffer for the given table.
+     *
+     * @param table     The name of the table the updates should be written to.
+     * @param keyColumn The name of the column used to identify the rows that should be updated.
+     * @param delay     The amount of time updates should be buffered before they're written to the database.
+     * @param unit      The time unit of the delay.
+     */
+    public WriteBehindBuffer(@Nonnull String table, @Nonnull String keyColumn, long delay, @Nonnull TimeUnit unit) {
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.delay = unit.toMillis(delay);
+    }
+
+    /**
+     * Queues an update for the given row and column, replacing any pending
+     * update for the same row and column, if the value should be encoded
+     * it will be stored as a base64 string, just like when using
+     * {@link com.avairebot.database.query.ChangeableStatement#set(String, Object, boolean)}.
+     *
+     * @param id     The ID of the row that should be updated.
+     * @param column The column that should be updated.
+     * @param encode Determines if the value should be encoded with base64 before it is stored.
+     * @param value  The supplier for the value, invoked when the buffer is flushed.
+     */
+    public void queue(long id, @Nonnull String column, boolean encode, @Nonnull Supplier<Object> value) {
+        synchronized (pending) {
+            pending.computeIfAbsent(id, key -> new PendingRow(System.currentTimeMillis()))
+                .columns.put(column, new PendingValue(encode, value));
+        }
+    }
+
+    /**
+     * Gets the amount of rows that currently has pending updates.
+     *
+     * @return The amount of rows with pending updates.
+     */
+    public int size() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Checks if any of the pending rows has waited long enough to be written to the database.
+     *
+     * @return <code>True</code> if there are rows ready to be written, <code>False</code> otherwise.
+     */
+    public boolean hasDueWrites() {
+        return hasDueWrites(System.currentTimeMillis());
+    }
+
+    /**
+     * Writes the pending updates to the database in a single transaction, the updates
+     * for rows that updates the same set of columns are sent to the database in
+     * a single batch, if the transaction fails the updates are queued again,
+     * unless a newer update has been queued for the same column since, the
+     * requeued rows are held back for an exponential backoff, so a
+     * persistent database error doesn't cause a retry every tick, rows
+     * with a value that fails to be built are logged and dropped.
+     *
+     * @param dbm   The database manager that should be used to write the updates.
+     * @param force <code>True</code> to write all the pending updates, <code>False</code> to only write the due updates.
+     * @return The amount of rows that were updated.
+     * @throws SQLException if a database access error occurs while writing the updates.
+     */
+    public synchronized int flush(@Nonnull DatabaseManager dbm, boolean force) throws SQLException {
+        Map<Long, PendingRow> rows = drain(force ? Long.MAX_VALUE : System.currentTimeMillis());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // The values are built before the transaction is started, so a value supplier that
+        // fails only drops the row it belongs to, instead of every row in the flush.
+        Map<List<String>, Map<Long, List<Object>>> batches = new LinkedHashMap<>();
+        Iterator<Map.Entry<Long, PendingRow>> iterator = rows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, PendingRow> row = iterator.next();
+
+            List<Object> values = new ArrayList<>();
+            try {
+                for (PendingValue value : row.getValue().columns.values()) {
+                    values.add(value.build());
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to build the buffered update for {} in the {} table, the update has been dropped: {}",
+                    row.getKey(), table, e.getMessage(), e
+                );
+                iterator.remove();
+                continue;
+            }
+
+            batches.computeIfAbsent(new ArrayList<>(row.getValue().columns.keySet()), columns -> new LinkedHashMap<>())
+                .put(row.getKey(), values);
+        }
+
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection connection = dbm.getConnection().getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                for (Map.Entry<List<String>, Map<Long, List<Object>>> batch : batches.entrySet()) {
+                    writeBatch(connection, batch.getKey(), batch.getValue());
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                requeue(rows, System.currentTimeMillis());
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+
+        log.debug("Flushed buffered updates for {} rows to the {} table", rows.size(), table);
+
+        return rows.size();
+    }
+
+    boolean hasDueWrites(long now) {
+        synchronized (pending) {
+            for (PendingRow row : pending.values()) {
+                if (now - row.queuedAt >= delay) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    Map<Long, PendingRow> drain(long now) {
+        Map<Long, PendingRow> rows = new LinkedHashMap<>();
+
+        synchronized (pending) {
+            Iterator<Map.Entry<Long, PendingRow>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, PendingRow> row = iterator.next();
+                if (now == Long.MAX_VALUE || now - row.getValue().queuedAt >= delay) {
+                    rows.put(row.getKey(), row.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    void requeue(Map<Long, PendingRow> rows, long now) {
+        synchronized (pending) {
+            for (Map.Entry<Long, PendingRow> row : rows.entrySet()) {
+                PendingRow current = pending.get(row.getKey());
+                if (current == null) {
+                    int attempts = row.getValue().attempts + 1;
+
+                    current = new PendingRow(now + getRetryBackoff(attempts), attempts);
+                    current.columns.putAll(row.getValue().columns);
+
+                    pending.put(row.getKey(), current);
+                    continue;
+                }
+
+                for (Map.Entry<String, PendingValue> column : row.getValue().columns.entrySet()) {
+                    current.columns.putIfAbsent(column.getKey(), column.getValue());
+                }
+            }
+        }
+    }
+
+    private long getRetryBackoff(int attempts) {
+        long backoff = Math.max(delay, 1000L) << Math.min(attempts - 1, 16);
+
+        return Math.min(backoff, MAX_RETRY_BACKOFF);
+    }
+
+    private void writeBatch(Connection connection, List<String> columns, Map<Long, List<Object>> rows) throws SQLException {
+        StringBuilder query = new StringBuilder("UPDATE `").append(table).append("` SET ");
+        for (int i = 0; i < columns.size(); i++) {
+            query.append(i == 0 ? "`" : ", `").append(columns.get(i)).append("` = ?");
+        }
+        query.append(" WHERE `").append(keyColumn).append("` = ?");
+
+        try (PreparedStatement statement = connection.prepareStatement(query.toString())) {
+            for (Map.Entry<Long, List<Object>> row : rows.entrySet()) {
+                int index = 1;
+                for (Object value : row.getValue()) {
+                    statement.setObject(index++, value);
+                }
+                statement.setString(index, row.getKey().toString());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    static class PendingRow {
+
+        private final long queuedAt;
+        private final int attempts;
+        private final Map<String, PendingValue> columns = new TreeMap<>();
+
+        PendingRow(long queuedAt) {
+            this(queuedAt, 0);
+        }
+
+        PendingRow(long queuedAt, int attempts) {
+            this.queuedAt = queuedAt;
+            this.attempts = attempts;
+        }
+
+        Map<String, PendingValue> getColumns() {
+            return columns;
+        }
+    }
+
+    static class PendingValue {
+
+        private final boolean encode;
+        private final Supplier<Object> value;
+
+        PendingValue(boolean encode, Supplier<Object> value) {
+            this.encode = encode;
+            this.value = value;
+        }
+
+        @Nullable
+        Object build() {
+            Object value = this.value.get();
+            if (!encode || value == null) {
+                return value;
+            }
+
+            return "base64:" + new String(
+                Base64.getEncoder().encode(value.toString().getBytes())
+            );
+        }
+    }
+}
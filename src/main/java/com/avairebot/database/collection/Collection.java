@@ -99,14 +99,16 @@ public class Collection implements Cloneable, Iterable<DataRow> {
             keys.put(meta.getColumnLabel(i), meta.getColumnClassName(i));
         }
 
-        while (result.next()) {
-            Map<String, Object> array = new HashMap<>();
+        // Every row in the collection shares the same column schema, and only stores
+        // its own values array, so the column lookups and labels are only
+        // created once for the entire result instead of once per row.
+        ColumnSchema schema = ColumnSchema.of(meta);
 
-            for (String key : keys.keySet()) {
-                array.put(key, result.getString(key));
-            }
+        while (result.next()) {
+            Object[] values = new Object[schema.size()];
+            schema.read(result, values);
 
-            items.add(new DataRow(array));
+            items.add(new DataRow(schema, values));
         }
 
         if (!result.isClosed()) {
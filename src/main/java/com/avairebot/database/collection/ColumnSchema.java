@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.collection;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+final class ColumnSchema {
+
+    private final String[] labels;
+    private final int[] columns;
+    private final int[] types;
+    private final Map<String, Integer> indexes;
+    private final Set<String> keySet;
+
+    private ColumnSchema(List<String> labels, List<Integer> columns, List<Integer> types) {
+        this.labels = labels.toArray(new String[0]);
+        this.columns = new int[labels.size()];
+        this.types = new int[labels.size()];
+        this.indexes = new HashMap<>(labels.size() * 4);
+
+        for (int i = 0; i < this.labels.length; i++) {
+            this.columns[i] = columns.get(i);
+            this.types[i] = types.get(i);
+
+            // Both the label itself and the case-folded version of the label is indexed, so
+            // lookups using the same casing as the column doesn't have to fold the name.
+            indexes.put(this.labels[i], i);
+            indexes.put(fold(this.labels[i]), i);
+        }
+
+        this.keySet = Collections.unmodifiableSet(new LinkedHashSet<>(labels));
+    }
+
+    /**
+     * Creates a column schema from the given result set meta data, if multiple columns share
+     * the same label only the first column will be used, matching the behaviour of
+     * {@link ResultSet#findColumn(String)} when looking up columns by their label.
+     *
+     * @param meta The result set meta data the schema should be created from.
+     * @return The column schema for the result set.
+     * @throws SQLException if a database access error occurs while reading the meta data.
+     */
+    static ColumnSchema of(ResultSetMetaData meta) throws SQLException {
+        List<String> labels = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String label = meta.getColumnLabel(i);
+            if (!seen.add(fold(label))) {
+                continue;
+            }
+
+            labels.add(label);
+            columns.add(i);
+            types.add(meta.getColumnType(i));
+        }
+
+        return new ColumnSchema(labels, columns, types);
+    }
+
+    /**
+     * Creates a column schema from the given set of keys, the schema has no JDBC
+     * types since it isn't backed by a result set, if multiple keys only
+     * differ by casing, only the first key will be used.
+     *
+     * @param keys The keys the schema should be created from.
+     * @return The column schema for the keys.
+     */
+    static ColumnSchema of(Set<String> keys) {
+        List<String> labels = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (String key : keys) {
+            if (!seen.add(fold(key))) {
+                continue;
+            }
+
+            labels.add(key);
+            columns.add(labels.size());
+            types.add(Types.OTHER);
+        }
+
+        return new ColumnSchema(labels, columns, types);
+    }
+
+    /**
+     * Gets the index of the column with the given name, the name is case-insensitive.
+     *
+     * @param name The name of the column.
+     * @return The index of the column, or <code>-1</code> if the column doesn't exists.
+     */
+    int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+
+        Integer index = indexes.get(name);
+        if (index == null) {
+            index = indexes.get(fold(name));
+        }
+
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the label of the column at the given index.
+     *
+     * @param index The index of the column.
+     * @return The label of the column.
+     */
+    String getLabel(int index) {
+        return labels[index];
+    }
+
+    /**
+     * Gets the number of columns in the schema.
+     *
+     * @return The number of columns in the schema.
+     */
+    int size() {
+        return labels.length;
+    }
+
+    /**
+     * Gets the labels of all the columns in the schema, in column order.
+     *
+     * @return The unmodifiable set of column labels.
+     */
+    Set<String> keySet() {
+        return keySet;
+    }
+
+    /**
+     * Reads the values of the current row of the given result set into the given
+     * values array, numeric and boolean columns are read as their native JDBC
+     * types, while every other column is read as a string.
+     *
+     * @param result The result set that should be read from.
+     * @param values The array the values should be written to.
+     * @throws SQLException if a database access error occurs or the result set has been closed.
+     */
+    void read(ResultSet result, Object[] values) throws SQLException {
+        for (int i = 0; i < labels.length; i++) {
+            values[i] = read(result, columns[i], types[i]);
+        }
+    }
+
+    private Object read(ResultSet result, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                // Boolean columns are stored as 0 and 1 so string lookups
+                // returns the same value as they would from the database.
+                int bit = result.getInt(column);
+                return result.wasNull() ? null : bit;
+
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                Object value = result.getObject(column);
+                if (value instanceof Boolean) {
+                    return (Boolean) value ? 1 : 0;
+                }
+                return value;
+
+            default:
+                return result.getString(column);
+        }
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
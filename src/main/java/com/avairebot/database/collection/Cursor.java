@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.collection;
+
+import com.avairebot.contracts.database.query.RowConsumer;
+import com.avairebot.database.exceptions.DatabaseException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class Cursor implements AutoCloseable, Iterable<DataRow> {
+
+    private final ResultSet result;
+    private final ColumnSchema schema;
+    private final Object[] values;
+    private final DataRow row;
+
+    private boolean iterated = false;
+    private boolean closed = false;
+
+    /**
+     * Creates a new forward-only cursor for the given result set, the cursor
+     * reads one row at a time from the result set, and exposes the current
+     * row through the same data row instance for every row in the result,
+     * so large results can be read without loading them into memory.
+     * <p>
+     * The data row is reused between rows, if a row needs to be kept around after the
+     * cursor has moved on to the next row, it should be copied using the
+     * {@link DataRow#DataRow(DataRow)} constructor.
+     *
+     * @param result The result set the cursor should read from.
+     * @throws SQLException if a database access error occurs while reading the meta data of the result.
+     */
+    public Cursor(ResultSet result) throws SQLException {
+        this.result = result;
+
+        try {
+            this.schema = ColumnSchema.of(result.getMetaData());
+        } catch (SQLException e) {
+            result.close();
+            throw e;
+        }
+
+        this.values = new Object[schema.size()];
+        this.row = new DataRow(schema, values);
+    }
+
+    /**
+     * Moves the cursor to the next row in the result, if there are no more
+     * rows in the result the cursor will be closed automatically.
+     *
+     * @return <code>TRUE</code> if the cursor was moved to the next row, <code>FALSE</code> if there are no more rows.
+     * @throws SQLException if a database access error occurs while reading the next row.
+     */
+    public boolean next() throws SQLException {
+        if (closed) {
+            return false;
+        }
+
+        if (!result.next()) {
+            close();
+            return false;
+        }
+
+        schema.read(result, values);
+        row.clearDecodedItems();
+
+        return true;
+    }
+
+    /**
+     * Gets the data row for the current row of the cursor, the same
+     * data row instance is returned for every row in the result.
+     *
+     * @return The data row for the current row.
+     */
+    public DataRow getRow() {
+        return row;
+    }
+
+    /**
+     * Invokes the given consumer for every remaining row in the result, the cursor will
+     * be closed once all the rows have been consumed, or the consumer throws.
+     *
+     * @param consumer The consumer that should be invoked for every row.
+     * @throws SQLException if a database access error occurs, or the consumer throws.
+     */
+    public void forEachRow(RowConsumer consumer) throws SQLException {
+        try {
+            while (next()) {
+                consumer.accept(row);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Creates a sequential stream of the remaining rows in the result, the stream
+     * should be closed once it is no longer needed to release the database
+     * connection, preferably by using a try-with-resources statement.
+     *
+     * @return The stream of rows in the result.
+     */
+    public Stream<DataRow> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(() -> {
+            try {
+                close();
+            } catch (SQLException e) {
+                throw new DatabaseException("Failed to close the database cursor", e);
+            }
+        });
+    }
+
+    /**
+     * Creates an iterator for the remaining rows in the result, since the cursor
+     * is forward-only, the cursor can only be iterated over once.
+     *
+     * @return The iterator for the rows in the result.
+     * @throws IllegalStateException if the cursor has already been iterated over.
+     */
+    @Override
+    public Iterator<DataRow> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("The cursor can only be iterated over once.");
+        }
+        iterated = true;
+
+        return new Iterator<DataRow>() {
+            private boolean fetched = false;
+            private boolean hasRow = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!fetched) {
+                    try {
+                        hasRow = Cursor.this.next();
+                    } catch (SQLException e) {
+                        throw new DatabaseException("Failed to read the next row from the database cursor", e);
+                    }
+                    fetched = true;
+                }
+                return hasRow;
+            }
+
+            @Override
+            public DataRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                fetched = false;
+
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<DataRow> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Checks if the cursor has been closed.
+     *
+     * @return <code>TRUE</code> if the cursor has been closed, <code>FALSE</code> otherwise.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes the cursor and the underlying result set, releasing the database
+     * connection the result was read from, closing the cursor multiple
+     * times has no effect.
+     *
+     * @throws SQLException if a database access error occurs while closing the result.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        result.close();
+    }
+}
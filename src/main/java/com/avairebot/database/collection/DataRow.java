@@ -28,23 +28,27 @@ import com.avairebot.utilities.NumberUtil;
 import com.google.gson.Gson;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 public class DataRow {
 
-    private final Map<String, Object> items;
-    private final Map<String, String> decodedItems;
+    private final ColumnSchema schema;
+    private final Object[] values;
+    private String[] decodedItems;
 
     /**
-     * Creates a new data row object from the provided data row.
+     * Creates a new data row object from the provided data row, the new
+     * data row shares the column schema of the provided row, but
+     * gets its own copy of the row values.
      *
      * @param row The row to generate the data row from.
      */
     public DataRow(DataRow row) {
-        this(row.items);
+        this(row.schema, row.values.clone());
     }
 
     /**
@@ -53,14 +57,27 @@ public class DataRow {
      * @param items The map to generate the data row from.
      */
     public DataRow(Map<String, Object> items) {
-        this.items = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        this.decodedItems = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.schema = ColumnSchema.of(items.keySet());
+        this.values = new Object[schema.size()];
 
-        for (Map.Entry<String, Object> item : items.entrySet()) {
-            this.items.put(item.getKey(), item.getValue());
+        for (int i = 0; i < values.length; i++) {
+            values[i] = items.get(schema.getLabel(i));
         }
     }
 
+    /**
+     * Creates a data row view over the given values using the given column schema, the
+     * values array is used as-is, so cursors can refill the same array for every row
+     * they read from the result, while collections share one schema between rows.
+     *
+     * @param schema The column schema that describes the values.
+     * @param values The values of the row, in column order.
+     */
+    DataRow(ColumnSchema schema, Object[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
     /**
      * Gets a object from the data rows item list.
      *
@@ -81,11 +98,12 @@ public class DataRow {
      * or (2) the default value given.
      */
     public Object get(String name, Object def) {
-        if (has(name)) {
-            return items.get(name);
+        int index = schema.indexOf(name);
+        if (index < 0) {
+            return def;
         }
 
-        return def;
+        return values[index];
     }
 
     /**
@@ -120,6 +138,10 @@ public class DataRow {
             return isEqual(str, "1", "true");
         }
 
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+
         return (boolean) value;
     }
 
@@ -159,18 +181,8 @@ public class DataRow {
             }
         }
 
-        switch (getType(value)) {
-            case "Integer":
-                value = ((Integer) value).doubleValue();
-                break;
-
-            case "Long":
-                value = ((Long) value).doubleValue();
-                break;
-
-            case "Float":
-                value = ((Float) value).doubleValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
         }
 
         try {
@@ -212,18 +224,8 @@ public class DataRow {
             return NumberUtil.parseInt(str, def);
         }
 
-        switch (getType(value)) {
-            case "Double":
-                value = ((Double) value).intValue();
-                break;
-
-            case "Long":
-                value = ((Long) value).intValue();
-                break;
-
-            case "Float":
-                value = ((Float) value).intValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
         }
 
         try {
@@ -269,18 +271,8 @@ public class DataRow {
             }
         }
 
-        switch (getType(value)) {
-            case "Double":
-                value = ((Double) value).longValue();
-                break;
-
-            case "Integer":
-                value = ((Integer) value).longValue();
-                break;
-
-            case "Float":
-                value = ((Float) value).longValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
         }
 
         try {
@@ -326,18 +318,8 @@ public class DataRow {
             }
         }
 
-        switch (getType(value)) {
-            case "Double":
-                value = ((Double) value).floatValue();
-                break;
-
-            case "Integer":
-                value = ((Integer) value).floatValue();
-                break;
-
-            case "Long":
-                value = ((Long) value).floatValue();
-                break;
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
         }
 
         try {
@@ -379,15 +361,24 @@ public class DataRow {
             return string;
         }
 
-        if (decodedItems.containsKey(name)) {
-            return decodedItems.get(name);
+        int index = schema.indexOf(name);
+        if (index < 0) {
+            return string;
+        }
+
+        if (decodedItems != null && decodedItems[index] != null) {
+            return decodedItems[index];
         }
 
         try {
             String decodedString = new String(Base64.getDecoder().decode(
                 string.substring(7)
             ));
-            decodedItems.put(name, decodedString);
+
+            if (decodedItems == null) {
+                decodedItems = new String[values.length];
+            }
+            decodedItems[index] = decodedString;
 
             return decodedString;
         } catch (IllegalArgumentException ex) {
@@ -431,7 +422,7 @@ public class DataRow {
      * @return true if the index exists, otherwise it will return false.
      */
     public boolean has(String name) {
-        return items.containsKey(name);
+        return schema.indexOf(name) >= 0;
     }
 
     /**
@@ -440,15 +431,21 @@ public class DataRow {
      * @return All the keys from the data row.
      */
     public Set<String> keySet() {
-        return items.keySet();
+        return schema.keySet();
     }
 
     /**
-     * Gets the raw map object for the data row.
+     * Gets the raw data of the data row as a map, the map is created from the
+     * row values when this method is called, so changes made to the map
+     * will not be reflected in the data row.
      *
      * @return The raw data of the data row.
      */
     public Map<String, Object> getRaw() {
+        Map<String, Object> items = new LinkedHashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            items.put(schema.getLabel(i), values[i]);
+        }
         return items;
     }
 
@@ -463,7 +460,17 @@ public class DataRow {
      * @return the JSON collection string
      */
     public String toJson() {
-        return AvaIre.gson.toJson(items);
+        return AvaIre.gson.toJson(getRaw());
+    }
+
+    /**
+     * Clears the cache of decoded base64 items, this is called by
+     * cursors when the data row is moved to the next row.
+     */
+    void clearDecodedItems() {
+        if (decodedItems != null) {
+            Arrays.fill(decodedItems, null);
+        }
     }
 
     private boolean isString(Object name) {
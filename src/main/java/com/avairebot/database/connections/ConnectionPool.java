@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.connections;
+
+import com.avairebot.database.QueryProfiler;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * Connections that has been used within this amount of milliseconds
+     * are handed out without being validated against the database
+     * first, since they're almost certainly still alive.
+     */
+    private static final long validationBypassWindow = 1000L;
+
+    /**
+     * The maximum amount of time in milliseconds a waiting borrower will sleep
+     * before checking if a new connection can be created, connections that
+     * are discarded instead of being returned to the pool won't wake up
+     * waiting borrowers, so they have to check on their own.
+     */
+    private static final long waitSliceMillis = 100L;
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeout;
+    private final int validationTimeout;
+    private final long leakDetectionThreshold;
+    private final long maxLifetime;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger(0);
+    private final AtomicInteger pendingBorrowers = new AtomicInteger(0);
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new connection pool, the pool will be filled up to the minimum
+     * size in the background, and a housekeeping task will be started to
+     * retire expired connections and report leaked connections.
+     *
+     * @param name                   The name of the pool, used in logs and metrics.
+     * @param factory                The factory used to open new physical connections.
+     * @param minSize                The minimum amount of connections the pool should keep open.
+     * @param maxSize                The maximum amount of connections the pool can have open at any time.
+     * @param connectionTimeout      The amount of milliseconds a borrower will wait for a connection before timing out.
+     * @param validationTimeout      The amount of seconds to wait for a connection to be validated.
+     * @param leakDetectionThreshold The amount of milliseconds a connection can be borrowed before it's reported as leaked, or zero to disable leak detection.
+     * @param maxLifetime            The amount of milliseconds a connection can live before it's retired, or zero to keep connections forever.
+     * @param statementCacheSize     The amount of prepared statements each connection should cache, or zero to disable the statement cache.
+     */
+    public ConnectionPool(
+        String name,
+        ConnectionFactory factory,
+        int minSize,
+        int maxSize,
+        long connectionTimeout,
+        int validationTimeout,
+        long leakDetectionThreshold,
+        long maxLifetime,
+        int statementCacheSize
+    ) {
+        this.name = name;
+        this.factory = factory;
+        this.maxSize = Math.max(1, maxSize);
+        this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+        this.connectionTimeout = Math.max(0, connectionTimeout);
+        this.validationTimeout = Math.max(1, validationTimeout);
+        this.leakDetectionThreshold = Math.max(0, leakDetectionThreshold);
+        this.maxLifetime = Math.max(0, maxLifetime);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("avaire-" + name + "-pool-housekeeper")
+            .setDaemon(true)
+            .build()
+        );
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep, 0, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, the connection must be closed once
+     * the borrower is done with it, closing the connection returns it to
+     * the pool rather than closing the physical database connection.
+     *
+     * @return A borrowed database connection.
+     * @throws SQLTimeoutException if no connection became available within the connection timeout.
+     * @throws SQLException        if the pool has been closed, or a new connection failed to open.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("The " + name + " connection pool has been closed.");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(connectionTimeout);
+
+        pendingBorrowers.incrementAndGet();
+        try {
+            while (true) {
+                PooledConnection connection = idle.pollFirst();
+                if (connection == null) {
+                    connection = createIfBelowMaxSize();
+                }
+
+                if (connection == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        Metrics.databasePoolTimeouts.labels(name).inc();
+                        QueryProfiler.recordConnectionWait(System.nanoTime() - start);
+
+                        throw new SQLTimeoutException(String.format(
+                            "Timed out after %sms waiting for a connection from the %s connection pool (%s active, %s max).",
+                            connectionTimeout, name, borrowed.size(), maxSize
+                        ));
+                    }
+
+                    connection = idle.pollFirst(
+                        Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(waitSliceMillis)), TimeUnit.NANOSECONDS
+                    );
+
+                    if (connection == null) {
+                        continue;
+                    }
+                }
+
+                if (!isUsable(connection, System.currentTimeMillis())) {
+                    discard(connection);
+                    continue;
+                }
+
+                long waited = System.nanoTime() - start;
+
+                borrowed.add(connection);
+                Metrics.databasePoolWaitTime.labels(name).observe(waited / 1E9D);
+                QueryProfiler.recordConnectionWait(waited);
+                updateMetrics();
+
+                return connection.lease(System.currentTimeMillis(), leakDetectionThreshold > 0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLException("Interrupted while waiting for a connection from the " + name + " connection pool.", e);
+        } finally {
+            pendingBorrowers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Checks if the pool has been closed.
+     *
+     * @return <code>TRUE</code> if the pool has been closed, <code>FALSE</code> otherwise.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Gets the amount of connections that are currently borrowed from the pool.
+     *
+     * @return The amount of borrowed connections.
+     */
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    /**
+     * Gets the amount of connections that are currently idle in the pool.
+     *
+     * @return The amount of idle connections.
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Gets the total amount of physical connections the pool has open.
+     *
+     * @return The total amount of open connections.
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Closes the pool and all of the idle connections, connections that are still
+     * borrowed will be closed as they're returned to the pool, borrowing
+     * connections from the pool after it is closed will throw.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    void release(PooledConnection connection) {
+        borrowed.remove(connection);
+
+        long now = System.currentTimeMillis();
+        if (closed || connection.isExpired(now, maxLifetime) || !connection.reset(now)) {
+            discard(connection);
+            return;
+        }
+
+        idle.offerFirst(connection);
+        updateMetrics();
+    }
+
+    private PooledConnection createIfBelowMaxSize() throws SQLException {
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= maxSize) {
+                return null;
+            }
+
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                break;
+            }
+        }
+
+        try {
+            return new PooledConnection(this, factory.create(), System.currentTimeMillis(), statementCacheSize);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            updateMetrics();
+
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection connection, long now) {
+        if (connection.isExpired(now, maxLifetime)) {
+            return false;
+        }
+
+        return now - connection.getLastUsedAt() < validationBypassWindow
+            || connection.isValid(validationTimeout);
+    }
+
+    private void discard(PooledConnection connection) {
+        totalConnections.decrementAndGet();
+        connection.closeQuietly();
+        updateMetrics();
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            for (PooledConnection connection : idle) {
+                // The connection may have been borrowed since we started iterating,
+                // so we only discard it if we're the ones removing it from the pool.
+                if (connection.isExpired(now, maxLifetime) && idle.removeFirstOccurrence(connection)) {
+                    discard(connection);
+                }
+            }
+
+            while (!closed && totalConnections.get() < minSize) {
+                PooledConnection connection = createIfBelowMaxSize();
+                if (connection == null) {
+                    break;
+                }
+                idle.offerLast(connection);
+            }
+
+            for (PooledConnection connection : borrowed) {
+                if (connection.isLeaked(now, leakDetectionThreshold)) {
+                    Throwable trace = connection.markLeakReported();
+                    log.warn("A connection has been borrowed from the {} connection pool for more than {}ms, it may have been leaked.",
+                        name, leakDetectionThreshold, trace
+                    );
+                }
+            }
+
+            updateMetrics();
+        } catch (Exception e) {
+            log.error("Failed to run housekeeping for the {} connection pool: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private void updateMetrics() {
+        Metrics.databasePoolConnections.labels(name, "active").set(borrowed.size());
+        Metrics.databasePoolConnections.labels(name, "idle").set(idle.size());
+        Metrics.databasePoolConnections.labels(name, "total").set(totalConnections.get());
+        Metrics.databasePoolConnections.labels(name, "pending").set(pendingBorrowers.get());
+    }
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+
+        /**
+         * Opens a new physical connection to the database.
+         *
+         * @return The newly opened database connection.
+         * @throws SQLException if a database access error occurs.
+         */
+        Connection create() throws SQLException;
+    }
+}
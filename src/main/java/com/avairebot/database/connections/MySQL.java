@@ -28,14 +28,33 @@ import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.grammar.mysql.*;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.annotation.Nonnull;
 import java.sql.*;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class MySQL extends HostnameDatabase {
 
+    /**
+     * The executor used by the MySQL driver to abort connections
+     * that has exceeded the network timeout, this is shared
+     * between all the connections in the connection pool.
+     */
+    private static final ExecutorService networkTimeoutExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+        .setNameFormat("avaire-mysql-network-timeout-%d")
+        .setDaemon(true)
+        .build()
+    );
+
+    /**
+     * The connection pool that connections are borrowed from, this
+     * is created when the database connection is first opened.
+     */
+    private volatile ConnectionPool pool;
+
     /**
      * Creates a MySQL database connection instance with the parsed information,
      * the port used will default to <code>3306</code>.
@@ -83,31 +102,100 @@ public class MySQL extends HostnameDatabase {
     }
 
     @Override
-    public boolean open() throws SQLException {
-        try {
-            String url = String.format("jdbc:mysql://%s:%d/%s?verifyServerCertificate=%s&useSSL=true",
-                getHostname(), getPort(), getDatabase(),
-                dbm.getAvaire().getConfig().getBoolean("database.verifyServerCertificate", true) ? "true" : "false"
-            );
+    public synchronized boolean open() throws SQLException {
+        if (pool != null && !pool.isClosed()) {
+            return true;
+        }
 
-            if (initialize()) {
-                connection = DriverManager.getConnection(url, getUsername(), getPassword());
+        if (!initialize()) {
+            return false;
+        }
 
-                // Sets a timeout of 20 seconds(This is an extremely long time, however the default
-                // is around 10 minutes so this should give some improvements with the threads
-                // not being blocked for ages due to hanging database queries.
-                connection.setNetworkTimeout(Executors.newCachedThreadPool(), 1000 * 20);
+        // Server side prepared statements are used so the statements cached by the
+        // connection pool reuses the query plans that has already been parsed by
+        // the server, instead of sending the full query for every execution,
+        // cursor fetching allows cursors to read results in batches, and
+        // batched inserts are rewritten into a single multi-row insert.
+        String url = String.format("jdbc:mysql://%s:%d/%s?verifyServerCertificate=%s&useSSL=true&useServerPrepStmts=true&useCursorFetch=true&rewriteBatchedStatements=true",
+            getHostname(), getPort(), getDatabase(),
+            dbm.getAvaire().getConfig().getBoolean("database.verifyServerCertificate", true) ? "true" : "false"
+        );
 
-                return true;
-            }
+        ConnectionPool pool = new ConnectionPool("mysql",
+            () -> createConnection(url),
+            dbm.getAvaire().getConfig().getInt("database.pool.min-size", 2),
+            dbm.getAvaire().getConfig().getInt("database.pool.max-size", 10),
+            dbm.getAvaire().getConfig().getLong("database.pool.connection-timeout", 5000L),
+            dbm.getAvaire().getConfig().getInt("database.pool.validation-timeout", 3),
+            dbm.getAvaire().getConfig().getLong("database.pool.leak-detection-threshold", 30000L),
+            dbm.getAvaire().getConfig().getLong("database.pool.max-lifetime", 1800000L),
+            dbm.getAvaire().getConfig().getInt("database.pool.statement-cache-size", 64)
+        );
+
+        // Borrows a connection straight away to make sure the connection details
+        // are valid, so we fail early instead of on the first query.
+        try (Connection ignored = pool.getConnection()) {
+            this.pool = pool;
+
+            return true;
         } catch (SQLException ex) {
+            pool.close();
+
             String reason = "Could not establish a MySQL connection, SQLException: " + ex.getMessage();
 
             AvaIre.getLogger().error(reason, ex);
             throw new SQLException(reason);
         }
+    }
 
-        return false;
+    @Override
+    public Connection getConnection() throws SQLException {
+        ConnectionPool pool = this.pool;
+        if (pool == null || pool.isClosed()) {
+            open();
+            pool = this.pool;
+        }
+
+        return pool.getConnection();
+    }
+
+    @Override
+    public boolean isOpen(int seconds) {
+        // Connections are validated by the pool when they're borrowed,
+        // so we only need to check if the pool is still available.
+        return pool != null && !pool.isClosed();
+    }
+
+    @Override
+    public boolean close() {
+        if (pool == null) {
+            AvaIre.getLogger().warn("Database - Could not close connection pool, it is null.");
+            return false;
+        }
+
+        pool.close();
+
+        return true;
+    }
+
+    /**
+     * Gets the connection pool used by the MySQL database.
+     *
+     * @return Possibly-null, the connection pool, or null if the connection haven't been opened yet.
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    private Connection createConnection(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url, getUsername(), getPassword());
+
+        // Sets a timeout of 20 seconds(This is an extremely long time, however the default
+        // is around 10 minutes so this should give some improvements with the threads
+        // not being blocked for ages due to hanging database queries.
+        connection.setNetworkTimeout(networkTimeoutExecutor, 1000 * 20);
+
+        return connection;
     }
 
     @Override
@@ -146,8 +234,8 @@ public class MySQL extends HostnameDatabase {
 
     @Override
     public boolean hasTable(String table) {
-        try {
-            DatabaseMetaData md = getConnection().getMetaData();
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData md = connection.getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, new String[]{"TABLE"})) {
                 if (tables.next()) {
@@ -170,7 +258,8 @@ public class MySQL extends HostnameDatabase {
                 return false;
             }
 
-            try (Statement statement = getConnection().createStatement()) {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
                 statement.executeUpdate(String.format("DELETE FROM `%s`;", table));
             }
 
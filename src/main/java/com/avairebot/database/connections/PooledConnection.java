@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.connections;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class PooledConnection {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final long createdAt;
+    private final List<Statement> statements = new ArrayList<>();
+    private final StatementCache statementCache;
+
+    private volatile long lastUsedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+
+    PooledConnection(ConnectionPool pool, Connection connection, long now, int statementCacheSize) {
+        this.pool = pool;
+        this.connection = connection;
+        this.createdAt = now;
+        this.lastUsedAt = now;
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+    }
+
+    /**
+     * Lends out the physical connection, the returned connection handle
+     * will return the physical connection to the pool when it is closed,
+     * using the handle after it has been closed will throw an exception.
+     *
+     * @param now   The current time in milliseconds.
+     * @param trace Determines if the stack trace of the borrower should be recorded for leak detection.
+     * @return The connection handle for the borrower.
+     */
+    Connection lease(long now, boolean trace) {
+        borrowedAt = now;
+        borrowTrace = trace ? new Exception("The database connection was borrowed here") : null;
+        leakReported = false;
+
+        return (Connection) Proxy.newProxyInstance(
+            PooledConnection.class.getClassLoader(),
+            new Class[]{Connection.class},
+            new Lease()
+        );
+    }
+
+    /**
+     * Resets the physical connection so it can be handed out to the next
+     * borrower, closing any statements the last borrower left open, and
+     * rolling back any transaction that wasn't committed.
+     *
+     * @return <code>TRUE</code> if the connection can be reused, <code>FALSE</code> otherwise.
+     */
+    boolean reset(long now) {
+        try {
+            synchronized (statements) {
+                for (Statement statement : statements) {
+                    statement.close();
+                }
+                statements.clear();
+            }
+
+            if (connection.isClosed()) {
+                return false;
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+
+            lastUsedAt = now;
+            borrowTrace = null;
+
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    boolean isValid(int timeout) {
+        try {
+            return connection.isValid(timeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    boolean isExpired(long now, long maxLifetime) {
+        return maxLifetime > 0 && now - createdAt >= maxLifetime;
+    }
+
+    boolean isLeaked(long now, long threshold) {
+        return threshold > 0 && !leakReported && now - borrowedAt >= threshold;
+    }
+
+    Throwable markLeakReported() {
+        leakReported = true;
+
+        return borrowTrace;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    int getCachedStatements() {
+        if (statementCache == null) {
+            return 0;
+        }
+
+        synchronized (statementCache) {
+            return statementCache.size();
+        }
+    }
+
+    void closeQuietly() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded, so there is nothing left to do with it.
+        }
+    }
+
+    private class Lease implements InvocationHandler {
+
+        private final AtomicBoolean returned = new AtomicBoolean(false);
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+
+                case "isClosed":
+                    if (returned.get()) {
+                        return true;
+                    }
+                    break;
+
+                case "equals":
+                    return proxy == args[0];
+
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+
+                case "toString":
+                    return "PooledConnection[" + connection + "]";
+            }
+
+            if (returned.get()) {
+                throw new SQLException("The database connection has already been returned to the pool.");
+            }
+
+            if (statementCache != null && method.getName().equals("prepareStatement") && isCacheable(method)) {
+                return prepareCachedStatement(method, args);
+            }
+
+            try {
+                Object result = method.invoke(connection, args);
+                if (result instanceof Statement) {
+                    synchronized (statements) {
+                        statements.add((Statement) result);
+                    }
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private boolean isCacheable(Method method) {
+            Class<?>[] types = method.getParameterTypes();
+
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+
+        private PreparedStatement prepareCachedStatement(Method method, Object[] args) throws Throwable {
+            String key = args.length == 1 ? (String) args[0] : args[1] + ":" + args[0];
+
+            CachedStatement cached;
+            synchronized (statementCache) {
+                cached = statementCache.get(key);
+
+                // If the statement is already being used by the borrower, we'll just prepare
+                // an uncached statement instead, this can happen if the borrower is
+                // iterating the results of the statement while running the query.
+                if (cached != null && cached.inUse) {
+                    cached = null;
+                } else if (cached != null) {
+                    cached.inUse = true;
+                }
+            }
+
+            if (cached == null) {
+                PreparedStatement statement;
+                try {
+                    statement = (PreparedStatement) method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+
+                cached = new CachedStatement(statement);
+                cached.inUse = true;
+
+                synchronized (statementCache) {
+                    if (!statementCache.containsKey(key)) {
+                        statementCache.put(key, cached);
+                    } else {
+                        cached.evicted = true;
+                    }
+                }
+            }
+
+            PreparedStatement handle = cached.lease();
+            synchronized (statements) {
+                statements.add(handle);
+            }
+            return handle;
+        }
+    }
+
+    private class StatementCache extends LinkedHashMap<String, CachedStatement> {
+
+        private final int maxSize;
+
+        StatementCache(int maxSize) {
+            super(16, 0.75F, true);
+
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+            if (size() <= maxSize) {
+                return false;
+            }
+
+            eldest.getValue().evict();
+
+            return true;
+        }
+    }
+
+    private class CachedStatement {
+
+        private final PreparedStatement statement;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /**
+         * Creates a handle to the cached statement for the current borrower, closing
+         * the handle returns the statement to the cache instead of closing it,
+         * unless the statement has been evicted from the cache meanwhile.
+         *
+         * @return The statement handle for the borrower.
+         */
+        PreparedStatement lease() {
+            AtomicBoolean released = new AtomicBoolean(false);
+
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PooledConnection.class.getClassLoader(),
+                new Class[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (released.compareAndSet(false, true)) {
+                                release();
+                            }
+                            return null;
+
+                        case "isClosed":
+                            if (released.get()) {
+                                return true;
+                            }
+                            break;
+
+                        case "equals":
+                            return proxy == args[0];
+
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                    }
+
+                    if (released.get()) {
+                        throw new SQLException("The prepared statement has already been closed.");
+                    }
+
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            );
+        }
+
+        void evict() {
+            evicted = true;
+
+            if (!inUse) {
+                closeStatement();
+            }
+        }
+
+        private void release() {
+            boolean reusable = true;
+            try {
+                ResultSet result = statement.getResultSet();
+                if (result != null) {
+                    result.close();
+                }
+                statement.clearParameters();
+
+                // Batched parameters that were added but never executed would
+                // otherwise be sent along with the next borrower's batch.
+                try {
+                    statement.clearBatch();
+                } catch (SQLFeatureNotSupportedException | UnsupportedOperationException ignored) {
+                    // The driver doesn't support batch updates, so there is nothing to clear.
+                }
+            } catch (SQLException e) {
+                reusable = false;
+            }
+
+            synchronized (statementCache) {
+                inUse = false;
+
+                if (!reusable && !evicted) {
+                    statementCache.values().remove(this);
+                    evicted = true;
+                }
+
+                if (evicted) {
+                    closeStatement();
+                }
+            }
+        }
+
+        private void closeStatement() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // The statement is being discarded, so there is nothing left to do with it.
+            }
+        }
+    }
+}
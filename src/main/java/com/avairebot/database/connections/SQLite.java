@@ -27,17 +27,39 @@ import com.avairebot.contracts.database.connections.FilenameDatabase;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.exceptions.DatabaseException;
 import com.avairebot.database.grammar.sqlite.*;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.schema.Blueprint;
 import com.avairebot.metrics.Metrics;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.sql.*;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class SQLite extends FilenameDatabase {
 
+    /**
+     * Determines if the database should run in production mode, in production mode the
+     * database uses WAL journaling, reads are served from a pool of read-only
+     * connections, and writes are serialized through a single writer.
+     */
+    private final boolean productionMode;
+    private final int readPoolSize;
+    private final int busyTimeout;
+    private final long writeTimeout;
+    private final int groupCommitSize;
+
+    /**
+     * The connection pools and writer used in production mode, these
+     * are created when the database connection is first opened.
+     */
+    private volatile ConnectionPool readPool;
+    private volatile ConnectionPool writePool;
+    private volatile SQLiteWriter writer;
+
     /**
      * Creates a SQLite database connection instance with the parsed information.
      *
@@ -54,6 +76,15 @@ public class SQLite extends FilenameDatabase {
      * @param filename The filename of the database.
      */
     public SQLite(DatabaseManager dbm, String filename) {
+        // In-memory databases are unique to each connection, so they can't be shared
+        // between a pool of connections, production mode is disabled for them.
+        productionMode = !filename.equals(":memory:")
+            && dbm.getAvaire().getConfig().getBoolean("database.sqlite.production-mode", true);
+        readPoolSize = dbm.getAvaire().getConfig().getInt("database.sqlite.read-pool-size", 4);
+        busyTimeout = dbm.getAvaire().getConfig().getInt("database.sqlite.busy-timeout", 5000);
+        writeTimeout = dbm.getAvaire().getConfig().getLong("database.sqlite.write-timeout", 30000L);
+        groupCommitSize = dbm.getAvaire().getConfig().getInt("database.sqlite.group-commit-size", 128);
+
         if (filename.equals(":memory:")) {
             this.setFilename(null);
             return;
@@ -80,9 +111,13 @@ public class SQLite extends FilenameDatabase {
 
     @Override
     public boolean open() throws SQLException {
+        if (productionMode) {
+            return openPools();
+        }
+
         if (initialize()) {
             try {
-                connection = DriverManager.getConnection("jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath()));
+                connection = DriverManager.getConnection(getUrl());
 
                 return true;
             } catch (SQLException ex) {
@@ -103,11 +138,164 @@ public class SQLite extends FilenameDatabase {
 
     @Override
     public Connection getConnection() throws SQLException {
-        open();
+        if (!productionMode) {
+            open();
+
+            return connection;
+        }
+
+        ConnectionPool writePool = this.writePool;
+        if (writePool == null || writePool.isClosed()) {
+            open();
+            writePool = this.writePool;
+        }
+
+        return writePool.getConnection();
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        if (!productionMode) {
+            return getConnection();
+        }
+
+        ConnectionPool readPool = this.readPool;
+        if (readPool == null || readPool.isClosed()) {
+            open();
+            readPool = this.readPool;
+        }
+
+        return readPool.getConnection();
+    }
+
+    @Override
+    public boolean isOpen(int seconds) {
+        if (!productionMode) {
+            return super.isOpen(seconds);
+        }
+
+        return writePool != null && !writePool.isClosed()
+            && readPool != null && !readPool.isClosed();
+    }
+
+    @Override
+    public boolean close() throws SQLException {
+        if (!productionMode) {
+            return super.close();
+        }
+
+        if (writePool == null) {
+            AvaIre.getLogger().warn("Database - Could not close SQLite connection pools, they are null.");
+            return false;
+        }
+
+        if (writer != null && !writer.shutdown(10, TimeUnit.SECONDS)) {
+            AvaIre.getLogger().warn("Database - Timed out waiting for {} queued SQLite writes to be committed.", writer.getQueueSize());
+        }
+
+        readPool.close();
+        writePool.close();
+
+        return true;
+    }
+
+    /**
+     * Gets the writer that all single statement writes are serialized
+     * through when the database is running in production mode.
+     *
+     * @return Possibly-null, the SQLite writer, or null if production mode is disabled or the connection haven't been opened yet.
+     */
+    @Nullable
+    public SQLiteWriter getWriter() {
+        return writer;
+    }
+
+    @Override
+    protected <T> T write(ConnectionOperation<T> operation) throws SQLException {
+        if (!productionMode) {
+            return super.write(operation);
+        }
+
+        SQLiteWriter writer = this.writer;
+        if (writer == null) {
+            open();
+            writer = this.writer;
+        }
+
+        return writer.execute(operation);
+    }
+
+    private synchronized boolean openPools() throws SQLException {
+        if (writePool != null && !writePool.isClosed()) {
+            return true;
+        }
+
+        if (!initialize()) {
+            return false;
+        }
+
+        // SQLite only allows a single writer at a time, so the write pool only ever
+        // has one connection, anything that needs to write to the database will
+        // wait in line for it rather than failing with a "database is locked"
+        // error, reads are served from the read pool so they don't have to
+        // wait for writes to finish since WAL journaling is used, leak
+        // detection is disabled for the write pool since the sync jobs
+        // holds onto the connection for the entire batch update.
+        ConnectionPool writePool = new ConnectionPool("sqlite-write",
+            () -> createConnection(false), 1, 1, writeTimeout, 3, 0L, 0L, 64
+        );
+
+        ConnectionPool readPool = new ConnectionPool("sqlite-read",
+            () -> createConnection(true), 1, readPoolSize, busyTimeout, 3, 30000L, 0L, 64
+        );
+
+        // Borrows the write connection straight away so the database is switched
+        // over to WAL journaling before any of the read connections are used.
+        try (Connection ignored = writePool.getConnection()) {
+            this.readPool = readPool;
+            this.writePool = writePool;
+            this.writer = new SQLiteWriter(writePool, groupCommitSize);
+
+            return true;
+        } catch (SQLException ex) {
+            readPool.close();
+            writePool.close();
+
+            String reason = "DBM - Could not establish an SQLite connection, SQLException: " + ex.getMessage();
+
+            AvaIre.getLogger().error(reason, ex);
+            throw new SQLException(reason);
+        }
+    }
+
+    private Connection createConnection(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(getUrl());
+
+        try (Statement statement = connection.createStatement()) {
+            // WAL journaling lets readers keep reading while a write is being committed, and
+            // with a "NORMAL" sync level commits no longer has to wait for the disk to
+            // sync, the database can still not be corrupted by a crash, however the
+            // last few commits may be rolled back if the machine loses power.
+            statement.execute("PRAGMA journal_mode = WAL;");
+            statement.execute("PRAGMA synchronous = NORMAL;");
+            statement.execute("PRAGMA temp_store = MEMORY;");
+            statement.execute("PRAGMA busy_timeout = " + busyTimeout + ";");
+
+            if (readOnly) {
+                statement.execute("PRAGMA query_only = ON;");
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
 
         return connection;
     }
 
+    private String getUrl() {
+        return "jdbc:sqlite:" + (getFile() == null ? ":memory:" : getFile().getAbsolutePath());
+    }
+
     @Override
     public StatementInterface getStatement(String query) throws SQLException {
         String[] statement = query.trim().split(" ", 2);
@@ -121,8 +309,8 @@ public class SQLite extends FilenameDatabase {
 
     @Override
     public boolean hasTable(String table) {
-        try {
-            DatabaseMetaData md = getConnection().getMetaData();
+        try (Connection connection = getReadConnection()) {
+            DatabaseMetaData md = connection.getMetaData();
 
             try (ResultSet tables = md.getTables(null, null, table, null)) {
                 if (tables.next()) {
@@ -145,9 +333,11 @@ public class SQLite extends FilenameDatabase {
                 return false;
             }
 
-            try (Statement statement = connection.createStatement()) {
-                statement.executeQuery(String.format("DELETE FROM `%s`;", table));
-            }
+            write(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    return statement.executeUpdate(String.format("DELETE FROM `%s`;", table));
+                }
+            });
 
             return true;
         } catch (SQLException ex) {
@@ -160,10 +350,20 @@ public class SQLite extends FilenameDatabase {
     }
 
     @Override
-    protected Statement createPreparedStatement(String query) throws SQLException {
+    protected Statement createPreparedStatement(Connection connection, String query) throws SQLException {
         Metrics.databaseQueries.labels(query.split(" ")[0].toUpperCase()).inc();
 
-        Statement statement = getConnection().createStatement();
+        Statement statement = connection.createStatement();
+
+        statement.setQueryTimeout(5);
+        statement.setMaxRows(25000);
+
+        return statement;
+    }
+
+    @Override
+    protected PreparedStatement createPreparedStatement(Connection connection, PreparedQuery query) throws SQLException {
+        PreparedStatement statement = super.createPreparedStatement(connection, query);
 
         statement.setQueryTimeout(5);
         statement.setMaxRows(25000);
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.connections;
+
+import com.avairebot.contracts.database.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class SQLiteWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SQLiteWriter.class);
+
+    private final ConnectionPool pool;
+    private final int maxGroupSize;
+    private final LinkedBlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    /**
+     * The connection currently used by the writer thread, this is only
+     * set while a group of writes are being committed, and is only
+     * ever accessed from the writer thread itself.
+     */
+    private Connection currentConnection = null;
+
+    /**
+     * Creates a new SQLite writer and starts the writer thread, every write submitted
+     * to the writer is run on the writer thread, writes that are queued up while
+     * the previous group is being committed are committed together in a
+     * single transaction, so they only have to wait for one commit.
+     *
+     * @param pool         The connection pool the writer connection is borrowed from.
+     * @param maxGroupSize The maximum amount of writes that can be committed in a single transaction.
+     */
+    public SQLiteWriter(ConnectionPool pool, int maxGroupSize) {
+        this.pool = pool;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+
+        this.thread = new Thread(this::run, "avaire-sqlite-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Runs the given write operation on the writer thread, and waits for the group
+     * of writes the operation was committed with to be committed, if the writer
+     * has been shutdown the operation is run on the calling thread instead.
+     *
+     * @param operation The write operation that should be run.
+     * @param <T>       The type of the result returned by the operation.
+     * @return The result returned by the write operation.
+     * @throws SQLException if the operation fails, or the group it was a part of failed to be committed.
+     */
+    public <T> T execute(Database.ConnectionOperation<T> operation) throws SQLException {
+        if (Thread.currentThread() == thread && currentConnection != null) {
+            return operation.run(currentConnection);
+        }
+
+        if (!running) {
+            try (Connection connection = pool.getConnection()) {
+                return operation.run(connection);
+            }
+        }
+
+        WriteTask<T> task = new WriteTask<>(operation);
+        queue.add(task);
+
+        try {
+            while (true) {
+                try {
+                    return task.future.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    // The writer thread may have exited after the task was queued if the writer
+                    // was shutdown at the same time, if the task is still in the queue we
+                    // take it back and run it on the calling thread instead.
+                    if (!thread.isAlive() && queue.remove(task)) {
+                        try (Connection connection = pool.getConnection()) {
+                            return operation.run(connection);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the SQLite write to be committed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    /**
+     * Gets the amount of writes that are waiting to be run by the writer thread.
+     *
+     * @return The amount of writes waiting to be run.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the writer, the writes that are already queued up will still be
+     * committed before the writer thread exits, any writes submitted
+     * after this is called will be run on the calling thread.
+     *
+     * @param timeout The max amount of time to wait for the queued writes to be committed.
+     * @param unit    The time unit of the timeout.
+     * @return <code>True</code> if the writer thread finished within the timeout, <code>False</code> otherwise.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        running = false;
+
+        try {
+            thread.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return !thread.isAlive();
+    }
+
+    private void run() {
+        List<WriteTask<?>> group = new ArrayList<>(maxGroupSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                WriteTask<?> task = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    continue;
+                }
+
+                group.add(task);
+                queue.drainTo(group, maxGroupSize - 1);
+
+                commit(group);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Throwable e) {
+                log.error("The SQLite writer failed to commit a group of {} writes: {}", group.size(), e.getMessage(), e);
+                for (WriteTask<?> task : group) {
+                    task.future.completeExceptionally(e);
+                }
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<WriteTask<?>> group) throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            currentConnection = connection;
+
+            try {
+                // Each write gets its own savepoint, so a write that fails only rolls back its
+                // own changes, rather than the changes from every other write in the group.
+                for (WriteTask<?> task : group) {
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        task.run(connection);
+                        connection.releaseSavepoint(savepoint);
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback(savepoint);
+                        task.future.completeExceptionally(e);
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                currentConnection = null;
+                connection.setAutoCommit(true);
+            }
+        }
+
+        for (WriteTask<?> task : group) {
+            task.complete();
+        }
+    }
+
+    private static class WriteTask<T> {
+
+        private final Database.ConnectionOperation<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+
+        WriteTask(Database.ConnectionOperation<T> operation) {
+            this.operation = operation;
+        }
+
+        void run(Connection connection) throws SQLException {
+            result = operation.run(connection);
+        }
+
+        void complete() {
+            // Tasks that already failed are left as they are, since
+            // completing a future a second time does nothing.
+            future.complete(result);
+        }
+    }
+}
@@ -23,6 +23,7 @@ package com.avairebot.database.controllers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
+import com.avairebot.database.WriteBehindBuffer;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
@@ -35,11 +36,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class GuildController {
 
@@ -50,6 +53,10 @@ public class GuildController {
 
     private static final Logger log = LoggerFactory.getLogger(GuildController.class);
 
+    private static final WriteBehindBuffer guildUpdates = new WriteBehindBuffer(
+        Constants.GUILD_TABLE_NAME, "id", 5, TimeUnit.SECONDS
+    );
+
     private static final String[] requiredGuildColumns = new String[]{
         "guild_types.name as type_name", "guild_types.limits as type_limits",
         "guilds.id", "guilds.partner", "guilds.name", "guilds.icon", "guilds.local", "guilds.channels", "guilds.modules", "guilds.level_roles",
@@ -88,6 +95,42 @@ public class GuildController {
         return (GuildTransformer) CacheUtil.getUncheckedUnwrapped(cache, guild.getIdLong(), () -> loadGuildFromDatabase(avaire, guild));
     }
 
+    /**
+     * Gets the guild transformer for the given guild ID from the cache
+     * without loading it from the database if it isn't cached.
+     *
+     * @param guildId The ID of the guild that should be fetched from the cache.
+     * @return Possibly null, the cached guild transformer for the given guild, or null.
+     */
+    @Nullable
+    public static GuildTransformer getCachedGuild(long guildId) {
+        return cache.getIfPresent(guildId);
+    }
+
+    /**
+     * Queues an update for the given column of the guild row in the database, the update is
+     * buffered and written together with other updates for the guild a few seconds later,
+     * if another update is queued for the same column before then, only the latest
+     * update will be written, the value is built when the update is written.
+     *
+     * @param guild  The JDA guild instance for the guild that should be updated.
+     * @param column The column that should be updated.
+     * @param encode Determines if the value should be encoded with base64 before it is stored.
+     * @param value  The supplier for the value that should be stored.
+     */
+    public static void queueGuildUpdate(Guild guild, String column, boolean encode, Supplier<Object> value) {
+        guildUpdates.queue(guild.getIdLong(), column, encode, value);
+    }
+
+    /**
+     * Gets the write-behind buffer holding the queued guild updates.
+     *
+     * @return The write-behind buffer for guild updates.
+     */
+    public static WriteBehindBuffer getGuildUpdates() {
+        return guildUpdates;
+    }
+
     public static String buildChannelData(List<TextChannel> textChannels) {
         List<Map<String, Object>> channels = new ArrayList<>();
         for (TextChannel channel : textChannels) {
@@ -126,6 +169,10 @@ public class GuildController {
     }
 
     public static void forgetCache(long guildId) {
+        GuildTransformer transformer = cache.getIfPresent(guildId);
+        if (transformer != null) {
+            transformer.invalidateDispatchView();
+        }
         cache.invalidate(guildId);
     }
 
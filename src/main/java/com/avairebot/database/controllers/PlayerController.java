@@ -24,7 +24,6 @@ package com.avairebot.database.controllers;
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.database.transformers.PlayerTransformer;
-import com.avairebot.level.ExperienceEntity;
 import com.avairebot.utilities.CacheUtil;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -36,6 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
@@ -85,14 +85,21 @@ public class PlayerController {
                     transformer.setDiscriminator(user.getDiscriminator());
                     transformer.setAvatar(user.getAvatarId());
 
+                    // Upserts the player, if another message already created the row for the
+                    // user in the meantime, only the user information is updated so the
+                    // experience the user has already gotten isn't reset to 100.
                     avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                        .insert(statement -> {
+                        .upsert(Arrays.asList("user_id", "guild_id"), statement -> {
                             statement.set("guild_id", message.getGuild().getId())
                                 .set("user_id", user.getId())
                                 .set("username", user.getName(), true)
                                 .set("discriminator", user.getDiscriminator())
                                 .set("avatar", user.getAvatarId())
                                 .set("experience", 100);
+                        }, statement -> {
+                            statement.set("username", user.getName(), true)
+                                .set("discriminator", user.getDiscriminator())
+                                .set("avatar", user.getAvatarId());
                         });
 
                     return mergeWithExperienceEntity(avaire, transformer);
@@ -114,15 +121,26 @@ public class PlayerController {
         });
     }
 
+    /**
+     * Gets the player transformer for the given user in the given guild from
+     * the cache without loading it from the database if it isn't cached.
+     *
+     * @param guild The guild the player should be fetched for.
+     * @param user  The user the player should be fetched for.
+     * @return Possibly null, the cached player transformer for the given guild and user, or null.
+     */
+    @Nullable
+    public static PlayerTransformer getCachedPlayer(@Nonnull Guild guild, @Nonnull User user) {
+        return cache.getIfPresent(asKey(guild, user));
+    }
+
     private static PlayerTransformer mergeWithExperienceEntity(AvaIre avaire, PlayerTransformer transformer) {
-        List<ExperienceEntity> entities = avaire.getLevelManager().getExperienceEntities(transformer);
-        if (entities.isEmpty()) {
+        long experience = avaire.getLevelManager().getPendingExperience(transformer);
+        if (experience == 0) {
             return transformer;
         }
 
-        transformer.incrementExperienceBy(
-            entities.stream().mapToInt(ExperienceEntity::getExperience).sum()
-        );
+        transformer.incrementExperienceBy((int) experience);
 
         return transformer;
     }
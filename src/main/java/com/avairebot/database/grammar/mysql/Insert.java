@@ -35,10 +35,21 @@ public class Insert extends InsertGrammar {
 
         buildKeyset(builder);
         buildValues(builder);
+        buildUpsert(builder);
 
         return finalize(builder);
     }
 
+    @Override
+    protected String formatUpsertClause(QueryBuilder builder) {
+        return " ON DUPLICATE KEY UPDATE";
+    }
+
+    @Override
+    protected String formatInsertedValue(String field) {
+        return String.format("VALUES(%s)", field);
+    }
+
     private void buildKeyset(QueryBuilder builder) {
         List<Map<String, Object>> items = builder.getItems();
 
@@ -87,18 +98,19 @@ public class Insert extends InsertGrammar {
                 }
 
                 if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
-                    addPart(String.format("%s, ", value.equalsIgnoreCase("true") ? 1 : 0));
+                    int bool = value.equalsIgnoreCase("true") ? 1 : 0;
+                    addPart(String.format("%s, ", bindValue(builder, bool, String.valueOf(bool))));
 
                     continue;
                 }
 
                 if (isNumeric(value)) {
-                    addPart(String.format("%s, ", value));
+                    addPart(String.format("%s, ", bindValue(builder, row.get(key), value)));
 
                     continue;
                 }
 
-                addPart("?, ");
+                addPart(String.format("%s, ", bindValue(builder, value, "?")));
             }
 
             removeLast(2).addPart("),");
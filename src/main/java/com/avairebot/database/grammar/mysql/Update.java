@@ -80,12 +80,15 @@ public class Update extends UpdateGrammar {
                 }
 
                 if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
-                    addPart(String.format(" %s = %s, ", formatKey, value.equalsIgnoreCase("true") ? 1 : 0));
+                    int bool = value.equalsIgnoreCase("true") ? 1 : 0;
+                    addPart(String.format(" %s = %s, ", formatKey, bindValue(builder, bool, String.valueOf(bool))));
 
                     continue;
                 }
 
-                addPart(String.format("%s = '%s', ", formatKey, value.replaceAll("'", "\'")));
+                addPart(String.format("%s = %s, ", formatKey,
+                    bindValue(builder, row.get(key), String.format("'%s'", value.replaceAll("'", "\'")))
+                ));
             }
 
             removeLast(2).addPart(" ");
@@ -35,10 +35,28 @@ public class Insert extends InsertGrammar {
 
         buildKeyset(builder);
         buildValues(builder);
+        buildUpsert(builder);
 
         return finalize(builder);
     }
 
+    @Override
+    protected String formatUpsertClause(QueryBuilder builder) {
+        StringBuilder keys = new StringBuilder();
+        for (String key : builder.getUpsertKeys()) {
+            keys.append(formatField(key)).append(", ");
+        }
+
+        return String.format(" ON CONFLICT (%s) DO UPDATE SET",
+            keys.substring(0, keys.length() - 2)
+        );
+    }
+
+    @Override
+    protected String formatInsertedValue(String field) {
+        return "excluded." + field;
+    }
+
     private void buildKeyset(QueryBuilder builder) {
         List<Map<String, Object>> items = builder.getItems();
 
@@ -87,18 +105,19 @@ public class Insert extends InsertGrammar {
                 }
 
                 if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
-                    addPart(String.format("%s, ", value.equalsIgnoreCase("true") ? 1 : 0));
+                    int bool = value.equalsIgnoreCase("true") ? 1 : 0;
+                    addPart(String.format("%s, ", bindValue(builder, bool, String.valueOf(bool))));
 
                     continue;
                 }
 
                 if (isNumeric(value)) {
-                    addPart(String.format("'%s', ", value));
+                    addPart(String.format("%s, ", bindValue(builder, row.get(key), "'" + value + "'")));
 
                     continue;
                 }
 
-                addPart("?, ");
+                addPart(String.format("%s, ", bindValue(builder, value, "?")));
             }
 
             removeLast(2).addPart("),");
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.migrate.migrations;
+
+import com.avairebot.Constants;
+import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.database.collection.Collection;
+import com.avairebot.database.collection.DataRow;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.query.PreparedQuery;
+import com.avairebot.database.schema.Schema;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class AddUniqueKeysForUpsertsMigration implements Migration {
+
+    /**
+     * The unique keys that should be created, the first element is
+     * the table name, the second is the name of the index, and
+     * the rest are the columns that makes up the key, string
+     * columns have their MySQL index prefix length appended.
+     */
+    private static final List<String[]> uniqueKeys = Arrays.asList(
+        new String[]{Constants.PLAYER_EXPERIENCE_TABLE_NAME, "experiences_user_guild_unique", "user_id(32)", "guild_id(32)"},
+        new String[]{Constants.VOTES_TABLE_NAME, "votes_user_unique", "user_id(32)"},
+        new String[]{Constants.BLACKLIST_TABLE_NAME, "blacklists_id_type_unique", "id(32)", "type"}
+    );
+
+    @Override
+    public String created_at() {
+        return "Sun, Jan 6, 2019 4:12 PM";
+    }
+
+    @Override
+    public boolean up(Schema schema) throws SQLException {
+        boolean isMySQL = schema.getDbm().getConnection() instanceof MySQL;
+
+        for (String[] key : uniqueKeys) {
+            String table = key[0];
+            String index = key[1];
+            List<String> columns = Arrays.asList(key).subList(2, key.length);
+            List<String> names = columns.stream()
+                .map(this::getColumnName)
+                .collect(Collectors.toList());
+
+            if (hasIndex(schema, isMySQL, table, index) || !hasColumns(schema, table, names)) {
+                continue;
+            }
+
+            // Duplicate rows has to be removed before the unique key can be created, since
+            // rows were inserted without any kind of key previously, two commands running
+            // at the same time could create two rows for the same user, all the updates
+            // targets every matching row, so it doesn't matter which row we keep.
+            if (isMySQL) {
+                removeMySQLDuplicates(schema, table, names);
+
+                schema.getDbm().queryUpdate(String.format(
+                    "ALTER TABLE `%s` ADD UNIQUE INDEX `%s` (%s);",
+                    table, index, columns.stream()
+                        .map(column -> column.replaceFirst("^([a-z_]+)", "`$1`"))
+                        .collect(Collectors.joining(", "))
+                ));
+            } else {
+                schema.getDbm().queryUpdate(String.format(
+                    "DELETE FROM `%s` WHERE `rowid` NOT IN (SELECT MIN(`rowid`) FROM `%s` GROUP BY %s);",
+                    table, table, formatColumns(names)
+                ));
+
+                schema.getDbm().queryUpdate(String.format(
+                    "CREATE UNIQUE INDEX `%s` ON `%s` (%s);",
+                    index, table, formatColumns(names)
+                ));
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean down(Schema schema) throws SQLException {
+        boolean isMySQL = schema.getDbm().getConnection() instanceof MySQL;
+
+        for (String[] key : uniqueKeys) {
+            if (!hasIndex(schema, isMySQL, key[0], key[1])) {
+                continue;
+            }
+
+            if (isMySQL) {
+                schema.getDbm().queryUpdate(String.format(
+                    "ALTER TABLE `%s` DROP INDEX `%s`;", key[0], key[1]
+                ));
+            } else {
+                schema.getDbm().queryUpdate(String.format(
+                    "DROP INDEX `%s`;", key[1]
+                ));
+            }
+        }
+
+        return true;
+    }
+
+    private boolean hasIndex(Schema schema, boolean isMySQL, String table, String index) throws SQLException {
+        if (isMySQL) {
+            return !schema.getDbm().query(String.format(
+                "SHOW INDEX FROM `%s` WHERE `Key_name` = '%s';", table, index
+            )).isEmpty();
+        }
+
+        return !schema.getDbm().query(String.format(
+            "SELECT `name` FROM `sqlite_master` WHERE `type` = 'index' AND `name` = '%s';", index
+        )).isEmpty();
+    }
+
+    /**
+     * Checks if the given table has all of the given columns, SQLite installs never
+     * got the reformatted blacklist table, so the blacklist has no type column
+     * there, keys that references missing columns are skipped.
+     *
+     * @param schema  The database schema instance.
+     * @param table   The name of the table that should be checked.
+     * @param columns The names of the columns that should exist.
+     * @return <code>True</code> if all the columns exists, <code>False</code> otherwise.
+     * @throws SQLException If the table metadata couldn't be loaded.
+     */
+    private boolean hasColumns(Schema schema, String table, List<String> columns) throws SQLException {
+        for (String column : columns) {
+            if (!schema.hasColumn(table, column)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeMySQLDuplicates(Schema schema, String table, List<String> columns) throws SQLException {
+        Collection duplicates = schema.getDbm().query(String.format(
+            "SELECT %s, COUNT(*) AS `total` FROM `%s` GROUP BY %s HAVING COUNT(*) > 1;",
+            formatColumns(columns), table, formatColumns(columns)
+        ));
+
+        if (duplicates.isEmpty()) {
+            return;
+        }
+
+        List<PreparedQuery> queries = new ArrayList<>();
+        for (DataRow row : duplicates) {
+            List<Object> parameters = new ArrayList<>();
+            for (String column : columns) {
+                parameters.add(row.getString(column));
+            }
+
+            queries.add(new PreparedQuery(String.format(
+                "DELETE FROM `%s` WHERE %s LIMIT %s;", table, columns.stream()
+                    .map(column -> String.format("`%s` = ?", column))
+                    .collect(Collectors.joining(" AND ")),
+                row.getInt("total") - 1
+            ), parameters));
+        }
+
+        schema.getDbm().queryBatch(queries);
+    }
+
+    private String getColumnName(String column) {
+        int index = column.indexOf('(');
+
+        return index < 0 ? column : column.substring(0, index);
+    }
+
+    private String formatColumns(List<String> columns) {
+        return columns.stream()
+            .map(column -> String.format("`%s`", column))
+            .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.migrate.migrations;
+
+import com.avairebot.Constants;
+import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.database.connections.MySQL;
+import com.avairebot.database.schema.Schema;
+
+import java.sql.SQLException;
+
+public class CreateGlobalExperiencesTableMigration implements Migration {
+
+    @Override
+    public String created_at() {
+        return "Mon, Jan 7, 2019 7:38 PM";
+    }
+
+    @Override
+    public boolean up(Schema schema) throws SQLException {
+        if (schema.hasTable(Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME)) {
+            return true;
+        }
+
+        if (schema.getDbm().getConnection() instanceof MySQL) {
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE TABLE `%s` (" +
+                    "`user_id` VARCHAR(32) NOT NULL, " +
+                    "`experience` BIGINT NOT NULL DEFAULT '0', " +
+                    "PRIMARY KEY (`user_id`), " +
+                    "INDEX `global_experiences_experience_index` (`experience`)" +
+                    ") ENGINE = InnoDB;",
+                Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME
+            ));
+        } else {
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE TABLE `%s` (`user_id` VARCHAR(32) NOT NULL PRIMARY KEY, `experience` BIGINT NOT NULL DEFAULT '0');",
+                Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME
+            ));
+
+            schema.getDbm().queryUpdate(String.format(
+                "CREATE INDEX `global_experiences_experience_index` ON `%s` (`experience`);",
+                Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME
+            ));
+        }
+
+        // Seeds the global experience table using the same total the global leaderboard
+        // used to calculate on every request, from here on the table is kept up to
+        // date by the player experience sync task, using the same batched XP.
+        schema.getDbm().queryUpdate(String.format(
+            "INSERT INTO `%s` (`user_id`, `experience`) " +
+                "SELECT `user_id`, SUM(`global_experience`) - (COUNT(`user_id`) * 100) FROM `%s` GROUP BY `user_id`;",
+            Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME, Constants.PLAYER_EXPERIENCE_TABLE_NAME
+        ));
+
+        return true;
+    }
+
+    @Override
+    public boolean down(Schema schema) throws SQLException {
+        return schema.dropIfExists(Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+public class PreparedQuery {
+
+    /**
+     * The SQL query with <code>?</code> placeholders in place of the values,
+     * queries built from query builders with the same structure will always
+     * produce the same query, allowing prepared statements to be reused.
+     */
+    private final String query;
+
+    /**
+     * The values that should be bound to the placeholders in the query,
+     * in the same order the placeholders appear in the query.
+     */
+    private final List<Object> parameters;
+
+    /**
+     * Creates a new prepared query.
+     *
+     * @param query      The SQL query with placeholders.
+     * @param parameters The values that should be bound to the placeholders.
+     */
+    public PreparedQuery(String query, List<Object> parameters) {
+        this.query = query;
+        this.parameters = Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * Gets the SQL query with <code>?</code> placeholders in place of the values.
+     *
+     * @return The SQL query with placeholders.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the values that should be bound to the placeholders in the query.
+     *
+     * @return The list of parameters.
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Binds the parameters to the given prepared statement, numbers,
+     * booleans and strings are bound as they are, any other type
+     * of object will be bound using its string representation.
+     *
+     * @param statement The prepared statement the parameters should be bound to.
+     * @throws SQLException if a database access error occurs or this method is called on a closed <code>PreparedStatement</code>
+     */
+    public void bind(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = parameters.get(i);
+
+            if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+                statement.setObject(i + 1, value);
+            } else {
+                statement.setString(i + 1, value.toString());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return query;
+    }
+}
@@ -26,20 +26,34 @@ import com.avairebot.contracts.database.Database.QueryType;
 import com.avairebot.contracts.database.QueryClause;
 import com.avairebot.contracts.database.query.ChangeableClosure;
 import com.avairebot.contracts.database.query.ClauseConsumer;
+import com.avairebot.contracts.database.query.RowConsumer;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.collection.Collection;
-import com.avairebot.scheduler.ScheduleHandler;
+import com.avairebot.database.collection.Cursor;
+import com.avairebot.database.collection.DataRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 public final class QueryBuilder {
 
     private static final Logger log = LoggerFactory.getLogger(QueryBuilder.class);
 
+    /**
+     * The default amount of rows cursors should fetch
+     * from the database at a time when streaming.
+     */
+    private static final int defaultFetchSize = 500;
+
     /**
      * The instance of the {@link DatabaseManager}.
      */
@@ -88,6 +102,23 @@ public final class QueryBuilder {
      * executed async it will not return any results, or throw any errors.
      */
     private boolean async = false;
+    /**
+     * The list of unique key columns used for detecting conflicts when the insert query
+     * is an upsert query, if the value is <code>NULL</code> the query is a normal
+     * insert query that will fail if the row already exists.
+     */
+    private List<String> upsertKeys = null;
+    /**
+     * The map of items that should be updated for the conflicting row when the insert query is
+     * an upsert query, if no items are given the inserted values will be used instead.
+     */
+    private Map<String, Object> upsertItems = null;
+    /**
+     * The list of parameters bound by the grammar generator while a prepared query
+     * is being built, if the value is <code>NULL</code> the grammar generator
+     * should inline the values directly into the query instead.
+     */
+    private List<Object> parameters = null;
 
     /**
      * Creates a new Query Builder instance.
@@ -700,6 +731,10 @@ public final class QueryBuilder {
      * thread, only <code>update</code>, <code>insert</code>, and <code>delete</code> queries can be
      * executed as async, when async is enabled for a query it will not return any response or
      * throw any exceptions that can be catched.
+     * <p>
+     * To get the result of an async query, or handle its errors, use the async query methods
+     * instead, like {@link #getAsync()}, {@link #updateAsync(ChangeableClosure)},
+     * {@link #insertAsync(ChangeableClosure)}, or {@link #deleteAsync()}.
      *
      * @param async The query async value.
      * @return the query builder instance.
@@ -717,7 +752,7 @@ public final class QueryBuilder {
      * @return either (1) the generated SQL query
      * or (2) <code>NULL</code> if an error occurred.
      */
-    public String toSQL() {
+    public synchronized String toSQL() {
         try {
             switch (type) {
                 case SELECT:
@@ -736,7 +771,53 @@ public final class QueryBuilder {
     }
 
     /**
-     * Runs the {@link Database#query(String)} method with the generated query.
+     * Creates the grammar instance and builds the SQL query using <code>?</code> placeholders
+     * in place of the values, the values are collected into the returned prepared query
+     * in the order they should be bound, if an error occurs while building the
+     * query <code>NULL</code> will be returned instead.
+     * <p>
+     * Query builders with the same structure will always generate the same query, so
+     * the prepared statements for the query can be cached and reused by the
+     * connection, even if the values used in the query are different.
+     *
+     * @return either (1) the generated prepared query
+     * or (2) <code>NULL</code> if an error occurred.
+     */
+    public synchronized PreparedQuery toPreparedQuery() {
+        parameters = new ArrayList<>();
+
+        try {
+            String query = toSQL();
+            if (query == null) {
+                return null;
+            }
+
+            return new PreparedQuery(query, parameters);
+        } finally {
+            parameters = null;
+        }
+    }
+
+    /**
+     * Binds the given value as a parameter for the query if a prepared query is currently
+     * being built, this is used by the grammar generators to determine if the values
+     * should be replaced with a placeholder, or inlined directly into the query.
+     *
+     * @param value The value that should be bound to the query.
+     * @return <code>TRUE</code> if the value was bound and a placeholder should be used, <code>FALSE</code> otherwise.
+     */
+    public boolean bindParameter(Object value) {
+        if (parameters == null) {
+            return false;
+        }
+
+        parameters.add(value);
+
+        return true;
+    }
+
+    /**
+     * Runs the {@link Database#query(PreparedQuery)} method with the generated query.
      *
      * @return a <code>Collection</code> object that contains the data produced
      * by the given query; never <code>null</code>@exception
@@ -747,16 +828,142 @@ public final class QueryBuilder {
      *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
      */
     public Collection get() throws SQLException {
-        String query = toSQL();
+        PreparedQuery query = toPreparedQuery();
+        if (query == null) {
+            throw new SQLException("null query was generated, null can not be used as a valid query");
+        }
 
-        log.debug("QueryBuilder#get() was called with the following SQL query.\nSQL: " + query);
-        MDC.put("query", query);
+        log.debug("QueryBuilder#get() was called with the following SQL query.\nSQL: " + query.getQuery());
+        MDC.put("query", query.getQuery());
 
-        // Note: When parsing the result to a collection, we can't use the DBM query method since it auto closes the result,
-        // and the collection still needs to communicated with the result set to get meta data so it can build the keysets
-        // for the column names, this isn't possible if we close the result before parsing it to the collection, instead
-        // we use the direct connection and have the collection close the connection instead.
-        return new Collection(dbm.getConnection().query(query));
+        // Note: Closing the result set also closes the statement and releases the
+        // connection back to the connection pool, so the result must be closed
+        // even if the collection fails to be built from the result.
+        return dbm.getProfiler().profile(getShape(), query.getQuery(), query.getParameters(), () -> {
+            try (ResultSet result = dbm.getConnection().query(query)) {
+                return new Collection(result);
+            }
+        }, Collection::size);
+    }
+
+    /**
+     * Runs the {@link #get()} method on the database executor, the returned future is completed with
+     * the collection produced by the query, or completed exceptionally with the exception thrown
+     * while running the query, or rejected if the database executor queue is full.
+     *
+     * @return the future that is completed with the data produced by the query.
+     */
+    public CompletableFuture<Collection> getAsync() {
+        return dbm.getExecutor().submit(this::get);
+    }
+
+    /**
+     * Runs the generated query and creates a forward-only cursor for the result using
+     * the default fetch size, the rows are read from the database as the cursor is
+     * moved forward, instead of being loaded into memory all at once.
+     * <p>
+     * The cursor must be closed once it is no longer needed to release
+     * the database connection, preferably using try-with-resources.
+     *
+     * @return a <code>Cursor</code> object for the rows produced by the query.
+     * @throws SQLException if a database access error occurs,
+     *                      this method is called on a closed <code>Statement</code>, the given
+     *                      SQL statement produces anything other than a single
+     *                      <code>ResultSet</code> object, the method is called on a
+     *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
+     */
+    public Cursor cursor() throws SQLException {
+        return cursor(defaultFetchSize);
+    }
+
+    /**
+     * Runs the generated query and creates a forward-only cursor for the result, fetching the
+     * given amount of rows from the database at a time, the rows are read from the database
+     * as the cursor is moved forward, instead of being loaded into memory all at once.
+     * <p>
+     * The cursor must be closed once it is no longer needed to release
+     * the database connection, preferably using try-with-resources.
+     *
+     * @param fetchSize The amount of rows that should be fetched from the database at a time.
+     * @return a <code>Cursor</code> object for the rows produced by the query.
+     * @throws SQLException if a database access error occurs,
+     *                      this method is called on a closed <code>Statement</code>, the given
+     *                      SQL statement produces anything other than a single
+     *                      <code>ResultSet</code> object, the method is called on a
+     *                      <code>PreparedStatement</code> or <code>CallableStatement</code>
+     */
+    public Cursor cursor(int fetchSize) throws SQLException {
+        PreparedQuery query = toPreparedQuery();
+        if (query == null) {
+            throw new SQLException("null query was generated, null can not be used as a valid query");
+        }
+
+        log.debug("QueryBuilder#cursor() was called with the following SQL query.\nSQL: " + query.getQuery());
+        MDC.put("query", query.getQuery());
+
+        // The rows are read after the cursor has been returned, so only the
+        // time it takes for the query to start returning rows is recorded.
+        return dbm.getProfiler().profile(getShape(), query.getQuery(), query.getParameters(),
+            () -> new Cursor(dbm.getConnection().query(query, fetchSize)), cursor -> -1
+        );
+    }
+
+    /**
+     * Runs the generated query and creates a stream of the rows in the result, the
+     * same data row instance is reused for every row in the stream, so rows
+     * that should be kept around must be copied before moving on.
+     * <p>
+     * The stream must be closed once it is no longer needed to release
+     * the database connection, preferably using try-with-resources.
+     *
+     * @return a stream of the rows produced by the query.
+     * @throws SQLException if a database access error occurs while running the query.
+     */
+    public Stream<DataRow> stream() throws SQLException {
+        return cursor().stream();
+    }
+
+    /**
+     * Runs the generated query and creates a stream of the rows in the result, fetching
+     * the given amount of rows from the database at a time, the same data row instance
+     * is reused for every row in the stream, so rows that should be kept around
+     * must be copied before moving on.
+     * <p>
+     * The stream must be closed once it is no longer needed to release
+     * the database connection, preferably using try-with-resources.
+     *
+     * @param fetchSize The amount of rows that should be fetched from the database at a time.
+     * @return a stream of the rows produced by the query.
+     * @throws SQLException if a database access error occurs while running the query.
+     */
+    public Stream<DataRow> stream(int fetchSize) throws SQLException {
+        return cursor(fetchSize).stream();
+    }
+
+    /**
+     * Runs the generated query and invokes the given consumer for every row in the result,
+     * the same data row instance is reused for every row, so rows that should be kept
+     * around must be copied, the cursor is closed once every row has been consumed.
+     *
+     * @param consumer The consumer that should be invoked for every row.
+     * @throws SQLException if a database access error occurs, or the consumer throws.
+     */
+    public void forEachRow(RowConsumer consumer) throws SQLException {
+        cursor().forEachRow(consumer);
+    }
+
+    /**
+     * Runs the generated query and invokes the given consumer for every row in the result,
+     * fetching the given amount of rows from the database at a time, the same data row
+     * instance is reused for every row, so rows that should be kept around must be
+     * copied, the cursor is closed once every row has been consumed.
+     *
+     * @param fetchSize The amount of rows that should be fetched from the database at a time.
+     * @param consumer  The consumer that should be invoked for every row.
+     * @throws SQLException if a database access error occurs, or the consumer throws.
+     */
+    public void forEachRow(int fetchSize, RowConsumer consumer) throws SQLException {
+        cursor(fetchSize).forEachRow(consumer);
     }
 
     /**
@@ -782,13 +989,7 @@ public final class QueryBuilder {
             return dbm.queryUpdate(this);
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
-            try {
-                dbm.queryUpdate(this);
-            } catch (SQLException e) {
-                log.error("Error thrown during async update query: " + toSQL(), e);
-            }
-        });
+        runAsync("update", () -> dbm.queryUpdate(this));
 
         return 0;
     }
@@ -828,13 +1029,7 @@ public final class QueryBuilder {
             return dbm.queryUpdate(this);
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
-            try {
-                dbm.queryUpdate(this);
-            } catch (SQLException e) {
-                log.error("Error thrown during async update query: " + toSQL(), e);
-            }
-        });
+        runAsync("update", () -> dbm.queryUpdate(this));
 
         return 0;
     }
@@ -861,13 +1056,7 @@ public final class QueryBuilder {
             return runInsertQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
-            try {
-                dbm.queryInsert(this);
-            } catch (SQLException e) {
-                log.error("Error thrown during async insert query: " + toSQL(), e);
-            }
-        });
+        runAsync("insert", () -> dbm.queryInsert(this));
 
         return new Collection();
     }
@@ -905,17 +1094,110 @@ public final class QueryBuilder {
             return runInsertQuery();
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
-            try {
-                dbm.queryInsert(this);
-            } catch (SQLException e) {
-                log.error("Error thrown during async insert query: " + toSQL(), e);
-            }
-        });
+        runAsync("insert", () -> dbm.queryInsert(this));
 
         return new Collection();
     }
 
+    /**
+     * Inserts the items from the insert closure, or updates the existing row if a row with the same
+     * unique keys already exists, the conflicting row is updated using every inserted column
+     * that isn't part of the keys, the table must have a unique index for the keys.
+     *
+     * @param keys    The columns of the unique index used for detecting conflicts.
+     * @param closure The changeable closure with the items that should be inserted.
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     * or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int upsert(List<String> keys, ChangeableClosure closure) throws SQLException {
+        return upsert(keys, closure, null);
+    }
+
+    /**
+     * Inserts the items from the insert closure, or updates the existing row with the items from the
+     * update closure if a row with the same unique keys already exists, if the update closure is
+     * <code>NULL</code> every inserted column that isn't part of the keys is updated instead,
+     * the table must have a unique index for the keys.
+     * <p>
+     * This is run in a single query using <code>ON DUPLICATE KEY UPDATE</code> for MySQL,
+     * and <code>ON CONFLICT DO UPDATE</code> for SQLite.
+     *
+     * @param keys    The columns of the unique index used for detecting conflicts.
+     * @param insert  The changeable closure with the items that should be inserted.
+     * @param update  The changeable closure with the items that should be updated on conflict, or <code>NULL</code>.
+     * @return either (1) the row count for SQL Data Manipulation Language (DML) statements
+     * or (2) 0 for SQL statements that return nothing
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int upsert(List<String> keys, ChangeableClosure insert, @Nullable ChangeableClosure update) throws SQLException {
+        prepareUpsert(keys, insert, update);
+
+        if (!async) {
+            return dbm.queryUpdate(this);
+        }
+
+        runAsync("upsert", () -> dbm.queryUpdate(this));
+
+        return 0;
+    }
+
+    /**
+     * Runs the {@link #upsert(List, ChangeableClosure, ChangeableClosure)} method
+     * on the database executor with the current instance of the query builder.
+     *
+     * @param keys   The columns of the unique index used for detecting conflicts.
+     * @param insert The changeable closure with the items that should be inserted.
+     * @param update The changeable closure with the items that should be updated on conflict, or <code>NULL</code>.
+     * @return the future that is completed with the row count for the upsert query.
+     */
+    public CompletableFuture<Integer> upsertAsync(List<String> keys, ChangeableClosure insert, @Nullable ChangeableClosure update) {
+        prepareUpsert(keys, insert, update);
+
+        return dbm.getExecutor().submit(() -> dbm.queryUpdate(this));
+    }
+
+    /**
+     * Inserts all the given rows using a single batched prepared statement, rows with the same
+     * set of columns shares the same statement, and every row is inserted in a single
+     * transaction, so either all the rows are inserted, or none of them are.
+     *
+     * @param rows The list of rows that should be inserted.
+     * @return the update counts for each of the rows, in the same order as the rows was given.
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int[] insertBatch(List<Map<String, Object>> rows) throws SQLException {
+        type = QueryType.INSERT;
+
+        return runBatchQuery(rows);
+    }
+
+    /**
+     * Upserts all the given rows using a single batched prepared statement, conflicting rows
+     * are updated using every inserted column that isn't part of the keys, every row
+     * is upserted in a single transaction, the table must have a unique index for
+     * the keys, see {@link #upsert(List, ChangeableClosure, ChangeableClosure)}.
+     *
+     * @param keys The columns of the unique index used for detecting conflicts.
+     * @param rows The list of rows that should be upserted.
+     * @return the update counts for each of the rows, in the same order as the rows was given.
+     * @throws SQLException if a database access error occurs;
+     *                      this method is called on a closed  <code>PreparedStatement</code>
+     *                      or the SQL statement returns a <code>ResultSet</code> object
+     */
+    public int[] upsertBatch(List<String> keys, List<Map<String, Object>> rows) throws SQLException {
+        type = QueryType.INSERT;
+        upsertKeys = new ArrayList<>(keys);
+
+        return runBatchQuery(rows);
+    }
+
     /**
      * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder) }
      * method with the current instance of the query builder.
@@ -933,15 +1215,167 @@ public final class QueryBuilder {
             return dbm.queryUpdate(this);
         }
 
-        ScheduleHandler.getScheduler().submit(() -> {
-            try {
-                dbm.queryUpdate(this);
-            } catch (SQLException e) {
-                log.error("Error thrown during async delete query: " + toSQL(), e);
+        runAsync("delete", () -> dbm.queryUpdate(this));
+
+        return 0;
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder)} method on the database
+     * executor with the current instance of the query builder, and the given items from the changeable closure.
+     *
+     * @param closure The changeable closure that should be run.
+     * @return the future that is completed with the row count for the update query.
+     */
+    public CompletableFuture<Integer> updateAsync(ChangeableClosure closure) {
+        type = QueryType.UPDATE;
+
+        ChangeableStatement statement = new ChangeableStatement(this);
+        closure.run(statement);
+
+        this.items.addAll(Collections.singletonList(statement.getItems()));
+
+        return dbm.getExecutor().submit(() -> dbm.queryUpdate(this));
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder)} method
+     * on the database executor with the current instance of the query builder.
+     *
+     * @param items The map of items that should be updated
+     * @return the future that is completed with the row count for the update query.
+     */
+    public CompletableFuture<Integer> updateAsync(Map<String, Object>... items) {
+        type = QueryType.UPDATE;
+
+        this.items.addAll(Arrays.asList(items));
+
+        return dbm.getExecutor().submit(() -> dbm.queryUpdate(this));
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryInsert(QueryBuilder)} method on the database
+     * executor with the current instance of the query builder, and the given items from the changeable closure.
+     *
+     * @param closure The changeable closure that should be run.
+     * @return the future that is completed with a Collection of the generated IDs.
+     */
+    public CompletableFuture<Collection> insertAsync(ChangeableClosure closure) {
+        type = QueryType.INSERT;
+
+        ChangeableStatement statement = new ChangeableStatement(this);
+        closure.run(statement);
+
+        this.items.addAll(Collections.singletonList(statement.getItems()));
+
+        return dbm.getExecutor().submit(this::runInsertQuery);
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryInsert(QueryBuilder)} method
+     * on the database executor with the current instance of the query builder.
+     *
+     * @param items The map of items that should be inserted
+     * @return the future that is completed with a Collection of the generated IDs.
+     */
+    public CompletableFuture<Collection> insertAsync(Map<String, Object>... items) {
+        type = QueryType.INSERT;
+
+        this.items.addAll(Arrays.asList(items));
+
+        return dbm.getExecutor().submit(this::runInsertQuery);
+    }
+
+    /**
+     * Runs the {@link com.avairebot.database.DatabaseManager#queryUpdate(QueryBuilder)} method
+     * on the database executor with the current instance of the query builder.
+     *
+     * @return the future that is completed with the row count for the delete query.
+     */
+    public CompletableFuture<Integer> deleteAsync() {
+        type = QueryType.DELETE;
+
+        return dbm.getExecutor().submit(() -> dbm.queryUpdate(this));
+    }
+
+    /**
+     * Runs the given query on the database executor for queries using {@link #useAsync(boolean)},
+     * errors are logged instead of being thrown, if the database executor queue is full the
+     * query will be run on the calling thread instead, so the query isn't dropped.
+     *
+     * @param queryType The type of query being run, used for logging errors.
+     * @param query     The query that should be run.
+     */
+    private void runAsync(String queryType, Callable<?> query) {
+        dbm.getExecutor().submit(query).whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                return;
+            }
+
+            if (throwable instanceof RejectedExecutionException) {
+                try {
+                    query.call();
+                    return;
+                } catch (Exception e) {
+                    throwable = e;
+                }
             }
+
+            log.error("Error thrown during async " + queryType + " query: " + toSQL(), throwable);
         });
+    }
 
-        return 0;
+    private void prepareUpsert(List<String> keys, ChangeableClosure insert, @Nullable ChangeableClosure update) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one unique key column must be given for upsert queries.");
+        }
+
+        type = QueryType.INSERT;
+        upsertKeys = new ArrayList<>(keys);
+
+        ChangeableStatement statement = new ChangeableStatement(this);
+        insert.run(statement);
+
+        this.items.addAll(Collections.singletonList(statement.getItems()));
+
+        if (update != null) {
+            ChangeableStatement updateStatement = new ChangeableStatement(this);
+            update.run(updateStatement);
+
+            upsertItems = updateStatement.getItems();
+        }
+    }
+
+    private int[] runBatchQuery(List<Map<String, Object>> rows) throws SQLException {
+        List<PreparedQuery> queries = new ArrayList<>(rows.size());
+
+        try {
+            for (Map<String, Object> row : rows) {
+                items.clear();
+                items.add(row);
+
+                PreparedQuery query = toPreparedQuery();
+                if (query == null) {
+                    throw new SQLException("null query was generated, null can not be used as a valid query");
+                }
+                queries.add(query);
+            }
+        } finally {
+            items.clear();
+            items.addAll(rows);
+        }
+
+        return dbm.queryBatch(queries);
+    }
+
+    private void collectWhereColumns(List<QueryClause> clauses, Set<String> columns) {
+        for (QueryClause clause : clauses) {
+            if (clause instanceof Clause) {
+                columns.add(((Clause) clause).getOne());
+            } else if (clause instanceof NestedClause) {
+                collectWhereColumns(((NestedClause) clause).getWhereClauses(), columns);
+            }
+        }
     }
 
     /**
@@ -995,6 +1429,48 @@ public final class QueryBuilder {
         return items;
     }
 
+    /**
+     * Gets the normalized shape of the query, the shape is made up of the table, the type
+     * of query, and the columns used in the where clauses, so queries that only differ
+     * by the values used in the query shares the same shape, this is used to group
+     * query metrics together without using the entire query as a label.
+     *
+     * @return The normalized shape of the query, for example <code>experiences:SELECT(user_id,guild_id)</code>
+     */
+    public String getShape() {
+        Set<String> columns = new LinkedHashSet<>();
+        collectWhereColumns(wheres, columns);
+
+        String queryType = type == null ? "UNKNOWN" : type.name();
+        if (type == QueryType.INSERT && upsertKeys != null) {
+            queryType = "UPSERT";
+        }
+
+        return String.format("%s:%s(%s)",
+            table == null ? "unknown" : table, queryType, String.join(",", columns)
+        );
+    }
+
+    /**
+     * Gets the list of unique key columns used for detecting conflicts for upsert queries.
+     *
+     * @return Possibly-null, the list of upsert keys, or <code>NULL</code> if the query isn't an upsert query.
+     */
+    @Nullable
+    public List<String> getUpsertKeys() {
+        return upsertKeys;
+    }
+
+    /**
+     * Gets the map of items that should be updated for the conflicting row for upsert queries.
+     *
+     * @return Possibly-null, the map of upsert items, or <code>NULL</code> if the inserted values should be used.
+     */
+    @Nullable
+    public Map<String, Object> getUpsertItems() {
+        return upsertItems;
+    }
+
     @Override
     public String toString() {
         return toSQL();
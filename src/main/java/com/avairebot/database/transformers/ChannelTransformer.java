@@ -28,6 +28,7 @@ import com.avairebot.database.collection.DataRow;
 import com.google.gson.internal.LinkedTreeMap;
 
 import javax.annotation.Nonnull;
+import java.util.Collections;
 import java.util.HashMap;
 
 public class ChannelTransformer extends Transformer {
@@ -75,6 +76,18 @@ public class ChannelTransformer extends Transformer {
         this(new DataRow(data));
     }
 
+    /**
+     * Creates a channel transformer for the given channel ID with the
+     * default module values, the modules can then be set using
+     * the module setters, used when decoding channel JSON.
+     *
+     * @param id               The ID of the channel.
+     * @param guildTransformer The guild transformer the channel belongs to.
+     */
+    ChannelTransformer(String id, GuildTransformer guildTransformer) {
+        this(new DataRow(Collections.singletonMap("id", id)), guildTransformer);
+    }
+
     public String getId() {
         return data.getString("id", "invalid-id");
     }
@@ -23,29 +23,31 @@ package com.avairebot.database.transformers;
 
 import com.avairebot.AvaIre;
 import com.avairebot.audio.DJGuildLevel;
+import com.avairebot.commands.GuildDispatchView;
 import com.avairebot.contracts.database.transformers.Transformer;
 import com.avairebot.database.collection.DataRow;
+import com.avairebot.level.LevelRewardPlan;
 import com.avairebot.utilities.NumberUtil;
-import com.google.gson.internal.LinkedTreeMap;
-import com.google.gson.reflect.TypeToken;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.TextChannel;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class GuildTransformer extends Transformer {
 
     private static final GuildTypeTransformer partnerTypeTransformer = new PartnerGuildTypeTransformer();
 
-    private final Map<String, String> aliases = new HashMap<>();
-    private final Map<String, String> prefixes = new HashMap<>();
-    private final Map<String, String> selfAssignableRoles = new HashMap<>();
-    private final Map<Integer, String> levelRoles = new HashMap<>();
-    private final Map<String, Map<String, String>> modules = new HashMap<>();
-    private final List<ChannelTransformer> channels = new ArrayList<>();
-    private final Set<Long> levelExemptChannels = new HashSet<>();
+    private final LazyValue<Map<String, String>> aliases;
+    private final LazyValue<Map<String, String>> prefixes;
+    private final LazyValue<Map<String, String>> selfAssignableRoles;
+    private final LazyValue<Map<Integer, String>> levelRoles;
+    private final LazyValue<Map<String, Map<String, String>>> modules;
+    private final LazyValue<List<ChannelTransformer>> channels;
+    private final LazyValue<Set<Long>> levelExemptChannels;
 
     private final GuildTypeTransformer guildType;
     private boolean partner;
@@ -68,6 +70,10 @@ public class GuildTransformer extends Transformer {
     private double levelModifier = -1;
     private DJGuildLevel djGuildLevel = null;
 
+    private final AtomicReference<GuildDispatchView> dispatchView = new AtomicReference<>();
+    private final AtomicInteger dispatchViewModifications = new AtomicInteger();
+    private volatile LevelRewardPlan levelRewardPlan = null;
+
     public GuildTransformer(Guild guild) {
         super(null);
 
@@ -78,6 +84,14 @@ public class GuildTransformer extends Transformer {
 
         partner = guild.getRegion().isVip();
         guildType = partner ? partnerTypeTransformer : new GuildTypeTransformer(data);
+
+        aliases = new LazyValue<>(HashMap::new);
+        prefixes = new LazyValue<>(HashMap::new);
+        selfAssignableRoles = new LazyValue<>(HashMap::new);
+        levelRoles = new LazyValue<>(HashMap::new);
+        modules = new LazyValue<>(HashMap::new);
+        channels = new LazyValue<>(ArrayList::new);
+        levelExemptChannels = new LazyValue<>(HashSet::new);
     }
 
     public GuildTransformer(Guild guild, DataRow data) {
@@ -112,95 +126,26 @@ public class GuildTransformer extends Transformer {
             if (!partner) {
                 partner = data.getBoolean("partner", false);
             }
-
-            if (data.getString("aliases", null) != null) {
-                HashMap<String, String> dbAliases = AvaIre.gson.fromJson(
-                    data.getString("aliases"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbAliases.entrySet()) {
-                    aliases.put(item.getKey().toLowerCase(), item.getValue());
-                }
-            }
-
-            if (data.getString("prefixes", null) != null) {
-                HashMap<String, String> dbPrefixes = AvaIre.gson.fromJson(
-                    data.getString("prefixes"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbPrefixes.entrySet()) {
-                    prefixes.put(item.getKey().toLowerCase(), item.getValue());
-                }
-            }
-
-            if (data.getString("claimable_roles", null) != null) {
-                HashMap<String, String> dbSelfAssignableRoles = AvaIre.gson.fromJson(
-                    data.getString("claimable_roles"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbSelfAssignableRoles.entrySet()) {
-                    selfAssignableRoles.put(item.getKey(), item.getValue().toLowerCase());
-                }
-            }
-
-            if (data.getString("level_roles", null) != null) {
-                HashMap<String, String> dbLevelRoles = AvaIre.gson.fromJson(
-                    data.getString("level_roles"),
-                    new TypeToken<HashMap<String, String>>() {
-                    }.getType());
-
-                for (Map.Entry<String, String> item : dbLevelRoles.entrySet()) {
-                    levelRoles.put(NumberUtil.parseInt(item.getKey(), -1), item.getValue().toLowerCase());
-                }
-            }
-
-            if (data.getString("level_exempt_channels", null) != null) {
-                List<String> dbExemptExperienceChannels = AvaIre.gson.fromJson(
-                    data.getString("level_exempt_channels"),
-                    new TypeToken<List<String>>() {
-                    }.getType());
-
-                for (String channelId : dbExemptExperienceChannels) {
-                    try {
-                        levelExemptChannels.add(
-                            Long.parseLong(channelId)
-                        );
-                    } catch (NumberFormatException ignored) {
-                        //
-                    }
-                }
-            }
-
-            if (data.getString("modules", null) != null) {
-                HashMap<String, Map<String, String>> dbModules = AvaIre.gson.fromJson(
-                    data.getString("modules"),
-                    new TypeToken<HashMap<String, Map<String, String>>>() {
-                    }.getType());
-
-                for (Map.Entry<String, Map<String, String>> item : dbModules.entrySet()) {
-                    modules.put(item.getKey(), item.getValue());
-                }
-            }
-
-            if (data.getString("channels", null) != null) {
-                HashMap<String, Object> dbChannels = AvaIre.gson.fromJson(
-                    data.getString("channels"),
-                    new TypeToken<HashMap<String, Object>>() {
-                    }.getType());
-
-                for (Map.Entry<String, Object> item : dbChannels.entrySet()) {
-                    // noinspection unchecked
-                    LinkedTreeMap<String, Object> value = (LinkedTreeMap<String, Object>) item.getValue();
-                    value.put("id", item.getKey());
-
-                    channels.add(new ChannelTransformer(new DataRow(value), this));
-                }
-            }
         }
 
+        // The JSON columns are only decoded the first time they're used, most guilds only
+        // ever need a few of them, so the raw JSON is kept around until it is needed.
+        String aliasesJson = hasData() ? data.getString("aliases", null) : null;
+        String prefixesJson = hasData() ? data.getString("prefixes", null) : null;
+        String selfAssignableRolesJson = hasData() ? data.getString("claimable_roles", null) : null;
+        String levelRolesJson = hasData() ? data.getString("level_roles", null) : null;
+        String levelExemptChannelsJson = hasData() ? data.getString("level_exempt_channels", null) : null;
+        String modulesJson = hasData() ? data.getString("modules", null) : null;
+        String channelsJson = hasData() ? data.getString("channels", null) : null;
+
+        aliases = new LazyValue<>(() -> JsonColumnReader.readStringMap(aliasesJson, true, false));
+        prefixes = new LazyValue<>(() -> JsonColumnReader.readStringMap(prefixesJson, true, false));
+        selfAssignableRoles = new LazyValue<>(() -> JsonColumnReader.readStringMap(selfAssignableRolesJson, false, true));
+        levelRoles = new LazyValue<>(() -> JsonColumnReader.readLevelRoles(levelRolesJson));
+        levelExemptChannels = new LazyValue<>(() -> JsonColumnReader.readIdSet(levelExemptChannelsJson));
+        modules = new LazyValue<>(() -> JsonColumnReader.readNestedStringMap(modulesJson));
+        channels = new LazyValue<>(() -> JsonColumnReader.readChannels(channelsJson, this));
+
         guildType = partner ? partnerTypeTransformer : new GuildTypeTransformer(data);
 
         reset();
@@ -263,7 +208,7 @@ public class GuildTransformer extends Transformer {
     }
 
     public Map<Integer, String> getLevelRoles() {
-        return levelRoles;
+        return levelRoles.get();
     }
 
     public double getLevelModifier() {
@@ -275,7 +220,7 @@ public class GuildTransformer extends Transformer {
     }
 
     public Set<Long> getLevelExemptChannels() {
-        return levelExemptChannels;
+        return levelExemptChannels.get();
     }
 
     public String getAutorole() {
@@ -327,23 +272,23 @@ public class GuildTransformer extends Transformer {
     }
 
     public Map<String, String> getSelfAssignableRoles() {
-        return selfAssignableRoles;
+        return selfAssignableRoles.get();
     }
 
     public Map<String, String> getPrefixes() {
-        return prefixes;
+        return prefixes.get();
     }
 
     public Map<String, String> getAliases() {
-        return aliases;
+        return aliases.get();
     }
 
     public List<ChannelTransformer> getChannels() {
-        return channels;
+        return channels.get();
     }
 
     public Map<String, Map<String, String>> getCategories() {
-        return modules;
+        return modules.get();
     }
 
     public DJGuildLevel getDJLevel() {
@@ -369,6 +314,66 @@ public class GuildTransformer extends Transformer {
         return partner;
     }
 
+    /**
+     * Gets the compiled command dispatch view for the guild, the view is compiled
+     * lazily the first time it is requested, and again if the view has been
+     * invalidated or new commands has been registered since it was built.
+     *
+     * @return The compiled command dispatch view for the guild.
+     */
+    public GuildDispatchView getDispatchView() {
+        GuildDispatchView view = dispatchView.get();
+        if (view != null && view.isCurrent()) {
+            return view;
+        }
+
+        int modifications = dispatchViewModifications.get();
+        GuildDispatchView compiled = new GuildDispatchView(this);
+
+        // If the view was invalidated while it was being compiled, the compiled view could've
+        // been built from the old prefixes or aliases, so it's only stored if no invalidations
+        // happened, and removed again if an invalidation raced with storing the view.
+        if (dispatchViewModifications.get() == modifications && dispatchView.compareAndSet(view, compiled)) {
+            if (dispatchViewModifications.get() != modifications) {
+                dispatchView.compareAndSet(compiled, null);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Invalidates the compiled command dispatch view, this should be called
+     * any time the guilds custom prefixes or aliases are changed.
+     */
+    public void invalidateDispatchView() {
+        dispatchViewModifications.incrementAndGet();
+        dispatchView.set(null);
+    }
+
+    /**
+     * Gets the compiled level role reward plan for the guild, the plan
+     * is compiled lazily the first time it is requested, and again
+     * if the plan has been invalidated since it was built.
+     *
+     * @return The compiled level role reward plan for the guild.
+     */
+    public LevelRewardPlan getLevelRewardPlan() {
+        LevelRewardPlan plan = levelRewardPlan;
+        if (plan == null) {
+            plan = new LevelRewardPlan(getLevelRoles());
+            levelRewardPlan = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * Invalidates the compiled level role reward plan, this should
+     * be called any time the guilds level roles are changed.
+     */
+    public void invalidateLevelRewardPlan() {
+        levelRewardPlan = null;
+    }
+
     @CheckReturnValue
     public ChannelTransformer getChannel(String id) {
         return getChannel(id, true);
@@ -376,7 +381,7 @@ public class GuildTransformer extends Transformer {
 
     @CheckReturnValue
     public ChannelTransformer getChannel(String id, boolean createIfDontExists) {
-        for (ChannelTransformer channel : channels) {
+        for (ChannelTransformer channel : getChannels()) {
             if (channel.getId().equals(id)) {
                 return channel;
             }
@@ -402,7 +407,7 @@ public class GuildTransformer extends Transformer {
 
         HashMap<String, Object> data = new HashMap<>();
         data.put("id", channelId);
-        channels.add(new ChannelTransformer(new DataRow(data), this));
+        getChannels().add(new ChannelTransformer(new DataRow(data), this));
 
         return true;
     }
@@ -413,6 +418,7 @@ public class GuildTransformer extends Transformer {
 
     public String channelsToJson() {
         Map<String, Object> objects = new HashMap<>();
+        List<ChannelTransformer> channels = getChannels();
         if (channels.isEmpty()) {
             return null;
         }
@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.transformers;
+
+import com.avairebot.utilities.NumberUtil;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * Decodes the JSON columns stored for guilds using a streaming JSON reader, the values are
+ * read straight into the structures used by the transformers, instead of first being
+ * parsed into generic maps and lists that are then copied over and thrown away.
+ */
+final class JsonColumnReader {
+
+    private JsonColumnReader() {
+        // This class should not be instantiated.
+    }
+
+    /**
+     * Reads a JSON object of string values into a map.
+     *
+     * @param json            Possibly-null, the JSON object that should be read.
+     * @param lowerCaseKeys   Determines if the keys should be converted to lower case.
+     * @param lowerCaseValues Determines if the values should be converted to lower case.
+     * @return The map of values from the JSON object, or an empty map if the JSON is null.
+     */
+    static Map<String, String> readStringMap(@Nullable String json, boolean lowerCaseKeys, boolean lowerCaseValues) {
+        Map<String, String> map = new HashMap<>();
+        if (json == null) {
+            return map;
+        }
+
+        try (JsonReader reader = createReader(json)) {
+            if (skipNull(reader)) {
+                return map;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                String value = readString(reader);
+
+                map.put(
+                    lowerCaseKeys ? key.toLowerCase() : key,
+                    lowerCaseValues && value != null ? value.toLowerCase() : value
+                );
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException("Failed to decode JSON object: " + e.getMessage(), e);
+        }
+
+        return map;
+    }
+
+    /**
+     * Reads the level roles JSON object, where the keys are the levels
+     * and the values are the IDs of the roles given at the level.
+     *
+     * @param json Possibly-null, the JSON object that should be read.
+     * @return The map of level roles, or an empty map if the JSON is null.
+     */
+    static Map<Integer, String> readLevelRoles(@Nullable String json) {
+        Map<Integer, String> map = new HashMap<>();
+        for (Map.Entry<String, String> item : readStringMap(json, false, true).entrySet()) {
+            map.put(NumberUtil.parseInt(item.getKey(), -1), item.getValue());
+        }
+        return map;
+    }
+
+    /**
+     * Reads a JSON array of IDs into a set, IDs that are not valid numbers are ignored.
+     *
+     * @param json Possibly-null, the JSON array that should be read.
+     * @return The set of IDs from the JSON array, or an empty set if the JSON is null.
+     */
+    static Set<Long> readIdSet(@Nullable String json) {
+        Set<Long> set = new HashSet<>();
+        if (json == null) {
+            return set;
+        }
+
+        try (JsonReader reader = createReader(json)) {
+            if (skipNull(reader)) {
+                return set;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String value = readString(reader);
+                if (value == null) {
+                    continue;
+                }
+
+                try {
+                    set.add(Long.parseLong(value));
+                } catch (NumberFormatException ignored) {
+                    //
+                }
+            }
+            reader.endArray();
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException("Failed to decode JSON array: " + e.getMessage(), e);
+        }
+
+        return set;
+    }
+
+    /**
+     * Reads a JSON object of JSON objects with string values into a map of maps.
+     *
+     * @param json Possibly-null, the JSON object that should be read.
+     * @return The map of maps from the JSON object, or an empty map if the JSON is null.
+     */
+    static Map<String, Map<String, String>> readNestedStringMap(@Nullable String json) {
+        Map<String, Map<String, String>> map = new HashMap<>();
+        if (json == null) {
+            return map;
+        }
+
+        try (JsonReader reader = createReader(json)) {
+            if (skipNull(reader)) {
+                return map;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (skipNull(reader)) {
+                    map.put(key, null);
+                    continue;
+                }
+
+                Map<String, String> values = new HashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    values.put(reader.nextName(), readString(reader));
+                }
+                reader.endObject();
+
+                map.put(key, values);
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException("Failed to decode JSON object: " + e.getMessage(), e);
+        }
+
+        return map;
+    }
+
+    /**
+     * Reads the channels JSON object, where the keys are the channel IDs, and the
+     * values are the channel modules, into a list of channel transformers.
+     *
+     * @param json  Possibly-null, the JSON object that should be read.
+     * @param guild The guild transformer the channels belongs to.
+     * @return The list of channel transformers, or an empty list if the JSON is null.
+     */
+    static List<ChannelTransformer> readChannels(@Nullable String json, GuildTransformer guild) {
+        List<ChannelTransformer> channels = new ArrayList<>();
+        if (json == null) {
+            return channels;
+        }
+
+        try (JsonReader reader = createReader(json)) {
+            if (skipNull(reader)) {
+                return channels;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                ChannelTransformer channel = new ChannelTransformer(reader.nextName(), guild);
+                if (skipNull(reader)) {
+                    channels.add(channel);
+                    continue;
+                }
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "ai":
+                            readModule(reader, channel.getAI(), null);
+                            break;
+
+                        case "welcome":
+                            readModule(reader, null, channel.getWelcome());
+                            break;
+
+                        case "goodbye":
+                            readModule(reader, null, channel.getGoodbye());
+                            break;
+
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                channels.add(channel);
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException("Failed to decode JSON object: " + e.getMessage(), e);
+        }
+
+        return channels;
+    }
+
+    private static void readModule(
+        JsonReader reader,
+        @Nullable ChannelTransformer.BooleanModule booleanModule,
+        @Nullable ChannelTransformer.MessageModule messageModule
+    ) throws IOException {
+        if (skipNull(reader)) {
+            return;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            String value = readString(reader);
+
+            if (name.equals("enabled")) {
+                if (booleanModule != null) {
+                    booleanModule.setEnabled(toBoolean(value, true));
+                }
+                if (messageModule != null) {
+                    messageModule.setEnabled(toBoolean(value, false));
+                }
+            } else if (messageModule != null && name.equals("message")) {
+                messageModule.setMessage(value);
+            } else if (messageModule != null && name.equals("embed")) {
+                messageModule.setEmbedColor(value);
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads the next value as a string, booleans and numbers are converted to their string
+     * representation, and nested objects and arrays are skipped and read as null.
+     */
+    @Nullable
+    private static String readString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+
+            case NULL:
+                reader.nextNull();
+                return null;
+
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static boolean toBoolean(@Nullable String value, boolean defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.equalsIgnoreCase("true") || value.equals("1");
+    }
+
+    private static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static JsonReader createReader(String json) {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+
+        return reader;
+    }
+}
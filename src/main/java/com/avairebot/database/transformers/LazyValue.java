@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.transformers;
+
+import java.util.function.Supplier;
+
+final class LazyValue<T> {
+
+    /**
+     * The loader used to create the value, the loader is released once the value has
+     * been created, so anything captured by the loader, like the raw JSON string
+     * the value is decoded from, can be garbage collected afterwards.
+     */
+    private Supplier<T> loader;
+    private volatile T value;
+
+    LazyValue(Supplier<T> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Gets the value, creating it using the loader the first time it is called,
+     * if multiple threads requests the value at the same time, only one
+     * of them will create the value, and the others will wait for it.
+     *
+     * @return The value created by the loader.
+     */
+    T get() {
+        T value = this.value;
+        if (value == null) {
+            synchronized (this) {
+                value = this.value;
+                if (value == null) {
+                    value = loader.get();
+                    this.value = value;
+                    loader = null;
+                }
+            }
+        }
+        return value;
+    }
+}
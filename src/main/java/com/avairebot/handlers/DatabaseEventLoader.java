@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.handlers;
+
+import com.avairebot.AvaIre;
+import com.avairebot.database.controllers.GuildController;
+import com.avairebot.database.controllers.PlayerController;
+import com.avairebot.database.transformers.GuildTransformer;
+import com.avairebot.database.transformers.PlayerTransformer;
+import com.avairebot.metrics.Metrics;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.prometheus.client.Histogram;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+
+/**
+ * Loads the guild and player database records needed to handle a message, messages
+ * where everything is already cached are resolved right away on the calling
+ * thread, while messages that requires hitting the database are loaded on
+ * a dedicated, fixed size thread pool so slow database calls can't hold
+ * up the common fork join pool, or every other message in the queue.
+ * <p>
+ * The loader pool has a bounded queue, when the queue is full new loads are rejected
+ * and the returned future is completed exceptionally, so a slow database can't
+ * build up an unbounded backlog of messages waiting to be loaded.
+ * <p>
+ * Since the future for cached messages is already completed, dependent actions
+ * should be attached using an async stage with its own executor, so they
+ * don't end up running on the JDA event thread or the loader threads.
+ * <p>
+ * Concurrent loads for the same guild are coalesced, so a burst of messages
+ * from a guild that isn't cached will only load the guild once, with
+ * every message waiting on the same load to finish.
+ */
+public class DatabaseEventLoader {
+
+    private final AvaIre avaire;
+    private final ExecutorService loaderService;
+    private final ConcurrentHashMap<Long, CompletableFuture<GuildTransformer>> guildLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new database event loader.
+     *
+     * @param avaire    The AvaIre application class instance.
+     * @param workers   The amount of threads that should be used to load records from the database.
+     * @param queueSize The max amount of loads that can be waiting for a loader thread.
+     */
+    public DatabaseEventLoader(AvaIre avaire, int workers, int queueSize) {
+        this.avaire = avaire;
+        this.loaderService = new ThreadPoolExecutor(
+            Math.max(1, workers), Math.max(1, workers), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+            new ThreadFactoryBuilder().setNameFormat("avaire-database-loader-%d").build(),
+            (runnable, executor) -> {
+                Metrics.messageIngestLoads.labels("overloaded").inc();
+                throw new RejectedExecutionException("The database loader queue is full");
+            }
+        );
+    }
+
+    /**
+     * Loads the guild and player records for the given message event, if
+     * both records are already cached the returned future will already
+     * be completed, otherwise it will be completed by a loader thread.
+     *
+     * @param event The message event the database records should be loaded for.
+     * @return A future that will be completed with the database event holder for the message.
+     */
+    public CompletableFuture<DatabaseEventHolder> load(@Nonnull MessageReceivedEvent event) {
+        if (!event.getChannelType().isGuild()) {
+            return CompletableFuture.completedFuture(new DatabaseEventHolder(null, null));
+        }
+
+        DatabaseEventHolder cached = loadFromCache(event);
+        if (cached != null) {
+            Metrics.messageIngestLoads.labels("cache").inc();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return loadGuild(event).thenCompose(guild -> {
+            if (!requiresPlayer(event, guild)) {
+                return CompletableFuture.completedFuture(new DatabaseEventHolder(guild, null));
+            }
+
+            PlayerTransformer cachedPlayer = PlayerController.getCachedPlayer(event.getGuild(), event.getAuthor());
+            if (cachedPlayer != null) {
+                return CompletableFuture.completedFuture(new DatabaseEventHolder(guild, cachedPlayer));
+            }
+
+            CompletableFuture<DatabaseEventHolder> future = new CompletableFuture<>();
+            execute(future, () -> {
+                Histogram.Timer timer = Metrics.messageIngestTime.labels("database").startTimer();
+                try {
+                    future.complete(new DatabaseEventHolder(guild, PlayerController.fetchPlayer(avaire, event.getMessage())));
+                } finally {
+                    timer.observeDuration();
+                }
+            });
+            return future;
+        });
+    }
+
+    private DatabaseEventHolder loadFromCache(MessageReceivedEvent event) {
+        Histogram.Timer timer = Metrics.messageIngestTime.labels("cache").startTimer();
+        try {
+            GuildTransformer guild = GuildController.getCachedGuild(event.getGuild().getIdLong());
+            if (guild == null) {
+                return null;
+            }
+
+            if (!requiresPlayer(event, guild)) {
+                return new DatabaseEventHolder(guild, null);
+            }
+
+            PlayerTransformer player = PlayerController.getCachedPlayer(event.getGuild(), event.getAuthor());
+            return player == null ? null : new DatabaseEventHolder(guild, player);
+        } finally {
+            timer.observeDuration();
+        }
+    }
+
+    private CompletableFuture<GuildTransformer> loadGuild(MessageReceivedEvent event) {
+        final long guildId = event.getGuild().getIdLong();
+
+        CompletableFuture<GuildTransformer> existing = guildLoads.get(guildId);
+        if (existing != null) {
+            Metrics.messageIngestLoads.labels("coalesced").inc();
+            return existing;
+        }
+
+        CompletableFuture<GuildTransformer> future = new CompletableFuture<>();
+        existing = guildLoads.putIfAbsent(guildId, future);
+        if (existing != null) {
+            Metrics.messageIngestLoads.labels("coalesced").inc();
+            return existing;
+        }
+
+        Metrics.messageIngestLoads.labels("database").inc();
+        future.whenComplete((guild, throwable) -> guildLoads.remove(guildId, future));
+        execute(future, () -> {
+            Histogram.Timer timer = Metrics.messageIngestTime.labels("database").startTimer();
+            try {
+                future.complete(GuildController.fetchGuild(avaire, event.getGuild()));
+            } finally {
+                timer.observeDuration();
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Runs the given task on the loader pool, if the task throws an exception, or
+     * the loader queue is full, the given future is completed exceptionally.
+     *
+     * @param future The future the task completes.
+     * @param task   The task that should be run on the loader pool.
+     */
+    private void execute(CompletableFuture<?> future, Runnable task) {
+        try {
+            loaderService.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private boolean requiresPlayer(MessageReceivedEvent event, GuildTransformer guild) {
+        return guild != null && guild.isLevels() && !event.getAuthor().isBot();
+    }
+}
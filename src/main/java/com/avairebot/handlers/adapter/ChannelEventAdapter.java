@@ -108,26 +108,14 @@ public class ChannelEventAdapter extends EventAdapter {
     }
 
     public void updateChannelData(Guild guild) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guild.getId())
-                .update(statement -> {
-                    statement.set("channels_data", GuildController.buildChannelData(guild.getTextChannels()), true);
-                });
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        GuildController.queueGuildUpdate(guild, "channels_data", true,
+            () -> GuildController.buildChannelData(guild.getTextChannels())
+        );
     }
 
     private void setDatabaseColumnToNull(String guildId, String column) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guildId)
-                .update(statement -> statement.set(column, null));
-        } catch (SQLException ignored) {
-            //
-        }
+        avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
+            .where("id", guildId)
+            .updateAsync(statement -> statement.set(column, null));
     }
 }
@@ -22,12 +22,12 @@
 package com.avairebot.handlers.adapter;
 
 import com.avairebot.AvaIre;
-import com.avairebot.Constants;
 import com.avairebot.audio.AudioHandler;
 import com.avairebot.audio.GuildMusicManager;
 import com.avairebot.audio.LavalinkManager;
 import com.avairebot.chat.ConsoleColor;
 import com.avairebot.contracts.handlers.EventAdapter;
+import com.avairebot.database.controllers.GuildController;
 import com.avairebot.metrics.Metrics;
 import com.avairebot.scheduler.ScheduleHandler;
 import com.avairebot.scheduler.tasks.MusicActivityTask;
@@ -45,7 +45,6 @@ import net.dv8tion.jda.core.events.guild.update.GuildUpdateNameEvent;
 import net.dv8tion.jda.core.events.guild.update.GuildUpdateRegionEvent;
 
 import java.awt.*;
-import java.sql.SQLException;
 import java.time.Instant;
 
 public class GuildStateEventAdapter extends EventAdapter {
@@ -60,14 +59,7 @@ public class GuildStateEventAdapter extends EventAdapter {
     }
 
     public void onGuildUpdateName(GuildUpdateNameEvent event) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", event.getGuild().getId())
-                .update(statement -> statement.set("name", event.getGuild().getName(), true));
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        GuildController.queueGuildUpdate(event.getGuild(), "name", true, () -> event.getGuild().getName());
     }
 
     public void onGuildUpdateRegion(GuildUpdateRegionEvent event) {
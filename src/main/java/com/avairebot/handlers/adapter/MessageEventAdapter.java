@@ -26,25 +26,29 @@ import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.commands.CommandContainer;
 import com.avairebot.commands.CommandHandler;
+import com.avairebot.commands.CommandScheduler;
+import com.avairebot.commands.ParsedMessage;
 import com.avairebot.commands.help.HelpCommand;
 import com.avairebot.contracts.handlers.EventAdapter;
 import com.avairebot.database.collection.Collection;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.GuildController;
-import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.database.controllers.ReactionController;
 import com.avairebot.database.query.QueryBuilder;
 import com.avairebot.database.transformers.ChannelTransformer;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.handlers.DatabaseEventHolder;
+import com.avairebot.handlers.DatabaseEventLoader;
 import com.avairebot.language.I18n;
+import com.avairebot.metrics.Metrics;
 import com.avairebot.middleware.MiddlewareStack;
 import com.avairebot.shared.DiscordConstants;
-import com.avairebot.utilities.ArrayUtil;
 import com.avairebot.utilities.RestActionUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import net.dv8tion.jda.core.entities.Message;
+import io.prometheus.client.Histogram;
 import net.dv8tion.jda.core.entities.TextChannel;
 import net.dv8tion.jda.core.entities.User;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
@@ -56,25 +60,20 @@ import java.awt.*;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MessageEventAdapter extends EventAdapter {
 
     public static final Set<Long> hasReceivedInfoMessageInTheLastMinute = new HashSet<>();
 
-    private static final ExecutorService commandService = Executors.newCachedThreadPool(
-        new ThreadFactoryBuilder()
-            .setNameFormat("avaire-command-thread-%d")
-            .build()
-    );
+    private static final Cache<Long, Boolean> busyNoticeCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(15, TimeUnit.SECONDS)
+        .build();
 
     private static final Logger log = LoggerFactory.getLogger(MessageEventAdapter.class);
-    private static final Pattern userRegEX = Pattern.compile("<@(!|)+[0-9]{16,}+>", Pattern.CASE_INSENSITIVE);
     private static final String mentionMessage = String.join("\n", Arrays.asList(
         "Hi there! I'm **%s**, a multipurpose Discord bot built for fun by %s!",
         "You can see what commands I have by using the `%s` command.",
@@ -88,8 +87,9 @@ public class MessageEventAdapter extends EventAdapter {
         "https://discordbots.org/bot/avaire/vote"
     ));
 
-    private static Pattern commandRegEx = null;
-    private static int maxCommandTriggerSize = -1;
+    private final CommandScheduler commandScheduler;
+    private final DatabaseEventLoader databaseEventLoader;
+    private final ExecutorService dispatchService;
 
     /**
      * Instantiates the event adapter and sets the avaire class instance.
@@ -98,67 +98,162 @@ public class MessageEventAdapter extends EventAdapter {
      */
     public MessageEventAdapter(AvaIre avaire) {
         super(avaire);
+
+        this.commandScheduler = new CommandScheduler(
+            avaire.getConfig().getInt("command-scheduler.workers", 32),
+            avaire.getConfig().getInt("command-scheduler.max-queue-size", 1000),
+            avaire.getConfig().getInt("command-scheduler.max-guild-queue-size", 25),
+            avaire.getConfig().getInt("command-scheduler.max-guild-concurrency", 3)
+        );
+
+        this.databaseEventLoader = new DatabaseEventLoader(avaire,
+            avaire.getConfig().getInt("message-ingest.database-loader-workers", 8),
+            avaire.getConfig().getInt("message-ingest.database-loader-queue-size", 1000)
+        );
+
+        // Dispatching only does in-memory work before handing commands off to the command
+        // scheduler, so it runs on its own small pool instead of the loader pool, that
+        // way messages served from the cache never waits behind slow database loads.
+        this.dispatchService = Executors.newFixedThreadPool(
+            Math.max(1, avaire.getConfig().getInt("message-ingest.dispatch-workers", 4)),
+            new ThreadFactoryBuilder().setNameFormat("avaire-message-dispatch-%d").build()
+        );
     }
 
     public void onMessageReceived(MessageReceivedEvent event) {
-        if (!isValidMessage(event.getAuthor())) {
-            return;
-        }
+        ParsedMessage parsedMessage;
 
-        if (event.getChannelType().isGuild() && !event.getTextChannel().canTalk()) {
-            return;
-        }
+        Histogram.Timer filterTimer = Metrics.messageIngestTime.labels("filter").startTimer();
+        try {
+            if (!isValidMessage(event.getAuthor())) {
+                return;
+            }
 
-        if (avaire.getBlacklist().isBlacklisted(event.getMessage())) {
-            return;
-        }
+            if (event.getChannelType().isGuild() && !event.getTextChannel().canTalk()) {
+                return;
+            }
 
-        loadDatabasePropertiesIntoMemory(event).thenAccept(databaseEventHolder -> {
-            if (databaseEventHolder.getGuild() != null && databaseEventHolder.getPlayer() != null) {
-                avaire.getLevelManager().rewardPlayer(event, databaseEventHolder.getGuild(), databaseEventHolder.getPlayer());
+            if (avaire.getBlacklist().isBlacklisted(event.getMessage())) {
+                return;
             }
 
-            CommandContainer container = CommandHandler.getCommand(avaire, event.getMessage(), event.getMessage().getContentRaw());
-            if (container != null && canExecuteCommand(event, container)) {
-                invokeMiddlewareStack(new MiddlewareStack(event.getMessage(), container, databaseEventHolder));
+            parsedMessage = new ParsedMessage(event.getMessage());
+            if (!requiresDispatch(event, parsedMessage)) {
+                Metrics.messageIngestLoads.labels("rejected").inc();
                 return;
             }
+        } finally {
+            filterTimer.observeDuration();
+        }
 
-            if (isMentionableAction(event)) {
-                container = CommandHandler.getLazyCommand(ArrayUtil.toArguments(event.getMessage().getContentRaw())[1]);
-                if (container != null && canExecuteCommand(event, container)) {
-                    invokeMiddlewareStack(new MiddlewareStack(event.getMessage(), container, databaseEventHolder, true));
-                    return;
-                }
+        databaseEventLoader.load(event).thenAcceptAsync(databaseEventHolder -> {
+            Histogram.Timer dispatchTimer = Metrics.messageIngestTime.labels("dispatch").startTimer();
+            try {
+                dispatchMessage(event, parsedMessage, databaseEventHolder);
+            } finally {
+                dispatchTimer.observeDuration();
+            }
+        }, dispatchService).exceptionally(throwable -> {
+            // Messages dropped because the database loader is overloaded are
+            // already counted by the metrics, so they're not logged here.
+            if (throwable.getCause() instanceof RejectedExecutionException) {
+                return null;
+            }
 
-                if (avaire.getIntelligenceManager().isEnabled()) {
-                    if (isAIEnabledForChannel(event, databaseEventHolder.getGuild())) {
-                        avaire.getIntelligenceManager().request(
-                            event.getMessage(), databaseEventHolder,
-                            event.getMessage().getContentStripped()
-                        );
-                    }
-                    return;
-                }
+            log.error("Failed to handle message from user(ID: {}): {}",
+                event.getAuthor().getId(), throwable.getMessage(), throwable
+            );
+            return null;
+        });
+    }
+
+    private void dispatchMessage(MessageReceivedEvent event, ParsedMessage parsedMessage, DatabaseEventHolder databaseEventHolder) {
+        if (databaseEventHolder.getGuild() != null && databaseEventHolder.getPlayer() != null) {
+            avaire.getLevelManager().rewardPlayer(event, databaseEventHolder.getGuild(), databaseEventHolder.getPlayer());
+        }
+
+        if (CommandHandler.isPossibleCommand(databaseEventHolder.getGuild(), parsedMessage.getContentRaw())) {
+            CommandContainer container = CommandHandler.getCommand(avaire, parsedMessage);
+            if (container != null && canExecuteCommand(event, container)) {
+                invokeMiddlewareStack(event, new MiddlewareStack(parsedMessage, container, databaseEventHolder));
+                return;
             }
+        }
 
-            if (isSingleBotMention(event.getMessage().getContentRaw().trim())) {
-                sendTagInformationMessage(event);
+        if (isMentionableAction(parsedMessage)) {
+            CommandContainer container = CommandHandler.getLazyCommand(parsedMessage.getArguments()[1]);
+            if (container != null && canExecuteCommand(event, container)) {
+                invokeMiddlewareStack(event, new MiddlewareStack(parsedMessage, container, databaseEventHolder, true));
                 return;
             }
 
-            if (!event.getChannelType().isGuild()) {
-                sendInformationMessage(event);
+            if (avaire.getIntelligenceManager().isEnabled()) {
+                if (isAIEnabledForChannel(event, databaseEventHolder.getGuild())) {
+                    avaire.getIntelligenceManager().request(
+                        event.getMessage(), databaseEventHolder,
+                        event.getMessage().getContentStripped()
+                    );
+                }
+                return;
             }
-        });
+        }
+
+        if (isSingleBotMention(parsedMessage.getContentRaw().trim())) {
+            sendTagInformationMessage(event);
+            return;
+        }
+
+        if (!event.getChannelType().isGuild()) {
+            sendInformationMessage(event);
+        }
+    }
+
+    /**
+     * Checks if the message has to be dispatched, messages sent in guilds that are cached
+     * which can't be commands or bot mentions, and that doesn't reward experience, are
+     * rejected here, before the database records are loaded, guilds that isn't
+     * cached always have to be loaded since the prefixes and level settings
+     * for the guild are needed to know if the message can be ignored.
+     *
+     * @param event         The message received event.
+     * @param parsedMessage The parsed message for the event.
+     * @return <code>True</code> if the message should be dispatched, <code>False</code> otherwise.
+     */
+    private boolean requiresDispatch(MessageReceivedEvent event, ParsedMessage parsedMessage) {
+        if (!event.getChannelType().isGuild()) {
+            return true;
+        }
+
+        GuildTransformer guild = GuildController.getCachedGuild(event.getGuild().getIdLong());
+        if (guild == null || (guild.isLevels() && !event.getAuthor().isBot())) {
+            return true;
+        }
+
+        return CommandHandler.isPossibleCommand(guild, parsedMessage.getContentRaw())
+            || parsedMessage.getLeadingMentionId() == avaire.getSelfUser().getIdLong();
     }
 
     private boolean isValidMessage(User author) {
         return !author.isBot() || author.getIdLong() == DiscordConstants.SENITHER_BOT_ID;
     }
 
-    private void invokeMiddlewareStack(MiddlewareStack stack) {
-        commandService.submit(stack::next);
+    private void invokeMiddlewareStack(MessageReceivedEvent event, MiddlewareStack stack) {
+        long schedulerKey = event.getChannelType().isGuild()
+            ? event.getGuild().getIdLong()
+            : event.getAuthor().getIdLong();
+
+        if (!commandScheduler.submit(schedulerKey, stack::next)) {
+            sendBusyMessage(event, schedulerKey);
+        }
+    }
+
+    private void sendBusyMessage(MessageReceivedEvent event, long schedulerKey) {
+        if (busyNoticeCache.asMap().putIfAbsent(schedulerKey, true) != null) {
+            return;
+        }
+
+        MessageFactory.makeWarning(event.getMessage(), "I'm a bit busy right now, please try again in a few seconds.")
+            .queue(message -> message.delete().queueAfter(15, TimeUnit.SECONDS, null, RestActionUtil.ignore), RestActionUtil.ignore);
     }
 
     private boolean canExecuteCommand(MessageReceivedEvent event, CommandContainer container) {
@@ -169,16 +264,9 @@ public class MessageEventAdapter extends EventAdapter {
         return true;
     }
 
-    private boolean isMentionableAction(MessageReceivedEvent event) {
-        if (!event.getMessage().isMentioned(avaire.getSelfUser())) {
-            return false;
-        }
-
-        String[] args = event.getMessage().getContentRaw().split(" ");
-        return args.length >= 2 &&
-            userRegEX.matcher(args[0]).matches() &&
-            event.getMessage().getMentionedUsers().get(0).getId().equals(avaire.getSelfUser().getId());
-
+    private boolean isMentionableAction(ParsedMessage parsedMessage) {
+        return parsedMessage.getLeadingMentionId() == avaire.getSelfUser().getIdLong()
+            && parsedMessage.getArguments().length >= 2;
     }
 
     private boolean isSingleBotMention(String rawContent) {
@@ -260,52 +348,6 @@ public class MessageEventAdapter extends EventAdapter {
         }
     }
 
-    private CompletableFuture<DatabaseEventHolder> loadDatabasePropertiesIntoMemory(final MessageReceivedEvent event) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!event.getChannelType().isGuild()) {
-                return new DatabaseEventHolder(null, null);
-            }
-
-            GuildTransformer guild = looksLikeCommand(event.getMessage())
-                ? GuildController.fetchGuild(avaire, event.getMessage())
-                : GuildController.fetchGuild(avaire, event.getMessage());
-
-            if (guild == null || !guild.isLevels() || event.getAuthor().isBot()) {
-                return new DatabaseEventHolder(guild, null);
-            }
-            return new DatabaseEventHolder(guild, PlayerController.fetchPlayer(avaire, event.getMessage()));
-        });
-    }
-
-    private boolean looksLikeCommand(Message message) {
-        if (message.getGuild().getMembers().stream().filter(member -> member.getUser().isBot()).count() > 5) {
-            return false;
-        }
-
-        String content = message.getContentRaw();
-        if (commandRegEx == null) {
-            maxCommandTriggerSize = -1;
-            Set<String> commandTriggers = new HashSet<>();
-            for (CommandContainer container : CommandHandler.getCommands()) {
-                for (String trigger : container.getCommand().getTriggers()) {
-                    if (trigger.length() > maxCommandTriggerSize) {
-                        maxCommandTriggerSize = trigger.length();
-                    }
-                    commandTriggers.add(Matcher.quoteReplacement(trigger));
-                }
-            }
-            maxCommandTriggerSize += 4;
-            commandRegEx = Pattern.compile(String.format(
-                "^(\\S){1,3}(%s)$", String.join("|", commandTriggers)),
-                Pattern.CASE_INSENSITIVE
-            );
-        }
-
-        return commandRegEx.matcher(
-            content.substring(0, Math.min(maxCommandTriggerSize, content.length()))
-        ).matches();
-    }
-
     public void onMessageDelete(TextChannel channel, List<String> messageIds) {
         Collection reactions = ReactionController.fetchReactions(avaire, channel.getGuild());
         if (reactions == null) {
@@ -26,6 +26,7 @@ import com.avairebot.Constants;
 import com.avairebot.contracts.handlers.EventAdapter;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.transformers.GuildTransformer;
+import com.avairebot.middleware.RoleArguments;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.events.role.RoleDeleteEvent;
 import net.dv8tion.jda.core.events.role.update.RoleUpdateNameEvent;
@@ -126,6 +127,7 @@ public class RoleEventAdapter extends EventAdapter {
 
         try {
             transformer.getLevelRoles().remove(key);
+            transformer.invalidateLevelRewardPlan();
             avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
                 .useAsync(true)
                 .where("id", event.getGuild().getId())
@@ -138,15 +140,10 @@ public class RoleEventAdapter extends EventAdapter {
     }
 
     public void updateRoleData(Guild guild) {
-        try {
-            avaire.getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME)
-                .useAsync(true)
-                .where("id", guild.getId())
-                .update(statement -> {
-                    statement.set("roles_data", GuildController.buildRoleData(guild.getRoles()), true);
-                });
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        RoleArguments.invalidate(guild.getIdLong());
+
+        GuildController.queueGuildUpdate(guild, "roles_data", true,
+            () -> GuildController.buildRoleData(guild.getRoles())
+        );
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.contracts.level.LevelCurve;
+
+/**
+ * The default level curve, the experience needed for each level
+ * is calculated using a quadratic equation, scaled by the
+ * level modifier used by the guild.
+ */
+public class DefaultLevelCurve implements LevelCurve {
+
+    /**
+     * The quadratic equation `a` value.
+     */
+    private static final int A = 5;
+
+    /**
+     * The quadratic equation `b` value.
+     */
+    private static final int B = 50;
+
+    /**
+     * The quadratic equation `c` value.
+     */
+    private static final int C = 100;
+
+    @Override
+    public long getExperienceFromLevel(long level, double modifier) {
+        return (long) (((long) (A * Math.pow(level, 2)) + (B * level) + (C * (1 + modifier))) * (1 + modifier));
+    }
+
+    @Override
+    public long getLevelFromExperience(long xp, double modifier) {
+        double x = (-B + Math.sqrt(Math.pow(B, 2) - ((4 * A) * ((C * (1 + modifier)) - Math.ceil(xp / (1 + modifier)))))) / (2 * A);
+
+        return x < 0 ? 0 : (long) Math.floor(x);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregates the experience rewarded to players in memory until it is synced with the
+ * database, the experience is summed up per guild and user, so every player only
+ * has a single pending entry no matter how many times they were rewarded.
+ * <p>
+ * The entries are spread out over a number of stripes, each stripe is a small open
+ * addressing hash table keyed by the primitive guild and user IDs, guarded by its
+ * own lock, so players in different stripes never block each other, and a
+ * stripe can be drained by swapping its table out for an empty one.
+ */
+public class ExperienceAggregator {
+
+    /**
+     * The default amount of stripes used by the aggregator.
+     */
+    private static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * The initial capacity of the stripe tables, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+
+    /**
+     * Creates a new experience aggregator using the default amount of stripes.
+     */
+    public ExperienceAggregator() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a new experience aggregator using the given amount of
+     * stripes, rounded up to the nearest power of two.
+     *
+     * @param stripes The amount of stripes the entries should be spread out over.
+     */
+    public ExperienceAggregator(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("The amount of stripes must be at least one.");
+        }
+
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds the given amount of experience to the pending experience
+     * for the user with the given ID in the given guild.
+     *
+     * @param guildId The ID of the guild the user was rewarded experience in.
+     * @param userId  The ID of the user that was rewarded experience.
+     * @param amount  The amount of experience that was rewarded.
+     */
+    public void add(long guildId, long userId, int amount) {
+        if (amount == 0) {
+            return;
+        }
+
+        int hash = hash(guildId, userId);
+        Stripe stripe = stripes[hash & (stripes.length - 1)];
+
+        synchronized (stripe) {
+            stripe.add(guildId, userId, amount, hash);
+        }
+    }
+
+    /**
+     * Gets the amount of experience the user with the given ID in the given
+     * guild has been rewarded since the last time the aggregator was drained.
+     *
+     * @param guildId The ID of the guild the user should be looked up in.
+     * @param userId  The ID of the user that should be looked up.
+     * @return The pending experience for the user, or <code>0</code> if the user has no pending experience.
+     */
+    public long getPendingExperience(long guildId, long userId) {
+        int hash = hash(guildId, userId);
+        Stripe stripe = stripes[hash & (stripes.length - 1)];
+
+        synchronized (stripe) {
+            return stripe.get(guildId, userId, hash);
+        }
+    }
+
+    /**
+     * Gets the amount of players that currently has pending experience.
+     *
+     * @return The amount of players with pending experience.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks if there are no players with pending experience.
+     *
+     * @return <code>True</code> if no players has pending experience, <code>False</code> otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Drains the aggregator, returning a single experience entity for every player
+     * with pending experience, each stripe is swapped out for an empty table
+     * while holding its lock, so experience rewarded while the aggregator
+     * is being drained will either be returned or remain pending.
+     *
+     * @return The list of experience entities for all the players with pending experience.
+     */
+    public List<ExperienceEntity> drain() {
+        List<ExperienceEntity> entities = null;
+
+        for (Stripe stripe : stripes) {
+            long[] guildIds;
+            long[] userIds;
+            long[] experience;
+            boolean[] used;
+
+            synchronized (stripe) {
+                if (stripe.size == 0) {
+                    continue;
+                }
+
+                guildIds = stripe.guildIds;
+                userIds = stripe.userIds;
+                experience = stripe.experience;
+                used = stripe.used;
+
+                stripe.reset();
+            }
+
+            if (entities == null) {
+                entities = new ArrayList<>();
+            }
+
+            for (int i = 0; i < used.length; i++) {
+                if (used[i] && experience[i] != 0) {
+                    entities.add(new ExperienceEntity(
+                        userIds[i], guildIds[i], (int) Math.min(experience[i], Integer.MAX_VALUE)
+                    ));
+                }
+            }
+        }
+
+        return entities == null ? Collections.emptyList() : entities;
+    }
+
+    private static int hash(long guildId, long userId) {
+        long hash = guildId * 0x9E3779B97F4A7C15L + userId;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+
+        return (int) (hash ^ (hash >>> 33));
+    }
+
+    private static class Stripe {
+
+        private long[] guildIds;
+        private long[] userIds;
+        private long[] experience;
+        private boolean[] used;
+        private int size;
+
+        Stripe() {
+            reset();
+        }
+
+        void reset() {
+            guildIds = new long[INITIAL_CAPACITY];
+            userIds = new long[INITIAL_CAPACITY];
+            experience = new long[INITIAL_CAPACITY];
+            used = new boolean[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        void add(long guildId, long userId, int amount, int hash) {
+            int slot = find(guildId, userId, hash);
+            if (used[slot]) {
+                experience[slot] += amount;
+                return;
+            }
+
+            // Grows the table once it is three quarters full, keeping the probe sequences short.
+            if ((size + 1) * 4 > used.length * 3) {
+                grow();
+                slot = find(guildId, userId, hash);
+            }
+
+            guildIds[slot] = guildId;
+            userIds[slot] = userId;
+            experience[slot] = amount;
+            used[slot] = true;
+            size++;
+        }
+
+        long get(long guildId, long userId, int hash) {
+            return experience[find(guildId, userId, hash)];
+        }
+
+        /**
+         * Finds the slot used by the given guild and user IDs, or the empty slot the
+         * entry should be stored in, entries are never removed from a table, so
+         * the probe sequences are never broken up by empty slots.
+         */
+        private int find(long guildId, long userId, int hash) {
+            int mask = used.length - 1;
+            // The lower bits of the hash are the same for every entry in the stripe, since they're used
+            // to pick the stripe, so the upper bits are mixed into them before the slot is masked out.
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            while (used[slot]) {
+                if (guildIds[slot] == guildId && userIds[slot] == userId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldGuildIds = guildIds;
+            long[] oldUserIds = userIds;
+            long[] oldExperience = experience;
+            boolean[] oldUsed = used;
+
+            guildIds = new long[oldUsed.length * 2];
+            userIds = new long[oldUsed.length * 2];
+            experience = new long[oldUsed.length * 2];
+            used = new boolean[oldUsed.length * 2];
+
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = find(oldGuildIds[i], oldUserIds[i], hash(oldGuildIds[i], oldUserIds[i]));
+
+                    guildIds[slot] = oldGuildIds[i];
+                    userIds[slot] = oldUserIds[i];
+                    experience[slot] = oldExperience[i];
+                    used[slot] = true;
+                }
+            }
+        }
+    }
+}
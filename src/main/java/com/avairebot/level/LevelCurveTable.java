@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.contracts.level.LevelCurve;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A precomputed lookup table for a level curve and modifier, the amount of experience
+ * needed for each level, and the experience thresholds where the level returned by
+ * the curve goes up, are calculated once for the first levels, so looking up the
+ * level for an amount of experience is a binary search over a long array.
+ * <p>
+ * The thresholds are found by searching the curves own level function, rather than
+ * inverting the experience function, so the table always returns the exact same
+ * levels as the curve would, values outside of the table falls back to the curve.
+ */
+public class LevelCurveTable {
+
+    /**
+     * The default amount of levels that are precomputed for every table.
+     */
+    static final int DEFAULT_LEVELS = 1000;
+
+    private final LevelCurve curve;
+    private final double modifier;
+
+    private final long[] experience;
+    private final long[] thresholds;
+    private final long baseLevel;
+
+    /**
+     * Creates a new level curve table for the given curve and modifier
+     * using the {@link #DEFAULT_LEVELS default amount of levels}.
+     *
+     * @param curve    The level curve the table should be built from.
+     * @param modifier The level modifier the table should be built for.
+     */
+    public LevelCurveTable(@Nonnull LevelCurve curve, double modifier) {
+        this(curve, modifier, DEFAULT_LEVELS);
+    }
+
+    /**
+     * Creates a new level curve table for the given curve and
+     * modifier, precomputing the given amount of levels.
+     *
+     * @param curve    The level curve the table should be built from.
+     * @param modifier The level modifier the table should be built for.
+     * @param levels   The amount of levels that should be precomputed.
+     */
+    public LevelCurveTable(@Nonnull LevelCurve curve, double modifier, int levels) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("The amount of levels must be at least one.");
+        }
+
+        this.curve = curve;
+        this.modifier = modifier;
+
+        experience = new long[levels + 1];
+        for (int level = 0; level <= levels; level++) {
+            experience[level] = curve.getExperienceFromLevel(level, modifier);
+        }
+
+        baseLevel = curve.getLevelFromExperience(0, modifier);
+        thresholds = new long[levels];
+
+        long previous = 0;
+        for (int i = 0; i < levels; i++) {
+            previous = findThreshold(previous, baseLevel + i + 1);
+            thresholds[i] = previous;
+        }
+    }
+
+    /**
+     * Gets the level curve the table was built from.
+     *
+     * @return The level curve the table was built from.
+     */
+    public LevelCurve getCurve() {
+        return curve;
+    }
+
+    /**
+     * Gets the level modifier the table was built for.
+     *
+     * @return The level modifier the table was built for.
+     */
+    public double getModifier() {
+        return modifier;
+    }
+
+    /**
+     * Get the amount of experience needed to reach the given level.
+     *
+     * @param level The level the experience should be fetched from.
+     * @return The minimum amount of experience needed to reach the given level.
+     */
+    public long getExperienceFromLevel(long level) {
+        if (level >= 0 && level < experience.length) {
+            return experience[(int) level];
+        }
+        return curve.getExperienceFromLevel(level, modifier);
+    }
+
+    /**
+     * Gets the max level that can be reached with the given amount experience.
+     *
+     * @param xp The experience that should be resolved into the level.
+     * @return The max level that can be reached with the given amount of experience.
+     */
+    public long getLevelFromExperience(long xp) {
+        if (xp < 0 || xp >= thresholds[thresholds.length - 1]) {
+            return curve.getLevelFromExperience(xp, modifier);
+        }
+
+        int low = 0;
+        int high = thresholds.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (thresholds[middle] <= xp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return baseLevel + low;
+    }
+
+    /**
+     * Finds the smallest amount of experience, starting from the given amount,
+     * that the curve resolves to the given level or higher.
+     */
+    private long findThreshold(long from, long level) {
+        long low = from;
+        long step = 1;
+        long high = from + step;
+
+        while (curve.getLevelFromExperience(high, modifier) < level) {
+            low = high + 1;
+            step *= 2;
+            high = low + step;
+        }
+
+        while (low < high) {
+            long middle = low + ((high - low) / 2);
+            if (curve.getLevelFromExperience(middle, modifier) >= level) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+}
@@ -22,15 +22,18 @@
 package com.avairebot.level;
 
 import com.avairebot.AvaIre;
+import com.avairebot.Constants;
 import com.avairebot.chat.MessageType;
 import com.avairebot.chat.PlaceholderMessage;
+import com.avairebot.contracts.level.LevelCurve;
+import com.avairebot.database.collection.Cursor;
+import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.controllers.PlayerController;
 import com.avairebot.database.transformers.GuildTransformer;
 import com.avairebot.database.transformers.PlayerTransformer;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.language.I18n;
-import com.avairebot.scheduler.ScheduleHandler;
 import com.avairebot.utilities.CacheUtil;
 import com.avairebot.utilities.RandomUtil;
 import com.avairebot.utilities.RoleUtil;
@@ -43,14 +46,13 @@ import net.dv8tion.jda.core.entities.TextChannel;
 import net.dv8tion.jda.core.entities.User;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class LevelManager {
@@ -69,11 +71,33 @@ public class LevelManager {
         .build();
 
     /**
-     * The experience queue, users who have been rewarded experience will
-     * be added to the queue, the queue is then consumed once a minute
-     * to sync the database with the user data.
+     * The experience queue, users who have been rewarded experience will have
+     * it added to their pending experience in the queue, the queue is then
+     * drained once a minute to sync the database with the user data.
      */
-    private static final List<ExperienceEntity> experienceQueue = new CopyOnWriteArrayList<>();
+    private static final ExperienceAggregator experienceQueue = new ExperienceAggregator();
+
+    /**
+     * The rank indexes for the guilds that have had their rank or leaderboard looked up
+     * recently, the indexes are updated in place as players are rewarded experience,
+     * and are seeded again from the database 30 minutes after they were loaded,
+     * so players that has been removed from the database is dropped again, the
+     * cache is weighted by the amount of players in each index, so a few
+     * huge guilds can't hold on to an unbounded amount of memory.
+     */
+    public static final Cache<Long, RankIndex> rankIndexes = CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumWeight(2_000_000)
+        .weigher((Long guildId, RankIndex index) -> index.size() + 1)
+        .expireAfterWrite(30, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * The rank indexes that are currently being seeded from the database, players
+     * that are rewarded experience while their guild index is being seeded are
+     * added to the index straight away, so their new experience isn't lost.
+     */
+    private static final Map<Long, RankIndex> seedingRankIndexes = new ConcurrentHashMap<>();
 
     /**
      * The experience modifier as an percentage.
@@ -81,17 +105,25 @@ public class LevelManager {
     private static final double M = 0.3715D;
 
     /**
-     * The quadratic equation `a` value.
+     * The level role queue, role rewards given to players when they level up are
+     * queued up for half a second, so multiple level ups in a row are merged
+     * into a single role modification request for the member.
      */
-    private final int A = 5;
+    private static final LevelRoleQueue levelRoleQueue = new LevelRoleQueue(500, TimeUnit.MILLISECONDS);
+
     /**
-     * The quadratic equation `b` value.
+     * The level curve tables, the tables are built the first time a level modifier is
+     * used, and holds the precomputed experience thresholds for the level curve.
      */
-    private final int B = 50;
+    private final Cache<Double, LevelCurveTable> levelCurveTables = CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumSize(256)
+        .build();
+
     /**
-     * The quadratic equation `c` value.
+     * The level curve used to calculate the experience needed for each level.
      */
-    private final int C = 100;
+    private volatile LevelCurve levelCurve = new DefaultLevelCurve();
 
     /**
      * Gets the default level experience modifier.
@@ -137,7 +169,7 @@ public class LevelManager {
      * @return The minimum amount of experience needed to reach the given level.
      */
     public long getExperienceFromLevel(long level, double modifier) {
-        return (long) (((long) (A * Math.pow(level, 2)) + (B * level) + (C * (1 + modifier))) * (1 + modifier));
+        return getLevelCurveTable(modifier).getExperienceFromLevel(level);
     }
 
     /**
@@ -175,9 +207,51 @@ public class LevelManager {
      * @return The max level that can be reached with the given amount of experience.
      */
     public long getLevelFromExperience(long xp, double modifier) {
-        double x = (-B + Math.sqrt(Math.pow(B, 2) - ((4 * A) * ((C * (1 + modifier)) - Math.ceil(xp / (1 + modifier)))))) / (2 * A);
+        return getLevelCurveTable(modifier).getLevelFromExperience(xp);
+    }
 
-        return x < 0 ? 0 : (long) Math.floor(x);
+    /**
+     * Gets the level curve used to calculate the experience needed for each level.
+     *
+     * @return The level curve currently in use.
+     */
+    public LevelCurve getLevelCurve() {
+        return levelCurve;
+    }
+
+    /**
+     * Sets the level curve that should be used to calculate the experience needed for
+     * each level, the lookup tables for the previous level curve are dropped, and
+     * will be built again for the new curve the next time they're needed.
+     *
+     * @param levelCurve The level curve that should be used.
+     */
+    public void setLevelCurve(@Nonnull LevelCurve levelCurve) {
+        this.levelCurve = levelCurve;
+        levelCurveTables.invalidateAll();
+    }
+
+    /**
+     * Gets the lookup table for the current level curve and the given modifier,
+     * building the table if it doesn't exist for the modifier already.
+     *
+     * @param modifier The modifier the lookup table should be returned for.
+     * @return The lookup table for the current level curve and the given modifier.
+     */
+    public LevelCurveTable getLevelCurveTable(double modifier) {
+        LevelCurve curve = levelCurve;
+
+        LevelCurveTable table = (LevelCurveTable) CacheUtil.getUncheckedUnwrapped(
+            levelCurveTables, modifier, () -> new LevelCurveTable(curve, modifier)
+        );
+
+        // The level curve may have been changed while the table was being built.
+        if (table.getCurve() != curve) {
+            levelCurveTables.invalidate(modifier);
+            return getLevelCurveTable(modifier);
+        }
+
+        return table;
     }
 
     /**
@@ -248,18 +322,22 @@ public class LevelManager {
         long lvl = getLevelFromExperience(guild, exp + zxp);
 
         player.incrementExperienceBy(amount);
+        updateRankIndex(player);
 
-        experienceQueue.add(new ExperienceEntity(
-            message.getAuthor().getIdLong(),
+        experienceQueue.add(
             message.getGuild().getIdLong(),
+            message.getAuthor().getIdLong(),
             amount
-        ));
+        );
 
         if (getLevelFromExperience(guild, player.getExperience() + zxp) > lvl) {
             long newLevel = getLevelFromExperience(guild, player.getExperience() + zxp);
 
+            LevelRewardPlan rewardPlan = guild.getLevelRewardPlan();
+
             if (guild.isLevelAlerts()) {
-                boolean hasLevelupRole = !guild.getLevelRoles().isEmpty() && guild.getLevelRoles().containsKey((int) newLevel);
+                String levelRoleId = rewardPlan.getRoleIdForLevel(newLevel);
+                boolean hasLevelupRole = levelRoleId != null;
 
                 PlaceholderMessage alertMessage = MessageFactory.makeEmbeddedMessage(getLevelUpChannel(message, guild))
                     .setColor(MessageType.SUCCESS.getColor())
@@ -268,7 +346,7 @@ public class LevelManager {
                     .set("level", newLevel);
 
                 if (hasLevelupRole) {
-                    Role levelRole = message.getGuild().getRoleById(guild.getLevelRoles().get((int) newLevel));
+                    Role levelRole = message.getGuild().getRoleById(levelRoleId);
 
                     if (levelRole == null) {
                         alertMessage.setDescription(loadRandomLevelupMessage(guild, false));
@@ -280,12 +358,12 @@ public class LevelManager {
                 alertMessage.queue();
             }
 
-            if (!guild.getLevelRoles().isEmpty()) {
+            if (!rewardPlan.isEmpty()) {
                 if (!message.getGuild().getSelfMember().hasPermission(Permission.MANAGE_ROLES)) {
                     return;
                 }
 
-                List<Role> roles = getRoleRewards(message, guild, newLevel);
+                List<Role> roles = getRoleRewards(message, rewardPlan, newLevel);
                 if (roles.isEmpty()) {
                     return;
                 }
@@ -295,44 +373,25 @@ public class LevelManager {
                     return;
                 }
 
-                message.getGuild().getController().addRolesToMember(message.getMember(), roles).queue(aVoid -> {
-                    if (!guild.isLevelHierarchy()) {
-                        return;
-                    }
-
-
-                    List<Integer> levelKeys = new ArrayList<>(guild.getLevelRoles().keySet());
-                    Collections.sort(levelKeys);
-                    Collections.reverse(levelKeys);
-
-                    List<Role> rolesToRemove = new ArrayList<>(roles);
-
-                    for (int roleLevel : levelKeys) {
-                        String roleId = guild.getLevelRoles().get(roleLevel);
-                        if (roleId == null) {
-                            // This should never be hit... Ever, better to be safe than sorry tho.
-                            continue;
-                        }
-
-                        Role roleToRemove = null;
-                        for (Role role : rolesToRemove) {
-                            if (role.getId().equals(roleId)) {
-                                roleToRemove = role;
-                            }
-                        }
-
-                        if (roleToRemove != null) {
-                            rolesToRemove.remove(roleToRemove);
-                            break;
-                        }
-                    }
-
-                    if (!rolesToRemove.isEmpty()) {
-                        ScheduleHandler.getScheduler().schedule(() -> {
-                            message.getGuild().getController().removeRolesFromMember(message.getMember(), rolesToRemove).queue();
-                        }, 500, TimeUnit.MILLISECONDS);
-                    }
-                });
+                // The roles are ordered from the highest level to the lowest, so in hierarchy
+                // mode the member only keeps the role from the highest level they've reached.
+                TextChannel levelChannel = getLevelUpChannel(message, guild);
+                Consumer<Throwable> failure = error -> MessageFactory.makeEmbeddedMessage(levelChannel)
+                    .setColor(MessageType.ERROR.getColor())
+                    .setDescription(I18n.getString(message.getGuild(), "errors.failedToGiveLevelRoles"))
+                    .set("user", message.getAuthor().getAsMention())
+                    .queue();
+
+                if (guild.isLevelHierarchy()) {
+                    levelRoleQueue.queue(
+                        message.getMember(),
+                        roles.subList(0, 1),
+                        roles.subList(1, roles.size()),
+                        failure
+                    );
+                } else {
+                    levelRoleQueue.queue(message.getMember(), roles, Collections.emptyList(), failure);
+                }
             }
         }
     }
@@ -343,21 +402,96 @@ public class LevelManager {
      *
      * @return The experience queue.
      */
-    public List<ExperienceEntity> getExperienceQueue() {
+    public ExperienceAggregator getExperienceQueue() {
         return experienceQueue;
     }
 
     /**
-     * Gets all the experience entities that belongs to the given player
-     * transformer, or an empty list of no entities were found.
+     * Gets the amount of experience the given player transformer has been rewarded
+     * that have yet to be synced with the database, or <code>0</code> if the
+     * player doesn't have any pending experience.
+     *
+     * @param transformer The transformer that the pending experience should be looked up for.
+     * @return The amount of experience pending for the given player transformer.
+     */
+    public long getPendingExperience(PlayerTransformer transformer) {
+        return experienceQueue.getPendingExperience(transformer.getGuildId(), transformer.getUserId());
+    }
+
+    /**
+     * Gets the rank index for the guild with the given ID, if the guild doesn't
+     * have a rank index loaded already, the index will be seeded from the
+     * database using a single streaming query, and then cached.
      *
-     * @param transformer The transformer that should be matched with the experience eateries.
-     * @return A list of experience entities that belongs to the given player transformer.
+     * @param avaire  The AvaIre application instance.
+     * @param guildId The ID of the guild the rank index should be returned for.
+     * @return The rank index for the guild with the given ID.
      */
-    public List<ExperienceEntity> getExperienceEntities(PlayerTransformer transformer) {
-        return experienceQueue.stream()
-            .filter(entity -> entity.getUserId() == transformer.getUserId() && entity.getGuildId() == transformer.getGuildId())
-            .collect(Collectors.toList());
+    public RankIndex getRankIndex(AvaIre avaire, long guildId) {
+        RankIndex index = (RankIndex) CacheUtil.getUncheckedUnwrapped(rankIndexes, guildId, () -> loadRankIndex(avaire, guildId));
+
+        // The seeding index is only removed once the index has been stored in the
+        // cache, so updates made between the seeding finishing and the index
+        // being stored in the cache still goes to the same index instance.
+        seedingRankIndexes.remove(guildId, index);
+
+        return index;
+    }
+
+    /**
+     * Updates the given player in the rank index for the guild the player belongs to,
+     * if the guild doesn't have a rank index loaded, or isn't being seeded
+     * currently, the method call will be ignored.
+     *
+     * @param player The player that should be updated in the rank index.
+     */
+    public void updateRankIndex(PlayerTransformer player) {
+        RankIndex index = rankIndexes.getIfPresent(player.getGuildId());
+        if (index == null) {
+            index = seedingRankIndexes.get(player.getGuildId());
+        }
+
+        if (index != null) {
+            index.update(new RankIndex.RankedPlayer(
+                player.getUserId(),
+                player.getExperience(),
+                player.getUsername(),
+                player.getUsernameRaw(),
+                player.getDiscriminator(),
+                player.getAvatar()
+            ));
+        }
+    }
+
+    private RankIndex loadRankIndex(AvaIre avaire, long guildId) throws SQLException {
+        RankIndex index = new RankIndex();
+        seedingRankIndexes.put(guildId, index);
+
+        try (Cursor cursor = avaire.getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+            .select("user_id", "experience", "username", "discriminator", "avatar")
+            .where("guild_id", String.valueOf(guildId))
+            .cursor()) {
+            for (DataRow row : cursor) {
+                long userId = row.getLong("user_id");
+
+                // Players that were updated while seeding already have their up to date
+                // experience in the index, so the database row is only used for the
+                // players that haven't been rewarded experience during the seed.
+                index.addIfAbsent(new RankIndex.RankedPlayer(
+                    userId,
+                    row.getLong("experience", 0) + experienceQueue.getPendingExperience(guildId, userId),
+                    row.getString("username"),
+                    Objects.toString(row.get("username"), null),
+                    row.getString("discriminator"),
+                    row.getString("avatar")
+                ));
+            }
+        } catch (SQLException | RuntimeException e) {
+            seedingRankIndexes.remove(guildId, index);
+            throw e;
+        }
+
+        return index;
     }
 
     /**
@@ -379,14 +513,12 @@ public class LevelManager {
         return channel == null ? message.getTextChannel() : channel;
     }
 
-    private List<Role> getRoleRewards(Message message, GuildTransformer guild, long level) {
+    private List<Role> getRoleRewards(Message message, LevelRewardPlan rewardPlan, long level) {
         List<Role> roles = new ArrayList<>();
-        for (Map.Entry<Integer, String> entry : guild.getLevelRoles().entrySet()) {
-            if (entry.getKey() <= level) {
-                Role role = message.getGuild().getRoleById(entry.getValue());
-                if (role != null) {
-                    roles.add(role);
-                }
+        for (String roleId : rewardPlan.getRewardsUpTo(level).values()) {
+            Role role = message.getGuild().getRoleById(roleId);
+            if (role != null) {
+                roles.add(role);
             }
         }
         return roles;
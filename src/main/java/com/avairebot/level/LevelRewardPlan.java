@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The compiled level role rewards for a guild, the level roles are sorted by their
+ * level once when the plan is built, so finding the roles a player should have
+ * when they level up doesn't require copying or sorting the level roles.
+ * <p>
+ * The plan is cached on the guild transformer, and must be
+ * invalidated any time the guilds level roles are changed.
+ */
+public class LevelRewardPlan {
+
+    private final NavigableMap<Integer, String> rewards;
+
+    /**
+     * Creates a new level reward plan from the given level roles.
+     *
+     * @param levelRoles The level roles, where the key is the level, and the value is the role ID.
+     */
+    public LevelRewardPlan(@Nonnull Map<Integer, String> levelRoles) {
+        TreeMap<Integer, String> rewards = new TreeMap<>();
+        for (Map.Entry<Integer, String> entry : levelRoles.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                rewards.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.rewards = Collections.unmodifiableNavigableMap(rewards);
+    }
+
+    /**
+     * Checks if the plan doesn't have any role rewards.
+     *
+     * @return <code>True</code> if the plan has no role rewards, <code>False</code> otherwise.
+     */
+    public boolean isEmpty() {
+        return rewards.isEmpty();
+    }
+
+    /**
+     * Gets the ID of the role that is rewarded at exactly the given level.
+     *
+     * @param level The level the role should be returned for.
+     * @return Possibly-null, the ID of the role rewarded at the given level, or null if no role is rewarded at the level.
+     */
+    @Nullable
+    public String getRoleIdForLevel(long level) {
+        if (level < Integer.MIN_VALUE || level > Integer.MAX_VALUE) {
+            return null;
+        }
+        return rewards.get((int) level);
+    }
+
+    /**
+     * Gets all the role rewards for the given level and below,
+     * ordered from the highest level to the lowest level.
+     *
+     * @param level The level the role rewards should be returned for.
+     * @return The role rewards for the given level, where the key is the level, and the value is the role ID.
+     */
+    public NavigableMap<Integer, String> getRewardsUpTo(long level) {
+        if (level < Integer.MIN_VALUE) {
+            return Collections.emptyNavigableMap();
+        }
+        return rewards.headMap((int) Math.min(level, Integer.MAX_VALUE), true).descendingMap();
+    }
+}
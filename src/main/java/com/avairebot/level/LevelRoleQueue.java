@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.scheduler.ScheduleHandler;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Role;
+import net.dv8tion.jda.core.exceptions.HierarchyException;
+import net.dv8tion.jda.core.exceptions.InsufficientPermissionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Queues up level role changes for members, the changes are sent to Discord in a single
+ * role modification request shortly after they're queued, if a member levels up multiple
+ * times before the request is sent, the changes are merged together, so rapid level
+ * ups only results in one request, reducing the pressure on the rate-limits.
+ */
+public class LevelRoleQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(LevelRoleQueue.class);
+
+    private final Map<String, PendingRoleUpdate> pending = new HashMap<>();
+    private final long delay;
+
+    /**
+     * Creates a new level role queue.
+     *
+     * @param delay The amount of time the role changes should be queued before they're sent.
+     * @param unit  The time unit of the delay.
+     */
+    public LevelRoleQueue(long delay, @Nonnull TimeUnit unit) {
+        this.delay = unit.toMillis(delay);
+    }
+
+    /**
+     * Queues the given role changes for the given member, merging them with any changes
+     * that are already queued for the member, if a role is both added and removed, the
+     * latest change wins, roles can't be added and removed in the same request.
+     *
+     * @param member   The member the roles should be changed for.
+     * @param toAdd    The roles that should be added to the member.
+     * @param toRemove The roles that should be removed from the member.
+     */
+    public void queue(@Nonnull Member member, @Nonnull Iterable<Role> toAdd, @Nonnull Iterable<Role> toRemove) {
+        queue(member, toAdd, toRemove, null);
+    }
+
+    /**
+     * Queues the given role changes for the given member, merging them with any changes
+     * that are already queued for the member, if a role is both added and removed, the
+     * latest change wins, roles can't be added and removed in the same request.
+     * <p>
+     * The member, guild, and roles are resolved again by their IDs when the changes
+     * are sent, so changes made to them while the update was queued are respected.
+     *
+     * @param member   The member the roles should be changed for.
+     * @param toAdd    The roles that should be added to the member.
+     * @param toRemove The roles that should be removed from the member.
+     * @param failure  The failure consumer, invoked if the role changes couldn't be sent or was rejected.
+     */
+    public void queue(@Nonnull Member member, @Nonnull Iterable<Role> toAdd, @Nonnull Iterable<Role> toRemove, @Nullable Consumer<Throwable> failure) {
+        String key = member.getGuild().getId() + ":" + member.getUser().getId();
+
+        boolean schedule = false;
+        synchronized (pending) {
+            PendingRoleUpdate update = pending.get(key);
+            if (update == null) {
+                update = new PendingRoleUpdate(member);
+                pending.put(key, update);
+                schedule = true;
+            }
+
+            for (Role role : toAdd) {
+                update.toRemove.remove(role.getIdLong());
+                update.toAdd.add(role.getIdLong());
+            }
+            for (Role role : toRemove) {
+                update.toAdd.remove(role.getIdLong());
+                update.toRemove.add(role.getIdLong());
+            }
+
+            if (failure != null) {
+                update.failures.add(failure);
+            }
+        }
+
+        if (schedule) {
+            ScheduleHandler.getScheduler().schedule(() -> flush(key), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(String key) {
+        PendingRoleUpdate update;
+        synchronized (pending) {
+            update = pending.remove(key);
+        }
+
+        if (update == null || (update.toAdd.isEmpty() && update.toRemove.isEmpty())) {
+            return;
+        }
+
+        // The guild or member could have been removed since the update was queued, if they
+        // have there is nothing to update, the roles are also resolved again so roles
+        // that has since been deleted are just left out of the request.
+        Guild guild = update.jda.getGuildById(update.guildId);
+        if (guild == null) {
+            return;
+        }
+
+        Member member = guild.getMemberById(update.userId);
+        if (member == null) {
+            return;
+        }
+
+        List<Role> toAdd = resolveRoles(guild, update.toAdd);
+        List<Role> toRemove = resolveRoles(guild, update.toRemove);
+        if (toAdd.isEmpty() && toRemove.isEmpty()) {
+            return;
+        }
+
+        try {
+            guild.getController()
+                .modifyMemberRoles(member, toAdd, toRemove)
+                .queue(null, error -> handleFailure(update, error));
+        } catch (HierarchyException | InsufficientPermissionException | IllegalArgumentException e) {
+            handleFailure(update, e);
+        }
+    }
+
+    private List<Role> resolveRoles(Guild guild, Set<Long> roleIds) {
+        List<Role> roles = new ArrayList<>();
+        for (Long roleId : roleIds) {
+            Role role = guild.getRoleById(roleId);
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    private void handleFailure(PendingRoleUpdate update, Throwable error) {
+        log.warn("Failed to modify the level roles for user {} in guild {}: {}",
+            update.userId, update.guildId, error.getMessage()
+        );
+
+        for (Consumer<Throwable> failure : update.failures) {
+            try {
+                failure.accept(error);
+            } catch (Exception e) {
+                log.error("The level role failure consumer threw an exception: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static class PendingRoleUpdate {
+
+        private final Set<Long> toAdd = new LinkedHashSet<>();
+        private final Set<Long> toRemove = new LinkedHashSet<>();
+        private final List<Consumer<Throwable>> failures = new ArrayList<>();
+        private final JDA jda;
+        private final long guildId;
+        private final long userId;
+
+        PendingRoleUpdate(Member member) {
+            this.jda = member.getJDA();
+            this.guildId = member.getGuild().getIdLong();
+            this.userId = member.getUser().getIdLong();
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An in-memory rank index for the players of a single guild, the players are ordered
+ * by their experience in descending order, with ties broken by the user ID, using
+ * a treap where every node keeps track of the size of its subtree, so both the
+ * rank of a player and the player at a given rank can be found in O(log n).
+ * <p>
+ * The index is seeded from the database once, and then kept up to date in place
+ * as players are rewarded experience, so rank lookups and leaderboard pages
+ * never has to query the database.
+ */
+public class RankIndex {
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node root;
+
+    /**
+     * Adds the player to the index, or updates the players position
+     * in the index if they're already in the index.
+     *
+     * @param player The player that should be added or updated.
+     */
+    public synchronized void update(@Nonnull RankedPlayer player) {
+        Node node = nodes.get(player.getUserId());
+        if (node != null) {
+            if (node.player.getExperience() == player.getExperience()) {
+                node.player = player;
+                return;
+            }
+            root = remove(root, node);
+        }
+
+        node = new Node(player);
+        nodes.put(player.getUserId(), node);
+
+        Node[] split = split(root, node);
+        root = merge(merge(split[0], node), split[1]);
+    }
+
+    /**
+     * Adds the player to the index if there are no player with
+     * the same user ID in the index already.
+     *
+     * @param player The player that should be added.
+     * @return <code>True</code> if the player was added, <code>False</code> if they were already in the index.
+     */
+    public synchronized boolean addIfAbsent(@Nonnull RankedPlayer player) {
+        if (nodes.containsKey(player.getUserId())) {
+            return false;
+        }
+
+        update(player);
+        return true;
+    }
+
+    /**
+     * Removes the player with the given user ID from the index.
+     *
+     * @param userId The ID of the user that should be removed.
+     * @return <code>True</code> if the player was removed, <code>False</code> if they wasn't in the index.
+     */
+    public synchronized boolean remove(long userId) {
+        Node node = nodes.remove(userId);
+        if (node == null) {
+            return false;
+        }
+
+        root = remove(root, node);
+        return true;
+    }
+
+    /**
+     * Gets the player with the given user ID from the index.
+     *
+     * @param userId The ID of the user that should be returned.
+     * @return Possibly-null, the player with the given ID, or null if they're not in the index.
+     */
+    @Nullable
+    public synchronized RankedPlayer getPlayer(long userId) {
+        Node node = nodes.get(userId);
+        return node == null ? null : node.player;
+    }
+
+    /**
+     * Gets the rank of the player with the given user ID, the
+     * player with the most experience has a rank of one.
+     *
+     * @param userId The ID of the user the rank should be returned for.
+     * @return The rank of the player, or <code>-1</code> if the player is not in the index.
+     */
+    public synchronized int getRank(long userId) {
+        Node node = nodes.get(userId);
+        if (node == null) {
+            return -1;
+        }
+
+        int rank = 1;
+        Node current = root;
+        while (current != null) {
+            int comparison = compare(node, current);
+            if (comparison < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left);
+                if (comparison == 0) {
+                    return rank;
+                }
+                rank++;
+                current = current.right;
+            }
+        }
+
+        // This should never be hit, since all the nodes in the map are in the tree.
+        return -1;
+    }
+
+    /**
+     * Gets the players ordered by rank, starting at the given offset.
+     *
+     * @param offset The amount of players that should be skipped.
+     * @param limit  The maximum amount of players that should be returned.
+     * @return The list of players, ordered by rank.
+     */
+    public synchronized List<RankedPlayer> getTop(int offset, int limit) {
+        int end = Math.min(size(root), offset + limit);
+        if (offset < 0 || offset >= end) {
+            return Collections.emptyList();
+        }
+
+        List<RankedPlayer> players = new ArrayList<>(end - offset);
+        collect(root, offset, end, 0, players);
+
+        return players;
+    }
+
+    /**
+     * Gets the amount of players in the index.
+     *
+     * @return The amount of players in the index.
+     */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    private void collect(Node node, int start, int end, int offset, List<RankedPlayer> players) {
+        if (node == null || offset >= end || offset + node.size <= start) {
+            return;
+        }
+
+        collect(node.left, start, end, offset, players);
+
+        int index = offset + size(node.left);
+        if (index >= start && index < end) {
+            players.add(node.player);
+        }
+
+        collect(node.right, start, end, index + 1, players);
+    }
+
+    /**
+     * Splits the tree into the nodes ordered before the given
+     * node, and the nodes ordered at or after the given node.
+     */
+    private Node[] split(Node node, Node key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        if (compare(node, key) < 0) {
+            Node[] split = split(node.right, key);
+            node.right = split[0];
+            node.update();
+            return new Node[]{node, split[1]};
+        }
+
+        Node[] split = split(node.left, key);
+        node.left = split[1];
+        node.update();
+        return new Node[]{split[0], node};
+    }
+
+    /**
+     * Merges the two trees, all the nodes in the left tree
+     * must be ordered before the nodes in the right tree.
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private Node remove(Node node, Node key) {
+        if (node == null) {
+            return null;
+        }
+
+        if (node == key) {
+            return merge(node.left, node.right);
+        }
+
+        if (compare(key, node) < 0) {
+            node.left = remove(node.left, key);
+        } else {
+            node.right = remove(node.right, key);
+        }
+        node.update();
+
+        return node;
+    }
+
+    private static int compare(Node a, Node b) {
+        int comparison = Long.compare(b.player.getExperience(), a.player.getExperience());
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Long.compare(a.player.getUserId(), b.player.getUserId());
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static class Node {
+
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private RankedPlayer player;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        Node(RankedPlayer player) {
+            this.player = player;
+        }
+
+        void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+
+    public static class RankedPlayer {
+
+        private final long userId;
+        private final long experience;
+        private final String username;
+        private final String usernameRaw;
+        private final String discriminator;
+        private final String avatar;
+
+        /**
+         * Creates a new ranked player.
+         *
+         * @param userId        The ID of the user.
+         * @param experience    The amount of experience the user has in the guild.
+         * @param username      The name of the user.
+         * @param usernameRaw   The name of the user, as it is stored in the database.
+         * @param discriminator The discriminator of the user.
+         * @param avatar        The avatar ID of the user.
+         */
+        public RankedPlayer(long userId, long experience, String username, String usernameRaw, String discriminator, String avatar) {
+            this.userId = userId;
+            this.experience = experience;
+            this.username = username;
+            this.usernameRaw = usernameRaw;
+            this.discriminator = discriminator;
+            this.avatar = avatar;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public long getExperience() {
+            return experience;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getUsernameRaw() {
+            return usernameRaw;
+        }
+
+        public String getDiscriminator() {
+            return discriminator;
+        }
+
+        public String getAvatar() {
+            return avatar;
+        }
+    }
+}
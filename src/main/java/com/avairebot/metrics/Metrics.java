@@ -26,8 +26,6 @@ import com.avairebot.AvaIre;
 import com.avairebot.blacklist.Ratelimit;
 import com.avairebot.commands.Category;
 import com.avairebot.commands.utility.GlobalLeaderboardCommand;
-import com.avairebot.commands.utility.LeaderboardCommand;
-import com.avairebot.commands.utility.RankCommand;
 import com.avairebot.contracts.commands.InteractionCommand;
 import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.database.controllers.GuildController;
@@ -36,6 +34,7 @@ import com.avairebot.database.controllers.PlaylistController;
 import com.avairebot.database.controllers.ReactionController;
 import com.avairebot.handlers.adapter.JDAStateEventAdapter;
 import com.avairebot.level.LevelManager;
+import com.avairebot.metrics.collectors.ThrottleCollector;
 import com.avairebot.metrics.filters.AreWeReadyYetFilter;
 import com.avairebot.metrics.filters.HttpFilter;
 import com.avairebot.metrics.handlers.SparkExceptionHandler;
@@ -147,6 +146,11 @@ public class Metrics {
         .labelNames("class") // use the simple name of the command class
         .register();
 
+    public static final Gauge throttleEntries = Gauge.build()
+        .name("avaire_throttle_entries")
+        .help("Amount of active command throttles")
+        .register();
+
     public static final Counter commandsReceived = Counter.build()
         .name("avaire_commands_received_total")
         .help("Total received commands. Some of these might get ratelimited.")
@@ -177,6 +181,36 @@ public class Metrics {
         .labelNames("class")
         .register();
 
+    public static final Gauge commandQueueSize = Gauge.build()
+        .name("avaire_command_queue_size")
+        .help("Total amount of commands waiting in the command scheduler queue")
+        .register();
+
+    public static final Histogram commandQueueWaitTime = Histogram.build()
+        .name("avaire_command_queue_wait_duration_seconds")
+        .help("Time commands spend in the command scheduler queue before they start executing")
+        .register();
+
+    public static final Counter commandsRejected = Counter.build()
+        .name("avaire_commands_rejected_total")
+        .help("Total commands rejected by the command scheduler due to overload")
+        .labelNames("reason") // global, guild
+        .register();
+
+    // Message ingest
+
+    public static final Histogram messageIngestTime = Histogram.build()
+        .name("avaire_message_ingest_duration_seconds")
+        .help("Time spent in each stage of the message ingest pipeline")
+        .labelNames("stage") // filter, cache, database, dispatch
+        .register();
+
+    public static final Counter messageIngestLoads = Counter.build()
+        .name("avaire_message_ingest_loads_total")
+        .help("Total messages handled by the cache-only fast path vs the database loader")
+        .labelNames("type") // cache, database, coalesced, rejected, overloaded
+        .register();
+
     // AI Requests
 
     public static final Counter aiRequestsReceived = Counter.build()
@@ -204,6 +238,59 @@ public class Metrics {
         .labelNames("type")
         .register();
 
+    public static final Histogram databaseQueryTime = Histogram.build()
+        .name("avaire_database_query_duration_seconds")
+        .help("Database query execution time by query shape")
+        .labelNames("shape") // table:TYPE(where columns)
+        .register();
+
+    public static final Histogram databaseQueryRows = Histogram.build()
+        .name("avaire_database_query_rows")
+        .help("Rows returned or affected by database queries by query shape")
+        .labelNames("shape")
+        .buckets(0, 1, 5, 10, 50, 100, 500, 1000, 5000, 25000)
+        .register();
+
+    public static final Histogram databaseQueryConnectionWaitTime = Histogram.build()
+        .name("avaire_database_query_connection_wait_duration_seconds")
+        .help("Time database queries spent waiting for a connection by query shape")
+        .labelNames("shape")
+        .register();
+
+    public static final Counter databaseQueryErrors = Counter.build()
+        .name("avaire_database_query_errors_total")
+        .help("Total database queries that failed by query shape")
+        .labelNames("shape")
+        .register();
+
+    public static final Gauge databasePoolConnections = Gauge.build()
+        .name("avaire_database_pool_connections")
+        .help("Connections in the database connection pool by state")
+        .labelNames("pool", "state") // active, idle, total, pending
+        .register();
+
+    public static final Histogram databasePoolWaitTime = Histogram.build()
+        .name("avaire_database_pool_wait_duration_seconds")
+        .help("Time spent waiting to borrow a connection from the database connection pool")
+        .labelNames("pool")
+        .register();
+
+    public static final Counter databasePoolTimeouts = Counter.build()
+        .name("avaire_database_pool_timeouts_total")
+        .help("Total times a borrower timed out waiting for a database connection")
+        .labelNames("pool")
+        .register();
+
+    public static final Gauge databaseQueueSize = Gauge.build()
+        .name("avaire_database_queue_size")
+        .help("Total amount of async database queries waiting in the database executor queue")
+        .register();
+
+    public static final Counter databaseQueriesRejected = Counter.build()
+        .name("avaire_database_queries_rejected_total")
+        .help("Total async database queries rejected by the database executor due to overload")
+        .register();
+
     // Vote statistics
 
     public static final Counter dblVotes = Counter.build()
@@ -255,6 +342,8 @@ public class Metrics {
         DefaultExports.initialize();
         Metrics.initializeEventMetrics();
 
+        new ThrottleCollector(ThrottleMiddleware.engine).register();
+
         CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
         cacheMetrics.addCache("levels", LevelManager.cache);
         cacheMetrics.addCache("guilds", GuildController.cache);
@@ -262,11 +351,9 @@ public class Metrics {
         cacheMetrics.addCache("playlists", PlaylistController.cache);
         cacheMetrics.addCache("categoryPrefixes", Category.cache);
         cacheMetrics.addCache("reaction-roles", ReactionController.cache);
-        cacheMetrics.addCache("throttleCommands", ThrottleMiddleware.cache);
         cacheMetrics.addCache("middlewareThrottleMessages", Middleware.messageCache);
         cacheMetrics.addCache("autorole", JDAStateEventAdapter.cache);
-        cacheMetrics.addCache("rankScores", RankCommand.cache);
-        cacheMetrics.addCache("leaderboard", LeaderboardCommand.cache);
+        cacheMetrics.addCache("rankIndexes", LevelManager.rankIndexes);
         cacheMetrics.addCache("global-leaderboard", GlobalLeaderboardCommand.cache);
         cacheMetrics.addCache("interaction-lottery", InteractionCommand.cache);
         cacheMetrics.addCache("blacklist-ratelimit", Ratelimit.cache);
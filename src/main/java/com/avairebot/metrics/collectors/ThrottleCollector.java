@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.metrics.collectors;
+
+import com.avairebot.throttle.ThrottleEngine;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CounterMetricFamily;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ThrottleCollector extends Collector {
+
+    private final ThrottleEngine engine;
+
+    /**
+     * Creates a new throttle collector, exporting the per command hit and deny
+     * counters kept by the given throttle engine, the counters are read when
+     * the metrics are scraped, so the throttle hot path never has to
+     * look up or allocate any metric labels.
+     *
+     * @param engine The throttle engine the counters should be exported from.
+     */
+    public ThrottleCollector(ThrottleEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        List<MetricFamilySamples> mfs = new ArrayList<>();
+        List<String> labelNames = Collections.singletonList("command");
+
+        CounterMetricFamily hits = new CounterMetricFamily("avaire_throttle_hits_total",
+            "Total throttle checks made by commands", labelNames);
+        mfs.add(hits);
+
+        CounterMetricFamily denies = new CounterMetricFamily("avaire_throttle_denies_total",
+            "Total throttle checks that denied the command", labelNames);
+        mfs.add(denies);
+
+        for (Map.Entry<String, Integer> entry : engine.getCommandIds().entrySet()) {
+            List<String> labels = Collections.singletonList(entry.getKey());
+
+            hits.addMetric(labels, engine.getHits(entry.getValue()));
+            denies.addMetric(labels, engine.getDenies(entry.getValue()));
+        }
+
+        return mfs;
+    }
+}
@@ -23,7 +23,6 @@ package com.avairebot.metrics.routes;
 
 import com.avairebot.Constants;
 import com.avairebot.contracts.metrics.SparkRoute;
-import com.avairebot.database.collection.DataRow;
 import com.avairebot.metrics.Metrics;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -51,11 +50,11 @@ public class GetGuildCleanup extends SparkRoute {
 
         Set<String> missingGuilds = new HashSet<>();
 
-        for (DataRow row : metrics.getAvaire().getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME).select("id").get()) {
+        metrics.getAvaire().getDatabase().newQueryBuilder(Constants.GUILD_TABLE_NAME).select("id").forEachRow(row -> {
             if (metrics.getAvaire().getShardManager().getGuildById(row.getString("id")) == null) {
                 missingGuilds.add(row.getString("id"));
             }
-        }
+        });
 
         JSONObject root = new JSONObject();
         root.put("ids", missingGuilds);
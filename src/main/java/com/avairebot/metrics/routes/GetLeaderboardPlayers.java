@@ -21,23 +21,17 @@
 
 package com.avairebot.metrics.routes;
 
-import com.avairebot.Constants;
-import com.avairebot.commands.utility.LeaderboardCommand;
 import com.avairebot.contracts.metrics.SparkRoute;
-import com.avairebot.database.collection.Collection;
-import com.avairebot.database.collection.DataRow;
 import com.avairebot.database.controllers.GuildController;
 import com.avairebot.database.transformers.GuildTransformer;
+import com.avairebot.level.RankIndex;
 import com.avairebot.metrics.Metrics;
-import com.avairebot.utilities.CacheUtil;
 import net.dv8tion.jda.core.entities.Guild;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import spark.Request;
 import spark.Response;
 
-import java.sql.SQLException;
-
 public class GetLeaderboardPlayers extends SparkRoute {
 
     public GetLeaderboardPlayers(Metrics metrics) {
@@ -63,14 +57,16 @@ public class GetLeaderboardPlayers extends SparkRoute {
 
             JSONArray users = new JSONArray();
             if (transformer.isLevels()) {
-                for (DataRow row : loadTop100(guildId.toString())) {
+                RankIndex index = metrics.getAvaire().getLevelManager().getRankIndex(metrics.getAvaire(), guildId);
+
+                for (RankIndex.RankedPlayer player : index.getTop(0, 100)) {
                     JSONObject user = new JSONObject();
-                    user.put("id", row.getString("user_id"));
-                    user.put("username", row.getString("username"));
-                    user.put("rawUsername", row.getRaw().get("username"));
-                    user.put("discriminator", row.getString("discriminator"));
-                    user.put("avatar", row.getString("avatar"));
-                    user.put("experience", row.getLong("experience"));
+                    user.put("id", String.valueOf(player.getUserId()));
+                    user.put("username", player.getUsername());
+                    user.put("rawUsername", player.getUsernameRaw());
+                    user.put("discriminator", player.getDiscriminator());
+                    user.put("avatar", player.getAvatar());
+                    user.put("experience", player.getExperience());
 
                     users.put(user);
                 }
@@ -84,18 +80,4 @@ public class GetLeaderboardPlayers extends SparkRoute {
             return buildResponse(response, 404, "Invalid guild ID given, no guild found with the given id.");
         }
     }
-
-    private Collection loadTop100(String guildId) {
-        return (Collection) CacheUtil.getUncheckedUnwrapped(LeaderboardCommand.cache, guildId, () -> {
-            try {
-                return metrics.getAvaire().getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-                    .where("guild_id", guildId)
-                    .orderBy("experience", "desc")
-                    .take(100)
-                    .get();
-            } catch (SQLException e) {
-                return null;
-            }
-        });
-    }
 }
@@ -23,6 +23,7 @@ package com.avairebot.metrics.routes;
 
 import com.avairebot.Constants;
 import com.avairebot.contracts.metrics.SparkRoute;
+import com.avairebot.database.collection.Cursor;
 import com.avairebot.database.collection.DataRow;
 import com.avairebot.metrics.Metrics;
 import net.dv8tion.jda.core.entities.Guild;
@@ -53,32 +54,33 @@ public class GetPlayerCleanup extends SparkRoute {
 
         Guild guild = null;
         HashMap<String, Set<String>> missingPlayers = new HashMap<>();
-        for (DataRow dataRow : metrics.getAvaire().getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
-            .select("user_id", "guild_id").orderBy("guild_id").get()) {
+        try (Cursor cursor = metrics.getAvaire().getDatabase().newQueryBuilder(Constants.PLAYER_EXPERIENCE_TABLE_NAME)
+            .select("user_id", "guild_id").orderBy("guild_id").cursor()) {
+            for (DataRow dataRow : cursor) {
+                if (!missingPlayers.containsKey(dataRow.getString("guild_id"))) {
+                    missingPlayers.put(dataRow.getString("guild_id"), new HashSet<>());
+                }
 
-            if (!missingPlayers.containsKey(dataRow.getString("guild_id"))) {
-                missingPlayers.put(dataRow.getString("guild_id"), new HashSet<>());
-            }
+                if (guild == null || !guild.getId().equalsIgnoreCase(dataRow.getString("guild_id"))) {
+                    try {
+                        guild = metrics.getAvaire().getShardManager().getGuildById(dataRow.getString("guild_id"));
+                    } catch (Exception ignored) {
+                        addRowToMissingPlayers(missingPlayers, dataRow);
+                    }
+                }
 
-            if (guild == null || !guild.getId().equalsIgnoreCase(dataRow.getString("guild_id"))) {
-                try {
-                    guild = metrics.getAvaire().getShardManager().getGuildById(dataRow.getString("guild_id"));
-                } catch (Exception ignored) {
+                if (guild == null) {
                     addRowToMissingPlayers(missingPlayers, dataRow);
+                    continue;
                 }
-            }
-
-            if (guild == null) {
-                addRowToMissingPlayers(missingPlayers, dataRow);
-                continue;
-            }
 
-            try {
-                if (guild.getMemberById(dataRow.getString("user_id")) == null) {
+                try {
+                    if (guild.getMemberById(dataRow.getString("user_id")) == null) {
+                        addRowToMissingPlayers(missingPlayers, dataRow);
+                    }
+                } catch (Exception ignored) {
                     addRowToMissingPlayers(missingPlayers, dataRow);
                 }
-            } catch (Exception ignored) {
-                addRowToMissingPlayers(missingPlayers, dataRow);
             }
         }
 
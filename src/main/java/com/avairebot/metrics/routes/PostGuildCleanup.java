@@ -69,28 +69,29 @@ public class PostGuildCleanup extends SparkRoute {
             }
         }
 
-        Connection connection = metrics.getAvaire().getDatabase().getConnection().getConnection();
-        String query = String.format("DELETE FROM `%s` WHERE `id` = ?",
-            Constants.GUILD_TABLE_NAME
-        );
+        try (Connection connection = metrics.getAvaire().getDatabase().getConnection().getConnection()) {
+            String query = String.format("DELETE FROM `%s` WHERE `id` = ?",
+                Constants.GUILD_TABLE_NAME
+            );
 
-        log.debug("Starting \"Guild Cleanup\" route task with query: " + query);
+            log.debug("Starting \"Guild Cleanup\" route task with query: " + query);
 
-        boolean autoCommit = connection.getAutoCommit();
-        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            connection.setAutoCommit(false);
+            boolean autoCommit = connection.getAutoCommit();
+            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+                connection.setAutoCommit(false);
 
-            for (Long id : idsToDelete) {
-                preparedStatement.setLong(1, id);
-                preparedStatement.addBatch();
-            }
+                for (Long id : idsToDelete) {
+                    preparedStatement.setLong(1, id);
+                    preparedStatement.addBatch();
+                }
 
-            preparedStatement.executeBatch();
-            connection.commit();
-        }
+                preparedStatement.executeBatch();
+                connection.commit();
+            }
 
-        if (connection.getAutoCommit() != autoCommit) {
-            connection.setAutoCommit(autoCommit);
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
         }
 
         log.debug("Finished \"Guild Cleanup\" route task, deleted {} records in the process", idsToDelete.size());
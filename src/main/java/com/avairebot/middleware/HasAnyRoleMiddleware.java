@@ -26,10 +26,8 @@ import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.permissions.Permissions;
 import net.dv8tion.jda.core.entities.Message;
-import net.dv8tion.jda.core.entities.Role;
 
 import javax.annotation.Nonnull;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class HasAnyRoleMiddleware extends Middleware {
@@ -49,8 +47,18 @@ public class HasAnyRoleMiddleware extends Middleware {
         );
     }
 
+    @Override
+    public RoleArguments compileArguments(@Nonnull String[] arguments) {
+        return RoleArguments.fromArguments(arguments);
+    }
+
     @Override
     public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
+        return handle(message, stack, compileArguments(args), args);
+    }
+
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, Object compiledArguments, String[] args) {
         if (!message.getChannelType().isGuild()) {
             return stack.next();
         }
@@ -59,11 +67,9 @@ public class HasAnyRoleMiddleware extends Middleware {
             return stack.next();
         }
 
-        List<Role> roles = message.getMember().getRoles();
-        for (String roleName : args) {
-            if (hasRole(roles, roleName)) {
-                return stack.next();
-            }
+        RoleArguments arguments = (RoleArguments) compiledArguments;
+        if (arguments.hasAnyRole(message.getMember())) {
+            return stack.next();
         }
 
         return runMessageCheck(message, () -> {
@@ -74,14 +80,4 @@ public class HasAnyRoleMiddleware extends Middleware {
             return false;
         });
     }
-
-    private boolean hasRole(List<Role> roles, String roleName) {
-        for (Role role : roles) {
-            if (role.getName().equalsIgnoreCase(roleName)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
 }
@@ -26,10 +26,8 @@ import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.permissions.Permissions;
 import net.dv8tion.jda.core.entities.Message;
-import net.dv8tion.jda.core.entities.Role;
 
 import javax.annotation.Nonnull;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class HasRoleMiddleware extends Middleware {
@@ -49,8 +47,18 @@ public class HasRoleMiddleware extends Middleware {
         );
     }
 
+    @Override
+    public RoleArguments compileArguments(@Nonnull String[] arguments) {
+        return RoleArguments.fromArguments(arguments);
+    }
+
     @Override
     public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
+        return handle(message, stack, compileArguments(args), args);
+    }
+
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, Object compiledArguments, String[] args) {
         if (!message.getChannelType().isGuild()) {
             return stack.next();
         }
@@ -59,28 +67,19 @@ public class HasRoleMiddleware extends Middleware {
             return stack.next();
         }
 
-        List<Role> roles = message.getMember().getRoles();
-        for (String roleName : args) {
-            if (!hasRole(roles, roleName)) {
-                return runMessageCheck(message, () -> {
-                    MessageFactory.makeError(message, "You don't have the required role to execute this command:\n`:role`")
-                        .set("role", roleName)
-                        .queue(newMessage -> newMessage.delete().queueAfter(45, TimeUnit.SECONDS));
+        RoleArguments arguments = (RoleArguments) compiledArguments;
+
+        String missingRole = arguments.getFirstMissingRole(message.getMember());
+        if (missingRole != null) {
+            return runMessageCheck(message, () -> {
+                MessageFactory.makeError(message, "You don't have the required role to execute this command:\n`:role`")
+                    .set("role", missingRole)
+                    .queue(newMessage -> newMessage.delete().queueAfter(45, TimeUnit.SECONDS));
 
-                    return false;
-                });
-            }
+                return false;
+            });
         }
 
         return stack.next();
     }
-
-    private boolean hasRole(List<Role> roles, String roleName) {
-        for (Role role : roles) {
-            if (role.getName().equalsIgnoreCase(roleName)) {
-                return true;
-            }
-        }
-        return false;
-    }
 }
@@ -41,13 +41,24 @@ public class IsBotAdminMiddleware extends Middleware {
         return "**You must be a Bot Administrator to use this command!**";
     }
 
+    @Override
+    public Boolean compileArguments(@Nonnull String[] arguments) {
+        return arguments.length > 0 && arguments[0].equalsIgnoreCase("use-role");
+    }
+
     @Override
     public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
+        return handle(message, stack, compileArguments(args), args);
+    }
+
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, Object compiledArguments, String[] args) {
         if (avaire.getBotAdmins().isAdmin(message.getAuthor().getId()).isAdmin()) {
             return stack.next();
         }
 
-        if (args.length == 0 || !args[0].equalsIgnoreCase("use-role")) {
+        Boolean useRole = (Boolean) compiledArguments;
+        if (!useRole) {
             return sendMustBeBotAdminMessage(message);
         }
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.middleware;
+
+import com.avairebot.contracts.commands.Command;
+import com.avairebot.contracts.middleware.Middleware;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+public final class MiddlewareChain {
+
+    /**
+     * An empty middleware chain, used by commands with no middlewares.
+     */
+    public static final MiddlewareChain EMPTY = new MiddlewareChain(new MiddlewareContainer[0]);
+
+    private final MiddlewareContainer[] middlewares;
+
+    private MiddlewareChain(MiddlewareContainer[] middlewares) {
+        this.middlewares = middlewares;
+    }
+
+    /**
+     * Compiles the given list of middleware strings, in the same format as the
+     * {@link Command#getMiddleware() getMiddleware()} method returns, into
+     * an immutable chain where every middleware reference has already been
+     * resolved, and every argument list has already been split and
+     * compiled by the middleware it belongs to.
+     *
+     * @param middlewares The list of middleware strings that should be compiled.
+     * @return The compiled middleware chain.
+     * @throws IllegalArgumentException This is thrown if a middleware doesn't exists, or
+     *                                  if it was given malformed arguments.
+     */
+    @Nonnull
+    public static MiddlewareChain compile(@Nonnull List<String> middlewares) {
+        if (middlewares.isEmpty()) {
+            return EMPTY;
+        }
+
+        MiddlewareContainer[] containers = new MiddlewareContainer[middlewares.size()];
+        for (int i = 0; i < containers.length; i++) {
+            containers[i] = compileMiddleware(middlewares.get(i));
+        }
+        return new MiddlewareChain(containers);
+    }
+
+    private static MiddlewareContainer compileMiddleware(String middleware) {
+        int separator = middleware.indexOf(':');
+        String name = separator == -1 ? middleware : middleware.substring(0, separator);
+
+        Middleware reference = MiddlewareHandler.getMiddleware(name);
+        if (reference == null) {
+            throw new IllegalArgumentException("Middleware reference may not be null, " + name + " is not a valid middleware!");
+        }
+
+        if (separator == -1) {
+            return new MiddlewareContainer(reference, new String[0], reference.compileArguments(new String[0]));
+        }
+
+        String[] arguments = middleware.substring(separator + 1).split(",");
+        try {
+            return new MiddlewareContainer(reference, arguments, reference.compileArguments(arguments));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid arguments given to the \"%s\" middleware: %s", middleware, e.getMessage()
+            ), e);
+        }
+    }
+
+    /**
+     * Gets the amount of middlewares in the chain.
+     *
+     * @return The amount of middlewares in the chain.
+     */
+    public int size() {
+        return middlewares.length;
+    }
+
+    /**
+     * Gets the middleware container at the given position in the chain.
+     *
+     * @param index The position of the middleware in the chain.
+     * @return The middleware container at the given position.
+     */
+    MiddlewareContainer get(int index) {
+        return middlewares[index];
+    }
+}
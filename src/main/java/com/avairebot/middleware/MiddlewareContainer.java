@@ -23,19 +23,24 @@ package com.avairebot.middleware;
 
 import com.avairebot.contracts.middleware.Middleware;
 
+import javax.annotation.Nullable;
+
 class MiddlewareContainer {
 
+    private static final String[] EMPTY_ARGUMENTS = new String[0];
+
     private final Middleware middleware;
     private final String[] arguments;
+    private final Object compiledArguments;
 
     MiddlewareContainer(Middleware middleware) {
-        this.middleware = middleware;
-        this.arguments = new String[0];
+        this(middleware, EMPTY_ARGUMENTS, null);
     }
 
-    MiddlewareContainer(Middleware middleware, String[] arguments) {
+    MiddlewareContainer(Middleware middleware, String[] arguments, @Nullable Object compiledArguments) {
         this.middleware = middleware;
         this.arguments = arguments;
+        this.compiledArguments = compiledArguments;
     }
 
     Middleware getMiddleware() {
@@ -45,4 +50,9 @@ class MiddlewareContainer {
     String[] getArguments() {
         return arguments;
     }
+
+    @Nullable
+    Object getCompiledArguments() {
+        return compiledArguments;
+    }
 }
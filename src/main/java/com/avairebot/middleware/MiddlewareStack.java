@@ -23,6 +23,7 @@ package com.avairebot.middleware;
 
 import com.avairebot.AvaIre;
 import com.avairebot.commands.CommandContainer;
+import com.avairebot.commands.ParsedMessage;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.handlers.DatabaseEventHolder;
@@ -32,38 +33,37 @@ import com.avairebot.middleware.global.IsCategoryEnabled;
 import com.avairebot.middleware.global.ProcessCommand;
 import net.dv8tion.jda.core.entities.Message;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ListIterator;
-
 public class MiddlewareStack {
 
-    private static ProcessCommand processCommand;
-    private static IsCategoryEnabled isCategoryEnabled;
-    private static IncrementMetricsForCommand incrementMetricsForCommand;
+    private static MiddlewareContainer processCommand;
+    private static MiddlewareContainer[] globalMiddlewares = new MiddlewareContainer[0];
 
     private final Message message;
+    private final ParsedMessage parsedMessage;
     private final CommandContainer command;
-    private final List<MiddlewareContainer> middlewares = new ArrayList<>();
+    private final MiddlewareChain middlewareChain;
     private final DatabaseEventHolder databaseEventHolder;
     private final boolean mentionableCommand;
 
     private int index = -1;
 
-    public MiddlewareStack(Message message, CommandContainer command, DatabaseEventHolder databaseEventHolder, boolean mentionableCommand) {
-        this.message = message;
+    public MiddlewareStack(ParsedMessage parsedMessage, CommandContainer command, DatabaseEventHolder databaseEventHolder, boolean mentionableCommand) {
+        this.message = parsedMessage.getMessage();
+        this.parsedMessage = parsedMessage;
         this.command = command;
         this.mentionableCommand = mentionableCommand;
         this.databaseEventHolder = databaseEventHolder;
+        this.middlewareChain = command.getMiddlewareChain();
 
-        middlewares.add(new MiddlewareContainer(processCommand));
-
-        buildMiddlewareStack();
+        Metrics.commandAttempts.labels(command.getClass().getSimpleName()).inc();
+    }
 
-        middlewares.add(new MiddlewareContainer(isCategoryEnabled));
-        middlewares.add(new MiddlewareContainer(incrementMetricsForCommand));
+    public MiddlewareStack(ParsedMessage parsedMessage, CommandContainer command, DatabaseEventHolder databaseEventHolder) {
+        this(parsedMessage, command, databaseEventHolder, false);
+    }
 
-        Metrics.commandAttempts.labels(command.getClass().getSimpleName()).inc();
+    public MiddlewareStack(Message message, CommandContainer command, DatabaseEventHolder databaseEventHolder, boolean mentionableCommand) {
+        this(new ParsedMessage(message), command, databaseEventHolder, mentionableCommand);
     }
 
     public MiddlewareStack(Message message, CommandContainer command, DatabaseEventHolder databaseEventHolder) {
@@ -76,36 +76,11 @@ public class MiddlewareStack {
      * @param avaire The AvaIre application instance.
      */
     static void buildGlobalMiddlewares(AvaIre avaire) {
-        processCommand = new ProcessCommand(avaire);
-        isCategoryEnabled = new IsCategoryEnabled(avaire);
-        incrementMetricsForCommand = new IncrementMetricsForCommand(avaire);
-    }
-
-    /**
-     * Builds the middleware stack from the commands {@link Command#getMiddleware() getMiddleware()} method.
-     */
-    private void buildMiddlewareStack() {
-        List<String> middleware = command.getMiddleware();
-        if (middleware.isEmpty()) {
-            return;
-        }
-
-        ListIterator middlewareIterator = middleware.listIterator(middleware.size());
-        while (middlewareIterator.hasPrevious()) {
-            String previous = (String) middlewareIterator.previous();
-            String[] split = previous.split(":");
-
-            Middleware middlewareReference = MiddlewareHandler.getMiddleware(split[0]);
-            if (middlewareReference == null) {
-                continue;
-            }
-
-            if (split.length == 1) {
-                middlewares.add(new MiddlewareContainer(middlewareReference));
-                continue;
-            }
-            middlewares.add(new MiddlewareContainer(middlewareReference, split[1].split(",")));
-        }
+        processCommand = new MiddlewareContainer(new ProcessCommand(avaire));
+        globalMiddlewares = new MiddlewareContainer[]{
+            new MiddlewareContainer(new IncrementMetricsForCommand(avaire)),
+            new MiddlewareContainer(new IsCategoryEnabled(avaire))
+        };
     }
 
     /**
@@ -116,15 +91,31 @@ public class MiddlewareStack {
      * @return <code>True</code> if the next middleware in the stack executed successfully, <code>False</code> otherwise.
      */
     public boolean next() {
-        if (index == -1) {
-            index = middlewares.size();
-        }
-
-        MiddlewareContainer middlewareContainer = middlewares.get(--index);
+        MiddlewareContainer container = getMiddlewareAt(++index);
 
-        return middlewareContainer
+        return container
             .getMiddleware()
-            .handle(message, this, middlewareContainer.getArguments());
+            .handle(message, this, container.getCompiledArguments(), container.getArguments());
+    }
+
+    /**
+     * Gets the middleware at the given position in the stack, the global middlewares are
+     * invoked first, then the compiled middleware chain for the command, and lastly the
+     * {@link ProcessCommand Process Command} middleware.
+     *
+     * @param position The position in the stack.
+     * @return The middleware container at the given position.
+     */
+    private MiddlewareContainer getMiddlewareAt(int position) {
+        if (position < globalMiddlewares.length) {
+            return globalMiddlewares[position];
+        }
+
+        position -= globalMiddlewares.length;
+        if (position < middlewareChain.size()) {
+            return middlewareChain.get(position);
+        }
+        return processCommand;
     }
 
     /**
@@ -145,6 +136,17 @@ public class MiddlewareStack {
         return command;
     }
 
+    /**
+     * Gets the parsed message the middleware stack is running for, the parsed
+     * message holds the tokenized message content, so it doesn't have to
+     * be parsed again by the middlewares or the command.
+     *
+     * @return The parsed message the middleware stack is running for.
+     */
+    public ParsedMessage getParsedMessage() {
+        return parsedMessage;
+    }
+
     /**
      * Returns <code>True</code> if the command was invoked through mentioning the bot first.
      *
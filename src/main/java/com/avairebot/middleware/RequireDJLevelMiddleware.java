@@ -43,22 +43,31 @@ public class RequireDJLevelMiddleware extends Middleware {
     }
 
     @Override
-    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
-        if (!message.getChannelType().isGuild()) {
-            return stack.next();
+    public DJGuildLevel compileArguments(@Nonnull String[] arguments) {
+        if (arguments.length == 0) {
+            return DJGuildLevel.NORMAL;
         }
 
-        if (args.length > 0) {
-            DJGuildLevel level = DJGuildLevel.fromName(args[0]);
+        DJGuildLevel level = DJGuildLevel.fromName(arguments[0]);
+        if (level == null) {
+            throw new IllegalArgumentException(arguments[0] + " is not a valid DJ level");
+        }
+        return level;
+    }
 
-            if (level != null && AudioHandler.getDefaultAudioHandler().canRunDJAction(avaire, message, level)) {
-                return stack.next();
-            }
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
+        return handle(message, stack, compileArguments(args), args);
+    }
 
-            return sendErrorMessage(message, stack);
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, Object compiledArguments, String[] args) {
+        if (!message.getChannelType().isGuild()) {
+            return stack.next();
         }
 
-        if (AudioHandler.getDefaultAudioHandler().canRunDJAction(avaire, message, DJGuildLevel.NORMAL)) {
+        DJGuildLevel level = (DJGuildLevel) compiledArguments;
+        if (AudioHandler.getDefaultAudioHandler().canRunDJAction(avaire, message, level)) {
             return stack.next();
         }
 
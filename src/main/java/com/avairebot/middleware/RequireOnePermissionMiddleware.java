@@ -24,6 +24,7 @@ package com.avairebot.middleware;
 import com.avairebot.AvaIre;
 import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.factories.MessageFactory;
+import com.avairebot.middleware.permission.PermissionArguments;
 import com.avairebot.middleware.permission.PermissionCheck;
 import com.avairebot.middleware.permission.PermissionCommon;
 import com.avairebot.middleware.permission.PermissionType;
@@ -60,20 +61,25 @@ public class RequireOnePermissionMiddleware extends Middleware {
         );
     }
 
+    @Override
+    public PermissionArguments compileArguments(@Nonnull String[] arguments) {
+        return PermissionArguments.fromArguments(arguments);
+    }
+
     @Override
     public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
+        return handle(message, stack, compileArguments(args), args);
+    }
+
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, Object compiledArguments, String[] args) {
         if (!message.getChannelType().isGuild()) {
             return stack.next();
         }
 
-        if (args.length < 2) {
-            AvaIre.getLogger().warn(String.format(
-                "\"%s\" is parsing invalid amount of arguments to the require middleware, 2 arguments are required.", stack.getCommand()
-            ));
-            return stack.next();
-        }
+        PermissionArguments arguments = (PermissionArguments) compiledArguments;
 
-        PermissionCheck permissionCheck = new PermissionCheck(message, args);
+        PermissionCheck permissionCheck = new PermissionCheck(message, arguments);
         if (!permissionCheck.check(stack)) {
             return false;
         }
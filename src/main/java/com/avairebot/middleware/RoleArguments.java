@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.middleware;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Role;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class RoleArguments {
+
+    /**
+     * The role name indexes for guilds, mapping the lower case role names
+     * to the sorted IDs of the roles with that name, the indexes are built the
+     * first time a role middleware is used in a guild, and invalidated
+     * whenever a role is created, deleted, or renamed in the guild.
+     */
+    private static final Cache<Long, Map<String, long[]>> guildRoleIndexes = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * The role names as they were given to the middleware.
+     */
+    private final String[] names;
+
+    /**
+     * The lower case role names, used to look up the role IDs in the role name index.
+     */
+    private final String[] keys;
+
+    /**
+     * Creates a new role arguments instance.
+     *
+     * @param names The names of the roles.
+     */
+    RoleArguments(@Nonnull String[] names) {
+        this.names = names;
+        this.keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = names[i].toLowerCase();
+        }
+    }
+
+    /**
+     * Compiles the given middleware arguments into a role arguments instance,
+     * every argument should be the name of a role, role names are
+     * matched case-insensitively against the roles in the guild.
+     *
+     * @param arguments The arguments given to the role middleware.
+     * @return The compiled role arguments.
+     * @throws IllegalArgumentException This is thrown if no role names are given.
+     */
+    @Nonnull
+    public static RoleArguments fromArguments(@Nonnull String[] arguments) {
+        if (arguments.length == 0) {
+            throw new IllegalArgumentException("At least one role name is required");
+        }
+        return new RoleArguments(arguments);
+    }
+
+    /**
+     * Invalidates the role name index for the guild with the given ID, this should
+     * be called whenever a role is created, deleted, or renamed in the guild.
+     *
+     * @param guildId The ID of the guild the role name index should be invalidated for.
+     */
+    public static void invalidate(long guildId) {
+        guildRoleIndexes.invalidate(guildId);
+    }
+
+    /**
+     * Gets the role names as they were given to the middleware.
+     *
+     * @return The role names.
+     */
+    public String[] getNames() {
+        return names;
+    }
+
+    /**
+     * Gets the name of the first role the given member doesn't have, if the member has
+     * more than one role with the same name as one of the required roles, having
+     * just one of them is enough to satisfy that role requirement.
+     *
+     * @param member The member that should be checked.
+     * @return The name of the first missing role, or <code>null</code> if the member has all the roles.
+     */
+    @Nullable
+    public String getFirstMissingRole(@Nonnull Member member) {
+        Map<String, long[]> index = getRoleIndex(member.getGuild());
+        List<Role> memberRoles = member.getRoles();
+
+        for (int i = 0; i < keys.length; i++) {
+            if (!hasAnyOf(memberRoles, index.get(keys[i]))) {
+                return names[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the given member has at least one of the roles.
+     *
+     * @param member The member that should be checked.
+     * @return <code>True</code> if the member has any of the roles, <code>False</code> otherwise.
+     */
+    public boolean hasAnyRole(@Nonnull Member member) {
+        Map<String, long[]> index = getRoleIndex(member.getGuild());
+        List<Role> memberRoles = member.getRoles();
+
+        for (String key : keys) {
+            if (hasAnyOf(memberRoles, index.get(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnyOf(List<Role> memberRoles, long[] roleIds) {
+        if (roleIds == null) {
+            return false;
+        }
+
+        for (int i = 0; i < memberRoles.size(); i++) {
+            if (Arrays.binarySearch(roleIds, memberRoles.get(i).getIdLong()) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, long[]> getRoleIndex(Guild guild) {
+        Map<String, long[]> index = guildRoleIndexes.getIfPresent(guild.getIdLong());
+        if (index != null) {
+            return index;
+        }
+
+        Map<String, List<Long>> roleIds = new HashMap<>();
+        for (Role role : guild.getRoles()) {
+            roleIds.computeIfAbsent(role.getName().toLowerCase(), name -> new ArrayList<>())
+                .add(role.getIdLong());
+        }
+
+        // The role IDs are stored as sorted primitive arrays, so checking the
+        // member roles against them doesn't box every role ID on lookup.
+        index = new HashMap<>();
+        for (Map.Entry<String, List<Long>> entry : roleIds.entrySet()) {
+            long[] ids = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            index.put(entry.getKey(), ids);
+        }
+
+        guildRoleIndexes.put(guild.getIdLong(), index);
+
+        return index;
+    }
+}
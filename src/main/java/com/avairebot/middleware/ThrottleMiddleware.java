@@ -27,11 +27,8 @@ import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.contracts.middleware.ThrottleMessage;
 import com.avairebot.factories.MessageFactory;
 import com.avairebot.metrics.Metrics;
+import com.avairebot.throttle.ThrottleEngine;
 import com.avairebot.time.Carbon;
-import com.avairebot.utilities.CacheUtil;
-import com.avairebot.utilities.NumberUtil;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import net.dv8tion.jda.core.entities.Message;
 
 import javax.annotation.Nonnull;
@@ -39,10 +36,11 @@ import java.util.concurrent.TimeUnit;
 
 public class ThrottleMiddleware extends Middleware {
 
-    public static final Cache<String, ThrottleEntity> cache = CacheBuilder.newBuilder()
-        .recordStats()
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    /**
+     * The throttle engine used to keep track of how many
+     * times commands has been used by users and servers.
+     */
+    public static final ThrottleEngine engine = new ThrottleEngine();
 
     public ThrottleMiddleware(AvaIre avaire) {
         super(avaire);
@@ -56,54 +54,77 @@ public class ThrottleMiddleware extends Middleware {
     }
 
     @Override
-    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
-        if (args.length < 3) {
-            AvaIre.getLogger().warn(String.format(
-                "\"%s\" is parsing invalid amount of arguments to the throttle middleware, 3 arguments are required.", stack.getCommand()
-            ));
-            return stack.next();
+    public ThrottleArguments compileArguments(@Nonnull String[] arguments) {
+        if (arguments.length < 3) {
+            throw new IllegalArgumentException("3 arguments are required, the throttle type, max attempts, and decay seconds");
         }
 
-        ThrottleType type = ThrottleType.fromName(args[0]);
+        ThrottleType type = null;
+        for (ThrottleType throttleType : ThrottleType.values()) {
+            if (throttleType.getName().equalsIgnoreCase(arguments[0])) {
+                type = throttleType;
+                break;
+            }
+        }
+
+        if (type == null) {
+            throw new IllegalArgumentException(arguments[0] + " is not a valid throttle type");
+        }
 
         try {
-            int maxAttempts = NumberUtil.parseInt(args[1], 2);
-            int decaySeconds = NumberUtil.parseInt(args[2], 5);
-
-            String fingerprint = type.generateCacheString(message, stack);
-
-            ThrottleEntity entity = getEntityFromCache(fingerprint, maxAttempts, decaySeconds);
-            if (entity.getHits() >= maxAttempts) {
-                Carbon expires = type.equals(ThrottleType.USER)
-                    ? avaire.getBlacklist().getRatelimit().hit(type, message.getAuthor().getIdLong())
-                    : avaire.getBlacklist().getRatelimit().hit(type, message.getGuild().getIdLong());
-
-                if (expires != null) {
-                    avaire.getBlacklist().getRatelimit().sendBlacklistMessage(
-                        type.equals(ThrottleType.USER) ? message.getAuthor() : message.getChannel(), expires
-                    );
-                    return false;
-                }
+            return new ThrottleArguments(type, Integer.parseInt(arguments[1]), Integer.parseInt(arguments[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid integers given for the max attempts and decay seconds, args: (%s, %s)", arguments[1], arguments[2]
+            ));
+        }
+    }
 
-                return cancelCommandThrottleRequest(message, stack, entity);
-            }
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, String... args) {
+        return handle(message, stack, compileArguments(args), args);
+    }
+
+    @Override
+    public boolean handle(@Nonnull Message message, @Nonnull MiddlewareStack stack, Object compiledArguments, String[] args) {
+        ThrottleArguments arguments = (ThrottleArguments) compiledArguments;
 
-            boolean response = stack.next();
+        ThrottleType type = arguments.getType();
+        if (!type.equals(ThrottleType.USER) && message.getGuild() == null) {
+            type = ThrottleType.USER;
+        }
 
-            if (response) {
-                entity.incrementHit();
+        int commandId = engine.getCommandId(getCacheFingerprint(stack));
+        long entityId = type.getEntityId(message);
+        long contextId = type.getContextId(message);
+        long periodMillis = arguments.getDecaySeconds() * 1000L;
+
+        long retryAfter = engine.tryAcquire(type.ordinal(), commandId, entityId, contextId, arguments.getMaxAttempts(), periodMillis);
+        if (retryAfter > 0) {
+            Carbon expires = type.equals(ThrottleType.USER)
+                ? avaire.getBlacklist().getRatelimit().hit(type, message.getAuthor().getIdLong())
+                : avaire.getBlacklist().getRatelimit().hit(type, message.getGuild().getIdLong());
+
+            if (expires != null) {
+                avaire.getBlacklist().getRatelimit().sendBlacklistMessage(
+                    type.equals(ThrottleType.USER) ? message.getAuthor() : message.getChannel(), expires
+                );
+                return false;
             }
 
-            return response;
-        } catch (NumberFormatException e) {
-            AvaIre.getLogger().warn(String.format(
-                "Invalid integers given to throttle command by \"%s\", args: (%s, %s)", stack.getCommand().getName(), args[1], args[2]
-            ));
+            return cancelCommandThrottleRequest(message, stack, retryAfter);
+        }
+
+        boolean response = stack.next();
+
+        if (!response) {
+            engine.release(type.ordinal(), commandId, entityId, contextId, arguments.getMaxAttempts(), periodMillis);
         }
-        return false;
+
+        return response;
     }
 
-    private boolean cancelCommandThrottleRequest(Message message, MiddlewareStack stack, ThrottleEntity entity) {
+    private boolean cancelCommandThrottleRequest(Message message, MiddlewareStack stack, long retryAfter) {
         Metrics.commandsRatelimited.labels(stack.getCommand().getClass().getSimpleName()).inc();
 
         return runMessageCheck(message, () -> {
@@ -120,7 +141,7 @@ public class ThrottleMiddleware extends Middleware {
 
             MessageFactory.makeWarning(message, throttleMessage)
                 .set("command", stack.getCommand().getName())
-                .set("time", ((entity.getTime() - System.currentTimeMillis()) / 1000) + 1)
+                .set("time", (retryAfter / 1000) + 1)
                 .set("prefix", stack.getCommand().generateCommandPrefix(message))
                 .queue(newMessage -> newMessage.delete().queueAfter(45, TimeUnit.SECONDS));
 
@@ -128,31 +149,26 @@ public class ThrottleMiddleware extends Middleware {
         });
     }
 
-    private ThrottleEntity getEntityFromCache(String fingerprint, int maxAttempts, int decaySeconds) {
-        ThrottleEntity entity = (ThrottleEntity) CacheUtil.getUncheckedUnwrapped(cache, fingerprint,
-            () -> new ThrottleEntity(maxAttempts, decaySeconds)
-        );
+    private String getCacheFingerprint(MiddlewareStack stack) {
+        CacheFingerprint annotation = stack.getCommand().getClass().getAnnotation(CacheFingerprint.class);
 
-        if (entity.hasExpired()) {
-            cache.invalidate(fingerprint);
-            return getEntityFromCache(fingerprint, maxAttempts, decaySeconds);
+        if (annotation == null || annotation.name().length() == 0) {
+            return stack.getCommand().getName();
         }
 
-        return entity;
+        return annotation.name();
     }
 
     public enum ThrottleType {
 
-        USER("user", "throttle.user.%s.%s.%s"),
-        CHANNEL("channel", "throttle.channel.%s.%s.%s"),
-        GUILD("guild", "throttle.guild.%s.%s");
+        USER("user"),
+        CHANNEL("channel"),
+        GUILD("guild");
 
         private final String name;
-        private final String cache;
 
-        ThrottleType(String name, String cache) {
+        ThrottleType(String name) {
             this.name = name;
-            this.cache = cache;
         }
 
         public static ThrottleType fromName(String name) {
@@ -168,77 +184,62 @@ public class ThrottleMiddleware extends Middleware {
             return name;
         }
 
-        public String generateCacheString(Message message, MiddlewareStack stack) {
-            if (!this.equals(ThrottleType.USER) && message.getGuild() == null) {
-                return USER.generateCacheString(message, stack);
-            }
-
-            String cacheFingerprint = generateCacheFingerprint(stack);
-
+        /**
+         * Gets the ID of the entity that should be throttled for the given message.
+         *
+         * @param message The message that invoked the middleware stack.
+         * @return The ID of the entity that should be throttled.
+         */
+        public long getEntityId(Message message) {
             switch (this) {
-                case USER:
-                    return String.format(cache,
-                        message.getGuild() == null ? "private" : message.getGuild().getId(),
-                        message.getAuthor().getId(),
-                        cacheFingerprint);
-
                 case CHANNEL:
-                    return String.format(cache,
-                        message.getGuild().getId(),
-                        message.getChannel().getId(),
-                        cacheFingerprint);
+                    return message.getChannel().getIdLong();
 
                 case GUILD:
-                    return String.format(cache,
-                        message.getGuild().getId(),
-                        cacheFingerprint);
+                    return message.getGuild().getIdLong();
 
                 default:
-                    return ThrottleType.USER.generateCacheString(message, stack);
+                    return message.getAuthor().getIdLong();
             }
         }
 
-        private String generateCacheFingerprint(MiddlewareStack stack) {
-            CacheFingerprint annotation = stack.getCommand().getClass().getAnnotation(CacheFingerprint.class);
-
-            if (annotation == null || annotation.name().length() == 0) {
-                return stack.getCommand().getName();
+        /**
+         * Gets the ID of the context the entity should be throttled in, users are
+         * throttled separately in every server, and in direct messages.
+         *
+         * @param message The message that invoked the middleware stack.
+         * @return The ID of the context the entity should be throttled in, or 0 if there is no context.
+         */
+        public long getContextId(Message message) {
+            if (this.equals(USER) && message.getGuild() != null) {
+                return message.getGuild().getIdLong();
             }
-
-            return annotation.name();
+            return 0L;
         }
     }
 
-    private static class ThrottleEntity {
+    public static class ThrottleArguments {
 
+        private final ThrottleType type;
         private final int maxAttempts;
-        private final long time;
-        private int hit;
+        private final int decaySeconds;
 
-        ThrottleEntity(int maxAttempts, int decaySeconds) {
-            this.time = System.currentTimeMillis() + (decaySeconds * 1000);
+        ThrottleArguments(ThrottleType type, int maxAttempts, int decaySeconds) {
+            this.type = type;
             this.maxAttempts = maxAttempts;
-            this.hit = 0;
+            this.decaySeconds = decaySeconds;
         }
 
-        public int getHits() {
-            return hit;
-        }
-
-        public void incrementHit() {
-            hit++;
+        public ThrottleType getType() {
+            return type;
         }
 
         public int getMaxAttempts() {
             return maxAttempts;
         }
 
-        public long getTime() {
-            return time;
-        }
-
-        public boolean hasExpired() {
-            return System.currentTimeMillis() > time;
+        public int getDecaySeconds() {
+            return decaySeconds;
         }
     }
 }
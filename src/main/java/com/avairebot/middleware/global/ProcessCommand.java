@@ -30,7 +30,6 @@ import com.avairebot.factories.MessageFactory;
 import com.avairebot.metrics.Metrics;
 import com.avairebot.middleware.MiddlewareStack;
 import com.avairebot.shared.SentryConstants;
-import com.avairebot.utilities.ArrayUtil;
 import com.avairebot.utilities.CheckPermissionUtil;
 import com.avairebot.utilities.RestActionUtil;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
@@ -80,7 +79,7 @@ public class ProcessCommand extends Middleware {
             });
         }
 
-        String[] arguments = ArrayUtil.toArguments(message.getContentRaw());
+        String[] arguments = stack.getParsedMessage().getArguments();
 
         AvaIre.getLogger().info(commandOutput
             .replace("%command%", stack.getCommand().getName())
@@ -103,7 +102,7 @@ public class ProcessCommand extends Middleware {
                     new CommandMessage(
                         stack.getCommandContainer(),
                         stack.getDatabaseEventHolder(),
-                        message,
+                        stack.getParsedMessage(),
                         stack.isMentionableCommand(),
                         container.getAliasArguments()
                     ),
@@ -118,7 +117,7 @@ public class ProcessCommand extends Middleware {
             return runCommand(stack, new CommandMessage(
                     stack.getCommandContainer(),
                     stack.getDatabaseEventHolder(),
-                    message,
+                    stack.getParsedMessage(),
                     stack.isMentionableCommand(),
                     new String[0]
                 ),
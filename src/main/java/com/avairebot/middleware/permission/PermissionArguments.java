@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.middleware.permission;
+
+import com.avairebot.permissions.Permissions;
+
+import javax.annotation.Nonnull;
+
+public class PermissionArguments {
+
+    /**
+     * The type of permission check that should be done.
+     */
+    private final PermissionType type;
+
+    /**
+     * The permissions that should be checked.
+     */
+    private final Permissions[] permissions;
+
+    /**
+     * Creates a new permission arguments instance.
+     *
+     * @param type        The type of permission check that should be done.
+     * @param permissions The permissions that should be checked.
+     */
+    PermissionArguments(@Nonnull PermissionType type, @Nonnull Permissions[] permissions) {
+        this.type = type;
+        this.permissions = permissions;
+    }
+
+    /**
+     * Compiles the given middleware arguments into a permission arguments instance, the
+     * first argument should be the permission type, and the rest of the arguments
+     * should be the permission nodes that should be checked.
+     *
+     * @param arguments The arguments given to the permission middleware.
+     * @return The compiled permission arguments.
+     * @throws IllegalArgumentException This is thrown if less than two arguments are given, or if
+     *                                  one of the permission nodes is not a valid permission.
+     */
+    @Nonnull
+    public static PermissionArguments fromArguments(@Nonnull String[] arguments) {
+        if (arguments.length < 2) {
+            throw new IllegalArgumentException("2 arguments are required, the permission type and at least one permission node");
+        }
+
+        Permissions[] permissions = new Permissions[arguments.length - 1];
+        for (int i = 1; i < arguments.length; i++) {
+            Permissions permission = Permissions.fromNode(arguments[i]);
+            if (permission == null) {
+                throw new IllegalArgumentException(arguments[i] + " is not a valid permission node");
+            }
+            permissions[i - 1] = permission;
+        }
+
+        return new PermissionArguments(PermissionType.fromName(arguments[0]), permissions);
+    }
+
+    /**
+     * Gets the type of permission check that should be done.
+     *
+     * @return The type of permission check that should be done.
+     */
+    public PermissionType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the permissions that should be checked.
+     *
+     * @return The permissions that should be checked.
+     */
+    public Permissions[] getPermissions() {
+        return permissions;
+    }
+}
@@ -24,23 +24,17 @@ package com.avairebot.middleware.permission;
 import com.avairebot.middleware.MiddlewareStack;
 import com.avairebot.permissions.Permissions;
 import net.dv8tion.jda.core.entities.Message;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class PermissionCheck {
 
-    private final static Logger log = LoggerFactory.getLogger(PermissionCheck.class);
-
     /**
-     * The arguments given to the middleware that should
-     * contain the permission type and permissions.
+     * The permissions that should be checked.
      */
-    private final String[] args;
+    private final Permissions[] permissions;
 
     /**
      * Determines if the user has the Administrator permissions,
@@ -83,12 +77,23 @@ public class PermissionCheck {
      *
      * @param message The message that invoked the middleware stack.
      * @param args    The arguments parsed to the middleware.
+     * @throws IllegalArgumentException This is thrown if the arguments are not valid permission arguments.
      */
     public PermissionCheck(@Nonnull Message message, String[] args) {
+        this(message, PermissionArguments.fromArguments(args));
+    }
+
+    /**
+     * Creates a new permission check instance for the current message.
+     *
+     * @param message   The message that invoked the middleware stack.
+     * @param arguments The compiled arguments for the middleware.
+     */
+    public PermissionCheck(@Nonnull Message message, @Nonnull PermissionArguments arguments) {
         this.isUserAdmin = message.getMember().hasPermission(Permissions.ADMINISTRATOR.getPermission());
-        this.type = PermissionType.fromName(args[0]);
+        this.type = arguments.getType();
+        this.permissions = arguments.getPermissions();
         this.message = message;
-        this.args = args;
 
         if (isUserAdmin) {
             userHasAtleastOne = true;
@@ -99,18 +104,10 @@ public class PermissionCheck {
      * Checks the middleware stack permissions.
      *
      * @param stack The middleware stack that was built for the current message.
-     * @return <code>True</code> if the check ran successfully, <code>False</code> if an invalid permission node was given.
+     * @return <code>True</code> if the check ran successfully.
      */
     public boolean check(@Nonnull MiddlewareStack stack) {
-        String[] permissions = Arrays.copyOfRange(args, 1, args.length);
-
-        for (String permissionNode : permissions) {
-            Permissions permission = Permissions.fromNode(permissionNode);
-            if (permission == null) {
-                log.warn(String.format("Invalid permission node given for the \"%s\" command: %s", stack.getCommand().getName(), permissionNode));
-                return false;
-            }
-
+        for (Permissions permission : permissions) {
             if (!isUserAdmin && type.isCheckUser() && !message.getMember().hasPermission(permission.getPermission())) {
                 missingUserPermissions.add(permission);
             }
@@ -29,6 +29,7 @@ import com.avairebot.config.Configuration;
 import com.avairebot.config.YamlConfiguration;
 import com.avairebot.contracts.commands.Command;
 import com.avairebot.contracts.database.migrations.Migration;
+import com.avairebot.contracts.level.LevelCurve;
 import com.avairebot.contracts.middleware.Middleware;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.migrate.Migrations;
@@ -118,6 +119,17 @@ public abstract class JavaPlugin {
         return CategoryHandler.addCategory(avaire, name, defaultPrefix);
     }
 
+    /**
+     * Registers the given level curve, replacing the level curve used to calculate the
+     * experience needed for each level, only one level curve can be used at a
+     * time, so the last level curve that is registered will be used.
+     *
+     * @param levelCurve The level curve that should be used.
+     */
+    public final void registerLevelCurve(LevelCurve levelCurve) {
+        avaire.getLevelManager().setLevelCurve(levelCurve);
+    }
+
     /**
      * Registers database migration to the migration containers, the migrations
      * will be used in {@link Migrations#up() up()}, {@link Migrations#down() down()} and {@link Migrations#rollback(int) rollback(int)}
@@ -29,7 +29,9 @@ import com.avairebot.language.I18n;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,11 +55,41 @@ public class DeleteUnusedPlayerDataJob extends Job {
         } catch (SQLException ignored) {
         }
 
-        try {
-            avaire.getDatabase().queryUpdate(I18n.format(
-                "DELETE `{0}` FROM `{0}` LEFT JOIN `{1}` ON `{0}`.`guild_id` = `{1}`.`id` WHERE `{1}`.`id` IS NULL;",
-                Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GUILD_TABLE_NAME
-            ));
+        try (Connection connection = avaire.getDatabase().getConnection().getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            // The global experience totals are materialized from the experience rows, so the
+            // experience from the rows that are about to be deleted is subtracted from the
+            // totals in the same transaction, the rows are locked first so the sync task
+            // can't add experience to them between the subtraction and the delete.
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery(I18n.format(
+                    "SELECT `{0}`.`user_id` FROM `{0}` LEFT JOIN `{1}` ON `{0}`.`guild_id` = `{1}`.`id` WHERE `{1}`.`id` IS NULL FOR UPDATE;",
+                    Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GUILD_TABLE_NAME
+                )).close();
+
+                statement.executeUpdate(I18n.format(
+                    "UPDATE `{2}` INNER JOIN (" +
+                        "SELECT `{0}`.`user_id`, SUM(`{0}`.`global_experience`) - (COUNT(`{0}`.`user_id`) * 100) AS `removed` " +
+                        "FROM `{0}` LEFT JOIN `{1}` ON `{0}`.`guild_id` = `{1}`.`id` WHERE `{1}`.`id` IS NULL GROUP BY `{0}`.`user_id`" +
+                        ") AS `unused` ON `{2}`.`user_id` = `unused`.`user_id` " +
+                        "SET `{2}`.`experience` = `{2}`.`experience` - `unused`.`removed`;",
+                    Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GUILD_TABLE_NAME, Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME
+                ));
+
+                statement.executeUpdate(I18n.format(
+                    "DELETE `{0}` FROM `{0}` LEFT JOIN `{1}` ON `{0}`.`guild_id` = `{1}`.`id` WHERE `{1}`.`id` IS NULL;",
+                    Constants.PLAYER_EXPERIENCE_TABLE_NAME, Constants.GUILD_TABLE_NAME
+                ));
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
         } catch (SQLException e) {
             log.error("Failed to delete unused player data records, error: {}", e.getMessage());
         }
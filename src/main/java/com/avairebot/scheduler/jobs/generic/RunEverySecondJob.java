@@ -27,6 +27,7 @@ import com.avairebot.scheduler.tasks.ApplicationShutdownTask;
 import com.avairebot.scheduler.tasks.DrainReactionRoleQueueTask;
 import com.avairebot.scheduler.tasks.DrainVoteQueueTask;
 import com.avairebot.scheduler.tasks.DrainWeatherQueueTask;
+import com.avairebot.scheduler.tasks.SyncGuildUpdatesWithDatabaseTask;
 
 import java.util.concurrent.TimeUnit;
 
@@ -36,6 +37,7 @@ public class RunEverySecondJob extends Job {
     private final ApplicationShutdownTask shutdownTask = new ApplicationShutdownTask();
     private final DrainWeatherQueueTask drainWeatherQueueTask = new DrainWeatherQueueTask();
     private final DrainReactionRoleQueueTask reactionRoleQueueTask = new DrainReactionRoleQueueTask();
+    private final SyncGuildUpdatesWithDatabaseTask syncGuildUpdatesTask = new SyncGuildUpdatesWithDatabaseTask();
 
     public RunEverySecondJob(AvaIre avaire) {
         super(avaire, 0, 1, TimeUnit.SECONDS);
@@ -43,6 +45,6 @@ public class RunEverySecondJob extends Job {
 
     @Override
     public void run() {
-        handleTask(emptyVoteQueueTask, shutdownTask, drainWeatherQueueTask, reactionRoleQueueTask);
+        handleTask(emptyVoteQueueTask, shutdownTask, drainWeatherQueueTask, reactionRoleQueueTask, syncGuildUpdatesTask);
     }
 }
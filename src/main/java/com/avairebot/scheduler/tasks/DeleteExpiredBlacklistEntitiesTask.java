@@ -32,9 +32,6 @@ public class DeleteExpiredBlacklistEntitiesTask implements Task {
             return;
         }
 
-        synchronized (avaire.getBlacklist().getBlacklistEntities()) {
-            avaire.getBlacklist().getBlacklistEntities()
-                .removeIf(entity -> !entity.isBlacklisted());
-        }
+        avaire.getBlacklist().removeExpiredEntities();
     }
 }
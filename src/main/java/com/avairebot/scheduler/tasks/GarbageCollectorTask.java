@@ -33,6 +33,8 @@ import com.avairebot.contracts.commands.InteractionCommand;
 import com.avairebot.contracts.scheduler.Task;
 import com.avairebot.handlers.adapter.JDAStateEventAdapter;
 import com.avairebot.handlers.adapter.MessageEventAdapter;
+import com.avairebot.metrics.Metrics;
+import com.avairebot.middleware.ThrottleMiddleware;
 import com.avairebot.scheduler.jobs.LavalinkGarbageNodeCollectorJob;
 import lavalink.client.io.Link;
 import net.dv8tion.jda.core.managers.AudioManager;
@@ -141,6 +143,7 @@ public class GarbageCollectorTask implements Task {
         synchronized (Ratelimit.cache) {
             Ratelimit.cache.cleanUp();
         }
+        Ratelimit.removeDecayedPunishments();
 
         // interaction-lottery
         synchronized (InteractionCommand.cache) {
@@ -152,6 +155,10 @@ public class GarbageCollectorTask implements Task {
             JDAStateEventAdapter.cache.cleanUp();
         }
 
+        // command-throttles
+        ThrottleMiddleware.engine.expire();
+        Metrics.throttleEntries.set(ThrottleMiddleware.engine.size());
+
         // lavalink-destroy-cleanup
         synchronized (LavalinkGarbageNodeCollectorJob.cache) {
             LavalinkGarbageNodeCollectorJob.cache.cleanUp();
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.scheduler.tasks;
+
+import com.avairebot.AvaIre;
+import com.avairebot.contracts.scheduler.Task;
+import com.avairebot.database.WriteBehindBuffer;
+import com.avairebot.database.controllers.GuildController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SyncGuildUpdatesWithDatabaseTask implements Task {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncGuildUpdatesWithDatabaseTask.class);
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    @Override
+    public void handle(AvaIre avaire) {
+        WriteBehindBuffer buffer = GuildController.getGuildUpdates();
+        if (!buffer.hasDueWrites() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+
+        // The updates are written on the database executor so a slow database
+        // doesn't hold up the other tasks that runs every second.
+        avaire.getDatabase().getExecutor().submit(() -> buffer.flush(avaire.getDatabase(), false))
+            .whenComplete((rows, throwable) -> {
+                flushing.set(false);
+
+                if (throwable instanceof SQLException) {
+                    log.error("An SQL exception was thrown while writing buffered guild updates: ", throwable);
+                } else if (throwable != null) {
+                    log.error("Failed to write buffered guild updates: {}", throwable.getMessage(), throwable);
+                }
+            });
+    }
+}
@@ -24,6 +24,7 @@ package com.avairebot.scheduler.tasks;
 import com.avairebot.AvaIre;
 import com.avairebot.Constants;
 import com.avairebot.contracts.scheduler.Task;
+import com.avairebot.database.connections.SQLite;
 import com.avairebot.level.ExperienceEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,8 +32,9 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SyncPlayerExperienceWithDatabaseTask implements Task {
 
@@ -44,10 +46,9 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
             return;
         }
 
-        List<ExperienceEntity> experienceQueue;
-        synchronized (avaire.getLevelManager().getExperienceQueue()) {
-            experienceQueue = new ArrayList<>(avaire.getLevelManager().getExperienceQueue());
-            avaire.getLevelManager().getExperienceQueue().clear();
+        List<ExperienceEntity> experienceQueue = avaire.getLevelManager().getExperienceQueue().drain();
+        if (experienceQueue.isEmpty()) {
+            return;
         }
 
         Connection connection = null;
@@ -60,8 +61,14 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
 
             log.debug("Starting \"Player Experience\" update task with query: " + query);
 
+            Map<Long, Long> globalExperience = new HashMap<>();
+            for (ExperienceEntity entity : experienceQueue) {
+                globalExperience.merge(entity.getUserId(), (long) entity.getExperience(), Long::sum);
+            }
+
             boolean autoCommit = connection.getAutoCommit();
-            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(query);
+                 PreparedStatement globalStatement = connection.prepareStatement(createGlobalExperienceQuery(avaire))) {
                 connection.setAutoCommit(false);
 
                 for (ExperienceEntity entity : experienceQueue) {
@@ -72,7 +79,16 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
                     preparedStatement.addBatch();
                 }
 
+                // Applies the same experience to the global experience totals, summed up per user,
+                // so the global leaderboard never has to sum up the experience table itself.
+                for (Map.Entry<Long, Long> entry : globalExperience.entrySet()) {
+                    globalStatement.setString(1, "" + entry.getKey());
+                    globalStatement.setLong(2, entry.getValue());
+                    globalStatement.addBatch();
+                }
+
                 preparedStatement.executeBatch();
+                globalStatement.executeBatch();
                 connection.commit();
             }
 
@@ -90,9 +106,32 @@ public class SyncPlayerExperienceWithDatabaseTask implements Task {
                     logSQLException(e1);
                 }
             }
+        } finally {
+            // Closing the connection returns it to the connection pool.
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logSQLException(e);
+                }
+            }
         }
     }
 
+    private String createGlobalExperienceQuery(AvaIre avaire) throws SQLException {
+        if (avaire.getDatabase().getConnection() instanceof SQLite) {
+            return String.format(
+                "INSERT INTO `%s` (`user_id`, `experience`) VALUES (?, ?) ON CONFLICT (`user_id`) DO UPDATE SET `experience` = `experience` + excluded.`experience`",
+                Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME
+            );
+        }
+
+        return String.format(
+            "INSERT INTO `%s` (`user_id`, `experience`) VALUES (?, ?) ON DUPLICATE KEY UPDATE `experience` = `experience` + VALUES(`experience`)",
+            Constants.PLAYER_GLOBAL_EXPERIENCE_TABLE_NAME
+        );
+    }
+
     private void logSQLException(SQLException e) {
         log.error("An SQL exception was thrown while updating player experience: ", e);
     }
@@ -89,6 +89,15 @@ public class SyncPlayerUpdateReferencesWithDatabaseTask implements Task {
                     logSQLException(e1);
                 }
             }
+        } finally {
+            // Closing the connection returns it to the connection pool.
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logSQLException(e);
+                }
+            }
         }
     }
 
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.throttle;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+final class ThrottleBucket {
+
+    /**
+     * The theoretical arrival time used to mark buckets that has been
+     * removed from the engine, buckets with this value can't be
+     * updated and should be looked up again.
+     */
+    static final long REMOVED = Long.MIN_VALUE;
+
+    private static final AtomicLongFieldUpdater<ThrottleBucket> ARRIVAL_TIME =
+        AtomicLongFieldUpdater.newUpdater(ThrottleBucket.class, "arrivalTime");
+
+    final int scope;
+    final int commandId;
+    final long entityId;
+    final long contextId;
+    final int hash;
+
+    /**
+     * The theoretical arrival time for the next request in milliseconds,
+     * requests are allowed as long as the arrival time is no further
+     * into the future than the throttle period.
+     */
+    private volatile long arrivalTime;
+
+    ThrottleBucket(int scope, int commandId, long entityId, long contextId, int hash) {
+        this.scope = scope;
+        this.commandId = commandId;
+        this.entityId = entityId;
+        this.contextId = contextId;
+        this.hash = hash;
+    }
+
+    boolean matches(int scope, int commandId, long entityId, long contextId) {
+        return this.entityId == entityId
+            && this.contextId == contextId
+            && this.commandId == commandId
+            && this.scope == scope;
+    }
+
+    long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    boolean compareAndSetArrivalTime(long expect, long update) {
+        return ARRIVAL_TIME.compareAndSet(this, expect, update);
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.throttle;
+
+import com.avairebot.time.TimingWheel;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A rate-limiting engine that can be used by middlewares and plugins to throttle
+ * actions, throttles are keyed by a scope, command ID, entity ID, and context
+ * ID, and uses the generic cell rate algorithm, so every throttle is stored
+ * as a single timestamp that is updated atomically, idle throttles are
+ * expired through a hashed timing wheel that is advanced as the
+ * engine is being used.
+ */
+public class ThrottleEngine {
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private static final long DEFAULT_TICK_MILLIS = 1000L;
+
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final TimingWheel<ThrottleBucket> wheel;
+    private final AtomicBoolean advancing = new AtomicBoolean(false);
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    private final Map<String, Integer> commandIds = new ConcurrentHashMap<>();
+    private volatile CommandCounter[] counters = new CommandCounter[0];
+
+    /**
+     * Creates a new throttle engine using the system clock.
+     */
+    public ThrottleEngine() {
+        this(DEFAULT_STRIPES, DEFAULT_WHEEL_SIZE, DEFAULT_TICK_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new throttle engine.
+     *
+     * @param stripes    The amount of stripes the throttle table should be split into, must be a power of two.
+     * @param wheelSize  The amount of slots in the expiry timing wheel, must be a power of two.
+     * @param tickMillis The amount of milliseconds between each tick of the expiry timing wheel.
+     * @param clock      The clock used to get the current time in milliseconds.
+     */
+    public ThrottleEngine(int stripes, int wheelSize, long tickMillis, @Nonnull LongSupplier clock) {
+        if (Integer.bitCount(stripes) != 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("The amount of stripes and the wheel size must be a power of two");
+        }
+
+        this.clock = clock;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+
+        this.stripeMask = stripes - 1;
+        this.wheel = new TimingWheel<>(wheelSize, tickMillis, clock.getAsLong());
+    }
+
+    /**
+     * Gets the ID for the command with the given name, the ID is used as part of the throttle key
+     * and for looking up the hit and deny counters, commands with the same name will share
+     * the same ID, so they will also share throttles and counters.
+     *
+     * @param name The name of the command.
+     * @return The ID of the command with the given name.
+     */
+    public int getCommandId(@Nonnull String name) {
+        Integer id = commandIds.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (commandIds) {
+            id = commandIds.get(name);
+            if (id != null) {
+                return id;
+            }
+
+            CommandCounter[] newCounters = new CommandCounter[counters.length + 1];
+            System.arraycopy(counters, 0, newCounters, 0, counters.length);
+            newCounters[counters.length] = new CommandCounter();
+
+            counters = newCounters;
+            commandIds.put(name, counters.length - 1);
+
+            return counters.length - 1;
+        }
+    }
+
+    /**
+     * Attempts to acquire a permit from the throttle with the given key, at most the given
+     * amount of permits can be acquired within the given period, the permits are
+     * spread out evenly over the period, so a single permit is freed up
+     * every {@code periodMillis / maxAttempts} milliseconds.
+     *
+     * @param scope        The scope of the throttle, like a user, channel, or guild throttle.
+     * @param commandId    The ID of the command being throttled, see {@link #getCommandId(String)}.
+     * @param entityId     The ID of the entity being throttled.
+     * @param contextId    The ID of the context the entity is being throttled in, or 0 if there is no context.
+     * @param maxAttempts  The max amount of permits that can be acquired within the period.
+     * @param periodMillis The period in milliseconds.
+     * @return <code>0</code> if the permit was acquired, otherwise the amount of milliseconds until the next permit is available.
+     */
+    public long tryAcquire(int scope, int commandId, long entityId, long contextId, int maxAttempts, long periodMillis) {
+        long now = clock.getAsLong();
+        advance(now);
+
+        long interval = getInterval(maxAttempts, periodMillis);
+        int hash = hash(scope, commandId, entityId, contextId);
+
+        while (true) {
+            ThrottleBucket bucket = getStripe(hash).get(scope, commandId, entityId, contextId, hash);
+            if (bucket == null) {
+                bucket = getStripe(hash).getOrCreate(scope, commandId, entityId, contextId, hash, now + interval);
+            }
+
+            long arrivalTime = bucket.getArrivalTime();
+            if (arrivalTime == ThrottleBucket.REMOVED) {
+                continue;
+            }
+
+            long nextArrivalTime = Math.max(arrivalTime, now) + interval;
+            if (nextArrivalTime - now > periodMillis) {
+                CommandCounter counter = getCounter(commandId);
+                if (counter != null) {
+                    counter.denies.increment();
+                }
+
+                return nextArrivalTime - periodMillis - now;
+            }
+
+            if (bucket.compareAndSetArrivalTime(arrivalTime, nextArrivalTime)) {
+                CommandCounter counter = getCounter(commandId);
+                if (counter != null) {
+                    counter.hits.increment();
+                }
+
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit that was previously acquired from the throttle with the given
+     * key, this can be used if the throttled action didn't go through, the max
+     * attempts and period must match what was used to acquire the permit.
+     *
+     * @param scope        The scope of the throttle, like a user, channel, or guild throttle.
+     * @param commandId    The ID of the command being throttled, see {@link #getCommandId(String)}.
+     * @param entityId     The ID of the entity being throttled.
+     * @param contextId    The ID of the context the entity is being throttled in, or 0 if there is no context.
+     * @param maxAttempts  The max amount of permits that can be acquired within the period.
+     * @param periodMillis The period in milliseconds.
+     */
+    public void release(int scope, int commandId, long entityId, long contextId, int maxAttempts, long periodMillis) {
+        int hash = hash(scope, commandId, entityId, contextId);
+
+        ThrottleBucket bucket = getStripe(hash).get(scope, commandId, entityId, contextId, hash);
+        if (bucket == null) {
+            return;
+        }
+
+        long interval = getInterval(maxAttempts, periodMillis);
+        while (true) {
+            long arrivalTime = bucket.getArrivalTime();
+            if (arrivalTime == ThrottleBucket.REMOVED) {
+                return;
+            }
+
+            if (bucket.compareAndSetArrivalTime(arrivalTime, arrivalTime - interval)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of permits that has been acquired for the command with the given ID.
+     *
+     * @param commandId The ID of the command.
+     * @return The amount of permits that has been acquired for the command.
+     */
+    public long getHits(int commandId) {
+        CommandCounter counter = getCounter(commandId);
+        return counter == null ? 0L : counter.hits.sum();
+    }
+
+    /**
+     * Gets the amount of permits that has been denied for the command with the given ID.
+     *
+     * @param commandId The ID of the command.
+     * @return The amount of permits that has been denied for the command.
+     */
+    public long getDenies(int commandId) {
+        CommandCounter counter = getCounter(commandId);
+        return counter == null ? 0L : counter.denies.sum();
+    }
+
+    /**
+     * Gets the IDs of the commands that has been registered with the engine,
+     * mapped by the name of the command, the returned map is read-only.
+     *
+     * @return The command IDs, mapped by the name of the command.
+     */
+    public Map<String, Integer> getCommandIds() {
+        return Collections.unmodifiableMap(commandIds);
+    }
+
+    /**
+     * Gets the amount of throttles currently stored in the engine.
+     *
+     * @return The amount of throttles currently stored in the engine.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Expires any idle throttles, this is done automatically as the engine
+     * is being used, but can be invoked to clean up throttles while
+     * the engine isn't being used.
+     */
+    public void expire() {
+        advance(clock.getAsLong());
+    }
+
+    private void advance(long now) {
+        if (!wheel.isBehind(now) || !advancing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            wheel.advance(now, bucket -> {
+                long arrivalTime = bucket.getArrivalTime();
+
+                if (arrivalTime > now) {
+                    wheel.schedule(bucket, arrivalTime);
+                } else if (bucket.compareAndSetArrivalTime(arrivalTime, ThrottleBucket.REMOVED)) {
+                    getStripe(bucket.hash).remove(bucket);
+                } else {
+                    // The bucket was updated while we were expiring it,
+                    // so we'll check it again on the next tick.
+                    wheel.schedule(bucket, now);
+                }
+            });
+        } finally {
+            advancing.set(false);
+        }
+    }
+
+    private Stripe getStripe(int hash) {
+        return stripes[(hash >>> 24) & stripeMask];
+    }
+
+    private CommandCounter getCounter(int commandId) {
+        CommandCounter[] counters = this.counters;
+        return commandId >= 0 && commandId < counters.length ? counters[commandId] : null;
+    }
+
+    private static long getInterval(int maxAttempts, long periodMillis) {
+        return Math.max(1L, periodMillis / Math.max(1, maxAttempts));
+    }
+
+    private static int hash(int scope, int commandId, long entityId, long contextId) {
+        long hash = entityId * 0x9E3779B97F4A7C15L;
+        hash ^= contextId * 0xC2B2AE3D27D4EB4FL;
+        hash ^= (((long) commandId << 32) | scope) * 0x165667B19E3779F9L;
+        hash ^= hash >>> 29;
+
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static class CommandCounter {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder denies = new LongAdder();
+    }
+
+    /**
+     * A single stripe of the throttle table, each stripe is an open-addressed table with
+     * linear probing, lookups are done without locking, while adding and removing
+     * buckets is done while holding the stripe lock, if a lookup misses a
+     * bucket while it is being moved, the bucket is looked up again
+     * while holding the lock before a new bucket is created.
+     */
+    private class Stripe {
+
+        private volatile ThrottleBucket[] table = new ThrottleBucket[16];
+        private int count = 0;
+
+        ThrottleBucket get(int scope, int commandId, long entityId, long contextId, int hash) {
+            ThrottleBucket[] table = this.table;
+            int mask = table.length - 1;
+
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                ThrottleBucket bucket = table[index];
+                if (bucket == null) {
+                    return null;
+                }
+
+                if (bucket.hash == hash && bucket.matches(scope, commandId, entityId, contextId)) {
+                    return bucket;
+                }
+            }
+        }
+
+        synchronized ThrottleBucket getOrCreate(int scope, int commandId, long entityId, long contextId, int hash, long expireAt) {
+            ThrottleBucket bucket = get(scope, commandId, entityId, contextId, hash);
+            if (bucket != null) {
+                return bucket;
+            }
+
+            if ((count + 1) * 2 > table.length) {
+                resize();
+            }
+
+            bucket = new ThrottleBucket(scope, commandId, entityId, contextId, hash);
+            insert(table, bucket);
+            count++;
+            size.incrementAndGet();
+
+            wheel.schedule(bucket, expireAt);
+
+            return bucket;
+        }
+
+        synchronized void remove(ThrottleBucket bucket) {
+            ThrottleBucket[] table = this.table;
+            int mask = table.length - 1;
+
+            int index = bucket.hash & mask;
+            while (table[index] != bucket) {
+                if (table[index] == null) {
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+
+            // Shifts the following buckets in the probe sequence backwards, so
+            // the table never has gaps in the middle of a probe sequence.
+            int gap = index;
+            for (int next = (gap + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+                int home = table[next].hash & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    table[gap] = table[next];
+                    gap = next;
+                }
+            }
+            table[gap] = null;
+
+            count--;
+            size.decrementAndGet();
+        }
+
+        private void resize() {
+            ThrottleBucket[] resized = new ThrottleBucket[table.length * 2];
+            for (ThrottleBucket bucket : table) {
+                if (bucket != null) {
+                    insert(resized, bucket);
+                }
+            }
+            table = resized;
+        }
+
+        private void insert(ThrottleBucket[] table, ThrottleBucket bucket) {
+            int mask = table.length - 1;
+
+            int index = bucket.hash & mask;
+            while (table[index] != null) {
+                index = (index + 1) & mask;
+            }
+            table[index] = bucket;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.time;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel, entries are scheduled into a slot in the wheel
+ * based on the time they should be checked at, and the wheel hands
+ * the entries back once it's advanced past their slot, entries
+ * scheduled further into the future than a full rotation of
+ * the wheel is handed back once every rotation.
+ *
+ * @param <T> The type of entries the wheel holds.
+ */
+public class TimingWheel<T> {
+
+    /**
+     * The slots in the wheel, each slot holds the entries that
+     * should be checked when the wheel reaches the slot.
+     */
+    private final ConcurrentLinkedQueue<T>[] slots;
+
+    /**
+     * The mask used to get the slot for a given tick.
+     */
+    private final int mask;
+
+    /**
+     * The amount of milliseconds between each tick.
+     */
+    private final long tickMillis;
+
+    /**
+     * The last tick the wheel was advanced to.
+     */
+    private volatile long lastTick;
+
+    /**
+     * Creates a new hashed timing wheel.
+     *
+     * @param size       The amount of slots in the wheel, must be a power of two.
+     * @param tickMillis The amount of milliseconds between each tick.
+     * @param now        The current time in milliseconds.
+     * @throws IllegalArgumentException This is thrown if the given size is not a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int size, long tickMillis, long now) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("The size of the timing wheel must be a power of two");
+        }
+
+        this.slots = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+
+        this.mask = size - 1;
+        this.tickMillis = tickMillis;
+        this.lastTick = now / tickMillis;
+    }
+
+    /**
+     * Schedules the given entry to be checked once the given time has
+     * been reached, entries scheduled further into the future than a
+     * full rotation of the wheel is checked once every rotation.
+     *
+     * @param entry    The entry that should be scheduled.
+     * @param expireAt The time in milliseconds the entry should be checked at.
+     */
+    public void schedule(T entry, long expireAt) {
+        long tick = Math.max(expireAt / tickMillis, lastTick + 1);
+
+        slots[(int) (tick & mask)].add(entry);
+    }
+
+    /**
+     * Checks if the wheel is behind the given time.
+     *
+     * @param now The current time in milliseconds.
+     * @return <code>True</code> if the wheel has one or more ticks to advance, <code>False</code> otherwise.
+     */
+    public boolean isBehind(long now) {
+        return now / tickMillis > lastTick;
+    }
+
+    /**
+     * Advances the wheel to the given time, handing every entry in the passed
+     * slots to the given consumer, this should only be called by one
+     * thread at a time.
+     *
+     * @param now      The current time in milliseconds.
+     * @param consumer The consumer that should handle the entries in the passed slots.
+     */
+    public void advance(long now, Consumer<T> consumer) {
+        long tick = now / tickMillis;
+        if (tick - lastTick > slots.length) {
+            lastTick = tick - slots.length;
+        }
+
+        while (lastTick < tick) {
+            long current = lastTick + 1;
+            lastTick = current;
+
+            // Entries that are rescheduled into the slot we're currently handling is
+            // left for the next rotation, so we only process the entries that
+            // was in the slot when we started handling it.
+            ConcurrentLinkedQueue<T> slot = slots[(int) (current & mask)];
+            for (int remaining = slot.size(); remaining > 0; remaining--) {
+                T entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                consumer.accept(entry);
+            }
+        }
+    }
+}
@@ -24,17 +24,18 @@ package com.avairebot.utilities;
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ArrayUtil {
 
-    private static final Pattern argumentsRegEX = Pattern.compile("([^\"]\\S*|\".+?\")\\s*", Pattern.MULTILINE);
-
     /**
      * Parses the given string into multiple arguments using "smart" separation
      * that will adhere to quotes, allowing multiple words to act as one
      * argument as long as they're wrapped in quotes.
+     * <p>
+     * The string is tokenized in a single pass, a token is either a quoted
+     * string on a single line, or a run of non-whitespace characters,
+     * quotes are stripped from the tokens and any surrounding
+     * whitespace is trimmed away.
      *
      * @param string The string that should be parsed into an arguments array.
      * @return The arguments string array.
@@ -42,13 +43,77 @@ public class ArrayUtil {
     public static String[] toArguments(@Nonnull String string) {
         List<String> arguments = new ArrayList<>();
 
-        Matcher matcher = argumentsRegEX.matcher(string);
-        while (matcher.find()) {
-            arguments.add(matcher.group(0)
-                .replaceAll("\"", "")
-                .trim());
+        int length = string.length();
+        int index = 0;
+
+        while (index < length) {
+            int end;
+            if (string.charAt(index) == '"') {
+                end = findClosingQuote(string, index);
+                if (end == -1) {
+                    // Unmatched quotes are skipped, the rest of the
+                    // word will be parsed as a normal argument.
+                    index++;
+                    continue;
+                }
+                end++;
+            } else {
+                end = index + 1;
+                while (end < length && !isWhitespace(string.charAt(end))) {
+                    end++;
+                }
+            }
+
+            while (end < length && isWhitespace(string.charAt(end))) {
+                end++;
+            }
+
+            arguments.add(stripQuotes(string, index, end));
+            index = end;
         }
 
         return arguments.toArray(new String[0]);
     }
+
+    /**
+     * Finds the closing quote for the quote at the given index, the quoted
+     * string must contain at least one character, and can't span
+     * multiple lines.
+     *
+     * @param string The string that should be searched.
+     * @param start  The index of the opening quote.
+     * @return The index of the closing quote, or <code>-1</code> if there are no closing quote.
+     */
+    private static int findClosingQuote(String string, int start) {
+        for (int i = start + 1; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (isLineTerminator(c)) {
+                return -1;
+            }
+
+            if (c == '"' && i > start + 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String stripQuotes(String string, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c != '"') {
+                builder.append(c);
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
 }
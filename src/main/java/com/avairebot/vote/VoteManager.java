@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.DelayQueue;
@@ -243,36 +244,28 @@ public class VoteManager {
         }
 
         try {
-            Collection collection = avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                .where("user_id", userId).take(1).get();
-
-            if (collection.isEmpty()) {
-                avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                    .insert(statement -> {
-                        statement.set("user_id", userId);
-                        statement.set("expires_in", voteLog.get(userId).getCarbon().toDayDateTimeString());
-                        statement.set("points", 1);
-                        statement.set("points_total", 1);
-                    });
-
-                voteLog.get(userId).setVotePoints(1);
-
-                return;
-            }
+            String expiresIn = voteLog.get(userId).getCarbon().toDayDateTimeString();
 
             avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
-                .useAsync(true)
-                .where("user_id", userId)
-                .update(statement -> {
-                    statement.set("expires_in", voteLog.get(userId).getCarbon().toDayDateTimeString());
+                .upsert(Collections.singletonList("user_id"), statement -> {
+                    statement.set("user_id", userId);
+                    statement.set("expires_in", expiresIn);
+                    statement.set("points", 1);
+                    statement.set("points_total", 1);
+                }, statement -> {
+                    statement.set("expires_in", expiresIn);
                     statement.setRaw("points", "`points` + 1");
                     statement.setRaw("points_total", "`points_total` + 1");
                 });
 
+            Collection collection = avaire.getDatabase().newQueryBuilder(Constants.VOTES_TABLE_NAME)
+                .select("points", "opt_in")
+                .where("user_id", userId).take(1).get();
+
             VoteCacheEntity voteEntity = voteLog.get(userId);
 
-            voteEntity.setVotePoints(collection.first().getInt("points", 1) + 1);
-            voteEntity.setOptIn(collection.first().getBoolean("opt_in", true));
+            voteEntity.setVotePoints(collection.isEmpty() ? 1 : collection.first().getInt("points", 1));
+            voteEntity.setOptIn(collection.isEmpty() || collection.first().getBoolean("opt_in", true));
         } catch (SQLException e) {
             log.error("An SQLException was thrown while updating user vote information: ", e);
         }
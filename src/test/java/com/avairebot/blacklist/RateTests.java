@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.blacklist;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateTests extends BaseTest {
+
+    @Test
+    public void testHitsAreCountedWithinTheHitTime() {
+        Rate rate = new Rate(1L, 5, 1000L);
+
+        assertEquals(1, rate.hit(10000L));
+        assertEquals(2, rate.hit(10200L));
+        assertEquals(3, rate.hit(10400L));
+
+        assertEquals(2, rate.getHits(11100L));
+        assertEquals(0, rate.getHits(11400L));
+    }
+
+    @Test
+    public void testOldHitsAreOverwrittenOnceTheRateIsFull() {
+        Rate rate = new Rate(1L, 3, 1000L);
+
+        for (int i = 0; i < 10; i++) {
+            rate.hit(10000L + i);
+        }
+
+        assertEquals(3, rate.getHits(10010L));
+        assertEquals(3, rate.hit(10011L));
+    }
+
+    @Test
+    public void testPunishmentsRespectTheCooldown() {
+        Rate rate = new Rate(1L, 3, 1000L);
+
+        assertTrue(rate.tryPunish(10000L, 2500L));
+        assertFalse(rate.tryPunish(11000L, 2500L));
+        assertTrue(rate.tryPunish(12500L, 2500L));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.commands;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandTrieTests extends BaseTest {
+
+    private final CommandTrie trie = new CommandTrie(Arrays.asList(
+        "!help", "!h", ";play", ".rank", "myalias"
+    ));
+
+    @Test
+    public void testCommandsMatchWithAndWithoutArguments() {
+        assertTrue(trie.matches("!help"));
+        assertTrue(trie.matches("!help music"));
+        assertTrue(trie.matches("!h"));
+        assertTrue(trie.matches(";play some song"));
+        assertTrue(trie.matches("myalias"));
+    }
+
+    @Test
+    public void testCommandsMatchIgnoringLetterCasing() {
+        assertTrue(trie.matches("!HELP"));
+        assertTrue(trie.matches(".RaNk @someone"));
+    }
+
+    @Test
+    public void testPartialCommandsDoesNotMatch() {
+        assertFalse(trie.matches(""));
+        assertFalse(trie.matches("!"));
+        assertFalse(trie.matches("!he"));
+        assertFalse(trie.matches("!helpme"));
+        assertFalse(trie.matches("help"));
+        assertFalse(trie.matches(" !help"));
+        assertFalse(trie.matches("Hello there, how are you?"));
+    }
+}
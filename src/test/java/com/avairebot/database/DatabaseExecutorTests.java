@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseExecutorTests extends BaseTest {
+
+    @Test
+    public void testSubmittedTasksCompleteWithTheirResult() throws Exception {
+        DatabaseExecutor executor = new DatabaseExecutor(2, 10);
+
+        assertEquals(42, (int) executor.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExceptionsThrownByTasksCompleteTheFutureExceptionally() throws Exception {
+        DatabaseExecutor executor = new DatabaseExecutor(1, 10);
+
+        CompletableFuture<Object> future = executor.submit(() -> {
+            throw new SQLException("Query failed");
+        });
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof SQLException);
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTasksAreRejectedWhenTheQueueIsFull() throws Exception {
+        DatabaseExecutor executor = new DatabaseExecutor(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> blocking = executor.submit(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> queued = executor.submit(() -> 1);
+        CompletableFuture<Integer> rejected = executor.submit(() -> 2);
+
+        assertEquals(1, executor.getQueueSize());
+        assertTrue(rejected.isCompletedExceptionally());
+
+        release.countDown();
+
+        assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        assertEquals(1, (int) queued.get(5, TimeUnit.SECONDS));
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testShutdownWaitsForQueuedTasks() throws Exception {
+        DatabaseExecutor executor = new DatabaseExecutor(1, 10);
+
+        CompletableFuture<Integer> first = executor.submit(() -> {
+            Thread.sleep(50);
+            return 1;
+        });
+        CompletableFuture<Integer> second = executor.submit(() -> 2);
+
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertTrue(executor.submit(() -> 3).isCompletedExceptionally());
+    }
+}
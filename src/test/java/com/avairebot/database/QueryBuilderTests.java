@@ -23,11 +23,16 @@ package com.avairebot.database;
 
 import com.avairebot.BaseTest;
 import com.avairebot.database.fakes.FakeDatabaseManager;
+import com.avairebot.database.query.PreparedQuery;
 import com.avairebot.database.query.QueryBuilder;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.sql.SQLException;
+import java.util.*;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class QueryBuilderTests extends BaseTest {
 
@@ -96,6 +101,109 @@ public class QueryBuilderTests extends BaseTest {
         );
     }
 
+    @Test
+    public void testPreparedQueriesUsePlaceholdersForValues() {
+        PreparedQuery query = makeQuery().where("something", "something else").toPreparedQuery();
+
+        assertEquals("SELECT * FROM `test` WHERE `something` = ?;", query.getQuery());
+        assertEquals(Collections.singletonList("something else"), query.getParameters());
+    }
+
+    @Test
+    public void testPreparedQueriesBindNestedWhereClausesInOrder() {
+        PreparedQuery query = makeQuery().where("test", "thing")
+            .where(builder -> {
+                builder.where("role", "admin")
+                    .andWhere("permission_level", ">", 9001);
+            }).toPreparedQuery();
+
+        assertEquals(
+            "SELECT * FROM `test` WHERE `test` = ? AND (`role` = ? AND `permission_level` > ?);",
+            query.getQuery()
+        );
+        assertEquals(Arrays.asList("thing", "admin", 9001), query.getParameters());
+    }
+
+    @Test
+    public void testPreparedQueriesWithDifferentValuesHaveTheSameShape() {
+        QueryBuilder builder = makeQuery().where("something", "<", 5);
+
+        assertEquals(builder.toPreparedQuery().getQuery(), makeQuery().where("something", "<", 49).toPreparedQuery().getQuery());
+        assertEquals("SELECT * FROM `test` WHERE `something` < 5;", builder.toSQL());
+    }
+
+    @Test
+    public void testUpsertUpdatesNonKeyColumnsWithTheInsertedValues() throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        row.put("name", "something");
+
+        makeQuery().upsertBatch(Collections.singletonList("id"), Collections.singletonList(row));
+
+        PreparedQuery query = dbm.getExecutedQueries().get(0);
+        assertEquals(
+            "INSERT INTO `test` (`id`,`name`) VALUES (?,?) ON DUPLICATE KEY UPDATE `name` = VALUES(`name`);",
+            query.getQuery()
+        );
+        assertEquals(Arrays.asList(1, "something"), query.getParameters());
+    }
+
+    @Test
+    public void testUpsertUsesTheUpdateItemsForConflictingRows() throws SQLException {
+        makeQuery().upsert(Collections.singletonList("id"), statement -> {
+            statement.set("id", 1);
+        }, statement -> {
+            statement.setRaw("points", "`points` + 1");
+        });
+
+        assertEquals(
+            "INSERT INTO `test` (`id`) VALUES (?) ON DUPLICATE KEY UPDATE `points` = `points` + 1;",
+            dbm.getExecutedQueries().get(0).getQuery()
+        );
+    }
+
+    @Test
+    public void testUpsertRequiresAtLeastOneKey() {
+        assertThrows(IllegalArgumentException.class, () -> makeQuery().upsert(
+            Collections.emptyList(), statement -> statement.set("id", 1)
+        ));
+    }
+
+    @Test
+    public void testInsertBatchCreatesAPreparedQueryForEveryRow() throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(Collections.singletonMap("id", i));
+        }
+
+        assertEquals(3, makeQuery().insertBatch(rows).length);
+        assertEquals(3, dbm.getExecutedQueries().size());
+        assertEquals("INSERT INTO `test` (`id`) VALUES (?);", dbm.getExecutedQueries().get(2).getQuery());
+        assertEquals(Collections.singletonList(2), dbm.getExecutedQueries().get(2).getParameters());
+    }
+
+    @Test
+    public void testShapeContainsTheTableTypeAndWhereColumns() {
+        QueryBuilder builder = makeQuery().where("test", "thing")
+            .where(nested -> {
+                nested.where("role", "admin")
+                    .orWhere("test", "other thing");
+            });
+
+        assertEquals("test:SELECT(test,role)", builder.getShape());
+        assertEquals(builder.getShape(), makeQuery().where("test", "something else")
+            .where(nested -> nested.where("role", "user")).getShape()
+        );
+    }
+
+    @Test
+    public void testShapeOfUpsertQueries() throws SQLException {
+        QueryBuilder builder = makeQuery();
+        builder.upsert(Collections.singletonList("id"), statement -> statement.set("id", 1));
+
+        assertEquals("test:UPSERT()", builder.getShape());
+    }
+
     private QueryBuilder makeQuery() {
         return dbm.newQueryBuilder("test");
     }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QueryProfilerTests extends BaseTest {
+
+    private final QueryProfiler profiler = new QueryProfiler(true, 0L, 1D);
+
+    @Test
+    public void testShapeOfRawQueriesUsesTheTableAndType() {
+        assertEquals("experiences:SELECT(raw)", QueryProfiler.shapeOf("SELECT * FROM `experiences` WHERE `user_id` = 1;"));
+        assertEquals("guilds:UPDATE(raw)", QueryProfiler.shapeOf(" update guilds SET name = 'test';"));
+        assertEquals("votes:INSERT(batch)", QueryProfiler.shapeOf("INSERT INTO `votes` (`user_id`) VALUES (?);", "batch"));
+        assertEquals("unknown:PRAGMA(raw)", QueryProfiler.shapeOf("PRAGMA journal_mode = WAL;"));
+    }
+
+    @Test
+    public void testProfileReturnsTheQueryResult() throws SQLException {
+        assertEquals("result", profiler.profile("test:SELECT()", "SELECT 1;", Collections.singletonList(1), () -> "result", String::length));
+    }
+
+    @Test
+    public void testProfileRethrowsQueryExceptions() {
+        assertThrows(SQLException.class, () -> profiler.profile("test:SELECT()", "SELECT 1;", null, () -> {
+            throw new SQLException("Table doesn't exist");
+        }, result -> 0L));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindBufferTests extends BaseTest {
+
+    @Test
+    public void testUpdatesForTheSameColumnAreCoalesced() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer("guilds", "id", 5, TimeUnit.SECONDS);
+        AtomicInteger builds = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            buffer.queue(1L, "channels_data", false, () -> {
+                builds.incrementAndGet();
+                return value;
+            });
+        }
+        buffer.queue(1L, "name", false, () -> "Guild");
+
+        assertEquals(1, buffer.size());
+
+        Map<Long, WriteBehindBuffer.PendingRow> rows = buffer.drain(Long.MAX_VALUE);
+
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(1L).getColumns().size());
+        assertEquals(99, rows.get(1L).getColumns().get("channels_data").build());
+        assertEquals(1, builds.get());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testOnlyDueRowsAreDrained() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer("guilds", "id", 5, TimeUnit.SECONDS);
+        long now = System.currentTimeMillis();
+
+        buffer.queue(1L, "name", false, () -> "First");
+        buffer.queue(2L, "name", false, () -> "Second");
+
+        assertFalse(buffer.hasDueWrites(now));
+        assertTrue(buffer.drain(now).isEmpty());
+
+        assertTrue(buffer.hasDueWrites(now + 10000));
+        assertEquals(2, buffer.drain(now + 10000).size());
+        assertFalse(buffer.hasDueWrites(now + 10000));
+    }
+
+    @Test
+    public void testRequeuedRowsAreHeldBackWithABackoff() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer("guilds", "id", 5, TimeUnit.SECONDS);
+        long now = System.currentTimeMillis();
+
+        buffer.queue(1L, "name", false, () -> "First");
+
+        buffer.requeue(buffer.drain(Long.MAX_VALUE), now);
+        assertFalse(buffer.hasDueWrites(now + 5000));
+        assertTrue(buffer.hasDueWrites(now + 10000));
+
+        buffer.requeue(buffer.drain(Long.MAX_VALUE), now);
+        assertFalse(buffer.hasDueWrites(now + 10000));
+        assertTrue(buffer.hasDueWrites(now + 15000));
+    }
+
+    @Test
+    public void testEncodedValuesAreStoredAsBase64() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer("guilds", "id", 0, TimeUnit.SECONDS);
+
+        buffer.queue(1L, "name", true, () -> "Guild");
+        buffer.queue(2L, "name", true, () -> null);
+
+        Map<Long, WriteBehindBuffer.PendingRow> rows = buffer.drain(Long.MAX_VALUE);
+
+        assertEquals("base64:R3VpbGQ=", rows.get(1L).getColumns().get("name").build());
+        assertNull(rows.get(2L).getColumns().get("name").build());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.collection;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CollectionTests extends BaseTest {
+
+    private static final String[] labels = new String[]{"id", "name", "enabled", "ID"};
+    private static final int[] types = new int[]{Types.BIGINT, Types.VARCHAR, Types.BIT, Types.INTEGER};
+    private static final Object[][] rows = new Object[][]{
+        {100000000000000001L, "first", 1, 42},
+        {100000000000000002L, "base64:c2Vjb25k", 0, 42},
+        {null, null, null, 42}
+    };
+
+    @Test
+    public void testRowsShareTheColumnSchemaOfTheCollection() throws SQLException {
+        Collection collection = new Collection(makeResultSet());
+
+        assertEquals(3, collection.size());
+        assertSame(collection.get(0).keySet(), collection.get(2).keySet());
+        assertEquals(3, collection.first().keySet().size());
+    }
+
+    @Test
+    public void testNumericColumnsAreReadNatively() throws SQLException {
+        Collection collection = new Collection(makeResultSet());
+
+        assertEquals(100000000000000001L, collection.first().get("id"));
+        assertEquals(100000000000000002L, collection.get(1).getLong("ID"));
+        assertEquals("100000000000000001", collection.first().getString("Id"));
+        assertEquals(7L, collection.last().getLong("id", 7L));
+    }
+
+    @Test
+    public void testBooleanColumnsCanBeReadAsBooleansAndStrings() throws SQLException {
+        Collection collection = new Collection(makeResultSet());
+
+        assertTrue(collection.first().getBoolean("enabled"));
+        assertFalse(collection.get(1).getBoolean("enabled"));
+        assertTrue(collection.last().getBoolean("enabled", true));
+        assertEquals("1", collection.first().getString("enabled"));
+    }
+
+    @Test
+    public void testStringColumnsAreDecodedAndCopiesAreIndependent() throws SQLException {
+        Collection collection = new Collection(makeResultSet());
+
+        assertEquals("first", collection.first().getString("NAME"));
+        assertEquals("second", collection.get(1).getString("name"));
+        assertEquals("fallback", collection.last().getString("name", "fallback"));
+
+        DataRow copy = new DataRow(collection.first());
+        assertEquals("first", copy.getString("name"));
+        assertEquals(collection.first().getRaw(), copy.getRaw());
+    }
+
+    @Test
+    public void testMapRowsAreCaseInsensitive() {
+        Map<String, Object> items = new HashMap<>();
+        items.put("Experience", 250L);
+        items.put("level", "5");
+
+        DataRow row = new DataRow(items);
+
+        assertTrue(row.has("experience"));
+        assertEquals(250, row.getInt("EXPERIENCE"));
+        assertEquals(5L, row.getLong("LEVEL"));
+        assertFalse(row.has("missing"));
+        assertNull(row.get("missing"));
+    }
+
+    private ResultSet makeResultSet() {
+        AtomicInteger position = new AtomicInteger(-1);
+
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return labels.length;
+                    case "getColumnLabel":
+                        return labels[(int) args[0] - 1];
+                    case "getColumnType":
+                        return types[(int) args[0] - 1];
+                    case "getColumnClassName":
+                        return Object.class.getName();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        AtomicInteger lastColumn = new AtomicInteger();
+
+        return (ResultSet) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[]{ResultSet.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getMetaData":
+                        return meta;
+                    case "next":
+                        return position.incrementAndGet() < rows.length;
+                    case "getObject":
+                        lastColumn.set((int) args[0]);
+                        return rows[position.get()][(int) args[0] - 1];
+                    case "getString":
+                        lastColumn.set((int) args[0]);
+                        Object value = rows[position.get()][(int) args[0] - 1];
+                        return value == null ? null : value.toString();
+                    case "getInt":
+                        lastColumn.set((int) args[0]);
+                        Object number = rows[position.get()][(int) args[0] - 1];
+                        return number == null ? 0 : (int) number;
+                    case "wasNull":
+                        return rows[position.get()][lastColumn.get() - 1] == null;
+                    case "isClosed":
+                        return false;
+                    case "close":
+                        return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
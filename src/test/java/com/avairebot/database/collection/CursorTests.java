@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.collection;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorTests extends BaseTest {
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    @Test
+    public void testCursorReusesTheSameRowForEveryRow() throws SQLException {
+        List<DataRow> rows = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        makeCursor().forEachRow(row -> {
+            rows.add(row);
+            names.add(row.getString("name"));
+        });
+
+        assertEquals(3, rows.size());
+        assertSame(rows.get(0), rows.get(2));
+        assertEquals("first", names.get(0));
+        assertEquals("second", names.get(1));
+        assertEquals("third", names.get(2));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCursorRowsAreCaseInsensitiveAndCanBeCopied() throws SQLException {
+        List<DataRow> copies = new ArrayList<>();
+
+        makeCursor().forEachRow(row -> {
+            assertTrue(row.has("ID"));
+            assertFalse(row.has("missing"));
+            copies.add(new DataRow(row));
+        });
+
+        assertEquals(1, copies.get(0).getInt("id"));
+        assertEquals(3, copies.get(2).getInt("Id"));
+        assertEquals("second", copies.get(1).getString("name"));
+    }
+
+    @Test
+    public void testClosingTheStreamClosesTheCursor() throws SQLException {
+        Cursor cursor = makeCursor();
+
+        try (Stream<DataRow> stream = cursor.stream()) {
+            assertEquals("first", stream.findFirst().map(row -> row.getString("name")).orElse(null));
+        }
+
+        assertTrue(cursor.isClosed());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCursorCanOnlyBeIteratedOnce() throws SQLException {
+        Cursor cursor = makeCursor();
+
+        assertEquals(
+            "first,second,third",
+            cursor.stream().map(row -> row.getString("name")).collect(Collectors.joining(","))
+        );
+        assertThrows(IllegalStateException.class, cursor::iterator);
+    }
+
+    private Cursor makeCursor() throws SQLException {
+        String[] labels = new String[]{"id", "name"};
+        String[][] rows = new String[][]{{"1", "first"}, {"2", "second"}, {"3", "third"}};
+        AtomicInteger position = new AtomicInteger(-1);
+
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return labels.length;
+                    case "getColumnLabel":
+                        return labels[(int) args[0] - 1];
+                    case "getColumnType":
+                        return Types.VARCHAR;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        return new Cursor((ResultSet) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[]{ResultSet.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getMetaData":
+                        return meta;
+                    case "next":
+                        return position.incrementAndGet() < rows.length;
+                    case "getString":
+                        return rows[position.get()][(int) args[0] - 1];
+                    case "close":
+                        closed.set(true);
+                        return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.connections;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests extends BaseTest {
+
+    private final List<FakeConnection> connections = new ArrayList<>();
+
+    @Test
+    public void testReturnedConnectionsAreReused() throws SQLException {
+        ConnectionPool pool = createPool(2);
+
+        pool.getConnection().close();
+        pool.getConnection().close();
+
+        assertEquals(1, connections.size());
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    public void testBorrowingTimesOutWhenThePoolIsExhausted() throws SQLException {
+        ConnectionPool pool = createPool(1);
+
+        Connection connection = pool.getConnection();
+        assertThrows(SQLTimeoutException.class, pool::getConnection);
+
+        connection.close();
+        pool.getConnection().close();
+
+        assertEquals(1, connections.size());
+    }
+
+    @Test
+    public void testClosedHandlesCanNotBeUsed() throws SQLException {
+        ConnectionPool pool = createPool(2);
+
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::createStatement);
+        assertEquals(1, pool.getIdleConnections());
+    }
+
+    @Test
+    public void testConnectionsAreResetWhenReturned() throws SQLException {
+        ConnectionPool pool = createPool(1);
+
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        Statement statement = connection.createStatement();
+        connection.close();
+
+        assertTrue(statement.isClosed());
+        assertTrue(connections.get(0).rolledBack.get());
+        assertTrue(pool.getConnection().getAutoCommit());
+    }
+
+    @Test
+    public void testInvalidConnectionsAreReplaced() throws SQLException, InterruptedException {
+        ConnectionPool pool = createPool(1);
+
+        pool.getConnection().close();
+        connections.get(0).valid.set(false);
+
+        // Connections used within the last second are handed out without being validated.
+        Thread.sleep(1100);
+        pool.getConnection().close();
+
+        assertEquals(2, connections.size());
+        assertTrue(connections.get(0).closed.get());
+        assertEquals(1, pool.getTotalConnections());
+    }
+
+    @Test
+    public void testClosingThePoolClosesConnections() throws SQLException {
+        ConnectionPool pool = createPool(2);
+
+        Connection borrowed = pool.getConnection();
+        pool.getConnection().close();
+        pool.close();
+
+        assertTrue(connections.get(1).closed.get());
+        assertFalse(connections.get(0).closed.get());
+
+        borrowed.close();
+        assertTrue(connections.get(0).closed.get());
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+
+    @Test
+    public void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        ConnectionPool pool = createPool(1);
+
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT ?;").close();
+            connection.prepareStatement("SELECT ?;").close();
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT ?;").close();
+        }
+
+        FakeConnection connection = connections.get(0);
+        assertEquals(1, connection.statements.size());
+        assertFalse(connection.statements.get(0).isClosed());
+    }
+
+    @Test
+    public void testCachedStatementsInUseAreNotShared() throws SQLException {
+        ConnectionPool pool = createPool(1);
+
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT ?;");
+            PreparedStatement second = connection.prepareStatement("SELECT ?;");
+
+            assertNotSame(first, second);
+            second.close();
+            first.close();
+        }
+
+        FakeConnection connection = connections.get(0);
+        assertEquals(2, connection.statements.size());
+        assertFalse(connection.statements.get(0).isClosed());
+        assertTrue(connection.statements.get(1).isClosed());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementsAreEvicted() throws SQLException {
+        ConnectionPool pool = createPool(1);
+
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT 1;").close();
+            connection.prepareStatement("SELECT 2;").close();
+            connection.prepareStatement("SELECT 1;").close();
+            connection.prepareStatement("SELECT 3;").close();
+        }
+
+        FakeConnection connection = connections.get(0);
+        assertEquals(3, connection.statements.size());
+        assertFalse(connection.statements.get(0).isClosed());
+        assertTrue(connection.statements.get(1).isClosed());
+        assertFalse(connection.statements.get(2).isClosed());
+    }
+
+    private ConnectionPool createPool(int maxSize) {
+        return new ConnectionPool("test", () -> {
+            FakeConnection connection = new FakeConnection();
+            connections.add(connection);
+            return connection.proxy;
+        }, 0, maxSize, 50L, 1, 0L, 0L, 2);
+    }
+
+    private static class FakeConnection {
+
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final AtomicBoolean valid = new AtomicBoolean(true);
+        private final AtomicBoolean autoCommit = new AtomicBoolean(true);
+        private final AtomicBoolean rolledBack = new AtomicBoolean(false);
+        private final List<Statement> statements = new ArrayList<>();
+
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        closed.set(true);
+                        return null;
+                    case "isClosed":
+                        return closed.get();
+                    case "isValid":
+                        return valid.get();
+                    case "getAutoCommit":
+                        return autoCommit.get();
+                    case "setAutoCommit":
+                        autoCommit.set((boolean) args[0]);
+                        return null;
+                    case "rollback":
+                        rolledBack.set(true);
+                        return null;
+                    case "createStatement":
+                        return createStatement(Statement.class);
+                    case "prepareStatement":
+                        Statement statement = createStatement(PreparedStatement.class);
+                        statements.add(statement);
+                        return statement;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        private static Statement createStatement(Class<? extends Statement> type) {
+            AtomicBoolean closed = new AtomicBoolean(false);
+
+            return (Statement) Proxy.newProxyInstance(
+                FakeConnection.class.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            closed.set(true);
+                            return null;
+                        case "isClosed":
+                            return closed.get();
+                        case "getResultSet":
+                        case "clearParameters":
+                            return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        }
+    }
+}
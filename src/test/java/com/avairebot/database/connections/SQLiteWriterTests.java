@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.connections;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SQLiteWriterTests extends BaseTest {
+
+    private final AtomicInteger commits = new AtomicInteger(0);
+    private final AtomicInteger savepointRollbacks = new AtomicInteger(0);
+    private final AtomicBoolean autoCommit = new AtomicBoolean(true);
+
+    @Test
+    public void testQueuedWritesAreCommittedTogether() throws Exception {
+        SQLiteWriter writer = createWriter();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> execute(writer, connection -> {
+            blocked.countDown();
+            release.await();
+            return 1;
+        }));
+
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> execute(writer, connection -> 2));
+        CompletableFuture<Integer> third = CompletableFuture.supplyAsync(() -> execute(writer, connection -> 3));
+
+        while (writer.getQueueSize() < 2) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertEquals(1, (int) first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, (int) second.get(5, TimeUnit.SECONDS));
+        assertEquals(3, (int) third.get(5, TimeUnit.SECONDS));
+        assertEquals(2, commits.get());
+        assertTrue(autoCommit.get());
+    }
+
+    @Test
+    public void testFailedWritesOnlyRollbackTheirOwnChanges() throws SQLException {
+        SQLiteWriter writer = createWriter();
+
+        assertThrows(SQLException.class, () -> writer.execute(connection -> {
+            throw new SQLException("constraint failed");
+        }));
+        assertEquals(5, (int) writer.execute(connection -> 5));
+
+        assertEquals(1, savepointRollbacks.get());
+        assertEquals(2, commits.get());
+    }
+
+    @Test
+    public void testWritesRunOnTheCallingThreadAfterShutdown() throws SQLException {
+        SQLiteWriter writer = createWriter();
+
+        assertTrue(writer.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(Thread.currentThread(), writer.execute(connection -> Thread.currentThread()));
+        assertEquals(0, commits.get());
+    }
+
+    private int execute(SQLiteWriter writer, BlockingOperation operation) {
+        try {
+            return writer.execute(connection -> {
+                try {
+                    return operation.run(connection);
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private SQLiteWriter createWriter() {
+        Connection connection = (Connection) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isClosed":
+                        return false;
+                    case "isValid":
+                        return true;
+                    case "getAutoCommit":
+                        return autoCommit.get();
+                    case "setAutoCommit":
+                        autoCommit.set((boolean) args[0]);
+                        return null;
+                    case "setSavepoint":
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Savepoint.class}, (p, m, a) -> null);
+                    case "rollback":
+                        if (args != null) {
+                            savepointRollbacks.incrementAndGet();
+                        }
+                        return null;
+                    case "commit":
+                        commits.incrementAndGet();
+                        return null;
+                    case "releaseSavepoint":
+                    case "close":
+                        return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        return new SQLiteWriter(new ConnectionPool("test", () -> connection, 0, 1, 1000L, 1, 0L, 0L, 0), 10);
+    }
+
+    private interface BlockingOperation {
+        int run(Connection connection) throws InterruptedException;
+    }
+}
@@ -24,11 +24,18 @@ package com.avairebot.database.fakes;
 import com.avairebot.contracts.database.Database;
 import com.avairebot.database.DatabaseManager;
 import com.avairebot.database.exceptions.DatabaseException;
+import com.avairebot.database.query.PreparedQuery;
+import com.avairebot.database.query.QueryBuilder;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class FakeDatabaseManager extends DatabaseManager {
 
+    private final List<PreparedQuery> executedQueries = new ArrayList<>();
+
     public FakeDatabaseManager() {
         super(null);
     }
@@ -37,4 +44,25 @@ public class FakeDatabaseManager extends DatabaseManager {
     public Database getConnection() throws SQLException, DatabaseException {
         return new FakeMySQLConnection();
     }
+
+    @Override
+    public int queryUpdate(QueryBuilder query) throws SQLException {
+        executedQueries.add(query.toPreparedQuery());
+
+        return 1;
+    }
+
+    @Override
+    public int[] queryBatch(List<PreparedQuery> queries) throws SQLException {
+        executedQueries.addAll(queries);
+
+        int[] result = new int[queries.size()];
+        Arrays.fill(result, 1);
+
+        return result;
+    }
+
+    public List<PreparedQuery> getExecutedQueries() {
+        return executedQueries;
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.database.transformers;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonColumnReaderTests extends BaseTest {
+
+    @Test
+    public void testNullJsonIsReadAsEmptyCollections() {
+        assertTrue(JsonColumnReader.readStringMap(null, true, false).isEmpty());
+        assertTrue(JsonColumnReader.readLevelRoles(null).isEmpty());
+        assertTrue(JsonColumnReader.readIdSet("null").isEmpty());
+        assertTrue(JsonColumnReader.readNestedStringMap(null).isEmpty());
+    }
+
+    @Test
+    public void testStringMapsCanLowerCaseKeysAndValues() {
+        Map<String, String> aliases = JsonColumnReader.readStringMap("{\"Test\":\"Ping\",\"num\":5}", true, false);
+
+        assertEquals("Ping", aliases.get("test"));
+        assertEquals("5", aliases.get("num"));
+
+        Map<String, String> roles = JsonColumnReader.readStringMap("{\"Role\":\"Admin\"}", false, true);
+
+        assertEquals("admin", roles.get("Role"));
+
+        aliases.put("new", "value");
+        assertEquals(3, aliases.size());
+    }
+
+    @Test
+    public void testLevelRolesAndIdSetsAreParsed() {
+        Map<Integer, String> levelRoles = JsonColumnReader.readLevelRoles("{\"5\":\"ABC\",\"invalid\":\"def\"}");
+
+        assertEquals("abc", levelRoles.get(5));
+        assertEquals("def", levelRoles.get(-1));
+
+        Set<Long> ids = JsonColumnReader.readIdSet("[\"123\",456,\"invalid\"]");
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(123L));
+        assertTrue(ids.contains(456L));
+    }
+
+    @Test
+    public void testNestedStringMapsAreParsed() {
+        Map<String, Map<String, String>> modules = JsonColumnReader.readNestedStringMap(
+            "{\"all\":{\"fun\":\"false\",\"music\":true},\"123\":{}}"
+        );
+
+        assertEquals("false", modules.get("all").get("fun"));
+        assertEquals("true", modules.get("all").get("music"));
+        assertTrue(modules.get("123").isEmpty());
+    }
+
+    @Test
+    public void testMalformedJsonThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> JsonColumnReader.readIdSet("{\"a\":1}"));
+    }
+}
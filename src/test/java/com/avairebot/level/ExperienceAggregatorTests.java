@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExperienceAggregatorTests extends BaseTest {
+
+    @Test
+    public void testExperienceIsSummedPerPlayer() {
+        ExperienceAggregator aggregator = new ExperienceAggregator(4);
+
+        aggregator.add(1L, 10L, 12);
+        aggregator.add(1L, 10L, 14);
+        aggregator.add(2L, 10L, 11);
+
+        assertEquals(2, aggregator.size());
+        assertEquals(26L, aggregator.getPendingExperience(1L, 10L));
+        assertEquals(11L, aggregator.getPendingExperience(2L, 10L));
+        assertEquals(0L, aggregator.getPendingExperience(1L, 20L));
+    }
+
+    @Test
+    public void testDrainReturnsOneEntityPerPlayerAndEmptiesTheAggregator() {
+        ExperienceAggregator aggregator = new ExperienceAggregator();
+
+        for (int i = 0; i < 1000; i++) {
+            aggregator.add(i % 10, i, 5);
+            aggregator.add(i % 10, i, 10);
+        }
+
+        List<ExperienceEntity> entities = aggregator.drain();
+
+        assertEquals(1000, entities.size());
+        for (ExperienceEntity entity : entities) {
+            assertEquals(15, entity.getExperience());
+            assertEquals(entity.getUserId() % 10, entity.getGuildId());
+        }
+
+        assertTrue(aggregator.isEmpty());
+        assertTrue(aggregator.drain().isEmpty());
+        assertEquals(0L, aggregator.getPendingExperience(5L, 5L));
+    }
+
+    @Test
+    public void testExperienceAddedConcurrentlyIsNotLost() throws InterruptedException {
+        ExperienceAggregator aggregator = new ExperienceAggregator();
+        long[] drained = new long[1];
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    aggregator.add(1L, i % 50, 1);
+                }
+            });
+            threads[t].start();
+        }
+
+        Thread drainer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                for (ExperienceEntity entity : aggregator.drain()) {
+                    drained[0] += entity.getExperience();
+                }
+            }
+        });
+        drainer.start();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        drainer.join();
+
+        for (ExperienceEntity entity : aggregator.drain()) {
+            drained[0] += entity.getExperience();
+        }
+
+        assertEquals(40000L, drained[0]);
+    }
+}
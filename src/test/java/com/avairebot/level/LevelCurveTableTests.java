@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import com.avairebot.contracts.level.LevelCurve;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LevelCurveTableTests extends BaseTest {
+
+    private static final double[] modifiers = new double[]{0D, 0.1D, 0.3715D, 0.5D, 1D, 2.5D};
+
+    private final LevelCurve curve = new DefaultLevelCurve();
+
+    @Test
+    public void testLevelsMatchTheCurveForEveryAmountOfExperience() {
+        for (double modifier : modifiers) {
+            LevelCurveTable table = new LevelCurveTable(curve, modifier, 200);
+
+            // Covers the whole table, and some of the experience past the last precomputed level.
+            long max = curve.getExperienceFromLevel(250, modifier);
+            for (long xp = -1000; xp <= max; xp++) {
+                assertEquals(curve.getLevelFromExperience(xp, modifier), table.getLevelFromExperience(xp),
+                    "Level mismatch for " + xp + " XP with a modifier of " + modifier);
+            }
+        }
+    }
+
+    @Test
+    public void testExperienceMatchesTheCurveForEveryLevel() {
+        for (double modifier : modifiers) {
+            LevelCurveTable table = new LevelCurveTable(curve, modifier, 200);
+
+            for (long level = 0; level <= 250; level++) {
+                assertEquals(curve.getExperienceFromLevel(level, modifier), table.getExperienceFromLevel(level));
+            }
+        }
+    }
+
+    @Test
+    public void testCustomCurvesCanSkipLevels() {
+        LevelCurve steppedCurve = new LevelCurve() {
+            @Override
+            public long getExperienceFromLevel(long level, double modifier) {
+                return level * 100;
+            }
+
+            @Override
+            public long getLevelFromExperience(long xp, double modifier) {
+                // Jumps two levels at a time, and starts at level one.
+                return 1 + ((xp / 250) * 2);
+            }
+        };
+
+        LevelCurveTable table = new LevelCurveTable(steppedCurve, 0D, 10);
+
+        assertEquals(1L, table.getLevelFromExperience(0));
+        assertEquals(1L, table.getLevelFromExperience(249));
+        assertEquals(3L, table.getLevelFromExperience(250));
+        assertEquals(5L, table.getLevelFromExperience(500));
+        assertEquals(steppedCurve.getLevelFromExperience(100000, 0D), table.getLevelFromExperience(100000));
+    }
+}
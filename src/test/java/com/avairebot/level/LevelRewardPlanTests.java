@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelRewardPlanTests extends BaseTest {
+
+    @Test
+    public void testRewardsAreOrderedFromTheHighestLevel() {
+        LevelRewardPlan plan = new LevelRewardPlan(makeLevelRoles());
+
+        assertEquals(Arrays.asList("ten", "five"), new ArrayList<>(plan.getRewardsUpTo(12).values()));
+        assertEquals(Arrays.asList("twenty", "ten", "five"), new ArrayList<>(plan.getRewardsUpTo(Long.MAX_VALUE).values()));
+        assertTrue(plan.getRewardsUpTo(4).isEmpty());
+    }
+
+    @Test
+    public void testRoleIdsCanBeFoundByTheirExactLevel() {
+        LevelRewardPlan plan = new LevelRewardPlan(makeLevelRoles());
+
+        assertEquals("ten", plan.getRoleIdForLevel(10));
+        assertNull(plan.getRoleIdForLevel(11));
+        assertNull(plan.getRoleIdForLevel(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testThePlanIsNotChangedByTheLevelRolesItWasBuiltFrom() {
+        Map<Integer, String> levelRoles = makeLevelRoles();
+        LevelRewardPlan plan = new LevelRewardPlan(levelRoles);
+
+        levelRoles.clear();
+
+        assertFalse(plan.isEmpty());
+        assertTrue(new LevelRewardPlan(levelRoles).isEmpty());
+    }
+
+    private Map<Integer, String> makeLevelRoles() {
+        Map<Integer, String> levelRoles = new HashMap<>();
+        levelRoles.put(20, "twenty");
+        levelRoles.put(5, "five");
+        levelRoles.put(10, "ten");
+        return levelRoles;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.level;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankIndexTests extends BaseTest {
+
+    @Test
+    public void testPlayersAreRankedByExperience() {
+        RankIndex index = new RankIndex();
+
+        index.update(makePlayer(1L, 100));
+        index.update(makePlayer(2L, 300));
+        index.update(makePlayer(3L, 200));
+
+        assertEquals(3, index.size());
+        assertEquals(1, index.getRank(2L));
+        assertEquals(2, index.getRank(3L));
+        assertEquals(3, index.getRank(1L));
+        assertEquals(-1, index.getRank(4L));
+    }
+
+    @Test
+    public void testUpdatingAPlayerMovesTheirRank() {
+        RankIndex index = new RankIndex();
+
+        index.update(makePlayer(1L, 100));
+        index.update(makePlayer(2L, 300));
+        index.update(makePlayer(1L, 500));
+
+        assertEquals(2, index.size());
+        assertEquals(1, index.getRank(1L));
+        assertEquals(2, index.getRank(2L));
+        assertEquals(500L, index.getPlayer(1L).getExperience());
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertEquals(1, index.getRank(2L));
+    }
+
+    @Test
+    public void testAddIfAbsentKeepsExistingPlayers() {
+        RankIndex index = new RankIndex();
+
+        index.update(makePlayer(1L, 500));
+
+        assertFalse(index.addIfAbsent(makePlayer(1L, 100)));
+        assertTrue(index.addIfAbsent(makePlayer(2L, 300)));
+
+        assertEquals(500L, index.getPlayer(1L).getExperience());
+        assertEquals(2, index.getRank(2L));
+    }
+
+    @Test
+    public void testTiesAreOrderedByUserId() {
+        RankIndex index = new RankIndex();
+
+        index.update(makePlayer(9L, 100));
+        index.update(makePlayer(3L, 100));
+        index.update(makePlayer(5L, 100));
+
+        assertEquals(1, index.getRank(3L));
+        assertEquals(2, index.getRank(5L));
+        assertEquals(3, index.getRank(9L));
+    }
+
+    @Test
+    public void testTopPagesMatchASortedList() {
+        RankIndex index = new RankIndex();
+        List<RankIndex.RankedPlayer> players = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (long userId = 0; userId < 2000; userId++) {
+            RankIndex.RankedPlayer player = makePlayer(userId, random.nextInt(5000));
+            index.update(player);
+            players.add(player);
+        }
+
+        // Moves some of the players around to make sure the index is kept in order.
+        for (int i = 0; i < 500; i++) {
+            int position = random.nextInt(players.size());
+            RankIndex.RankedPlayer player = makePlayer(players.get(position).getUserId(), random.nextInt(5000));
+            index.update(player);
+            players.set(position, player);
+        }
+
+        players.sort(Comparator.comparingLong(RankIndex.RankedPlayer::getExperience).reversed()
+            .thenComparingLong(RankIndex.RankedPlayer::getUserId));
+
+        List<RankIndex.RankedPlayer> page = index.getTop(100, 50);
+        assertEquals(50, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(players.get(100 + i).getUserId(), page.get(i).getUserId());
+        }
+
+        for (int i = 0; i < players.size(); i += 97) {
+            assertEquals(i + 1, index.getRank(players.get(i).getUserId()));
+        }
+
+        assertEquals(10, index.getTop(1990, 50).size());
+        assertTrue(index.getTop(2000, 50).isEmpty());
+    }
+
+    private RankIndex.RankedPlayer makePlayer(long userId, long experience) {
+        return new RankIndex.RankedPlayer(userId, experience, "user" + userId, "user" + userId, "0001", null);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018.
+ *
+ * This file is part of AvaIre.
+ *
+ * AvaIre is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AvaIre is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with AvaIre.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ *
+ */
+
+package com.avairebot.throttle;
+
+import com.avairebot.BaseTest;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThrottleEngineTests extends BaseTest {
+
+    private final AtomicLong clock = new AtomicLong(1000000L);
+    private final ThrottleEngine engine = new ThrottleEngine(4, 8, 1000L, clock::get);
+
+    @Test
+    public void testPermitsAreDeniedOnceTheLimitIsReached() {
+        int command = engine.getCommandId("help");
+
+        assertEquals(0L, engine.tryAcquire(0, command, 100L, 0L, 2, 3000L));
+        assertEquals(0L, engine.tryAcquire(0, command, 100L, 0L, 2, 3000L));
+        assertEquals(1500L, engine.tryAcquire(0, command, 100L, 0L, 2, 3000L));
+
+        clock.addAndGet(1500L);
+        assertEquals(0L, engine.tryAcquire(0, command, 100L, 0L, 2, 3000L));
+        assertTrue(engine.tryAcquire(0, command, 100L, 0L, 2, 3000L) > 0L);
+
+        assertEquals(3L, engine.getHits(command));
+        assertEquals(2L, engine.getDenies(command));
+    }
+
+    @Test
+    public void testThrottlesWithDifferentKeysAreSeparate() {
+        assertEquals(0L, engine.tryAcquire(0, 1, 100L, 0L, 1, 3000L));
+        assertEquals(0L, engine.tryAcquire(0, 1, 100L, 5L, 1, 3000L));
+        assertEquals(0L, engine.tryAcquire(0, 2, 100L, 0L, 1, 3000L));
+        assertEquals(0L, engine.tryAcquire(1, 1, 100L, 0L, 1, 3000L));
+        assertEquals(0L, engine.tryAcquire(0, 1, 200L, 0L, 1, 3000L));
+
+        assertTrue(engine.tryAcquire(0, 1, 100L, 0L, 1, 3000L) > 0L);
+        assertEquals(5, engine.size());
+    }
+
+    @Test
+    public void testReleasedPermitsCanBeAcquiredAgain() {
+        assertEquals(0L, engine.tryAcquire(0, 1, 100L, 0L, 1, 3000L));
+        engine.release(0, 1, 100L, 0L, 1, 3000L);
+
+        assertEquals(0L, engine.tryAcquire(0, 1, 100L, 0L, 1, 3000L));
+    }
+
+    @Test
+    public void testIdleThrottlesAreExpired() {
+        for (long id = 0; id < 100; id++) {
+            engine.tryAcquire(0, 1, id, 0L, 2, 3000L);
+        }
+        assertEquals(100, engine.size());
+
+        clock.addAndGet(5000L);
+        engine.expire();
+        assertEquals(0, engine.size());
+
+        assertEquals(0L, engine.tryAcquire(0, 1, 42L, 0L, 1, 3000L));
+        assertTrue(engine.tryAcquire(0, 1, 42L, 0L, 1, 3000L) > 0L);
+    }
+
+    @Test
+    public void testCommandIdsAreSharedByName() {
+        int help = engine.getCommandId("help");
+
+        assertEquals(help, engine.getCommandId("help"));
+        assertTrue(help != engine.getCommandId("rank"));
+    }
+}